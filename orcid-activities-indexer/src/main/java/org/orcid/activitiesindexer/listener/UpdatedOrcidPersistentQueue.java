@@ -0,0 +1,58 @@
+/**
+ * =============================================================================
+ *
+ * ORCID (R) Open Source
+ * http://orcid.org
+ *
+ * Copyright (c) 2012-2014 ORCID, Inc.
+ * Licensed under an MIT-Style License (MIT)
+ * http://orcid.org/open-source-license
+ *
+ * This copyright and license information (including a link to the full license)
+ * shall be included in its entirety in all copies or substantial portion of
+ * the software.
+ *
+ * =============================================================================
+ */
+package org.orcid.activitiesindexer.listener;
+
+import java.util.concurrent.Executors;
+
+import org.orcid.activitiesindexer.persistence.managers.PendingRecordUpdateManager;
+import org.orcid.activitiesindexer.util.GenericPersistentQueue;
+import org.orcid.utils.listener.LastModifiedMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.RemovalListener;
+
+@Component
+public class UpdatedOrcidPersistentQueue<T extends RemovalListener<String, LastModifiedMessage>> extends GenericPersistentQueue<RemovalListener<String, LastModifiedMessage>> {
+
+    /**
+     * Uses the UpdatedOrcidWorker to process items in the queue, only polls
+     * for due records when the persistent queue is enabled
+     * 
+     * @param enabled
+     *            if true, UpdatedOrcidListener queues messages here instead of
+     *            in UpdatedOrcidExpringQueue
+     * @param secondsToWait
+     *            how long the account should be incactive before processing
+     * @param removalListener
+     *            the logic to be applied when items are due.
+     */
+    @Autowired
+    public UpdatedOrcidPersistentQueue(@Value("${org.orcid.listener.persistentQueue.enabled:false}") Boolean enabled,
+            @Value("${org.orcid.listener.lastUpdateSecondsToWait}") int secondsToWait,
+            @Value("${org.orcid.listener.persistentQueue.pollSeconds:10}") int pollSeconds,
+            @Value("${org.orcid.listener.persistentQueue.leaseSeconds:1800}") int leaseSeconds,
+            @Value("${org.orcid.message-listener.updated_orcid.threads:5}") Integer maxThreads, T removalListener,
+            PendingRecordUpdateManager pendingRecordUpdateManager) {
+        super(secondsToWait, leaseSeconds, maxThreads * 2, Executors.newFixedThreadPool(maxThreads), removalListener, pendingRecordUpdateManager);
+        if (enabled) {
+            start(pollSeconds);
+        }
+    }
+
+}
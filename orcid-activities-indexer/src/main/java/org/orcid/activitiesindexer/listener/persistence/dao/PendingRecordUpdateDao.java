@@ -0,0 +1,82 @@
+/**
+ * =============================================================================
+ *
+ * ORCID (R) Open Source
+ * http://orcid.org
+ *
+ * Copyright (c) 2012-2014 ORCID, Inc.
+ * Licensed under an MIT-Style License (MIT)
+ * http://orcid.org/open-source-license
+ *
+ * This copyright and license information (including a link to the full license)
+ * shall be included in its entirety in all copies or substantial portion of
+ * the software.
+ *
+ * =============================================================================
+ */
+package org.orcid.activitiesindexer.listener.persistence.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import org.orcid.activitiesindexer.persistence.entities.PendingRecordUpdateEntity;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PendingRecordUpdateDao {
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    public PendingRecordUpdateEntity find(String orcid) {
+        return entityManager.find(PendingRecordUpdateEntity.class, orcid);
+    }
+
+    /**
+     * Inserts the update or, if one is already queued for the record, keeps
+     * the newest last modified date and the latest due date. A single
+     * statement, so concurrent consumers never collide on the primary key.
+     * PostgreSQL only.
+     */
+    public void upsert(String orcid, Date lastUpdated, Date dueDate) {
+        Query query = entityManager.createNativeQuery("INSERT INTO pending_record_update (orcid, last_updated, due_date) VALUES (:orcid, :lastUpdated, :dueDate)"
+                + " ON CONFLICT (orcid) DO UPDATE SET last_updated = greatest(pending_record_update.last_updated, excluded.last_updated),"
+                + " due_date = greatest(pending_record_update.due_date, excluded.due_date)");
+        query.setParameter("orcid", orcid);
+        query.setParameter("lastUpdated", lastUpdated);
+        query.setParameter("dueDate", dueDate);
+        query.executeUpdate();
+    }
+
+    /**
+     * Leases up to batchSize due updates until leaseUntil and returns their
+     * orcid and last_updated. Rows another node is claiming at the same time
+     * are skipped rather than waited for, so no row is claimed twice.
+     * PostgreSQL only.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> claimDue(Date now, Date leaseUntil, int batchSize) {
+        Query query = entityManager.createNativeQuery("UPDATE pending_record_update SET due_date = :leaseUntil WHERE orcid IN"
+                + " (SELECT orcid FROM pending_record_update WHERE due_date <= :now ORDER BY due_date LIMIT :batchSize FOR UPDATE SKIP LOCKED)"
+                + " RETURNING orcid, last_updated");
+        query.setParameter("leaseUntil", leaseUntil);
+        query.setParameter("now", now);
+        query.setParameter("batchSize", batchSize);
+        return query.getResultList();
+    }
+
+    /**
+     * Removes the update, unless a newer one arrived for the same record
+     * meanwhile
+     */
+    public boolean remove(String orcid, Date lastUpdated) {
+        Query query = entityManager.createQuery("DELETE FROM PendingRecordUpdateEntity WHERE id = :orcid AND (lastUpdated IS NULL OR lastUpdated <= :lastUpdated)");
+        query.setParameter("orcid", orcid);
+        query.setParameter("lastUpdated", lastUpdated);
+        return query.executeUpdate() > 0;
+    }
+}
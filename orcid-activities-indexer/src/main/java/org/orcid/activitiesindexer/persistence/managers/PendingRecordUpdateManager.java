@@ -0,0 +1,78 @@
+/**
+ * =============================================================================
+ *
+ * ORCID (R) Open Source
+ * http://orcid.org
+ *
+ * Copyright (c) 2012-2014 ORCID, Inc.
+ * Licensed under an MIT-Style License (MIT)
+ * http://orcid.org/open-source-license
+ *
+ * This copyright and license information (including a link to the full license)
+ * shall be included in its entirety in all copies or substantial portion of
+ * the software.
+ *
+ * =============================================================================
+ */
+package org.orcid.activitiesindexer.persistence.managers;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.orcid.activitiesindexer.listener.persistence.dao.PendingRecordUpdateDao;
+import org.orcid.activitiesindexer.persistence.entities.PendingRecordUpdateEntity;
+import org.orcid.utils.listener.LastModifiedMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class PendingRecordUpdateManager {
+
+    @Autowired
+    private PendingRecordUpdateDao dao;
+
+    /**
+     * Queues the update, or coalesces it with the one already queued for the
+     * same record, keeping the newest last modified date. Either way the
+     * record will be due dueDate, so a record that keeps changing is not
+     * processed until it has been quiet for a while. A record that is being
+     * processed keeps its lease.
+     */
+    @Transactional
+    public void enqueue(LastModifiedMessage message, Date dueDate) {
+        dao.upsert(message.getOrcid(), message.getLastUpdated(), dueDate);
+    }
+
+    /**
+     * Returns up to batchSize updates that are due and leases them until
+     * leaseUntil, so they are not returned again while being processed, by
+     * this node or any other. If the process dies before calling complete,
+     * they are returned again once the lease expires.
+     */
+    @Transactional
+    public List<LastModifiedMessage> claimDue(Date now, Date leaseUntil, int batchSize) {
+        List<LastModifiedMessage> due = new ArrayList<LastModifiedMessage>();
+        for (Object[] row : dao.claimDue(now, leaseUntil, batchSize)) {
+            Date lastUpdated = row[1] == null ? null : new Date(((Date) row[1]).getTime());
+            due.add(new LastModifiedMessage((String) row[0], lastUpdated));
+        }
+        return due;
+    }
+
+    /**
+     * Removes a processed update. If a newer update for the same record
+     * arrived while it was being processed, that one is kept and will be due
+     * nextDueDate instead of waiting for the lease to expire.
+     */
+    @Transactional
+    public void complete(LastModifiedMessage message, Date nextDueDate) {
+        if (!dao.remove(message.getOrcid(), message.getLastUpdated())) {
+            PendingRecordUpdateEntity entity = dao.find(message.getOrcid());
+            if (entity != null) {
+                entity.setDueDate(nextDueDate);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * =============================================================================
+ *
+ * ORCID (R) Open Source
+ * http://orcid.org
+ *
+ * Copyright (c) 2012-2014 ORCID, Inc.
+ * Licensed under an MIT-Style License (MIT)
+ * http://orcid.org/open-source-license
+ *
+ * This copyright and license information (including a link to the full license)
+ * shall be included in its entirety in all copies or substantial portion of
+ * the software.
+ *
+ * =============================================================================
+ */
+package org.orcid.activitiesindexer.util;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.orcid.activitiesindexer.persistence.managers.PendingRecordUpdateManager;
+import org.orcid.utils.listener.LastModifiedMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Durable alternative to GenericExpiringQueue.
+ * 
+ * Updates are kept in the pending_record_update table instead of in memory,
+ * coalesced per ORCID iD, so they survive restarts and redeploys: whatever
+ * was pending when the app stopped is processed once it starts again.
+ * 
+ * A poller looks for records that have been quiet for secondsToWait and
+ * hands them to the removal listener on the given executor, as an EXPIRED
+ * removal, exactly like the guava cache does. While a record is being
+ * processed it is leased for leaseSeconds; if the app dies before it
+ * finishes, it is processed again once the lease expires.
+ * 
+ * This class registers itself to listen for context events to ensure
+ * threads close on exit
+ */
+public class GenericPersistentQueue<T extends RemovalListener<String, LastModifiedMessage>> implements ApplicationListener<ContextClosedEvent> {
+
+    Logger LOG = LoggerFactory.getLogger(GenericPersistentQueue.class);
+    private final int secondsToWait;
+    private final int leaseSeconds;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private ScheduledExecutorService poller;
+    private final T removalListener;
+    private final PendingRecordUpdateManager pendingRecordUpdateManager;
+    private final Set<String> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Nothing is processed until start is called.
+     * 
+     * @param secondsToWait
+     *            how long the account should be inactive before processing
+     * @param leaseSeconds
+     *            how long a record may take to process before it is
+     *            considered lost and processed again
+     * @param maxInFlight
+     *            max number of records handed to the executor at once
+     * @param executor
+     *            A preconfigured executor service
+     * @param removalListener
+     *            the logic to be applied when records are due
+     * @param pendingRecordUpdateManager
+     *            the persistent store
+     */
+    public GenericPersistentQueue(int secondsToWait, int leaseSeconds, int maxInFlight, ExecutorService executor, T removalListener,
+            PendingRecordUpdateManager pendingRecordUpdateManager) {
+        LOG.info("Creating persistent queue with " + secondsToWait + " seconds wait using " + removalListener.getClass().getSimpleName());
+        this.secondsToWait = secondsToWait;
+        this.leaseSeconds = leaseSeconds;
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+        this.removalListener = removalListener;
+        this.pendingRecordUpdateManager = pendingRecordUpdateManager;
+    }
+
+    /**
+     * Starts looking for records that are due, including the ones left
+     * pending by a previous run
+     * 
+     * @param pollSeconds
+     *            how often to look for records that are due
+     */
+    public synchronized void start(int pollSeconds) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor();
+        poller.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    drain();
+                } catch (Exception e) {
+                    LOG.error("Unable to poll pending record updates", e);
+                }
+            }
+        }, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues the message, coalescing it with any pending update for the same
+     * record
+     */
+    public void put(LastModifiedMessage message) {
+        pendingRecordUpdateManager.enqueue(message, secondsFromNow(secondsToWait));
+    }
+
+    /**
+     * Hands every due record to the removal listener, as long as there is
+     * room in the executor
+     */
+    public void drain() {
+        int room = maxInFlight - inFlight.size();
+        while (room > 0) {
+            List<LastModifiedMessage> due = pendingRecordUpdateManager.claimDue(new Date(), secondsFromNow(leaseSeconds), room);
+            for (LastModifiedMessage m : due) {
+                if (!inFlight.add(m.getOrcid())) {
+                    // Still running, its lease will expire
+                    continue;
+                }
+                executor.execute(() -> process(m));
+            }
+            if (due.size() < room) {
+                return;
+            }
+            room = maxInFlight - inFlight.size();
+        }
+    }
+
+    private void process(LastModifiedMessage m) {
+        try {
+            removalListener.onRemoval(RemovalNotification.create(m.getOrcid(), m, RemovalCause.EXPIRED));
+        } catch (Exception e) {
+            LOG.error("Unable to process pending update for " + m.getOrcid(), e);
+        } finally {
+            try {
+                pendingRecordUpdateManager.complete(m, new Date());
+            } finally {
+                inFlight.remove(m.getOrcid());
+            }
+        }
+    }
+
+    private Date secondsFromNow(int seconds) {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    /**
+     * Add the executor threads to the Spring context shutdown so they don't
+     * prevent tomcat stopping. Records still pending stay in the table.
+     * 
+     */
+    @Override
+    public synchronized void onApplicationEvent(ContextClosedEvent arg0) {
+        if (poller != null)
+            poller.shutdown();
+        executor.shutdown();
+    }
+
+}
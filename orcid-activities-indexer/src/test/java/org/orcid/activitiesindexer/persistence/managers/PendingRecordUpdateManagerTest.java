@@ -0,0 +1,120 @@
+/**
+ * =============================================================================
+ *
+ * ORCID (R) Open Source
+ * http://orcid.org
+ *
+ * Copyright (c) 2012-2014 ORCID, Inc.
+ * Licensed under an MIT-Style License (MIT)
+ * http://orcid.org/open-source-license
+ *
+ * This copyright and license information (including a link to the full license)
+ * shall be included in its entirety in all copies or substantial portion of
+ * the software.
+ *
+ * =============================================================================
+ */
+package org.orcid.activitiesindexer.persistence.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.activitiesindexer.listener.persistence.dao.PendingRecordUpdateDao;
+import org.orcid.activitiesindexer.persistence.entities.PendingRecordUpdateEntity;
+import org.orcid.utils.listener.LastModifiedMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The upsert and the claim rely on PostgreSQL only SQL (ON CONFLICT, FOR
+ * UPDATE SKIP LOCKED, RETURNING), so the DAO is mocked
+ */
+public class PendingRecordUpdateManagerTest {
+
+    @Mock
+    private PendingRecordUpdateDao pendingRecordUpdateDao;
+
+    private PendingRecordUpdateManager pendingRecordUpdateManager;
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        pendingRecordUpdateManager = new PendingRecordUpdateManager();
+        ReflectionTestUtils.setField(pendingRecordUpdateManager, "dao", pendingRecordUpdateDao);
+    }
+
+    @Test
+    public void enqueueIsASingleUpsertTest() {
+        String orcid = "0000-0000-0000-0011";
+        Date lastUpdated = new Date(System.currentTimeMillis() - 60000);
+        Date due = new Date(System.currentTimeMillis() + 10000);
+
+        pendingRecordUpdateManager.enqueue(new LastModifiedMessage(orcid, lastUpdated), due);
+
+        Mockito.verify(pendingRecordUpdateDao).upsert(orcid, lastUpdated, due);
+        Mockito.verify(pendingRecordUpdateDao, Mockito.never()).find(Mockito.anyString());
+    }
+
+    @Test
+    public void claimDueReturnsTheLeasedRowsTest() {
+        Date now = new Date();
+        Date lease = new Date(now.getTime() + 600000);
+        Date lastUpdated = new Date(now.getTime() - 60000);
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] { "0000-0000-0000-0012", new Timestamp(lastUpdated.getTime()) });
+        rows.add(new Object[] { "0000-0000-0000-0013", null });
+        Mockito.when(pendingRecordUpdateDao.claimDue(now, lease, 100)).thenReturn(rows);
+
+        List<LastModifiedMessage> due = pendingRecordUpdateManager.claimDue(now, lease, 100);
+        assertEquals(2, due.size());
+        assertEquals("0000-0000-0000-0012", due.get(0).getOrcid());
+        assertEquals(lastUpdated, due.get(0).getLastUpdated());
+        assertEquals("0000-0000-0000-0013", due.get(1).getOrcid());
+        assertNull(due.get(1).getLastUpdated());
+    }
+
+    @Test
+    public void claimDueNothingDueTest() {
+        Date now = new Date();
+        Mockito.when(pendingRecordUpdateDao.claimDue(Mockito.any(Date.class), Mockito.any(Date.class), Mockito.anyInt())).thenReturn(new ArrayList<Object[]>());
+        assertTrue(pendingRecordUpdateManager.claimDue(now, new Date(now.getTime() + 600000), 100).isEmpty());
+    }
+
+    @Test
+    public void completeRemovesTheUpdateTest() {
+        String orcid = "0000-0000-0000-0014";
+        Date now = new Date();
+        LastModifiedMessage claimed = new LastModifiedMessage(orcid, new Date(now.getTime() - 60000));
+        Mockito.when(pendingRecordUpdateDao.remove(orcid, claimed.getLastUpdated())).thenReturn(true);
+
+        pendingRecordUpdateManager.complete(claimed, now);
+        Mockito.verify(pendingRecordUpdateDao, Mockito.never()).find(orcid);
+    }
+
+    @Test
+    public void completeKeepsNewerUpdateTest() {
+        String orcid = "0000-0000-0000-0015";
+        Date now = new Date();
+        LastModifiedMessage claimed = new LastModifiedMessage(orcid, new Date(now.getTime() - 60000));
+        // The record changed again while it was being processed
+        PendingRecordUpdateEntity newer = new PendingRecordUpdateEntity();
+        newer.setId(orcid);
+        newer.setLastUpdated(new Date(now.getTime() - 30000));
+        newer.setDueDate(new Date(now.getTime() + 600000));
+        Mockito.when(pendingRecordUpdateDao.remove(orcid, claimed.getLastUpdated())).thenReturn(false);
+        Mockito.when(pendingRecordUpdateDao.find(orcid)).thenReturn(newer);
+
+        pendingRecordUpdateManager.complete(claimed, now);
+        assertEquals(now, newer.getDueDate());
+    }
+}
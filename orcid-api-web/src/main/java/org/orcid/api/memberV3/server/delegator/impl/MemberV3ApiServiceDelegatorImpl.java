@@ -11,6 +11,7 @@ import java.util.Optional;
 import javax.annotation.Resource;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.orcid.api.common.util.ApiUtils;
 import org.orcid.api.common.util.v3.ActivityUtils;
@@ -130,6 +131,7 @@ import org.orcid.jaxb.model.v3.release.record.summary.Works;
 import org.orcid.jaxb.model.v3.release.search.Search;
 import org.orcid.jaxb.model.v3.release.search.expanded.ExpandedSearch;
 import org.orcid.persistence.jpa.entities.EmailDomainEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 
@@ -280,6 +282,9 @@ public class MemberV3ApiServiceDelegatorImpl implements
     @Resource
     private SourceEntityUtils sourceEntityUtils;
 
+    @Value("${org.orcid.api.search.csv.streaming:false}")
+    private boolean streamCSVSearch;
+
     public Boolean getFilterVersionOfIdentifiers() {
         return filterVersionOfIdentifiers;
     }
@@ -1184,6 +1189,10 @@ public class MemberV3ApiServiceDelegatorImpl implements
     @Override
     public Response searchByQueryCSV(Map<String, List<String>> solrParams) {
         validateSearchParams(solrParams);
+        if (streamCSVSearch) {
+            StreamingOutput search = out -> orcidSearchManager.writeOrcidIdsAsCSV(solrParams, out);
+            return Response.ok(search).build();
+        }
         String search = orcidSearchManager.findOrcidIdsAsCSV(solrParams);
         return Response.ok(search).build();
     }
@@ -2,6 +2,11 @@ package org.orcid.core.adapter.jsonidentifier;
 
 import java.io.Serializable;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class JSONWorkExternalIdentifier implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -14,6 +19,12 @@ public class JSONWorkExternalIdentifier implements Serializable {
     
     private WorkExternalIdentifierId workExternalIdentifierId;
     
+    // Normalized value and URL as of the normalizer version stored in the
+    // parent, empty when they couldn't be normalized
+    private String normalized;
+    
+    private String normalizedUrl;
+    
     public String getRelationship() {
         return relationship;
     }
@@ -46,6 +57,24 @@ public class JSONWorkExternalIdentifier implements Serializable {
         this.workExternalIdentifierId = workExternalIdentifierId;
     }
 
+    @JsonInclude(Include.NON_NULL)
+    public String getNormalized() {
+        return normalized;
+    }
+
+    public void setNormalized(String normalized) {
+        this.normalized = normalized;
+    }
+
+    @JsonInclude(Include.NON_NULL)
+    public String getNormalizedUrl() {
+        return normalizedUrl;
+    }
+
+    public void setNormalizedUrl(String normalizedUrl) {
+        this.normalizedUrl = normalizedUrl;
+    }
+
     public static class WorkExternalIdentifierId implements Serializable {
         private static final long serialVersionUID = 1L;
         public String content;
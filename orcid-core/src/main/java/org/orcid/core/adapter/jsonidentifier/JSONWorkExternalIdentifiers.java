@@ -5,13 +5,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
-@JsonIgnoreProperties("scope")
+@JsonIgnoreProperties(value = "scope", ignoreUnknown = true)
 public class JSONWorkExternalIdentifiers implements Serializable {
 
     private static final long serialVersionUID = 1L;
     
     private List<JSONWorkExternalIdentifier> workExternalIdentifier;
+    
+    private String normalizerVersion;
 
     public List<JSONWorkExternalIdentifier> getWorkExternalIdentifier() {
         if (workExternalIdentifier == null) {
@@ -23,5 +27,18 @@ public class JSONWorkExternalIdentifiers implements Serializable {
     public void setWorkExternalIdentifier(List<JSONWorkExternalIdentifier> workExternalIdentifier) {
         this.workExternalIdentifier = workExternalIdentifier;
     }
-    
+
+    /**
+     * @return the PIDNormalizationService version the normalized values were
+     *         generated with, null if they were never stored
+     */
+    @JsonInclude(Include.NON_NULL)
+    public String getNormalizerVersion() {
+        return normalizerVersion;
+    }
+
+    public void setNormalizerVersion(String normalizerVersion) {
+        this.normalizerVersion = normalizerVersion;
+    }
+
 }
@@ -55,48 +55,91 @@ public class JSONWorkExternalIdentifiersConverterV3 extends BidirectionalConvert
             }
             jsonWorkExternalIdentifiers.getWorkExternalIdentifier().add(jsonWorkExternalIdentifier);
         }
+        if (norm.isPersistNormalizedValues()) {
+            storeNormalizedValues(jsonWorkExternalIdentifiers);
+        }
         return JsonUtils.convertToJsonString(jsonWorkExternalIdentifiers);
     }
 
+    /**
+     * Generates the normalized values stored in the given JSON again with the
+     * current normalizers
+     * 
+     * @return the updated JSON
+     */
+    public String refreshNormalizedValues(String source) {
+        JSONWorkExternalIdentifiers workExternalIdentifiers = JsonUtils.readObjectFromJsonString(source, JSONWorkExternalIdentifiers.class);
+        storeNormalizedValues(workExternalIdentifiers);
+        return JsonUtils.convertToJsonString(workExternalIdentifiers);
+    }
+
+    private void storeNormalizedValues(JSONWorkExternalIdentifiers workExternalIdentifiers) {
+        for (JSONWorkExternalIdentifier workExternalIdentifier : workExternalIdentifiers.getWorkExternalIdentifier()) {
+            workExternalIdentifier.setNormalized(null);
+            workExternalIdentifier.setNormalizedUrl(null);
+            if (workExternalIdentifier.getWorkExternalIdentifierId() == null) {
+                continue;
+            }
+            try {
+                String type = getApiType(workExternalIdentifier);
+                String normalised = norm.normalise(type, workExternalIdentifier.getWorkExternalIdentifierId().content);
+                String normalizedUrl = generateNormalisedURL(type, workExternalIdentifier);
+                workExternalIdentifier.setNormalized(normalised == null ? "" : normalised);
+                workExternalIdentifier.setNormalizedUrl(normalizedUrl == null ? "" : normalizedUrl);
+            } catch (RuntimeException e) {
+                // Leave them empty, they will be generated on read as before
+            }
+        }
+        workExternalIdentifiers.setNormalizerVersion(norm.getVersion());
+    }
+
+    private String getApiType(JSONWorkExternalIdentifier workExternalIdentifier) {
+        if (workExternalIdentifier.getWorkExternalIdentifierType() == null) {
+            return WorkExternalIdentifierType.OTHER_ID.value();
+        }
+        return conv.convertFrom(workExternalIdentifier.getWorkExternalIdentifierType(), null);
+    }
+
+    private String generateNormalisedURL(String type, JSONWorkExternalIdentifier workExternalIdentifier) {
+        String value = workExternalIdentifier.getUrl() != null ? workExternalIdentifier.getUrl().getValue() : workExternalIdentifier.getWorkExternalIdentifierId().content;
+        try {
+            return norm.generateNormalisedURL(type, value);
+        } catch (IllegalArgumentException e) {
+            // Do not populate the URL
+            return null;
+        }
+    }
+
     @Override
     public ExternalIDs convertFrom(String source, Type<ExternalIDs> destinationType) {
         JSONWorkExternalIdentifiers workExternalIdentifiers = JsonUtils.readObjectFromJsonString(source, JSONWorkExternalIdentifiers.class);
+        // Stored normalized values are only used if they were generated by
+        // the normalizers in use now
+        boolean useStoredValues = norm.getVersion() != null && norm.getVersion().equals(workExternalIdentifiers.getNormalizerVersion());
         ExternalIDs externalIDs = new ExternalIDs();
         for (JSONWorkExternalIdentifier workExternalIdentifier : workExternalIdentifiers.getWorkExternalIdentifier()) {
             ExternalID id = new ExternalID();
-            if (workExternalIdentifier.getWorkExternalIdentifierType() == null) {
-                id.setType(WorkExternalIdentifierType.OTHER_ID.value());
-            } else {
-                id.setType(conv.convertFrom(workExternalIdentifier.getWorkExternalIdentifierType(), null));
-            }
+            id.setType(getApiType(workExternalIdentifier));
             if (workExternalIdentifier.getWorkExternalIdentifierId() != null) {
                 id.setValue(workExternalIdentifier.getWorkExternalIdentifierId().content);
-                //note, uses API type name.
-                String normalised = norm.normalise(id.getType(), workExternalIdentifier.getWorkExternalIdentifierId().content);
+                String normalised;
+                String normalizedUrl;
+                if (useStoredValues && workExternalIdentifier.getNormalized() != null && workExternalIdentifier.getNormalizedUrl() != null) {
+                    normalised = workExternalIdentifier.getNormalized();
+                    normalizedUrl = workExternalIdentifier.getNormalizedUrl();
+                } else {
+                    //note, uses API type name.
+                    normalised = norm.normalise(id.getType(), workExternalIdentifier.getWorkExternalIdentifierId().content);
+                    normalizedUrl = generateNormalisedURL(id.getType(), workExternalIdentifier);
+                }
                 if (normalised != null && !normalised.trim().isEmpty()) {
                     id.setNormalized(new TransientNonEmptyString(normalised));
                 } else {
                     id.setNormalizedError(new TransientError(localeManager.resolveMessage("transientError.normalization_failed.code"),localeManager.resolveMessage("transientError.normalization_failed.message",id.getType(),workExternalIdentifier.getWorkExternalIdentifierId().content )));
                 }
                 
-                if (workExternalIdentifier.getUrl() != null) {
-                    try {
-                        String normalizedUrl = norm.generateNormalisedURL(id.getType(), workExternalIdentifier.getUrl().getValue());
-                        if (!StringUtils.isBlank(normalizedUrl)) {
-                            id.setNormalizedUrl(new TransientNonEmptyString(normalizedUrl));
-                        }
-                    } catch (IllegalArgumentException e) {
-                        // Do not populate the URL
-                    }
-                } else {
-                    try {
-                        String normalizedUrl = norm.generateNormalisedURL(id.getType(), workExternalIdentifier.getWorkExternalIdentifierId().content);
-                        if (!StringUtils.isBlank(normalizedUrl)) {
-                            id.setNormalizedUrl(new TransientNonEmptyString(normalizedUrl));
-                        }
-                    } catch (IllegalArgumentException e) {
-                        // Do not populate the URL
-                    }
+                if (!StringUtils.isBlank(normalizedUrl)) {
+                    id.setNormalizedUrl(new TransientNonEmptyString(normalizedUrl));
                 }
                 
                 if (id.getNormalizedUrl() == null || StringUtils.isEmpty(id.getNormalizedUrl().getValue())){
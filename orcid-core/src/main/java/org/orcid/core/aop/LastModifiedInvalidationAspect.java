@@ -0,0 +1,59 @@
+package org.orcid.core.aop;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.annotation.Resource;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.orcid.core.utils.cache.redis.LastModifiedInvalidationBus;
+import org.orcid.persistence.aop.ClientLastModifiedChanged;
+import org.orcid.persistence.aop.ProfileLastModifiedChanged;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * Publishes to the last modified invalidation bus every DAO update that sets
+ * the last modified date of a record or a client, so other nodes don't keep
+ * serving the old date until it expires
+ */
+@Aspect
+public class LastModifiedInvalidationAspect implements PriorityOrdered {
+
+    private static final int PRECEDENCE = 60;
+
+    @Resource
+    private LastModifiedInvalidationBus lastModifiedInvalidationBus;
+
+    @AfterReturning("@annotation(changed)")
+    public void profileLastModifiedChanged(JoinPoint joinPoint, ProfileLastModifiedChanged changed) {
+        for (String orcid : ids(joinPoint, changed.idArgument())) {
+            lastModifiedInvalidationBus.profileUpdated(orcid);
+        }
+    }
+
+    @AfterReturning("@annotation(changed)")
+    public void clientLastModifiedChanged(JoinPoint joinPoint, ClientLastModifiedChanged changed) {
+        for (String clientId : ids(joinPoint, changed.idArgument())) {
+            lastModifiedInvalidationBus.clientUpdated(clientId);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return PRECEDENCE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> ids(JoinPoint joinPoint, int idArgument) {
+        Object id = joinPoint.getArgs()[idArgument];
+        if (id instanceof Collection) {
+            return (Collection<String>) id;
+        }
+        if (id == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList((String) id);
+    }
+}
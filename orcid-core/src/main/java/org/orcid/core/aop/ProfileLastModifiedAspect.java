@@ -8,6 +8,7 @@ import org.apache.commons.lang.StringUtils;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
+import org.orcid.core.utils.cache.redis.LastModifiedInvalidationBus;
 import org.orcid.core.utils.cache.redis.RedisClient;
 import org.orcid.persistence.dao.ProfileLastModifiedDao;
 import org.orcid.persistence.jpa.entities.IndexingStatus;
@@ -38,6 +39,10 @@ public class ProfileLastModifiedAspect implements PriorityOrdered {
     
     private String name = "default";
 
+    // A replica read right after an invalidation can return the old date, so
+    // only the primary shares its dates through the invalidation bus
+    private boolean useInvalidationBus = true;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ProfileLastModifiedAspect.class);    
     
     private static final String UPDATE_PROFILE_LAST_MODIFIED = "@annotation(org.orcid.persistence.aop.UpdateProfileLastModified)";
@@ -47,6 +52,9 @@ public class ProfileLastModifiedAspect implements PriorityOrdered {
     @Resource
     private RedisClient redisClient;    
     
+    @Resource
+    private LastModifiedInvalidationBus lastModifiedInvalidationBus;
+    
     @Value("${org.orcid.core.utils.cache.redis.summary.enabled:false}") 
     private boolean isSummaryCacheEnabled;
     
@@ -65,6 +73,10 @@ public class ProfileLastModifiedAspect implements PriorityOrdered {
     public void setName(String name) {
         this.name = name;
     }
+
+    public void setUseInvalidationBus(boolean useInvalidationBus) {
+        this.useInvalidationBus = useInvalidationBus;
+    }
     
     @AfterReturning(UPDATE_PROFILE_LAST_MODIFIED + " && args(orcid, ..)")
     public void updateProfileLastModified(JoinPoint joinPoint, String orcid) {
@@ -164,7 +176,7 @@ public class ProfileLastModifiedAspect implements PriorityOrdered {
     }
 
     /** Fetches the last modified from the request-scope last modified cache
-     * If not present, fetches from the DB and populates the request-scope last modified cache.
+     * If not present, fetches it from the invalidation bus or the DB and populates the request-scope last modified cache.
      * 
      * @param orcid
      * @return
@@ -175,7 +187,11 @@ public class ProfileLastModifiedAspect implements PriorityOrdered {
         if (sra != null)
             lastMod = (Date) sra.getAttribute(sraKey(orcid), ServletRequestAttributes.SCOPE_REQUEST);
         if (lastMod == null) {
-            lastMod = profileLastModifiedDao.retrieveLastModifiedDate(orcid);
+            if (useInvalidationBus) {
+                lastMod = lastModifiedInvalidationBus.getProfileLastModified(orcid, () -> profileLastModifiedDao.retrieveLastModifiedDate(orcid));
+            } else {
+                lastMod = profileLastModifiedDao.retrieveLastModifiedDate(orcid);
+            }
             if (sra != null)
                 sra.setAttribute(sraKey(orcid), lastMod, ServletRequestAttributes.SCOPE_REQUEST);
         }
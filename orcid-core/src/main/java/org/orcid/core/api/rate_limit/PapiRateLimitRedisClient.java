@@ -1,13 +1,25 @@
 package org.orcid.core.api.rate_limit;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import org.apache.commons.lang.StringUtils;
 import org.orcid.core.utils.cache.redis.RedisClient;
+import org.orcid.core.utils.cache.redis.RedisClient.HashCounterIncrement;
 import org.orcid.persistence.dao.PublicApiDailyRateLimitDao;
 import org.orcid.persistence.jpa.entities.PublicApiDailyRateLimitEntity;
 import org.slf4j.Logger;
@@ -29,9 +41,24 @@ public class PapiRateLimitRedisClient {
     private int CASH_EXPIRY_IN_SECONDS; // caching for 2 days to have time to
                                         // synch with DB
 
+    // How often the requests of hot callers are flushed to Redis, 0 disables
+    // the local buffer and every request is counted in Redis
+    @Value("${org.orcid.papi.rate.limit.counter.flushIntervalInMillis:0}")
+    private long flushIntervalInMillis;
+
+    // Number of requests after which a caller is counted locally and flushed
+    // every flushIntervalInMillis; keep it above the request limits so limit
+    // decisions are always taken on the exact count
+    @Value("${org.orcid.papi.rate.limit.counter.hotCallerThreshold:50000}")
+    private long hotCallerThreshold;
+
     @Autowired
     private PublicApiDailyRateLimitDao papiRateLimitingDao;
 
+    private final Map<String, BufferedCounter> hotCallers = new ConcurrentHashMap<String, BufferedCounter>();
+
+    private ScheduledExecutorService flushExecutor;
+
     public static final String KEY_REQUEST_COUNT = "reqCount";
     public static final String KEY_REQUEST_DATE = "reqDate";
     public static final String KEY_LAST_MODIFIED = "lastModified";
@@ -41,8 +68,31 @@ public class PapiRateLimitRedisClient {
 
     public static final String KEY_DELIMITATOR = "||";
 
+    public static final String COUNTER_KEY_PREFIX = "counter" + KEY_DELIMITATOR;
+
+    @PostConstruct
+    public void init() {
+        if (flushIntervalInMillis > 0) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "papi-rate-limit-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushHotCallers, flushIntervalInMillis, flushIntervalInMillis, TimeUnit.MILLISECONDS);
+            LOG.info("Requests of callers over {} daily requests will be flushed to Redis every {} ms", hotCallerThreshold, flushIntervalInMillis);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushHotCallers();
+        }
+    }
+
     public String getTodayKeyByClient(String client) {
-        return getRequestDateKeyByClient(client, LocalDate.now());
+        return getRequestDateKeyByClient(client, today());
     }
 
     public String getRequestDateKeyByClient(String client, LocalDate requestDate) {
@@ -60,7 +110,7 @@ public class PapiRateLimitRedisClient {
     }
 
     public JSONObject getTodayDailyLimitsForClient(String client) {
-        return getDailyLimitsForClient(client, LocalDate.now());
+        return getDailyLimitsForClient(client, today());
     }
 
     public void setTodayLimitsForClient(String client, JSONObject metaData) {
@@ -68,7 +118,126 @@ public class PapiRateLimitRedisClient {
         redisClient.set(limitKey, metaData.toString(), CASH_EXPIRY_IN_SECONDS);
     }
 
+    public String getRequestDateCounterKeyByClient(String client, LocalDate requestDate) {
+        return COUNTER_KEY_PREFIX + getRequestDateKeyByClient(client, requestDate);
+    }
+
+    /**
+     * Counts a request for today and returns the number of requests the
+     * client has made today, including this one.
+     * 
+     * The count is kept in a Redis hash and incremented atomically along with
+     * its metadata and expiry in one round trip. Callers over the hot caller
+     * threshold are counted in a local buffer instead and flushed every
+     * flushIntervalInMillis, in which case the count returned is the last
+     * count read from Redis plus the requests buffered on this node.
+     * 
+     * @param client
+     *            the client id, or the ip address for anonymous requests
+     * @param isAnonymous
+     *            true if client is an ip address
+     * @return the number of requests made today, -1 if Redis is disabled
+     */
+    public long incrementTodayRequestCount(String client, boolean isAnonymous) {
+        LocalDate today = today();
+        String key = getRequestDateCounterKeyByClient(client, today);
+        if (flushIntervalInMillis > 0) {
+            BufferedCounter hotCaller = hotCallers.get(key);
+            if (hotCaller != null) {
+                hotCaller.pending.increment();
+                return hotCaller.lastKnownCount + hotCaller.pending.sum();
+            }
+        }
+        long count = redisClient.incrementHashCounter(newCounterIncrement(key, client, isAnonymous, today, 1), CASH_EXPIRY_IN_SECONDS);
+        if (flushIntervalInMillis > 0 && count >= hotCallerThreshold) {
+            hotCallers.putIfAbsent(key, new BufferedCounter(client, isAnonymous, today, count));
+        }
+        return count;
+    }
+
+    /**
+     * Sends the requests buffered for hot callers to Redis in one pipelined
+     * round trip. The callers of previous days are dropped along with any
+     * request still buffered for them: the daily sync may already have stored
+     * and removed the hash of that day, which flushing them would create again.
+     */
+    public void flushHotCallers() {
+        if (hotCallers.isEmpty()) {
+            return;
+        }
+        LocalDate today = today();
+        Map<String, Long> deltas = new HashMap<String, Long>();
+        List<HashCounterIncrement> increments = new ArrayList<HashCounterIncrement>();
+        Iterator<Map.Entry<String, BufferedCounter>> it = hotCallers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, BufferedCounter> entry = it.next();
+            BufferedCounter counter = entry.getValue();
+            if (counter.requestDate.isBefore(today)) {
+                it.remove();
+                long dropped = counter.pending.sumThenReset();
+                if (dropped > 0) {
+                    LOG.warn("Dropping {} requests of {} buffered on {}", dropped, counter.client, counter.requestDate);
+                }
+                continue;
+            }
+            long delta = counter.pending.sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+                counter.lastKnownCount += delta;
+                increments.add(newCounterIncrement(entry.getKey(), counter.client, counter.isAnonymous, counter.requestDate, delta));
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Long> counts = redisClient.incrementHashCounters(increments, CASH_EXPIRY_IN_SECONDS);
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                BufferedCounter counter = hotCallers.get(entry.getKey());
+                if (counter != null) {
+                    counter.lastKnownCount = entry.getValue();
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Unable to flush the papi request counters to Redis, they will be retried on the next flush", e);
+            for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+                BufferedCounter counter = hotCallers.get(entry.getKey());
+                if (counter != null) {
+                    counter.lastKnownCount -= entry.getValue();
+                    counter.pending.add(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private HashCounterIncrement newCounterIncrement(String key, String client, boolean isAnonymous, LocalDate requestDate, long delta) {
+        String now = String.valueOf(System.currentTimeMillis());
+        return new HashCounterIncrement(key, KEY_REQUEST_COUNT, delta).setIfAbsent(KEY_DATE_CREATED, now).setIfAbsent(KEY_IS_ANONYMOUS, String.valueOf(isAnonymous))
+                .setIfAbsent(KEY_REQUEST_CLIENT, client).setIfAbsent(KEY_REQUEST_DATE, requestDate.toString()).set(KEY_LAST_MODIFIED, now);
+    }
+
     public void saveRedisPapiLimitDateToDB(LocalDate requestDate) throws JSONException {
+        // counters are read in batches, one pipelined round trip per scanned
+        // batch of keys
+        Map<String, Map<String, String>> counters = redisClient.getAllHashesForKeyPattern(COUNTER_KEY_PREFIX + "*" + KEY_DELIMITATOR + requestDate.toString());
+        for (String key : counters.keySet()) {
+            PublicApiDailyRateLimitEntity redisRateLimitEntity = redisHashToEntity(counters.get(key));
+            PublicApiDailyRateLimitEntity pgRateLimitEntity = null;
+            boolean isClient = StringUtils.isNotEmpty(redisRateLimitEntity.getClientId());
+            if (isClient) {
+                pgRateLimitEntity = papiRateLimitingDao.findByClientIdAndRequestDate(redisRateLimitEntity.getClientId(), requestDate);
+            } else {
+                pgRateLimitEntity = papiRateLimitingDao.findByIpAddressAndRequestDate(redisRateLimitEntity.getIpAddress(), requestDate);
+            }
+            if (pgRateLimitEntity != null) {
+                pgRateLimitEntity.setRequestCount(redisRateLimitEntity.getRequestCount());
+                papiRateLimitingDao.updatePublicApiDailyRateLimit(pgRateLimitEntity, isClient);
+            } else {
+                papiRateLimitingDao.persist(redisRateLimitEntity);
+            }
+            redisClient.remove(key);
+        }
+
         // returns all the keys for requestDate
         HashMap<String, JSONObject> allValuesForKey = redisClient.getAllValuesForKeyPattern("*" + requestDate.toString());
         for (String key : allValuesForKey.keySet()) {
@@ -106,4 +275,37 @@ public class PapiRateLimitRedisClient {
         return rateLimitEntity;
     }
 
+    private PublicApiDailyRateLimitEntity redisHashToEntity(Map<String, String> redisHash) {
+        PublicApiDailyRateLimitEntity rateLimitEntity = new PublicApiDailyRateLimitEntity();
+        if (!Boolean.parseBoolean(redisHash.get(KEY_IS_ANONYMOUS))) {
+            rateLimitEntity.setClientId(redisHash.get(KEY_REQUEST_CLIENT));
+        } else {
+            rateLimitEntity.setIpAddress(redisHash.get(KEY_REQUEST_CLIENT));
+        }
+        rateLimitEntity.setRequestCount(Long.parseLong(redisHash.get(KEY_REQUEST_COUNT)));
+        rateLimitEntity.setRequestDate(LocalDate.parse(redisHash.get(KEY_REQUEST_DATE)));
+        rateLimitEntity.setDateCreated(new Date(Long.parseLong(redisHash.get(KEY_DATE_CREATED))));
+        rateLimitEntity.setLastModified(new Date(Long.parseLong(redisHash.get(KEY_LAST_MODIFIED))));
+        return rateLimitEntity;
+    }
+
+    LocalDate today() {
+        return LocalDate.now();
+    }
+
+    private static class BufferedCounter {
+        private final String client;
+        private final boolean isAnonymous;
+        private final LocalDate requestDate;
+        private final LongAdder pending = new LongAdder();
+        private volatile long lastKnownCount;
+
+        BufferedCounter(String client, boolean isAnonymous, LocalDate requestDate, long lastKnownCount) {
+            this.client = client;
+            this.isAnonymous = isAnonymous;
+            this.requestDate = requestDate;
+            this.lastKnownCount = lastKnownCount;
+        }
+    }
+
 }
@@ -16,15 +16,28 @@
  */
 package org.orcid.core.cache.impl;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 import javax.annotation.Resource;
 import javax.transaction.Transactional;
+import javax.xml.datatype.XMLGregorianCalendar;
 
 import org.orcid.core.cache.OrcidString;
 import org.orcid.core.cache.Retriever;
 import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
+import org.orcid.core.utils.v3.activities.WorkGroupAndGroupingSuggestionGenerator;
+import org.orcid.jaxb.model.v3.release.record.summary.WorkSummary;
 import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
+ * Keeps the grouped works of the most recently retrieved records, so when a
+ * record changes only the works that were added, edited or removed since the
+ * last retrieval are regrouped instead of the whole record.
  * 
  * @author Will Simpson
  *
@@ -35,10 +48,82 @@ public class GroupedWorksRetriever implements Retriever<OrcidString, Works> {
     @Resource(name = "workManagerReadOnlyV3")
     private WorkManagerReadOnly workManagerReadOnly;
 
+    @Value("${org.orcid.core.works.grouping.incremental.maxRecords:500}")
+    private int maxGroupedRecords;
+
+    // Least recently used first, a record is taken out while it is being
+    // regrouped so concurrent retrievals of it never share a generator
+    private final LinkedHashMap<String, GroupedRecord> groupedRecords = new LinkedHashMap<String, GroupedRecord>(16, 0.75f, true);
+
     @Override
     @Transactional
     public Works retrieve(OrcidString key) {
-        return workManagerReadOnly.getWorksAsGroups(key.getOrcid());
+        String orcid = key.getOrcid();
+        if (maxGroupedRecords <= 0) {
+            return workManagerReadOnly.getWorksAsGroups(orcid);
+        }
+        GroupedRecord record = take(orcid);
+        if (record == null) {
+            record = new GroupedRecord();
+        }
+        record.regroup(workManagerReadOnly.getWorksSummaryList(orcid));
+        Works works = workManagerReadOnly.getGroupedWorksAndGenerateGroupingSuggestions(record.generator, orcid);
+        // Only kept once it is known to be consistent
+        release(orcid, record);
+        return works;
+    }
+
+    private GroupedRecord take(String orcid) {
+        synchronized (groupedRecords) {
+            return groupedRecords.remove(orcid);
+        }
+    }
+
+    private void release(String orcid, GroupedRecord record) {
+        synchronized (groupedRecords) {
+            groupedRecords.put(orcid, record);
+            while (groupedRecords.size() > maxGroupedRecords) {
+                groupedRecords.remove(groupedRecords.keySet().iterator().next());
+            }
+        }
+    }
+
+    static class GroupedRecord {
+
+        final WorkGroupAndGroupingSuggestionGenerator generator = new WorkGroupAndGroupingSuggestionGenerator();
+
+        // The instances grouped in the generator, by put code
+        private Map<Long, WorkSummary> works = new HashMap<Long, WorkSummary>();
+
+        void regroup(List<WorkSummary> summaries) {
+            Map<Long, WorkSummary> current = new HashMap<Long, WorkSummary>(summaries.size() * 2);
+            for (WorkSummary summary : summaries) {
+                WorkSummary previous = works.remove(summary.getPutCode());
+                if (previous != null && isUnchanged(previous, summary)) {
+                    current.put(summary.getPutCode(), previous);
+                    continue;
+                }
+                if (previous != null) {
+                    generator.ungroup(previous);
+                }
+                generator.group(summary);
+                current.put(summary.getPutCode(), summary);
+            }
+            // Whatever is left was deleted
+            for (WorkSummary deleted : works.values()) {
+                generator.ungroup(deleted);
+            }
+            works = current;
+        }
+
+        private boolean isUnchanged(WorkSummary previous, WorkSummary summary) {
+            return Objects.equals(lastModified(previous), lastModified(summary)) && Objects.equals(previous.getDisplayIndex(), summary.getDisplayIndex())
+                    && Objects.equals(previous.getVisibility(), summary.getVisibility());
+        }
+
+        private XMLGregorianCalendar lastModified(WorkSummary summary) {
+            return summary.getLastModifiedDate() == null ? null : summary.getLastModifiedDate().getValue();
+        }
     }
 
 }
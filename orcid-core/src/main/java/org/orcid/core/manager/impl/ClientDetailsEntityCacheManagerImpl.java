@@ -7,6 +7,7 @@ import javax.annotation.Resource;
 import org.ehcache.Cache;
 import org.orcid.core.manager.ClientDetailsEntityCacheManager;
 import org.orcid.core.manager.ClientDetailsManager;
+import org.orcid.core.utils.cache.redis.LastModifiedInvalidationBus;
 import org.orcid.persistence.jpa.entities.ClientDetailsEntity;
 import org.orcid.core.utils.ReleaseNameUtils;
 import org.slf4j.Logger;
@@ -26,6 +27,9 @@ public class ClientDetailsEntityCacheManagerImpl implements ClientDetailsEntityC
     @Resource(name = "clientDetailsEntityIdPCache")
     private Cache<Object, ClientDetailsEntity> clientDetailsIdPCache;
 
+    @Resource
+    private LastModifiedInvalidationBus lastModifiedInvalidationBus;
+
     private String releaseName = ReleaseNameUtils.getReleaseName();
 
     @Override
@@ -87,7 +91,7 @@ public class ClientDetailsEntityCacheManagerImpl implements ClientDetailsEntityC
     private Date retrieveLastModifiedDate(String clientId) {
         Date date = null;
         try {
-            date = clientDetailsManager.getLastModified(clientId);
+            date = lastModifiedInvalidationBus.getClientLastModified(clientId, () -> clientDetailsManager.getLastModified(clientId));
         } catch (javax.persistence.NoResultException e) {
             LOG.debug("Missing lastModifiedDate clientId:" + clientId);
         }
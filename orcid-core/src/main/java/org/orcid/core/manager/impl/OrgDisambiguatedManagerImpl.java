@@ -30,12 +30,12 @@ import org.orcid.persistence.jpa.entities.OrgDisambiguatedExternalIdentifierEnti
 import org.orcid.persistence.jpa.entities.OrgEntity;
 import org.orcid.pojo.OrgDisambiguated;
 import org.orcid.pojo.OrgDisambiguatedExternalIdentifiers;
-import org.orcid.pojo.grouping.OrgGroup;
 import org.orcid.utils.solr.entities.OrgDisambiguatedSolrDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
@@ -82,8 +82,18 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
     @Value("${org.orcid.persistence.messaging.updated.disambiguated_org.indexing.batchSize:1000}")
     private int indexingBatchSize;
 
+    @Value("${org.orcid.persistence.messaging.updated.disambiguated_org.indexing.batched:false}")
+    private boolean batchedIndexing;
+
+    @Value("${org.orcid.persistence.messaging.updated.disambiguated_org.indexing.messageSize:100}")
+    private int indexingMessageSize;
+
     @Override
     synchronized public void processOrgsForIndexing() {
+        if (batchedIndexing) {
+            processOrgsForIndexingInBatches();
+            return;
+        }
         LOGGER.info("About to process disambiguated orgs for indexing");
         List<Long> orgIdsToIndex = new ArrayList<Long>();
         do {
@@ -102,8 +112,66 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
 
     }
 
+    /**
+     * Reads the pending orgs a page at a time, walking forward by id, so every
+     * org is visited once per run, including the ones that fail, and each page
+     * costs one query however far into the table it is. Groupings are worked
+     * out from the page itself, the documents go out indexingMessageSize to a
+     * message and the statuses are updated once per page
+     */
+    private void processOrgsForIndexingInBatches() {
+        LOGGER.info("About to process disambiguated orgs for indexing in batches");
+        Long lastId = 0L;
+        List<OrgDisambiguatedEntity> page = null;
+        do {
+            final Long afterId = lastId;
+            page = transactionTemplate.execute(new TransactionCallback<List<OrgDisambiguatedEntity>>() {
+                @Override
+                public List<OrgDisambiguatedEntity> doInTransaction(TransactionStatus status) {
+                    return orgDisambiguatedDaoReadOnly.findOrgsPendingIndexing(afterId, indexingBatchSize);
+                }
+            });
+            LOGGER.info("Found page of {} disambiguated orgs for indexing after id {}", page.size(), afterId);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+                indexPage(page);
+            }
+        } while (!page.isEmpty());
+    }
+
+    private void indexPage(List<OrgDisambiguatedEntity> page) {
+        List<Long> done = new ArrayList<Long>();
+        List<Long> failed = new ArrayList<Long>();
+        List<OrgDisambiguatedSolrDocument> documents = new ArrayList<OrgDisambiguatedSolrDocument>(page.size());
+        for (OrgDisambiguatedEntity entity : page) {
+            try {
+                documents.add(convertEntityToDocument(entity, true));
+            } catch (Exception ex) {
+                LOGGER.error("@@@FAILED to process the disambiguated org with id" + entity.getId(), ex);
+                failed.add(entity.getId());
+            }
+        }
+        int messageSize = Math.max(1, indexingMessageSize);
+        for (int i = 0; i < documents.size(); i += messageSize) {
+            List<OrgDisambiguatedSolrDocument> batch = documents.subList(i, Math.min(i + messageSize, documents.size()));
+            List<Long> ids = batch.stream().map(d -> Long.valueOf(d.getOrgDisambiguatedId())).collect(Collectors.toList());
+            if (messaging.sendOrgs(batch, updateSolrQueueName)) {
+                done.addAll(ids);
+            } else {
+                LOGGER.error("Unable to send orgs disambiguated message for a batch of {} orgs, from id {} to {}", ids.size(), ids.get(0), ids.get(ids.size() - 1));
+                failed.addAll(ids);
+            }
+        }
+        orgDisambiguatedDao.updateIndexingStatus(done, IndexingStatus.DONE);
+        orgDisambiguatedDao.updateIndexingStatus(failed, IndexingStatus.FAILED);
+    }
+
     @Override
     synchronized public void markOrgsForIndexingAsGroup() {
+        if (batchedIndexing) {
+            markOrgsForIndexingAsGroupAfterId();
+            return;
+        }
         LOGGER.info("About to process disambiguated orgs for group indexing");
         List<OrgDisambiguatedEntity> entities = null;
         int startIndex = 0;
@@ -121,6 +189,21 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
 
     }
 
+    private void markOrgsForIndexingAsGroupAfterId() {
+        LOGGER.info("About to process disambiguated orgs for group indexing");
+        List<OrgDisambiguatedEntity> entities = null;
+        Long lastId = 0L;
+        do {
+            LOGGER.info("GROUP: Last id is: " + lastId);
+            entities = orgDisambiguatedDaoReadOnly.findOrgsToGroup(lastId, indexingBatchSize);
+            LOGGER.info("GROUP: Found chunk of {} disambiguated orgs for indexing as group", entities.size());
+            for (OrgDisambiguatedEntity entity : entities) {
+                new OrgGrouping(entity, this).markGroupForIndexing(orgDisambiguatedDao);
+                lastId = entity.getId();
+            }
+        } while (!entities.isEmpty());
+    }
+
     private void processDisambiguatedOrgInTransaction(final Long orgId) {
         transactionTemplate.execute(new TransactionCallbackWithoutResult() {
             @Override
@@ -132,7 +215,7 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
 
     private void processDisambiguatedOrg(OrgDisambiguatedEntity entity) {
         LOGGER.info("About to index disambiguated org, id={}", entity.getId());
-        OrgDisambiguatedSolrDocument document = convertEntityToDocument(entity);
+        OrgDisambiguatedSolrDocument document = convertEntityToDocument(entity, false);
         // Send message to the message listener
         if (!messaging.send(document, updateSolrQueueName)) {
             LOGGER.error("Unable to send orgs disambiguated message for org: " + document.getOrgDisambiguatedName() + "(" + document.getOrgDisambiguatedId() + ")");
@@ -142,7 +225,7 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
         orgDisambiguatedDao.updateIndexingStatus(entity.getId(), IndexingStatus.DONE);
     }
 
-    private OrgDisambiguatedSolrDocument convertEntityToDocument(OrgDisambiguatedEntity entity) {
+    private OrgDisambiguatedSolrDocument convertEntityToDocument(OrgDisambiguatedEntity entity, boolean groupInMemory) {
         OrgDisambiguatedSolrDocument document = new OrgDisambiguatedSolrDocument();
         document.setOrgDisambiguatedId(String.valueOf(entity.getId()));
         document.setOrgDisambiguatedName(entity.getName());
@@ -174,8 +257,8 @@ public class OrgDisambiguatedManagerImpl implements OrgDisambiguatedManager {
             // check if it is a ROR
             if (OrgDisambiguatedSourceType.ROR.name().equals(entity.getSourceType())) {
                 // do the grouping and see if it has fundref
-                OrgGroup orgGroup = new OrgGrouping(entity, this).getOrganizationGroup();
-                if (orgGroup.isFunding()) {
+                boolean funding = groupInMemory ? OrgGrouping.isFundingGroup(entity) : new OrgGrouping(entity, this).getOrganizationGroup().isFunding();
+                if (funding) {
                     document.setFundingOrg(true);
                 } else {
                     document.setFundingOrg(false);
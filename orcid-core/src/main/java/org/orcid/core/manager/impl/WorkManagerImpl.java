@@ -100,6 +100,9 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
 
     private Integer maxWorksToWrite;
 
+    @Value("${org.orcid.core.works.bulk.write.jdbcBatchSize:0}")
+    private int bulkWriteJdbcBatchSize;
+
     public WorkManagerImpl(@Value("${org.orcid.core.works.bulk.read.max:100}") Integer bulkReadSize,
             @Value("${org.orcid.core.works.bulk.write.max:100}") Integer bulkWriteSize) {
         super(bulkReadSize);
@@ -234,64 +237,74 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
             }
             ProfileEntity profile = profileEntityCacheManager.retrieve(orcid);
             List<Item> items = new ArrayList<Item>();
-            for (int i = 0; i < bulk.size(); i++) {
-                if (Work.class.isAssignableFrom(bulk.get(i).getClass())) {
-                    Work work = (Work) bulk.get(i);
-                    try {
-                        activityValidator.validateWork(work, sourceEntity, true, true, null);
-
-                        // Validate it is not duplicated
-                        if (work.getExternalIdentifiers() != null) {
-                            for (ExternalID extId : work.getExternalIdentifiers().getExternalIdentifier()) {
-                                // If the external id exists and is a SELF
-                                // identifier, then mark it as duplicated
-                                if (existingExternalIdentifiers.contains(extId) && Relationship.SELF.equals(extId.getRelationship())) {
-                                    Map<String, String> params = new HashMap<String, String>();
-                                    params.put("clientName", sourceNameCacheManager.retrieve(SourceEntityUtils.getSourceId(sourceEntity)));
-                                    if (extIDPutCodeMap.containsKey(extId)) {
-                                        params.put("putCode", String.valueOf(extIDPutCodeMap.get(extId)));
+            // The works are inserted on flush, so they can go in JDBC batches
+            if (bulkWriteJdbcBatchSize > 0) {
+                workDao.setJdbcBatchSize(bulkWriteJdbcBatchSize);
+            }
+            try {
+                for (int i = 0; i < bulk.size(); i++) {
+                    if (Work.class.isAssignableFrom(bulk.get(i).getClass())) {
+                        Work work = (Work) bulk.get(i);
+                        try {
+                            activityValidator.validateWork(work, sourceEntity, true, true, null);
+
+                            // Validate it is not duplicated
+                            if (work.getExternalIdentifiers() != null) {
+                                for (ExternalID extId : work.getExternalIdentifiers().getExternalIdentifier()) {
+                                    // If the external id exists and is a SELF
+                                    // identifier, then mark it as duplicated
+                                    if (existingExternalIdentifiers.contains(extId) && Relationship.SELF.equals(extId.getRelationship())) {
+                                        Map<String, String> params = new HashMap<String, String>();
+                                        params.put("clientName", sourceNameCacheManager.retrieve(SourceEntityUtils.getSourceId(sourceEntity)));
+                                        if (extIDPutCodeMap.containsKey(extId)) {
+                                            params.put("putCode", String.valueOf(extIDPutCodeMap.get(extId)));
+                                        }
+                                        throw new OrcidDuplicatedActivityException(params);
                                     }
-                                    throw new OrcidDuplicatedActivityException(params);
                                 }
                             }
-                        }
 
-                        // Save the work
-                        WorkEntity workEntity = jpaJaxbWorkAdapter.toWorkEntity(work);
-                        workEntity.setOrcid(orcid);
-                        workEntity.setAddedToProfileDate(new Date());
+                            // Save the work
+                            WorkEntity workEntity = jpaJaxbWorkAdapter.toWorkEntity(work);
+                            workEntity.setOrcid(orcid);
+                            workEntity.setAddedToProfileDate(new Date());
 
-                        // Set source id
-                        if (sourceEntity.getSourceProfile() != null) {
-                            workEntity.setSourceId(sourceEntity.getSourceProfile().getId());
-                        }
+                            // Set source id
+                            if (sourceEntity.getSourceProfile() != null) {
+                                workEntity.setSourceId(sourceEntity.getSourceProfile().getId());
+                            }
 
-                        if (sourceEntity.getSourceClient() != null) {
-                            workEntity.setClientSourceId(sourceEntity.getSourceClient().getId());
-                        }
+                            if (sourceEntity.getSourceClient() != null) {
+                                workEntity.setClientSourceId(sourceEntity.getSourceClient().getId());
+                            }
 
-                        setIncomingWorkPrivacy(workEntity, profile);
-                        DisplayIndexCalculatorHelper.setDisplayIndexOnNewEntity(workEntity, true);
-                        filterContributors(work, workEntity);                        
-                        workDao.persist(workEntity);
-
-                        // Update the element in the bulk
-                        Work updatedWork = jpaJaxbWorkAdapter.toWork(workEntity);
-                        bulk.set(i, updatedWork);
-
-                        // Add the work extIds to the list of existing external
-                        // identifiers
-                        addExternalIdsToExistingSet(extIDPutCodeMap, updatedWork, existingExternalIdentifiers);
-                        items.add(createItem(workEntity, work.getExternalIdentifiers(), ActionType.CREATE));
-                    } catch (Exception e) {
-                        // Get the exception
-                        OrcidError orcidError = orcidCoreExceptionMapper.getOrcidError(e);
-                        bulk.set(i, orcidError);
+                            setIncomingWorkPrivacy(workEntity, profile);
+                            DisplayIndexCalculatorHelper.setDisplayIndexOnNewEntity(workEntity, true);
+                            filterContributors(work, workEntity);                        
+                            workDao.persist(workEntity);
+
+                            // Update the element in the bulk
+                            Work updatedWork = jpaJaxbWorkAdapter.toWork(workEntity);
+                            bulk.set(i, updatedWork);
+
+                            // Add the work extIds to the list of existing external
+                            // identifiers
+                            addExternalIdsToExistingSet(extIDPutCodeMap, updatedWork, existingExternalIdentifiers);
+                            items.add(createItem(workEntity, work.getExternalIdentifiers(), ActionType.CREATE));
+                        } catch (Exception e) {
+                            // Get the exception
+                            OrcidError orcidError = orcidCoreExceptionMapper.getOrcidError(e);
+                            bulk.set(i, orcidError);
+                        }
                     }
                 }
-            }
 
-            workDao.flush();
+                workDao.flush();
+            } finally {
+                if (bulkWriteJdbcBatchSize > 0) {
+                    workDao.setJdbcBatchSize(null);
+                }
+            }
 
             if (!items.isEmpty()) {
                 notificationManager.sendAmendEmail(orcid, AmendedSection.WORK, items);
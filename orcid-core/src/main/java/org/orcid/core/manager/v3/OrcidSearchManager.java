@@ -1,5 +1,6 @@
 package org.orcid.core.manager.v3;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -31,5 +32,10 @@ public interface OrcidSearchManager {
 
     String findOrcidIdsAsCSV(Map<String, List<String>> solrParams);
 
+    /**
+     * Writes the CSV search results to the given stream as Solr returns them
+     */
+    void writeOrcidIdsAsCSV(Map<String, List<String>> solrParams, OutputStream out);
+
     ExpandedSearch expandedSearch(Map<String, List<String>> solrParams);
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import org.orcid.core.manager.ProfileEntityCacheManager;
 import org.orcid.core.manager.v3.ClientManager;
 import org.orcid.core.manager.v3.SourceManager;
 import org.orcid.core.manager.v3.read_only.ClientManagerReadOnly;
+import org.orcid.core.utils.cache.redis.LastModifiedInvalidationBus;
 import org.orcid.jaxb.model.clientgroup.ClientType;
 import org.orcid.jaxb.model.clientgroup.MemberType;
 import org.orcid.jaxb.model.clientgroup.RedirectUriType;
@@ -52,6 +53,9 @@ public class ClientManagerImpl implements ClientManager {
     @Resource
     private ClientDetailsDao clientDetailsDao;
 
+    @Resource
+    private LastModifiedInvalidationBus lastModifiedInvalidationBus;
+
     @Resource
     private ClientSecretDao clientSecretDao;
 
@@ -207,6 +211,7 @@ public class ClientManagerImpl implements ClientManager {
         }
 
         clientDetails = clientDetailsDao.merge(clientDetails);
+        lastModifiedInvalidationBus.clientUpdated(clientDetails.getId());
         return jpaJaxbClientAdapter.toClient(clientDetails);
     }
 
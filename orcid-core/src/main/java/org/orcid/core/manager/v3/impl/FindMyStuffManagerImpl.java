@@ -6,10 +6,23 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import org.orcid.core.adapter.v3.JpaJaxbNotificationAdapter;
@@ -31,11 +44,16 @@ import org.orcid.persistence.jpa.entities.ClientRedirectUriEntity;
 import org.orcid.persistence.jpa.entities.FindMyStuffHistoryEntity;
 import org.orcid.persistence.jpa.entities.NotificationFindMyStuffEntity;
 import org.orcid.pojo.FindMyStuffResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.google.common.collect.Maps;
 
 public class FindMyStuffManagerImpl implements FindMyStuffManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(FindMyStuffManagerImpl.class);
+
     private static final String AUTHORIZATION_END_POINT = "{0}/oauth/authorize?response_type=code&client_id={1}&scope={2}&redirect_uri={3}";
 
     @Resource(name = "workManagerReadOnlyV3")
@@ -62,6 +80,46 @@ public class FindMyStuffManagerImpl implements FindMyStuffManager {
     @Resource
     List<Finder> finders = new ArrayList<Finder>();
 
+    @Value("${org.orcid.core.findMyStuff.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value("${org.orcid.core.findMyStuff.parallel.threads:4}")
+    private int finderThreads;
+
+    @Value("${org.orcid.core.findMyStuff.parallel.timeoutMillis:5000}")
+    private long finderTimeoutMillis;
+
+    @Value("${org.orcid.core.findMyStuff.circuitBreaker.failures:3}")
+    private int circuitBreakerFailures;
+
+    @Value("${org.orcid.core.findMyStuff.circuitBreaker.openMillis:60000}")
+    private long circuitBreakerOpenMillis;
+
+    private ThreadPoolExecutor finderExecutor;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    @PostConstruct
+    public void init() {
+        if (!parallelEnabled) {
+            return;
+        }
+        AtomicInteger count = new AtomicInteger();
+        finderExecutor = new ThreadPoolExecutor(finderThreads, finderThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(finderThreads * 8), r -> {
+            Thread t = new Thread(r, "find-my-stuff-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        finderExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (finderExecutor != null) {
+            finderExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Invokes all finders for a given ORCID
      * 
@@ -72,6 +130,17 @@ public class FindMyStuffManagerImpl implements FindMyStuffManager {
     public Map<String, FindMyStuffResult> find(String orcid) {
         Map<String, FindMyStuffResult> result = new HashMap<String, FindMyStuffResult>();
         ExternalIDs existingIDs = workManagerReadOnly.getAllExternalIDs(orcid);
+        if (parallelEnabled) {
+            List<Finder> enabled = new ArrayList<Finder>();
+            for (Finder f : finders) {
+                if (f.isEnabled())
+                    enabled.add(f);
+            }
+            for (Map.Entry<Finder, FindMyStuffResult> found : runFinders(orcid, existingIDs, enabled).entrySet()) {
+                result.put(found.getKey().getFinderName(), found.getValue());
+            }
+            return result;
+        }
         for (Finder f : finders) {
             if (f.isEnabled())
                 result.put(f.getFinderName(), f.find(orcid, existingIDs));
@@ -109,6 +178,9 @@ public class FindMyStuffManagerImpl implements FindMyStuffManager {
                 // followed through)
             }            
         }
+        if (parallelEnabled) {
+            return findInParallel(orcid, skipServices, existingHistories);
+        }
         // check for existing permissions
         for (Finder f : finders) {
             if (f.isEnabled() && orcidOauth2TokenDetailService.doesClientKnowUser(f.getRelatedClientId(), orcid))
@@ -124,27 +196,130 @@ public class FindMyStuffManagerImpl implements FindMyStuffManager {
                 // if found, update history, create notification, return details
                 // & notification
                 if (!r.getResults().isEmpty()) {
-                    r.setNotification(getOrCreateNotification(orcid, f));
-                    result.add(r);
-                    if (existingHistories.containsKey(r.getFinderName())) {
-                        // update history
-                        existingHistories.get(r.getFinderName()).setLastCount(r.getResults().size());
-                        findMyStuffHistoryDao.merge(existingHistories.get(r.getFinderName()));
-                    } else {
-                        // create history
-                        FindMyStuffHistoryEntity e = new FindMyStuffHistoryEntity();
-                        e.setFinderName(r.getFinderName());
-                        e.setOptOut(false);
-                        e.setLastCount(r.getResults().size());
-                        e.setOrcid(orcid);
-                        findMyStuffHistoryDao.persist(e);
-                    }
+                    result.add(processResult(orcid, f, r, existingHistories));
                 }
             }
         }
         return result;
     }
 
+    /**
+     * findIfAppropriate with the permission checks made in one token query
+     * and the finders running at the same time, each one given
+     * finderTimeoutMillis. Finders that time out or fail are left out of the
+     * result, and after circuitBreakerFailures of those in a row a finder is
+     * not called for circuitBreakerOpenMillis.
+     */
+    private List<FindMyStuffResult> findInParallel(String orcid, Set<String> skipServices, Map<String, FindMyStuffHistoryEntity> existingHistories) {
+        List<Finder> toRun = new ArrayList<Finder>();
+        Set<String> clientIds = new HashSet<String>();
+        for (Finder f : finders) {
+            if (f.isEnabled() && !skipServices.contains(f.getFinderName())) {
+                toRun.add(f);
+                clientIds.add(f.getRelatedClientId());
+            }
+        }
+        if (toRun.isEmpty()) {
+            return new ArrayList<FindMyStuffResult>();
+        }
+        // check for existing permissions
+        Set<String> knownBy = orcidOauth2TokenDetailService.findClientsThatKnowUser(clientIds, orcid);
+        toRun.removeIf(f -> knownBy.contains(f.getRelatedClientId()));
+
+        List<FindMyStuffResult> result = new ArrayList<FindMyStuffResult>();
+        if (toRun.isEmpty()) {
+            return result;
+        }
+        ExternalIDs existingIDs = workManagerReadOnly.getAllExternalIDs(orcid);
+        for (Map.Entry<Finder, FindMyStuffResult> found : runFinders(orcid, existingIDs, toRun).entrySet()) {
+            if (!found.getValue().getResults().isEmpty()) {
+                result.add(processResult(orcid, found.getKey(), found.getValue(), existingHistories));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the finders on the finder executor, giving each one
+     * finderTimeoutMillis from the moment it starts. A finder still waiting
+     * for a thread finderTimeoutMillis after it was submitted is dropped
+     * without counting against its circuit breaker, the executor being busy
+     * says nothing about the finder.
+     * 
+     * @return the results of the finders that completed in time, in the order
+     *         the finders were given
+     */
+    private Map<Finder, FindMyStuffResult> runFinders(String orcid, ExternalIDs existingIDs, List<Finder> toRun) {
+        Map<Finder, FinderCall> running = new LinkedHashMap<Finder, FinderCall>();
+        for (Finder f : toRun) {
+            CircuitBreaker breaker = circuitBreakers.computeIfAbsent(f.getFinderName(), name -> new CircuitBreaker());
+            Permit permit = breaker.allowRequest();
+            if (Permit.DENIED.equals(permit)) {
+                LOGGER.debug("Skipping finder {}, it has been failing", f.getFinderName());
+                continue;
+            }
+            FinderCall call = new FinderCall(f, orcid, existingIDs, permit);
+            try {
+                call.future = finderExecutor.submit(call);
+                running.put(f, call);
+            } catch (RejectedExecutionException e) {
+                breaker.release(permit);
+                LOGGER.warn("Finder executor is full, skipping finder {} for {}", f.getFinderName(), orcid);
+            }
+        }
+
+        Map<Finder, FindMyStuffResult> results = new LinkedHashMap<Finder, FindMyStuffResult>();
+        for (Map.Entry<Finder, FinderCall> entry : running.entrySet()) {
+            Finder f = entry.getKey();
+            FinderCall call = entry.getValue();
+            CircuitBreaker breaker = circuitBreakers.get(f.getFinderName());
+            try {
+                results.put(f, call.await(finderTimeoutMillis));
+                breaker.recordSuccess();
+            } catch (TimeoutException e) {
+                call.future.cancel(true);
+                if (call.isStarted()) {
+                    breaker.recordFailure(call.permit, circuitBreakerFailures, circuitBreakerOpenMillis);
+                    LOGGER.warn("Finder {} timed out for {}", f.getFinderName(), orcid);
+                } else {
+                    breaker.release(call.permit);
+                    LOGGER.warn("Finder {} didn't get a thread in time for {}", f.getFinderName(), orcid);
+                }
+            } catch (ExecutionException e) {
+                breaker.recordFailure(call.permit, circuitBreakerFailures, circuitBreakerOpenMillis);
+                LOGGER.warn("Finder " + f.getFinderName() + " failed for " + orcid, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Map.Entry<Finder, FinderCall> pending : running.entrySet()) {
+                    if (!results.containsKey(pending.getKey())) {
+                        pending.getValue().future.cancel(true);
+                        circuitBreakers.get(pending.getKey().getFinderName()).release(pending.getValue().permit);
+                    }
+                }
+                break;
+            }
+        }
+        return results;
+    }
+
+    private FindMyStuffResult processResult(String orcid, Finder f, FindMyStuffResult r, Map<String, FindMyStuffHistoryEntity> existingHistories) {
+        r.setNotification(getOrCreateNotification(orcid, f));
+        if (existingHistories.containsKey(r.getFinderName())) {
+            // update history
+            existingHistories.get(r.getFinderName()).setLastCount(r.getResults().size());
+            findMyStuffHistoryDao.merge(existingHistories.get(r.getFinderName()));
+        } else {
+            // create history
+            FindMyStuffHistoryEntity e = new FindMyStuffHistoryEntity();
+            e.setFinderName(r.getFinderName());
+            e.setOptOut(false);
+            e.setLastCount(r.getResults().size());
+            e.setOrcid(orcid);
+            findMyStuffHistoryDao.persist(e);
+        }
+        return r;
+    }
+
     /**
      * Retrieve existing notification if it's in the top 50, otherwise create a
      * new one.
@@ -219,4 +394,112 @@ public class FindMyStuffManagerImpl implements FindMyStuffManager {
         findMyStuffHistoryDao.markOptOut(orcid, finderName, state);
     }
 
+    /**
+     * A finder call on the finder executor, remembering when it got a thread
+     * so its deadline can be counted from there
+     */
+    private static class FinderCall implements Callable<FindMyStuffResult> {
+        private final Finder finder;
+
+        private final String orcid;
+
+        private final ExternalIDs existingIDs;
+
+        private final Permit permit;
+
+        private final long submittedAt = System.currentTimeMillis();
+
+        private volatile long startedAt;
+
+        private Future<FindMyStuffResult> future;
+
+        FinderCall(Finder finder, String orcid, ExternalIDs existingIDs, Permit permit) {
+            this.finder = finder;
+            this.orcid = orcid;
+            this.existingIDs = existingIDs;
+            this.permit = permit;
+        }
+
+        @Override
+        public FindMyStuffResult call() {
+            startedAt = System.currentTimeMillis();
+            return finder.find(orcid, existingIDs);
+        }
+
+        boolean isStarted() {
+            return startedAt > 0;
+        }
+
+        /**
+         * Waits until timeoutMillis after the call started, or after it was
+         * submitted while it hasn't
+         */
+        FindMyStuffResult await(long timeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+            while (true) {
+                long started = startedAt;
+                long deadline = (started > 0 ? started : submittedAt) + timeoutMillis;
+                try {
+                    return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Started meanwhile, so its deadline moved
+                    if (started == 0 && isStarted()) {
+                        continue;
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private enum Permit {
+        DENIED, GRANTED, TRIAL
+    }
+
+    /**
+     * Counts the failures in a row of a finder, once there are enough of them
+     * the finder is left alone for a while, then given one trial call. The
+     * circuit closes if the trial call succeeds and opens again if it fails.
+     */
+    private static class CircuitBreaker {
+        private int failures;
+
+        private long openUntil;
+
+        private boolean trialRunning;
+
+        synchronized Permit allowRequest() {
+            if (openUntil == 0) {
+                return Permit.GRANTED;
+            }
+            if (trialRunning || System.currentTimeMillis() < openUntil) {
+                return Permit.DENIED;
+            }
+            trialRunning = true;
+            return Permit.TRIAL;
+        }
+
+        synchronized void recordSuccess() {
+            failures = 0;
+            openUntil = 0;
+            trialRunning = false;
+        }
+
+        synchronized void recordFailure(Permit permit, int maxFailures, long openMillis) {
+            failures++;
+            if (Permit.TRIAL.equals(permit) || failures >= maxFailures) {
+                openUntil = System.currentTimeMillis() + openMillis;
+            }
+            release(permit);
+        }
+
+        /**
+         * The call didn't run, so it tells nothing about the finder
+         */
+        synchronized void release(Permit permit) {
+            if (Permit.TRIAL.equals(permit)) {
+                trialRunning = false;
+            }
+        }
+    }
+
 }
\ No newline at end of file
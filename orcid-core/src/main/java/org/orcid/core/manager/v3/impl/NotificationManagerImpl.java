@@ -155,6 +155,21 @@ public class NotificationManagerImpl extends ManagerReadOnlyBaseImpl implements
     @Value("${org.orcid.notifications.delete.offset.records:10}")
     private Integer recordsPerBatch;
     
+    @Value("${org.orcid.notifications.retention.setBased:false}")
+    private boolean setBasedRetention;
+    
+    @Value("${org.orcid.notifications.retention.recordsPerChunk:500}")
+    private int retentionRecordsPerChunk;
+    
+    @Value("${org.orcid.notifications.retention.maxChunksPerRun:0}")
+    private int retentionMaxChunksPerRun;
+    
+    // Where the set based archive and delete runs stopped, so a run that hits
+    // maxChunksPerRun carries on from there the next time
+    private String archiveRetentionCursor = "";
+    
+    private String deleteRetentionCursor = "";
+    
     @Resource
     FindMyStuffManager findMyStuffManager;
     
@@ -708,11 +723,17 @@ public class NotificationManagerImpl extends ManagerReadOnlyBaseImpl implements
 
     @Override
     public Integer archiveOffsetNotifications() {
+        if (setBasedRetention) {
+            return purgeOverflowNotifications(notificationArchiveOffset == null ? 100 : notificationArchiveOffset, true);
+        }
         return notificationDao.archiveOffsetNotifications(notificationArchiveOffset == null ? 100 : notificationArchiveOffset);
     }
 
     @Override    
     public Integer deleteOffsetNotifications() {
+        if (setBasedRetention) {
+            return purgeOverflowNotifications(notificationDeleteOffset == null ? 10000 : notificationDeleteOffset, false);
+        }
         List<Object[]> toDelete = new ArrayList<Object[]>();
         Integer deleted = 0;
         do {
@@ -734,6 +755,51 @@ public class NotificationManagerImpl extends ManagerReadOnlyBaseImpl implements
         return deleted;
     }
 
+    /**
+     * Archives, or deletes, the notifications of every record past the most
+     * recent keep ones. Records are visited in order, retentionRecordsPerChunk
+     * at a time, and each chunk is handled with a couple of statements in its
+     * own transaction.
+     */
+    private synchronized int purgeOverflowNotifications(int keep, boolean archive) {
+        String cursor = archive ? archiveRetentionCursor : deleteRetentionCursor;
+        String action = archive ? "archived" : "deleted";
+        LOGGER.info("Starting notification retention run, keeping {} per record, starting after '{}'", keep, cursor);
+        int total = 0;
+        int chunks = 0;
+        int records = 0;
+        boolean finished = false;
+        while (retentionMaxChunksPerRun <= 0 || chunks < retentionMaxChunksPerRun) {
+            List<String> orcids = notificationDao.findOrcidsWithNotifications(cursor, archive, retentionRecordsPerChunk);
+            if (!orcids.isEmpty()) {
+                List<Long> ids = notificationDao.findOverflowNotificationIds(orcids, keep, archive);
+                if (!ids.isEmpty()) {
+                    total += archive ? notificationDao.archiveNotifications(ids) : notificationDao.deleteNotifications(ids);
+                }
+                chunks++;
+                records += orcids.size();
+                cursor = orcids.get(orcids.size() - 1);
+                LOGGER.info("Notification retention: {} notifications {} so far, {} records checked, up to {}", new Object[] { total, action, records, cursor });
+            }
+            if (orcids.size() < retentionRecordsPerChunk) {
+                finished = true;
+                break;
+            }
+        }
+        if (finished) {
+            LOGGER.info("Notification retention run finished, {} notifications {} over {} records", new Object[] { total, action, records });
+            cursor = "";
+        } else {
+            LOGGER.info("Notification retention run stopped after {} chunks, {} notifications {}, will resume after {}", new Object[] { chunks, total, action, cursor });
+        }
+        if (archive) {
+            archiveRetentionCursor = cursor;
+        } else {
+            deleteRetentionCursor = cursor;
+        }
+        return total;
+    }
+
     @Override
     public void deleteNotificationsForRecord(String orcid) {
         boolean notDoneYet = notificationDao.deleteNotificationsForRecord(orcid, DELETE_BATCH_SIZE);
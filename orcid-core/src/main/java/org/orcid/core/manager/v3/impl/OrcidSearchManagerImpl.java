@@ -1,6 +1,7 @@
 package org.orcid.core.manager.v3.impl;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
@@ -83,6 +84,17 @@ public class OrcidSearchManagerImpl implements OrcidSearchManager {
         }
     }
 
+    @Override
+    public void writeOrcidIdsAsCSV(Map<String, List<String>> solrParams, OutputStream out) {
+        try {
+            csvSolrClient.writeCSVByDocumentCriteria(solrParams, out);
+        } catch (URISyntaxException e) {
+            throw new ApplicationException(e);
+        } catch (IOException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
     @Override
     public ExpandedSearch expandedSearch(Map<String, List<String>> solrParams) {
         ExpandedSearch search = new ExpandedSearch();
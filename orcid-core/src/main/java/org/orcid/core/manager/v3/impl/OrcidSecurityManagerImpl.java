@@ -3,7 +3,10 @@ package org.orcid.core.manager.v3.impl;
 import java.security.AccessControlException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -265,42 +268,38 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
 
     @Override
     public void checkAndFilter(String orcid, Collection<? extends VisibilityType> elements, ScopePathType requiredScope) {
-        checkAndFilter(orcid, elements, requiredScope, false);
+        if (elements == null) {
+            return;
+        }
+        filter(elements, requiredScope, getAuthorizationContext(orcid));
     }
 
     @SuppressWarnings("unchecked")
-    private void checkAndFilter(String orcid, Affiliations<? extends AffiliationSummary> affiliations, ScopePathType requiredScope, boolean tokenAlreadyChecked) {
+    private void filter(Affiliations<? extends AffiliationSummary> affiliations, ScopePathType requiredScope, AuthorizationContext context) {
         Iterator<?> iterator = affiliations.retrieveGroups().iterator();
         while (iterator.hasNext()) {
             AffiliationGroup<? extends AffiliationSummary> group = (AffiliationGroup<? extends AffiliationSummary>) iterator.next();
-            checkAndFilter(orcid, group.getActivities(), requiredScope, tokenAlreadyChecked);
+            filter(group.getActivities(), requiredScope, context);
             if (group.getActivities().isEmpty()) {
                 iterator.remove();
             }
         }
     }
 
-    private void checkAndFilter(String orcid, Collection<? extends VisibilityType> elements, ScopePathType requiredScope, boolean tokenAlreadyChecked) {
+    private void filter(Collection<? extends VisibilityType> elements, ScopePathType requiredScope, AuthorizationContext context) {
         if (elements == null) {
             return;
         }
-
-        // Check the token
-        if (!tokenAlreadyChecked) {
-            isMyToken(orcid);
-        }
-
         Iterator<? extends VisibilityType> it = elements.iterator();
         while (it.hasNext()) {
             VisibilityType element = it.next();
-            try {
-                if (element instanceof Email) {
-                    Email email = (Email) element;
-                    checkAndFilter(orcid, email, requiredScope, true);
-                } else {
-                    checkAndFilter(orcid, element, requiredScope, true);
-                }
-            } catch (Exception e) {
+            boolean visible;
+            if (element instanceof Email) {
+                visible = isVisible((Email) element, context);
+            } else {
+                visible = isVisible(element, requiredScope, context);
+            }
+            if (!visible) {
                 it.remove();
             }
         }
@@ -311,43 +310,43 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
         if (activities == null) {
             return;
         }
+        filter(activities, getAuthorizationContext(orcid));
+    }
 
-        // Check the token
-        isMyToken(orcid);
-
+    private void filter(ActivitiesSummary activities, AuthorizationContext context) {
         // Distinctions
         if (activities.getDistinctions() != null) {
-            checkAndFilter(orcid, activities.getDistinctions(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getDistinctions(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Educations
         if (activities.getEducations() != null) {
-            checkAndFilter(orcid, activities.getEducations(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getEducations(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Employments
         if (activities.getEmployments() != null) {
-            checkAndFilter(orcid, activities.getEmployments(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getEmployments(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Invited positions
         if (activities.getInvitedPositions() != null) {
-            checkAndFilter(orcid, activities.getInvitedPositions(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getInvitedPositions(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Memberships
         if (activities.getMemberships() != null) {
-            checkAndFilter(orcid, activities.getMemberships(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getMemberships(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Qualifications
         if (activities.getQualifications() != null) {
-            checkAndFilter(orcid, activities.getQualifications(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getQualifications(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Services
         if (activities.getServices() != null) {
-            checkAndFilter(orcid, activities.getServices(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+            filter(activities.getServices(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
         }
 
         // Research resources
@@ -355,7 +354,7 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             Iterator<? extends Group> iterator = activities.getResearchResources().retrieveGroups().iterator();
             while (iterator.hasNext()) {
                 Group group = iterator.next();
-                checkAndFilter(orcid, group.getActivities(), READ_AFFILIATIONS_REQUIRED_SCOPE, true);
+                filter(group.getActivities(), READ_AFFILIATIONS_REQUIRED_SCOPE, context);
                 if (group.getActivities().isEmpty()) {
                     iterator.remove();
                 } else {
@@ -370,7 +369,7 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             while (groupIt.hasNext()) {
                 FundingGroup group = groupIt.next();
                 // Filter the list of elements
-                checkAndFilter(orcid, group.getFundingSummary(), READ_FUNDING_REQUIRED_SCOPE, true);
+                filter(group.getFundingSummary(), READ_FUNDING_REQUIRED_SCOPE, context);
                 // Clean external identifiers
                 if (group.getFundingSummary().isEmpty()) {
                     groupIt.remove();
@@ -389,7 +388,7 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
                 while (duplicateGroupIterator.hasNext()) {
                     PeerReviewDuplicateGroup duplicateGroup = duplicateGroupIterator.next();
                     // Filter the list of elements
-                    checkAndFilter(orcid, duplicateGroup.getPeerReviewSummary(), READ_PEER_REVIEWS_REQUIRED_SCOPE, true);
+                    filter(duplicateGroup.getPeerReviewSummary(), READ_PEER_REVIEWS_REQUIRED_SCOPE, context);
                     if (duplicateGroup.getPeerReviewSummary().isEmpty()) {
                         duplicateGroupIterator.remove();
                     }
@@ -406,7 +405,7 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             while (groupIt.hasNext()) {
                 WorkGroup group = groupIt.next();
                 // Filter the list of elements
-                checkAndFilter(orcid, group.getWorkSummary(), READ_WORKS_REQUIRED_SCOPE, true);
+                filter(group.getWorkSummary(), READ_WORKS_REQUIRED_SCOPE, context);
                 // Clean external identifiers
                 if (group.getWorkSummary().isEmpty()) {
                     groupIt.remove();
@@ -423,27 +422,18 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             return;
         }
 
-        // Check the token
-        isMyToken(orcid);
+        AuthorizationContext context = getAuthorizationContext(orcid);
 
         if (personalDetails.getOtherNames() != null) {
-            checkAndFilter(orcid, personalDetails.getOtherNames().getOtherNames(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(personalDetails.getOtherNames().getOtherNames(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
-        if (personalDetails.getBiography() != null) {
-            try {
-                checkAndFilter(orcid, personalDetails.getBiography(), READ_BIO_REQUIRED_SCOPE, true);
-            } catch (Exception e) {
-                personalDetails.setBiography(null);
-            }
+        if (personalDetails.getBiography() != null && !isVisible(personalDetails.getBiography(), READ_BIO_REQUIRED_SCOPE, context)) {
+            personalDetails.setBiography(null);
         }
 
-        if (personalDetails.getName() != null) {
-            try {
-                checkAndFilter(orcid, personalDetails.getName(), READ_BIO_REQUIRED_SCOPE, true);
-            } catch (Exception e) {
-                personalDetails.setName(null);
-            }
+        if (personalDetails.getName() != null && !isVisible(personalDetails.getName(), READ_BIO_REQUIRED_SCOPE, context)) {
+            personalDetails.setName(null);
         }
     }
 
@@ -452,48 +442,40 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
         if (person == null) {
             return;
         }
+        filter(person, getAuthorizationContext(orcid));
+    }
 
-        // Check the token
-        isMyToken(orcid);
-
+    private void filter(Person person, AuthorizationContext context) {
         if (person.getAddresses() != null) {
-            checkAndFilter(orcid, person.getAddresses().getAddress(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getAddresses().getAddress(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
-        if (person.getBiography() != null) {
-            try {
-                checkAndFilter(orcid, person.getBiography(), READ_BIO_REQUIRED_SCOPE, true);
-            } catch (Exception e) {
-                person.setBiography(null);
-            }
+        if (person.getBiography() != null && !isVisible(person.getBiography(), READ_BIO_REQUIRED_SCOPE, context)) {
+            person.setBiography(null);
         }
 
         if (person.getEmails() != null) {
-            checkAndFilter(orcid, person.getEmails().getEmails(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getEmails().getEmails(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
         if (person.getExternalIdentifiers() != null) {
-            checkAndFilter(orcid, person.getExternalIdentifiers().getExternalIdentifiers(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getExternalIdentifiers().getExternalIdentifiers(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
         if (person.getKeywords() != null) {
-            checkAndFilter(orcid, person.getKeywords().getKeywords(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getKeywords().getKeywords(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
-        if (person.getName() != null) {
-            try {
-                checkAndFilter(orcid, person.getName(), READ_BIO_REQUIRED_SCOPE, true);
-            } catch (Exception e) {
-                person.setName(null);
-            }
+        if (person.getName() != null && !isVisible(person.getName(), READ_BIO_REQUIRED_SCOPE, context)) {
+            person.setName(null);
         }
 
         if (person.getOtherNames() != null) {
-            checkAndFilter(orcid, person.getOtherNames().getOtherNames(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getOtherNames().getOtherNames(), READ_BIO_REQUIRED_SCOPE, context);
         }
 
         if (person.getResearcherUrls() != null) {
-            checkAndFilter(orcid, person.getResearcherUrls().getResearcherUrls(), READ_BIO_REQUIRED_SCOPE, true);
+            filter(person.getResearcherUrls().getResearcherUrls(), READ_BIO_REQUIRED_SCOPE, context);
         }
     }
 
@@ -503,42 +485,33 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             return;
         }
 
-        // Check the token
-        isMyToken(orcid);
+        // One check of the token for the whole record
+        AuthorizationContext context = getAuthorizationContext(orcid);
 
         if (record.getActivitiesSummary() != null) {
-            checkAndFilter(orcid, record.getActivitiesSummary());
+            filter(record.getActivitiesSummary(), context);
         }
 
         if (record.getPerson() != null) {
-            checkAndFilter(orcid, record.getPerson());
+            filter(record.getPerson(), context);
         }
     }
 
     @Override
     public void checkAndFilter(String orcid, WorkBulk workBulk, ScopePathType scopePathType) {
         // Check the token belongs to the user
-        isMyToken(orcid);
+        AuthorizationContext context = getAuthorizationContext(orcid);
         // Check you have the required scopes or if only public elements should
         // be allowed
         boolean publicElementsOnly = false;
-        try {
-            checkScopes(scopePathType);
-        } catch (OrcidAccessControlException e) {
-            try {
-                checkScopes(ScopePathType.READ_PUBLIC);
-                publicElementsOnly = true;
-            } catch (OrcidAccessControlException e2) {
-                throw e;
+        if (!context.hasScope(scopePathType)) {
+            if (!context.hasScope(ScopePathType.READ_PUBLIC)) {
+                throw new OrcidAccessControlException();
             }
+            publicElementsOnly = true;
         }
 
-        String clientId = null;
-        OAuth2Authentication oAuth2Authentication = getOAuth2Authentication();
-        if (oAuth2Authentication != null) {
-            OAuth2Request authorizationRequest = oAuth2Authentication.getOAuth2Request();
-            clientId = authorizationRequest.getClientId();
-        }
+        String clientId = context.getClientId();
 
         List<BulkElement> filteredElements = new ArrayList<>();
 
@@ -605,47 +578,14 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
      */
     @Override
     public void checkAndFilter(String orcid, Email email, ScopePathType requiredScope) {
-        checkAndFilter(orcid, email, requiredScope, false);
-    }
-
-    /**
-     * Check the permissions of a request over an email. Private implementation
-     * that will also include a parameter that indicates if we should check the
-     * token or, if it was already checked previously
-     * 
-     * @param orcid
-     *            The user owner of the element
-     * @param email
-     *            The email to check
-     * @param requiredScope
-     *            The required scope to access this element
-     * @param tokenAlreadyChecked
-     *            Indicates if the token was already checked previously, so, we
-     *            don't expend time checking it again
-     * @throws OrcidUnauthorizedException
-     *             In case the token used was not issued for the owner of the
-     *             element
-     * @throws OrcidAccessControlException
-     *             In case the request doesn't have the required scopes
-     * @throws OrcidVisibilityException
-     *             In case the element is not visible due the visibility
-     */
-    private void checkAndFilter(String orcid, Email email, ScopePathType requiredScope, boolean tokenAlreadyChecked) {
         if (email == null) {
             return;
         }
-
-        // Check the token was issued for this user
-        if (!tokenAlreadyChecked) {
-            isMyToken(orcid);
-        }
-
-        try {
-            checkScopes(ScopePathType.EMAIL_READ_PRIVATE);
+        AuthorizationContext context = getAuthorizationContext(orcid);
+        if (context.hasScope(ScopePathType.EMAIL_READ_PRIVATE)) {
             return;
-        } catch (OrcidAccessControlException oace) {
-            checkAndFilter(orcid, (VisibilityType) email, READ_BIO_REQUIRED_SCOPE, true);
         }
+        check(email, READ_BIO_REQUIRED_SCOPE, context);
     }
 
     /**
@@ -667,70 +607,48 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
      */
     @Override
     public void checkAndFilter(String orcid, VisibilityType element, ScopePathType requiredScope) {
-        checkAndFilter(orcid, element, requiredScope, false);
-    }
-
-    /**
-     * Check the permissions of a request over an element. Private
-     * implementation that will also include a parameter that indicates if we
-     * should check the token or, if it was already checked previously
-     * 
-     * @param orcid
-     *            The user owner of the element
-     * @param element
-     *            The element to check
-     * @param requiredScope
-     *            The required scope to access this element
-     * @param tokenAlreadyChecked
-     *            Indicates if the token was already checked previously, so, we
-     *            don't expend time checking it again
-     * @throws OrcidUnauthorizedException
-     *             In case the token used was not issued for the owner of the
-     *             element
-     * @throws OrcidAccessControlException
-     *             In case the request doesn't have the required scopes
-     * @throws OrcidVisibilityException
-     *             In case the element is not visible due the visibility
-     */
-    private void checkAndFilter(String orcid, VisibilityType element, ScopePathType requiredScope, boolean tokenAlreadyChecked) {
         if (element == null) {
             return;
         }
+        check(element, requiredScope, getAuthorizationContext(orcid));
+    }
 
-        // Check the token was issued for this user
-        if (!tokenAlreadyChecked) {
-            isMyToken(orcid);
+    private void check(VisibilityType element, ScopePathType requiredScope, AuthorizationContext context) {
+        if (isSourceOrPublic(element, context)) {
+            return;
         }
-
-        // Check if the client is the source of the element
-        if (element instanceof Filterable) {
-            Filterable filterable = (Filterable) element;
-            OAuth2Authentication oAuth2Authentication = getOAuth2Authentication();
-            if (oAuth2Authentication != null) {
-                OAuth2Request authorizationRequest = oAuth2Authentication.getOAuth2Request();
-                String clientId = authorizationRequest.getClientId();
-                if (clientId.equals(filterable.retrieveSourcePath())) {
-                    // The client doing the request is the source of the element
-                    return;
-                }
-            }
+        // Check the request have the required scope
+        if (!context.hasScope(requiredScope)) {
+            throw new OrcidAccessControlException();
         }
+        // Check element visibility
+        checkVisibility(element, requiredScope);
+    }
 
-        // Check if the element is public and the token contains the
-        // /read-public scope
-        if (Visibility.PUBLIC.equals(element.getVisibility())) {
-            try {
-                checkScopes(ScopePathType.READ_PUBLIC);
-                // This means it have ScopePathType.READ_PUBLIC scope, so, we
-                // can return it
-                return;
-            } catch (OrcidAccessControlException e) {
-                // Just continue filtering
-            }
+    /**
+     * The same decision as check, without the exceptions, for filtering
+     */
+    private boolean isVisible(VisibilityType element, ScopePathType requiredScope, AuthorizationContext context) {
+        if (isSourceOrPublic(element, context)) {
+            return true;
         }
+        return context.hasScope(requiredScope) && requiredScope.isReadOnlyScope() && !Visibility.PRIVATE.equals(element.getVisibility());
+    }
 
-        // Filter
-        filter(element, requiredScope);
+    private boolean isVisible(Email email, AuthorizationContext context) {
+        return context.hasScope(ScopePathType.EMAIL_READ_PRIVATE) || isVisible(email, READ_BIO_REQUIRED_SCOPE, context);
+    }
+
+    /**
+     * @return true if the client doing the request is the source of the
+     *         element, or the element is public and the token contains the
+     *         /read-public scope
+     */
+    private boolean isSourceOrPublic(VisibilityType element, AuthorizationContext context) {
+        if (element instanceof Filterable && context.getClientId() != null && context.getClientId().equals(((Filterable) element).retrieveSourcePath())) {
+            return true;
+        }
+        return Visibility.PUBLIC.equals(element.getVisibility()) && context.hasScope(ScopePathType.READ_PUBLIC);
     }
 
     /**
@@ -741,34 +659,16 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
      *            The group we want to filter the external identifiers
      */
     private void filterExternalIdentifiers(Group group) {
-        // Iterate over every external identifier and check if it is still
-        // present in the list of filtered elements
-        ExternalIDs extIds = group.getIdentifiers();
-        Iterator<ExternalID> extIdsIt = extIds.getExternalIdentifier().iterator();
-        while (extIdsIt.hasNext()) {
-            ExternalID extId = extIdsIt.next();
-            boolean found = false;
-            for (GroupableActivity summary : group.getActivities()) {
-                if (summary.getExternalIdentifiers() != null) {
-                    if (summary.getExternalIdentifiers().getExternalIdentifier().contains(extId)) {
-                        found = true;
-                        break;
-                    }
-                }
-            }
-            // If the ext id is not found, remove it from the list of ext ids
-            if (!found) {
-                extIdsIt.remove();
+        // Gather the external identifiers of the activities left in the group,
+        // then drop every group external identifier not among them
+        Set<ExternalID> remaining = new HashSet<ExternalID>();
+        for (GroupableActivity summary : group.getActivities()) {
+            if (summary.getExternalIdentifiers() != null) {
+                remaining.addAll(summary.getExternalIdentifiers().getExternalIdentifier());
             }
         }
-    }
-
-    private void filter(VisibilityType element, ScopePathType requiredScope) {
-        // Check the request have the required scope
-        checkScopes(requiredScope);
-
-        // Check element visibility
-        checkVisibility(element, requiredScope);
+        ExternalIDs extIds = group.getIdentifiers();
+        extIds.getExternalIdentifier().removeIf(extId -> !remaining.contains(extId));
     }
 
     private void checkVisibility(VisibilityType element, ScopePathType requiredScope) {
@@ -823,7 +723,20 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
         }
     }
 
-    private void isMyToken(String orcid) {
+    /**
+     * Checks the token once and resolves what the filtering needs to know
+     * about it, so it isn't worked out again for every element
+     */
+    private AuthorizationContext getAuthorizationContext(String orcid) {
+        OAuth2Request authorizationRequest = isMyToken(orcid).getOAuth2Request();
+        return new AuthorizationContext(authorizationRequest.getClientId(), ScopePathType.getScopesFromStrings(authorizationRequest.getScope()));
+    }
+
+    /**
+     * @return the authentication of the request, once checked it can be used
+     *         to access the record
+     */
+    private OAuth2Authentication isMyToken(String orcid) {
         OAuth2Authentication oAuth2Authentication = getOAuth2Authentication();
         if (oAuth2Authentication == null) {
             throw new OrcidUnauthorizedException("No OAuth2 authentication found");
@@ -848,6 +761,7 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
         } else if (isNonClientCredentialScope(oAuth2Authentication) && !clientIsProfileSource(clientId, profile)) {
             throw new IllegalStateException("Non client credential scope found in client request");
         }
+        return oAuth2Authentication;
     }
 
     private void checkClientType() {
@@ -880,4 +794,37 @@ public class OrcidSecurityManagerImpl implements OrcidSecurityManager {
             throw new IllegalStateException("Non client credential scope found in client request");
         }
     }
+
+    /**
+     * What a request that passed isMyToken is allowed to see: the client
+     * making it and every scope its token grants, directly or through a
+     * broader scope
+     */
+    private static final class AuthorizationContext {
+        private final String clientId;
+
+        private final Set<ScopePathType> grantedScopes;
+
+        private AuthorizationContext(String clientId, Set<ScopePathType> requestedScopes) {
+            this.clientId = clientId;
+            EnumSet<ScopePathType> granted = EnumSet.noneOf(ScopePathType.class);
+            for (ScopePathType candidate : ScopePathType.values()) {
+                for (ScopePathType scope : requestedScopes) {
+                    if (scope.hasScope(candidate)) {
+                        granted.add(candidate);
+                        break;
+                    }
+                }
+            }
+            this.grantedScopes = Collections.unmodifiableSet(granted);
+        }
+
+        String getClientId() {
+            return clientId;
+        }
+
+        boolean hasScope(ScopePathType requiredScope) {
+            return grantedScopes.contains(requiredScope);
+        }
+    }
 }
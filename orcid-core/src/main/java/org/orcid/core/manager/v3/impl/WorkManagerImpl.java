@@ -119,6 +119,9 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
     private int maxContributorsForUI;
     
     private Integer maxWorksToWrite;
+
+    @Value("${org.orcid.core.works.bulk.write.jdbcBatchSize:0}")
+    private int bulkWriteJdbcBatchSize;
     
     public WorkManagerImpl(@Value("${org.orcid.core.works.bulk.read.max:100}") Integer bulkReadSize, @Value("${org.orcid.core.works.bulk.write.max:100}") Integer bulkWriteSize) {
         super(bulkReadSize);
@@ -184,12 +187,7 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
                 if((existingWorks.size() + 1) > this.maxNumOfActivities) {
                     throw new ExceedMaxNumberOfElementsException();
                 }
-                if (existingWorks != null) {
-                    for (Work existing : existingWorks) {
-                        activityValidator.checkExternalIdentifiersForDuplicates(work, existing, existing.getSource(),
-                                activeSource);
-                    }
-                }
+                activityValidator.checkWorkExternalIdentifiersForDuplicates(work, existingWorks, activeSource, null);
             }
 
         } else {
@@ -248,58 +246,67 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
             ProfileEntity profile = profileEntityCacheManager.retrieve(orcid);
                                   
             List<Item> items = new ArrayList<Item>();
-            
-            for(int i = 0; i < bulk.size(); i++) {
-                if(Work.class.isAssignableFrom(bulk.get(i).getClass())){
-                    Work work = (Work) bulk.get(i);
-                    try {
-                        activityValidator.validateWork(work, activeSource, true, true, null);
-
-                        //Validate it is not duplicated
-                        if(work.getExternalIdentifiers() != null) {
-                            for(ExternalID extId : work.getExternalIdentifiers().getExternalIdentifier()) {
-                                //normalise the provided ID
-                                extId.setNormalized(new TransientNonEmptyString(norm.normalise(extId.getType(), extId.getValue())));                                
-                                // If the external id exists and is a SELF identifier, then mark it as duplicated                                
-                                if(existingExternalIdentifiers.contains(extId) && Relationship.SELF.equals(extId.getRelationship())) {
-                                    Map<String, String> params = new HashMap<String, String>();
-                                    params.put("clientName", SourceEntityUtils.getSourceName(activeSource));
-                                    if(extIDPutCodeMap.containsKey(extId)) {
-                                        params.put("putCode", String.valueOf(extIDPutCodeMap.get(extId)));
-                                    }                                    
-                                    throw new OrcidDuplicatedActivityException(params);
+            // The works are inserted on flush, so they can go in JDBC batches
+            if (bulkWriteJdbcBatchSize > 0) {
+                workDao.setJdbcBatchSize(bulkWriteJdbcBatchSize);
+            }
+            try {
+                for(int i = 0; i < bulk.size(); i++) {
+                    if(Work.class.isAssignableFrom(bulk.get(i).getClass())){
+                        Work work = (Work) bulk.get(i);
+                        try {
+                            activityValidator.validateWork(work, activeSource, true, true, null);
+
+                            //Validate it is not duplicated
+                            if(work.getExternalIdentifiers() != null) {
+                                for(ExternalID extId : work.getExternalIdentifiers().getExternalIdentifier()) {
+                                    //normalise the provided ID
+                                    extId.setNormalized(new TransientNonEmptyString(norm.normalise(extId.getType(), extId.getValue())));                                
+                                    // If the external id exists and is a SELF identifier, then mark it as duplicated                                
+                                    if(existingExternalIdentifiers.contains(extId) && Relationship.SELF.equals(extId.getRelationship())) {
+                                        Map<String, String> params = new HashMap<String, String>();
+                                        params.put("clientName", SourceEntityUtils.getSourceName(activeSource));
+                                        if(extIDPutCodeMap.containsKey(extId)) {
+                                            params.put("putCode", String.valueOf(extIDPutCodeMap.get(extId)));
+                                        }                                    
+                                        throw new OrcidDuplicatedActivityException(params);
+                                    }
                                 }
                             }
-                        }
-                        //Save the work
-                        WorkEntity workEntity = jpaJaxbWorkAdapter.toWorkEntity(work);
-                        workEntity.setOrcid(orcid);
-                        workEntity.setAddedToProfileDate(new Date());
+                            //Save the work
+                            WorkEntity workEntity = jpaJaxbWorkAdapter.toWorkEntity(work);
+                            workEntity.setOrcid(orcid);
+                            workEntity.setAddedToProfileDate(new Date());
 
-                        SourceEntityUtils.populateSourceAwareEntityFromSource(activeSource, workEntity);
+                            SourceEntityUtils.populateSourceAwareEntityFromSource(activeSource, workEntity);
                         
-                        setIncomingWorkPrivacy(workEntity, profile);        
-                        DisplayIndexCalculatorHelper.setDisplayIndexOnNewEntity(workEntity, true);
-                        filterContributors(work, workEntity);
-                        workDao.persist(workEntity);                    
+                            setIncomingWorkPrivacy(workEntity, profile);        
+                            DisplayIndexCalculatorHelper.setDisplayIndexOnNewEntity(workEntity, true);
+                            filterContributors(work, workEntity);
+                            workDao.persist(workEntity);                    
                         
-                        //Update the element in the bulk
-                        Work updatedWork = jpaJaxbWorkAdapter.toWork(workEntity);
-                        bulk.set(i, updatedWork);
+                            //Update the element in the bulk
+                            Work updatedWork = jpaJaxbWorkAdapter.toWork(workEntity);
+                            bulk.set(i, updatedWork);
                         
-                        //Add the work extIds to the list of existing external identifiers
-                        addExternalIdsToExistingSet(extIDPutCodeMap, updatedWork, existingExternalIdentifiers);
-                        items.add(createItem(workEntity, work.getExternalIdentifiers(), ActionType.CREATE));
-                    } catch(Exception e) {
-                        //Get the exception 
-                        OrcidError orcidError = orcidCoreExceptionMapper.getV3OrcidError(e);
-                        bulk.set(i, orcidError);
-                    }                                        
+                            //Add the work extIds to the list of existing external identifiers
+                            addExternalIdsToExistingSet(extIDPutCodeMap, updatedWork, existingExternalIdentifiers);
+                            items.add(createItem(workEntity, work.getExternalIdentifiers(), ActionType.CREATE));
+                        } catch(Exception e) {
+                            //Get the exception 
+                            OrcidError orcidError = orcidCoreExceptionMapper.getV3OrcidError(e);
+                            bulk.set(i, orcidError);
+                        }                                        
+                    }
+                }
+
+                workDao.flush();
+            } finally {
+                if (bulkWriteJdbcBatchSize > 0) {
+                    workDao.setJdbcBatchSize(null);
                 }
             }
             
-            workDao.flush();   
-            
             if(!items.isEmpty()) {
                 notificationManager.sendAmendEmail(orcid, AmendedSection.WORK, items);
             }
@@ -379,13 +386,8 @@ public class WorkManagerImpl extends WorkManagerReadOnlyImpl implements WorkMana
         if (isApiRequest) {
             activityValidator.validateWork(work, activeSource, false, isApiRequest, originalVisibility);                        
             List<Work> existingWorks = this.findWorks(orcid);       
-            
-            for (Work existing : existingWorks) {
-                // Dont compare the updated peer review with the DB version
-                if (!existing.getPutCode().equals(work.getPutCode())) {
-                    activityValidator.checkExternalIdentifiersForDuplicates(work, existing, existing.getSource(), activeSource);
-                }
-            }
+            // Dont compare the updated work with the DB version
+            activityValidator.checkWorkExternalIdentifiersForDuplicates(work, existingWorks, activeSource, work.getPutCode());
         } else {
             //validate external ID vocab
             externalIDValidator.validateWork(work.getExternalIdentifiers(), isApiRequest);            
@@ -2,6 +2,7 @@ package org.orcid.core.manager.v3.read_only;
 
 import java.util.List;
 
+import org.orcid.core.utils.v3.activities.WorkGroupAndGroupingSuggestionGenerator;
 import org.orcid.jaxb.model.v3.release.record.ExternalIDs;
 import org.orcid.jaxb.model.v3.release.record.Work;
 import org.orcid.jaxb.model.v3.release.record.WorkBulk;
@@ -119,6 +120,19 @@ public interface WorkManagerReadOnly extends ManagerReadOnlyBase {
 
     Works groupWorksAndGenerateGroupingSuggestions(List<WorkSummary> summaries, String orcid);
 
+    /**
+     * Same as groupWorksAndGenerateGroupingSuggestions, but with a generator
+     * that already has the works of the record grouped, so the caller only
+     * needs to group or ungroup the works that changed since
+     * 
+     * @param groupGenerator
+     *            The generator holding the grouped works of the record
+     * @param orcid
+     *            The record the works belong to
+     * @return Works element with the WorkSummary elements grouped
+     */
+    Works getGroupedWorksAndGenerateGroupingSuggestions(WorkGroupAndGroupingSuggestionGenerator groupGenerator, String orcid);
+
     WorksExtended groupWorksExtendedAndGenerateGroupingSuggestions(List<WorkSummaryExtended> summaries, String orcid);
 
     WorkExtended getWorkExtended(String orcid, Long workId);
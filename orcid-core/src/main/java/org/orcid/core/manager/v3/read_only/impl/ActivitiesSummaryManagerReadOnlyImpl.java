@@ -3,6 +3,15 @@ package org.orcid.core.manager.v3.read_only.impl;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 
 import org.orcid.core.manager.v3.read_only.ActivitiesSummaryManagerReadOnly;
 import org.orcid.core.manager.v3.read_only.AffiliationsManagerReadOnly;
@@ -12,7 +21,7 @@ import org.orcid.core.manager.v3.read_only.ResearchResourceManagerReadOnly;
 import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
 import org.orcid.jaxb.model.common.Relationship;
 import org.orcid.jaxb.model.v3.release.record.ExternalID;
-import org.orcid.jaxb.model.v3.release.record.GroupAble;
+import org.orcid.jaxb.model.v3.release.record.ExternalIDs;
 import org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary;
 import org.orcid.jaxb.model.v3.release.record.summary.DistinctionSummary;
 import org.orcid.jaxb.model.v3.release.record.summary.Distinctions;
@@ -36,8 +45,21 @@ import org.orcid.jaxb.model.v3.release.record.summary.ServiceSummary;
 import org.orcid.jaxb.model.v3.release.record.summary.Services;
 import org.orcid.jaxb.model.v3.release.record.summary.WorkSummary;
 import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 public class ActivitiesSummaryManagerReadOnlyImpl extends ManagerReadOnlyBaseImpl implements ActivitiesSummaryManagerReadOnly {    
+    private static final Logger LOG = LoggerFactory.getLogger(ActivitiesSummaryManagerReadOnlyImpl.class);
+
     private AffiliationsManagerReadOnly affiliationsManager;
     
     private ProfileFundingManagerReadOnly fundingManager;
@@ -64,10 +86,30 @@ public class ActivitiesSummaryManagerReadOnlyImpl extends ManagerReadOnlyBaseImp
         this.workManager = workManager;
     }  
     
+    @Value("${org.orcid.core.activitiesSummary.parallel.enabled:false}")
+    private boolean isParallelAssemblyEnabled;
+
+    @Value("${org.orcid.core.activitiesSummary.parallel.timeoutMillis:5000}")
+    private long parallelTimeoutMillis;
+
+    @Resource(name = "activitiesSummaryExecutor")
+    private AsyncTaskExecutor activitiesSummaryExecutor;
+
+    @Resource(name = "transactionManagerReadOnly")
+    private PlatformTransactionManager transactionManagerReadOnly;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
     public void setResearchResourceManager(ResearchResourceManagerReadOnly researchResourceManager) {
         this.researchResourceManager = researchResourceManager;
     }  
 
+    @PostConstruct
+    public void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManagerReadOnly);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
     @Override
     public ActivitiesSummary getActivitiesSummary(String orcid, boolean filterVersionOfIdentifiers) {
         return getActivitiesSummary(orcid, false, filterVersionOfIdentifiers);
@@ -79,92 +121,213 @@ public class ActivitiesSummaryManagerReadOnlyImpl extends ManagerReadOnlyBaseImp
     }
 
     public ActivitiesSummary getActivitiesSummary(String orcid, boolean justPublic, boolean filterVersionOfIdentifiers) {
+        List<Supplier<Consumer<ActivitiesSummary>>> sections = getSections(orcid, justPublic, filterVersionOfIdentifiers);
+        if (isParallelAssemblyEnabled && canAssembleInParallel()) {
+            return assembleInParallel(orcid, sections);
+        }
         ActivitiesSummary activities = new ActivitiesSummary();
+        for (Supplier<Consumer<ActivitiesSummary>> section : sections) {
+            section.get().accept(activities);
+        }
+        return activities;
+    }
+
+    /**
+     * Each section reads and groups one activity type and returns the setter
+     * that puts it in the summary, so the reads can run in any order or thread
+     * and the summary is still built the same way
+     */
+    private List<Supplier<Consumer<ActivitiesSummary>>> getSections(String orcid, boolean justPublic, boolean filterVersionOfIdentifiers) {
+        List<Supplier<Consumer<ActivitiesSummary>>> sections = new ArrayList<>();
 
         // Set distinctions
-        List<DistinctionSummary> distinctionsList = affiliationsManager.getDistinctionSummaryList(orcid);
-        Distinctions distinctions =  new Distinctions(affiliationsManager.groupAffiliations(distinctionsList, justPublic));
-        activities.setDistinctions(distinctions);
-        
+        sections.add(() -> {
+            List<DistinctionSummary> distinctionsList = affiliationsManager.getDistinctionSummaryList(orcid);
+            Distinctions distinctions = new Distinctions(affiliationsManager.groupAffiliations(distinctionsList, justPublic));
+            return a -> a.setDistinctions(distinctions);
+        });
+
         // Set educations
-        List<EducationSummary> educationsList = affiliationsManager.getEducationSummaryList(orcid);
-        Educations educations = new Educations(affiliationsManager.groupAffiliations(educationsList, justPublic));
-        activities.setEducations(educations);
+        sections.add(() -> {
+            List<EducationSummary> educationsList = affiliationsManager.getEducationSummaryList(orcid);
+            Educations educations = new Educations(affiliationsManager.groupAffiliations(educationsList, justPublic));
+            return a -> a.setEducations(educations);
+        });
 
         // Set employments
-        List<EmploymentSummary> employmentList = affiliationsManager.getEmploymentSummaryList(orcid);
-        Employments employments = new Employments(affiliationsManager.groupAffiliations(employmentList, justPublic));
-        activities.setEmployments(employments);
+        sections.add(() -> {
+            List<EmploymentSummary> employmentList = affiliationsManager.getEmploymentSummaryList(orcid);
+            Employments employments = new Employments(affiliationsManager.groupAffiliations(employmentList, justPublic));
+            return a -> a.setEmployments(employments);
+        });
 
         // Set invited positions
-        List<InvitedPositionSummary> invitedPositionsList = affiliationsManager.getInvitedPositionSummaryList(orcid);
-        InvitedPositions invitedPositions = new InvitedPositions(affiliationsManager.groupAffiliations(invitedPositionsList, justPublic));
-        activities.setInvitedPositions(invitedPositions);
-        
+        sections.add(() -> {
+            List<InvitedPositionSummary> invitedPositionsList = affiliationsManager.getInvitedPositionSummaryList(orcid);
+            InvitedPositions invitedPositions = new InvitedPositions(affiliationsManager.groupAffiliations(invitedPositionsList, justPublic));
+            return a -> a.setInvitedPositions(invitedPositions);
+        });
+
         // Set memberships
-        List<MembershipSummary> membershipsList = affiliationsManager.getMembershipSummaryList(orcid);
-        Memberships memberships = new Memberships(affiliationsManager.groupAffiliations(membershipsList, justPublic));
-        activities.setMemberships(memberships);
-        
+        sections.add(() -> {
+            List<MembershipSummary> membershipsList = affiliationsManager.getMembershipSummaryList(orcid);
+            Memberships memberships = new Memberships(affiliationsManager.groupAffiliations(membershipsList, justPublic));
+            return a -> a.setMemberships(memberships);
+        });
+
         // Set qualifications
-        List<QualificationSummary> qualificationsList = affiliationsManager.getQualificationSummaryList(orcid);
-        Qualifications qualifications = new Qualifications(affiliationsManager.groupAffiliations(qualificationsList, justPublic));
-        activities.setQualifications(qualifications);
-        
+        sections.add(() -> {
+            List<QualificationSummary> qualificationsList = affiliationsManager.getQualificationSummaryList(orcid);
+            Qualifications qualifications = new Qualifications(affiliationsManager.groupAffiliations(qualificationsList, justPublic));
+            return a -> a.setQualifications(qualifications);
+        });
+
         // Set services
-        List<ServiceSummary> servicesList = affiliationsManager.getServiceSummaryList(orcid);
-        Services services = new Services(affiliationsManager.groupAffiliations(servicesList, justPublic));
-        activities.setServices(services);
-        
+        sections.add(() -> {
+            List<ServiceSummary> servicesList = affiliationsManager.getServiceSummaryList(orcid);
+            Services services = new Services(affiliationsManager.groupAffiliations(servicesList, justPublic));
+            return a -> a.setServices(services);
+        });
+
         // Set fundings
-        List<FundingSummary> fundingSummaries = fundingManager.getFundingSummaryList(orcid);
-        Fundings fundings = fundingManager.groupFundings(fundingSummaries, justPublic);        
-        activities.setFundings(fundings);
+        sections.add(() -> {
+            List<FundingSummary> fundingSummaries = fundingManager.getFundingSummaryList(orcid);
+            Fundings fundings = fundingManager.groupFundings(fundingSummaries, justPublic);
+            return a -> a.setFundings(fundings);
+        });
 
         // Set peer reviews
-        List<PeerReviewSummary> peerReviewSummaries = peerReviewManager.getPeerReviewSummaryList(orcid);
-        PeerReviews peerReviews = peerReviewManager.groupPeerReviews(peerReviewSummaries, justPublic);        
-        activities.setPeerReviews(peerReviews);
+        sections.add(() -> {
+            List<PeerReviewSummary> peerReviewSummaries = peerReviewManager.getPeerReviewSummaryList(orcid);
+            PeerReviews peerReviews = peerReviewManager.groupPeerReviews(peerReviewSummaries, justPublic);
+            return a -> a.setPeerReviews(peerReviews);
+        });
 
         // Set works
-        List<WorkSummary> workSummaries = workManager.getWorksSummaryList(orcid);
-        
-        // Should we filter the version-of identifiers before grouping?
-        if(filterVersionOfIdentifiers) {
-            for(WorkSummary w : workSummaries) {
-                if(w.getExternalIdentifiers() != null && !w.getExternalIdentifiers().getExternalIdentifier().isEmpty()) {
-                    Iterator<ExternalID> it = w.getExternalIdentifiers().getExternalIdentifier().iterator();
-                    while(it.hasNext()) {
-                        ExternalID extId = it.next();
-                        if(Relationship.VERSION_OF.equals(extId.getRelationship())) {
-                            it.remove();
-                        }
-                    }
+        sections.add(() -> {
+            List<WorkSummary> workSummaries = workManager.getWorksSummaryList(orcid);
+            // Should we filter the version-of identifiers before grouping?
+            if (filterVersionOfIdentifiers) {
+                for (WorkSummary w : workSummaries) {
+                    removeVersionOfIdentifiers(w.getExternalIdentifiers());
+                }
+            }
+            Works works = workManager.groupWorks(workSummaries, justPublic);
+            return a -> a.setWorks(works);
+        });
+
+        // Set research resources
+        sections.add(() -> {
+            List<ResearchResourceSummary> researchResourceSummary = researchResourceManager.getResearchResourceSummaryList(orcid);
+            // Should we filter the version-of identifiers before grouping?
+            if (filterVersionOfIdentifiers) {
+                for (ResearchResourceSummary rr : researchResourceSummary) {
+                    removeVersionOfIdentifiers(rr.getExternalIdentifiers());
+                }
+            }
+            ResearchResources researchResources = researchResourceManager.groupResearchResources(researchResourceSummary, justPublic);
+            return a -> a.setResearchResources(researchResources);
+        });
+
+        return sections;
+    }
+
+    private void removeVersionOfIdentifiers(ExternalIDs externalIdentifiers) {
+        if (externalIdentifiers != null && !externalIdentifiers.getExternalIdentifier().isEmpty()) {
+            Iterator<ExternalID> it = externalIdentifiers.getExternalIdentifier().iterator();
+            while (it.hasNext()) {
+                ExternalID extId = it.next();
+                if (Relationship.VERSION_OF.equals(extId.getRelationship())) {
+                    it.remove();
                 }
             }
         }
-        
-        Works works = workManager.groupWorks(workSummaries, justPublic);        
-        activities.setWorks(works);
-        
-        List<ResearchResourceSummary> researchResourceSummary = researchResourceManager.getResearchResourceSummaryList(orcid);
-        // Should we filter the version-of identifiers before grouping?
-        if(filterVersionOfIdentifiers) {            
-            for(ResearchResourceSummary rr : researchResourceSummary) {
-                if(rr.getExternalIdentifiers() != null && !rr.getExternalIdentifiers().getExternalIdentifier().isEmpty()) {
-                    Iterator<ExternalID> it = rr.getExternalIdentifiers().getExternalIdentifier().iterator();
-                    while(it.hasNext()) {
-                        ExternalID extId = it.next();
-                        if(Relationship.VERSION_OF.equals(extId.getRelationship())) {
-                            it.remove();
-                        }
+    }
+
+    /**
+     * Workers can't see changes the caller made in a read-write transaction
+     * that is still open, so in that case the summary is built sequentially
+     */
+    private boolean canAssembleInParallel() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Runs every section on the activities summary executor, each in its own
+     * read-only transaction and with the caller's request and security
+     * context. The executor runs the sections on the caller thread when it is
+     * full.
+     * 
+     * Sections that are not done within parallelTimeoutMillis are cancelled
+     * and built on the caller thread, the ones already done are kept.
+     */
+    private ActivitiesSummary assembleInParallel(String orcid, List<Supplier<Consumer<ActivitiesSummary>>> sections) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        List<Future<Consumer<ActivitiesSummary>>> futures = new ArrayList<>(sections.size());
+        boolean done = false;
+        try {
+            for (Supplier<Consumer<ActivitiesSummary>> section : sections) {
+                futures.add(activitiesSummaryExecutor.submit(() -> runSection(section, requestAttributes, securityContext)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(parallelTimeoutMillis);
+            boolean timedOut = false;
+            ActivitiesSummary activities = new ActivitiesSummary();
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Consumer<ActivitiesSummary>> future = futures.get(i);
+                Consumer<ActivitiesSummary> setter = null;
+                if (!timedOut) {
+                    try {
+                        setter = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        LOG.warn("Activities summary for {} took longer than {} ms in parallel, building the rest of it sequentially", orcid, parallelTimeoutMillis);
+                        timedOut = true;
                     }
+                } else if (future.isDone()) {
+                    setter = future.get();
+                }
+                if (setter == null) {
+                    future.cancel(true);
+                    setter = sections.get(i).get();
+                }
+                setter.accept(activities);
+            }
+            done = true;
+            return activities;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the activities summary for " + orcid, e);
+        } catch (ExecutionException e) {
+            // Fail the same way the sequential assembly would
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (!done) {
+                for (Future<Consumer<ActivitiesSummary>> future : futures) {
+                    future.cancel(true);
                 }
             }
         }
-        ResearchResources researchResources = researchResourceManager.groupResearchResources(researchResourceSummary, justPublic);
-        activities.setResearchResources(researchResources);
+    }
 
-        return activities;
+    private Consumer<ActivitiesSummary> runSection(Supplier<Consumer<ActivitiesSummary>> section, RequestAttributes requestAttributes, SecurityContext securityContext) {
+        // The executor might run it on the caller thread, so restore whatever
+        // was there before
+        RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+        SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            return readOnlyTransactionTemplate.execute(status -> section.get());
+        } finally {
+            RequestContextHolder.setRequestAttributes(previousRequestAttributes);
+            SecurityContextHolder.setContext(previousSecurityContext);
+        }
     }
 }
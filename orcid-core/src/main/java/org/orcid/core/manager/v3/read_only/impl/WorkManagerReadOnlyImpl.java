@@ -309,6 +309,11 @@ public class WorkManagerReadOnlyImpl extends ManagerReadOnlyBaseImpl implements
         for (WorkSummary work : summaries) {
             groupGenerator.group(work);
         }
+        return getGroupedWorksAndGenerateGroupingSuggestions(groupGenerator, orcid);
+    }
+
+    @Override
+    public Works getGroupedWorksAndGenerateGroupingSuggestions(WorkGroupAndGroupingSuggestionGenerator groupGenerator, String orcid) {
         Works works = processGroupedWorks(groupGenerator.getGroups());
         List<WorkGroupingSuggestion> suggestions = groupGenerator.getGroupingSuggestions(orcid);
         groupingSuggestionsManager.cacheGroupingSuggestions(orcid, suggestions);
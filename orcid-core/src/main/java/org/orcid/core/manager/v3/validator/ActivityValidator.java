@@ -5,9 +5,12 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -505,6 +508,68 @@ public class ActivityValidator {
         }
     }
 
+    /**
+     * Same check as
+     * {@link #checkExternalIdentifiersForDuplicates(ExternalIdentifiersAwareActivity, ExternalIdentifiersAwareActivity, Source, Source)}
+     * against all the existing works of a record at once.
+     * 
+     * The new identifiers are normalized once and indexed by type, normalized
+     * value and relationship, so every existing identifier is a hash lookup
+     * instead of a comparison with each new one. Existing works are visited in
+     * the same order, so the put code reported is the same.
+     * 
+     * @param ignoredPutCode
+     *            put code of the work being updated, if any
+     */
+    public void checkWorkExternalIdentifiersForDuplicates(Work theNew, List<Work> existingWorks, Source activeSource, Long ignoredPutCode) {
+        ExternalIDs newExtIds = theNew.getExternalIdentifiers();
+        if (existingWorks == null || existingWorks.isEmpty() || newExtIds == null || newExtIds.getExternalIdentifier().isEmpty()) {
+            return;
+        }
+
+        Map<DuplicateKey, List<ExternalID>> newIdsIndex = new HashMap<DuplicateKey, List<ExternalID>>();
+        for (ExternalID newId : newExtIds.getExternalIdentifier()) {
+            newId.setNormalized(new TransientNonEmptyString(norm.normalise(newId.getType(), newId.getValue())));
+            if (newId.getRelationship() == null || Relationship.SELF.equals(newId.getRelationship())) {
+                newIdsIndex.computeIfAbsent(new DuplicateKey(newId), k -> new ArrayList<ExternalID>(1)).add(newId);
+            }
+        }
+        if (newIdsIndex.isEmpty()) {
+            return;
+        }
+
+        for (Work existing : existingWorks) {
+            if (ignoredPutCode != null && ignoredPutCode.equals(existing.getPutCode())) {
+                continue;
+            }
+            ExternalIDs existingExtIds = existing.getExternalIdentifiers();
+            if (existingExtIds == null) {
+                continue;
+            }
+            for (ExternalID existingId : existingExtIds.getExternalIdentifier()) {
+                if (existingId.getRelationship() != null && !Relationship.SELF.equals(existingId.getRelationship())) {
+                    continue;
+                }
+                if (existingId.getNormalized() == null) {
+                    existingId.setNormalized(new TransientNonEmptyString(norm.normalise(existingId.getType(), existingId.getValue())));
+                }
+                List<ExternalID> candidates = newIdsIndex.get(new DuplicateKey(existingId));
+                if (candidates == null) {
+                    continue;
+                }
+                for (ExternalID newId : candidates) {
+                    if (areRelationshipsSameAndSelf(existingId.getRelationship(), newId.getRelationship()) && newId.equals(existingId)
+                            && SourceEntityUtils.isTheSameForDuplicateChecking(activeSource, existing.getSource())) {
+                        Map<String, String> params = new HashMap<String, String>();
+                        params.put("clientName", SourceEntityUtils.getSourceName(activeSource));
+                        params.put("putCode", String.valueOf(existing.getPutCode()));
+                        throw new OrcidDuplicatedActivityException(params);
+                    }
+                }
+            }
+        }
+    }
+
     private static boolean areRelationshipsSameAndSelf(Relationship r1, Relationship r2) {
         if (r1 == null && r2 == null)
             return true;
@@ -599,4 +664,39 @@ public class ActivityValidator {
 
         return null;
     }
+
+    /**
+     * Identifiers can only be duplicates when their type, normalized value and
+     * relationship are the same
+     */
+    private static final class DuplicateKey {
+        private final String type;
+
+        private final String normalized;
+
+        private final Relationship relationship;
+
+        private DuplicateKey(ExternalID id) {
+            this.type = id.getType();
+            this.normalized = id.getNormalized() == null ? null : id.getNormalized().getValue();
+            this.relationship = id.getRelationship();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, normalized, relationship);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DuplicateKey)) {
+                return false;
+            }
+            DuplicateKey other = (DuplicateKey) obj;
+            return Objects.equals(type, other.type) && Objects.equals(normalized, other.normalized) && relationship == other.relationship;
+        }
+    }
 }
@@ -1,8 +1,15 @@
 package org.orcid.core.messaging;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
 
 import org.orcid.core.utils.listener.LastModifiedMessage;
 import org.orcid.utils.solr.entities.OrgDisambiguatedSolrDocument;
@@ -10,6 +17,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jms.JmsException;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -66,6 +75,44 @@ public class JmsMessageSender {
         return false;                
     }
     
+    /**
+     * Sends all the maps over a single connection in one transacted session,
+     * so the broker acknowledges the whole batch once instead of once per
+     * message
+     */
+    protected boolean sendMaps(final List<Map<String, String>> maps, String destination) throws JmsException {
+        if (isEnabled() && !pauseForAWhile) {
+            Connection connection = null;
+            Session session = null;
+            try {
+                connection = jmsTemplate.getConnectionFactory().createConnection();
+                session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                Destination d = jmsTemplate.getDestinationResolver().resolveDestinationName(session, destination, jmsTemplate.isPubSubDomain());
+                MessageProducer producer = session.createProducer(d);
+                MessageConverter converter = jmsTemplate.getMessageConverter();
+                try {
+                    for (Map<String, String> map : maps) {
+                        producer.send(converter.toMessage(map, session));
+                    }
+                    session.commit();
+                } catch (JMSException | RuntimeException e) {
+                    JmsUtils.rollbackIfNecessary(session);
+                    throw e;
+                } finally {
+                    JmsUtils.closeMessageProducer(producer);
+                }
+            } catch (JMSException e) {
+                throw JmsUtils.convertJmsAccessException(e);
+            } finally {
+                JmsUtils.closeSession(session);
+                JmsUtils.closeConnection(connection);
+            }
+            return true;
+        }
+        LOG.info("Not sending message: isEnabled="+isEnabled()+" pauseForAWhile="+pauseForAWhile);
+        return false;
+    }
+    
     /**Sends a LastModifiedMessage to the selected queue
      * 
      * @param mess the message
@@ -82,6 +129,28 @@ public class JmsMessageSender {
         return false;
     }
     
+    /**Sends a batch of LastModifiedMessage to the selected queue, either all of them are sent or none
+     * 
+     * @param messages the messages
+     * @param d the destination queue
+     * @return true if the messages were sent successfully 
+     */
+    public boolean send(List<LastModifiedMessage> messages, String destination){
+        if(messages.isEmpty()) {
+            return true;
+        }
+        try{
+            List<Map<String, String>> maps = new ArrayList<Map<String, String>>(messages.size());
+            for(LastModifiedMessage mess : messages) {
+                maps.add(mess.getMap());
+            }
+            return this.sendMaps(maps, destination);
+        } catch(JmsException e) {
+            LOG.error("Couldnt send a batch of " + messages.size() + " messages to the message queue", e);
+        }
+        return false;
+    }
+    
     /**Sends a OrgDisambiguatedSolrDocument to the selected queue
      * 
      * @param mess the message
@@ -97,6 +166,24 @@ public class JmsMessageSender {
         }
         return false;
     }
+    
+    /**Sends a batch of OrgDisambiguatedSolrDocument to the selected queue as a single message
+     * 
+     * @param docs the documents
+     * @param d the destination queue
+     * @return true if the message was sent successfully 
+     */
+    public boolean sendOrgs(List<OrgDisambiguatedSolrDocument> docs, String destination){
+        if(docs.isEmpty()) {
+            return true;
+        }
+        try{
+            return this.sendObject(new ArrayList<OrgDisambiguatedSolrDocument>(docs), destination);
+        } catch(JmsException e) {
+            LOG.error("Couldnt send a batch of " + docs.size() + " disambiguated orgs to the message queue", e);
+        }
+        return false;
+    }
         
     /** Silenty discard messages for a while
      * 
@@ -1,5 +1,6 @@
 package org.orcid.core.oauth;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -31,6 +32,13 @@ public interface OrcidOauth2TokenDetailService {
     List<OrcidOauth2TokenDetail> findByClientIdAndUserName(String clientId, String userName);
     
     boolean doesClientKnowUser(String clientId, String userName);
+
+    /**
+     * doesClientKnowUser for several clients, with a single token query
+     * 
+     * @return the ids of the given clients that know the user
+     */
+    Set<String> findClientsThatKnowUser(Collection<String> clientIds, String userName);
     
     /**
      * This should NOT delete the row, but merely set it as disabled
@@ -1,7 +1,9 @@
 package org.orcid.core.oauth.service;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -220,14 +222,36 @@ public class OrcidOauth2TokenDetailServiceImpl implements OrcidOauth2TokenDetail
         }
         Date now = new Date();
         for (OrcidOauth2TokenDetail token : existingTokens) {
-            if (token.getTokenExpiration() != null && token.getTokenExpiration().after(now) && (token.getTokenDisabled() == null || !token.getTokenDisabled())) {
-                // Verify the token have at least one of the required scopes
-                List<String> scopes = Arrays.asList(ScopePathType.ACTIVITIES_UPDATE.value(), ScopePathType.AFFILIATIONS_CREATE.value(), ScopePathType.AFFILIATIONS_UPDATE.value());
-                if(!PojoUtil.isEmpty(token.getScope())) {
-                    for(String scope : token.getScope().split(" ")) {
-                        if(scopes.contains(scope.trim())) {
-                            return true;
-                        }
+            if (canUpdateUser(token, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> findClientsThatKnowUser(Collection<String> clientIds, String userOrcid) {
+        Set<String> knownBy = new HashSet<String>();
+        if (clientIds == null || clientIds.isEmpty()) {
+            return knownBy;
+        }
+        Date now = new Date();
+        for (OrcidOauth2TokenDetail token : orcidOauth2TokenDetailDaoReadOnly.findByClientIdsAndUserName(clientIds, userOrcid)) {
+            if (canUpdateUser(token, now)) {
+                knownBy.add(token.getClientDetailsId());
+            }
+        }
+        return knownBy;
+    }
+
+    private boolean canUpdateUser(OrcidOauth2TokenDetail token, Date now) {
+        if (token.getTokenExpiration() != null && token.getTokenExpiration().after(now) && (token.getTokenDisabled() == null || !token.getTokenDisabled())) {
+            // Verify the token have at least one of the required scopes
+            List<String> scopes = Arrays.asList(ScopePathType.ACTIVITIES_UPDATE.value(), ScopePathType.AFFILIATIONS_CREATE.value(), ScopePathType.AFFILIATIONS_UPDATE.value());
+            if(!PojoUtil.isEmpty(token.getScope())) {
+                for(String scope : token.getScope().split(" ")) {
+                    if(scopes.contains(scope.trim())) {
+                        return true;
                     }
                 }
             }
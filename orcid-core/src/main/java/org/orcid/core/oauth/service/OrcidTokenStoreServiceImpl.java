@@ -9,10 +9,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Resource;
 
 import org.apache.commons.lang.StringUtils;
+import org.ehcache.Cache;
 import org.orcid.core.constants.OrcidOauth2Constants;
 import org.orcid.core.constants.RevokeReason;
 import org.orcid.core.exception.ClientDeactivatedException;
@@ -52,9 +54,20 @@ import com.nimbusds.jwt.SignedJWT;
 @Service("orcidTokenStore")
 public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
 
+    // Cached for tokens that don't exist, so unknown tokens don't hit the DB
+    // on every request either
+    private static final String NO_CLIENT_ID = "";
+
     @Resource
     private OrcidOauth2TokenDetailService orcidOauthTokenDetailService;
 
+    @Resource(name = "tokenClientIdCache")
+    private Cache<String, String> tokenClientIdCache;
+
+    private final LongAdder clientIdCacheHits = new LongAdder();
+
+    private final LongAdder clientIdCacheMisses = new LongAdder();
+
     @Resource(name = "profileEntityCacheManager")
     ProfileEntityCacheManager profileEntityCacheManager;
     
@@ -72,15 +85,36 @@ public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
         return orcidOauthTokenDetailService.findIgnoringDisabledByTokenValue(token);
     }
     
+    /**
+     * Returns the id of the client that owns the token, even if the token is
+     * disabled. Results, including tokens that don't exist, are kept in the
+     * token-client-id cache, which is invalidated whenever a token is stored
+     * or removed through this token store.
+     */
     @Override
     public String readClientId(String token) {
+        String cachedClientId = tokenClientIdCache.get(token);
+        if (cachedClientId != null) {
+            clientIdCacheHits.increment();
+            return NO_CLIENT_ID.equals(cachedClientId) ? null : cachedClientId;
+        }
+        clientIdCacheMisses.increment();
         String clientId = null;
         OrcidOauth2TokenDetail orcidTokenDetail = orcidOauthTokenDetailService.findIgnoringDisabledByTokenValue(token);
         if(orcidTokenDetail != null) {
             clientId = orcidTokenDetail.getClientDetailsId();
         }
+        tokenClientIdCache.put(token, clientId == null ? NO_CLIENT_ID : clientId);
         return clientId;
     }
+
+    public long getClientIdCacheHits() {
+        return clientIdCacheHits.sum();
+    }
+
+    public long getClientIdCacheMisses() {
+        return clientIdCacheMisses.sum();
+    }
     
     /**
      * Read the authentication stored under the specified token value.
@@ -143,6 +177,7 @@ public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
     public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
         OrcidOauth2TokenDetail detail = populatePropertiesFromTokenAndAuthentication(token, authentication, null);
         orcidOauthTokenDetailService.createNew(detail);
+        tokenClientIdCache.remove(token.getValue());
         // Set the token id in the additional details
         token.getAdditionalInformation().put(OrcidOauth2Constants.TOKEN_ID, detail.getId());
         if(detail.getOboClientDetailsId() != null) {
@@ -162,6 +197,7 @@ public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
             detail.setRevokeReason(revokeReason.name());
         }
         orcidOauthTokenDetailService.createNew(detail);
+        tokenClientIdCache.remove(token.getValue());
         // Set the token id in the additional details
         token.getAdditionalInformation().put(OrcidOauth2Constants.TOKEN_ID, detail.getId());
     }    
@@ -223,6 +259,7 @@ public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void removeAccessToken(OAuth2AccessToken accessToken) {
         orcidOauthTokenDetailService.disableAccessToken(accessToken.getValue());
+        tokenClientIdCache.remove(accessToken.getValue());
     }
     
     /**
@@ -235,6 +272,7 @@ public class OrcidTokenStoreServiceImpl implements OrcidTokenStore {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void removeAccessToken(String accessTokenValue) {
         orcidOauthTokenDetailService.disableAccessToken(accessTokenValue);
+        tokenClientIdCache.remove(accessTokenValue);
     }
 
     /**
@@ -152,6 +152,28 @@ public class OrgGrouping implements Serializable {
         return orgGroup;
     }
 
+    /**
+     * Same answer as getOrganizationGroup().isFunding() for a group built from
+     * the given org, worked out from the org and its external identifiers
+     * alone, so it can be used on a page of orgs without looking up the rest
+     * of each group
+     */
+    public static boolean isFundingGroup(OrgDisambiguatedEntity sourceOrg) {
+        // Orgs without external identifiers are left out of their own group
+        if (sourceOrg.getExternalIdentifiers() == null || sourceOrg.getExternalIdentifiers().isEmpty()) {
+            return false;
+        }
+        if (OrgDisambiguatedSourceType.FUNDREF.name().equals(sourceOrg.getSourceType())) {
+            return true;
+        }
+        for (OrgDisambiguatedExternalIdentifierEntity extId : sourceOrg.getExternalIdentifiers()) {
+            if (OrgDisambiguatedSourceType.FUNDREF.name().equals(extId.getIdentifierType()) && !OrcidStringUtils.isValidURL(extId.getIdentifier())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private OrgDisambiguated convertEntity(OrgDisambiguatedEntity orgDisambiguatedEntity) {
         OrgDisambiguated org = new OrgDisambiguated();
         org.setValue(orgDisambiguatedEntity.getName());
@@ -1,61 +1,91 @@
 package org.orcid.core.solr;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 public class CSVSolrClient extends OrcidSolrClient {
 
     private String baseUrl;
 
-    public CSVSolrClient(String url) {
+    // Shared by all the requests, so connections to Solr are reused
+    private CloseableHttpClient httpClient;
+
+    /**
+     * @param connectionRequestTimeout
+     *            how long to wait for a free pooled connection
+     * @param socketTimeout
+     *            0 waits for Solr as long as it takes
+     */
+    public CSVSolrClient(String url, int maxConnections, int maxConnectionsPerRoute, int connectionTimeout, int connectionRequestTimeout, int socketTimeout) {
         this.baseUrl = url;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectionTimeout).setConnectionRequestTimeout(connectionRequestTimeout)
+                .setSocketTimeout(socketTimeout).build();
+        this.httpClient = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig).build();
     }
 
     public String findCSVByDocumentCriteria(Map<String, List<String>> queryMap) throws URISyntaxException, ClientProtocolException, IOException {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-
-        try {
-            URIBuilder builder = new URIBuilder(baseUrl + "/select?");
-            builder.setParameter("wt", "csv");
-            builder.setParameter("q", queryMap.get("q") != null ? queryMap.get("q").get(0) : "");
-            builder.setParameter("fl", getFieldList(queryMap.get("fl") != null ? queryMap.get("fl").get(0) : null));
+        HttpGet get = new HttpGet(buildURI(queryMap));
+        try (CloseableHttpResponse response = httpClient.execute(get)) {
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                // return it as a String
+                String result = EntityUtils.toString(entity);
+                return result;
+            }
+        }
+        return null;
+    }
 
-            // add and filter other allowed params
-            for (String key : queryMap.keySet()) {
-                if (allowedParam(key, queryMap.get(key) != null ? queryMap.get(key).get(0) : null)) {
-                    builder.setParameter(key, queryMap.get(key).get(0));
-                }
+    /**
+     * Same as {@link #findCSVByDocumentCriteria(Map)}, but copies the Solr
+     * response body to the given stream as it arrives instead of holding it
+     * in memory
+     */
+    public void writeCSVByDocumentCriteria(Map<String, List<String>> queryMap, OutputStream out) throws URISyntaxException, ClientProtocolException, IOException {
+        HttpGet get = new HttpGet(buildURI(queryMap));
+        try (CloseableHttpResponse response = httpClient.execute(get)) {
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                entity.writeTo(out);
             }
+        }
+    }
+
+    public void close() throws IOException {
+        httpClient.close();
+    }
 
-            HttpGet get = new HttpGet(builder.build());
-            CloseableHttpResponse response = httpClient.execute(get);
+    private URI buildURI(Map<String, List<String>> queryMap) throws URISyntaxException {
+        URIBuilder builder = new URIBuilder(baseUrl + "/select?");
+        builder.setParameter("wt", "csv");
+        builder.setParameter("q", queryMap.get("q") != null ? queryMap.get("q").get(0) : "");
+        builder.setParameter("fl", getFieldList(queryMap.get("fl") != null ? queryMap.get("fl").get(0) : null));
 
-            try {
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    // return it as a String
-                    String result = EntityUtils.toString(entity);
-                    return result;
-                }
-            } finally {
-                response.close();
+        // add and filter other allowed params
+        for (String key : queryMap.keySet()) {
+            if (allowedParam(key, queryMap.get(key) != null ? queryMap.get(key).get(0) : null)) {
+                builder.setParameter(key, queryMap.get(key).get(0));
             }
-        } finally {
-            httpClient.close();
         }
-
-        return null;
+        return builder.build();
     }
 
     private boolean allowedParam(String key, String value) {
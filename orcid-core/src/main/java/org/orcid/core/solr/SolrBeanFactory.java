@@ -25,6 +25,18 @@ public class SolrBeanFactory {
     @Value("${org.orcid.persistence.solr.allowCompression:true}")
     private Boolean allowCompression;
     
+    @Value("${org.orcid.persistence.solr.csv.maxConnections:20}")
+    private Integer csvMaxConnections;
+
+    @Value("${org.orcid.persistence.solr.csv.maxConnectionsPerRoute:20}")
+    private Integer csvMaxConnectionsPerRoute;
+
+    @Value("${org.orcid.persistence.solr.csv.connectionRequestTimeout:10000}")
+    private Integer csvConnectionRequestTimeout;
+
+    @Value("${org.orcid.persistence.solr.csv.socketTimeout:0}")
+    private Integer csvSocketTimeout;
+    
     @Resource(name = "responseParser")
     private XMLResponseParser responseParser;
     
@@ -62,8 +74,9 @@ public class SolrBeanFactory {
                 .build();
     }
     
-    @Bean(name = "solrCSVProfileClient")
+    @Bean(name = "solrCSVProfileClient", destroyMethod = "close")
     public CSVSolrClient solrCSVClient() {
-        return new CSVSolrClient(solrReadOnlyUrl + DEFAULT_COLLECTION);
+        return new CSVSolrClient(solrReadOnlyUrl + DEFAULT_COLLECTION, csvMaxConnections, csvMaxConnectionsPerRoute, connectionTimeout,
+                csvConnectionRequestTimeout, csvSocketTimeout);
     }
 }
@@ -1,5 +1,8 @@
 package org.orcid.core.tree;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -7,7 +10,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
@@ -19,6 +21,22 @@ public class TreeCleaner {
 
     public static final ConcurrentHashMap<Class<?>, Class<?>> CANDIDATE_CLASSES = new ConcurrentHashMap<>();
 
+    // The getters and setters of a class never change, so they are looked up
+    // once per class instead of on every object visited
+    private static final ConcurrentHashMap<Class<?>, CleanPlan> CLEAN_PLANS = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodHandle REFLECTIVE_INVOKE;
+
+    static {
+        try {
+            REFLECTIVE_INVOKE = MethodHandles.publicLookup().findVirtual(Method.class, "invoke", MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private boolean removeEmptyObjects = true;
 
     public boolean isRemoveEmptyObjects() {
@@ -59,20 +77,28 @@ public class TreeCleaner {
     }
 
     private void processGetters(Object obj, TreeCleaningStrategy decisionMaker) {
-        Map<Method, Method> gettersAndSetters = getGetterAndCorrespondingSetter(obj.getClass().getMethods());
-        Set<Method> getters = gettersAndSetters.keySet();
-        for (Method getter : getters) {
+        CleanPlan plan = getCleanPlan(obj.getClass());
+        if (plan.isLeaf()) {
+            return;
+        }
+        for (Property property : plan.properties) {
+            Object returnedObj;
+            try {
+                returnedObj = property.get(obj);
+            } catch (Throwable e) {
+                LOGGER.error("Cannot execute method", e);
+                continue;
+            }
             try {
-                Object returnedObj = getter.invoke(obj);
                 TreeCleaningDecision decision = decisionMaker.needsStripping(returnedObj);
                 if (decision.isNeedingCleaning()) {
-                    nullify(obj, gettersAndSetters, getter);
+                    nullify(obj, property);
                 } else {
                     if (decision.isNeedingPropertyChecking()) {
                         clean(returnedObj, decisionMaker);
                     }
                     if (removeEmptyObjects && hasNoActiveProperties(returnedObj)) {
-                        nullify(obj, gettersAndSetters, getter);
+                        nullify(obj, property);
                     }
                 }
             } catch (IllegalAccessException e) {
@@ -83,8 +109,9 @@ public class TreeCleaner {
         }
     }
 
-    private void nullify(Object obj, Map<Method, Method> gettersAndSetters, Method getter) throws IllegalAccessException, InvocationTargetException {
-        Method setter = gettersAndSetters.get(getter);
+    private void nullify(Object obj, Property property) throws IllegalAccessException, InvocationTargetException {
+        // Setters are rarely called, so they are still invoked reflectively
+        Method setter = property.setter;
         Type[] params = setter.getGenericParameterTypes();
         if (params.length > 0) {
             Object[] empty = new Object[params.length];
@@ -96,13 +123,15 @@ public class TreeCleaner {
         if (ob == null) {
             return true;
         }
-        Map<Method, Method> orcidGettersAndSetters = getGetterAndCorrespondingSetter(ob.getClass().getMethods());
-        Set<Method> getters = orcidGettersAndSetters.keySet();
+        CleanPlan plan = getCleanPlan(ob.getClass());
+        if (plan.isLeaf()) {
+            return false;
+        }
 
         int inactiveCount = 0;
-        for (Method getter : getters) {
+        for (Property property : plan.properties) {
             try {
-                Object returned = getter.invoke(ob);
+                Object returned = property.get(ob);
                 if (returned == null || org.orcid.jaxb.model.message.Visibility.class.isAssignableFrom(returned.getClass())) {
                     inactiveCount++;
                 } else if (Collection.class.isAssignableFrom(returned.getClass())) {
@@ -111,16 +140,39 @@ public class TreeCleaner {
                         inactiveCount++;
                     }
                 }
-            } catch (IllegalAccessException e) {
-                LOGGER.error("Cannot execute method", e);
-            } catch (InvocationTargetException e) {
+            } catch (Throwable e) {
                 LOGGER.error("Cannot execute method", e);
             }
         }
-        return (getters != null && getters.size() > 0 && getters.size() == inactiveCount);
+        return plan.properties.length == inactiveCount;
+    }
+
+    static CleanPlan getCleanPlan(Class<?> clazz) {
+        return CLEAN_PLANS.computeIfAbsent(clazz, TreeCleaner::compile);
+    }
+
+    private static CleanPlan compile(Class<?> clazz) {
+        // Keep the iteration order the getters were always visited in
+        Map<Method, Method> gettersAndSetters = getGetterAndCorrespondingSetter(clazz.getMethods());
+        Property[] properties = new Property[gettersAndSetters.size()];
+        int i = 0;
+        for (Map.Entry<Method, Method> entry : gettersAndSetters.entrySet()) {
+            properties[i++] = new Property(toGetterHandle(entry.getKey()), entry.getValue());
+        }
+        return new CleanPlan(properties);
     }
 
-    private Map<Method, Method> getGetterAndCorrespondingSetter(Method[] methods) {
+    private static MethodHandle toGetterHandle(Method getter) {
+        try {
+            return MethodHandles.publicLookup().unreflect(getter).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // Public methods declared in non public classes can't be
+            // unreflected, call them the way we always did
+            return MethodHandles.insertArguments(REFLECTIVE_INVOKE.bindTo(getter), 1, (Object) new Object[0]).asType(GETTER_TYPE);
+        }
+    }
+
+    private static Map<Method, Method> getGetterAndCorrespondingSetter(Method[] methods) {
         Map<Method, Method> methodMap = new HashMap<Method, Method>();
         for (Method m : methods) {
             if (m.getName().startsWith("get") && m.getParameterTypes().length == 0) {
@@ -132,7 +184,7 @@ public class TreeCleaner {
         return methodMap;
     }
 
-    private boolean isCandidate(Method method) {
+    private static boolean isCandidate(Method method) {
         if (method != null && method.getName().startsWith("get")) {
             Class<?> returnType = method.getReturnType();
             if (CANDIDATE_CLASSES.contains(returnType)) {
@@ -149,7 +201,7 @@ public class TreeCleaner {
         return false;
     }
 
-    private Method getCorrespondingSetter(String methodName, Method[] methods) {
+    private static Method getCorrespondingSetter(String methodName, Method[] methods) {
         String setterName = methodName.replace("get", "set");
         for (Method m : methods) {
             if (setterName.equals(m.getName())) {
@@ -159,4 +211,39 @@ public class TreeCleaner {
         return null;
     }
 
+    /**
+     * The candidate properties of a class. Classes without any, like strings
+     * and enums, are leaves and are never looked into.
+     */
+    static final class CleanPlan {
+        private final Property[] properties;
+
+        private CleanPlan(Property[] properties) {
+            this.properties = properties;
+        }
+
+        boolean isLeaf() {
+            return properties.length == 0;
+        }
+
+        int size() {
+            return properties.length;
+        }
+    }
+
+    private static final class Property {
+        private final MethodHandle getter;
+
+        private final Method setter;
+
+        private Property(MethodHandle getter, Method setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private Object get(Object obj) throws Throwable {
+            return (Object) getter.invokeExact(obj);
+        }
+    }
+
 }
@@ -38,6 +38,8 @@ public class OrcidEhCacheFactoryBean implements FactoryBean<Cache<?, ?>>, Initia
 
     private long maxMegaBytesOnDisk = 0;
 
+    private long maxMegaBytesOffHeap = 0;
+
     private boolean copyValues = true;
 
     private CacheLoaderWriter<Serializable, Serializable> cacheLoaderWriter;
@@ -92,6 +94,14 @@ public class OrcidEhCacheFactoryBean implements FactoryBean<Cache<?, ?>>, Initia
         this.maxMegaBytesOnDisk = maxMegaBytesOnDisk;
     }
 
+    public long getMaxMegaBytesOffHeap() {
+        return maxMegaBytesOffHeap;
+    }
+
+    public void setMaxMegaBytesOffHeap(long maxMegaBytesOffHeap) {
+        this.maxMegaBytesOffHeap = maxMegaBytesOffHeap;
+    }
+
     public boolean isCopyValues() {
         return copyValues;
     }
@@ -130,6 +140,9 @@ public class OrcidEhCacheFactoryBean implements FactoryBean<Cache<?, ?>>, Initia
             } else {
                 resourcePoolsBuilder = resourcePoolsBuilder.heap(this.maxElementsInMemory, EntryUnit.ENTRIES);
             }
+            if (this.maxMegaBytesOffHeap > 0) {
+                resourcePoolsBuilder = resourcePoolsBuilder.offheap(this.maxMegaBytesOffHeap, MemoryUnit.MB);
+            }
             if (this.maxMegaBytesOnDisk > 0) {
                 resourcePoolsBuilder = resourcePoolsBuilder.disk(this.maxMegaBytesOnDisk, MemoryUnit.MB);
             }
@@ -0,0 +1,223 @@
+package org.orcid.core.utils.cache.redis;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * Keeps a node local copy of the profile and client last modified dates, so
+ * cache lookups don't need a DB round trip just to build their keys.
+ *
+ * Every node subscribes to a Redis channel where the nodes that update a
+ * record or a client publish its id. When a message arrives the local copy
+ * is dropped and the next read goes to the DB again. Dates are never kept for
+ * longer than maxStalenessSeconds, which bounds how stale a node can be if a
+ * message is lost or an update path doesn't publish.
+ *
+ * While the subscription is down every read goes to the DB, as it did before.
+ */
+public class LastModifiedInvalidationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LastModifiedInvalidationBus.class);
+
+    static final String CHANNEL = "last-modified-invalidation";
+
+    static final String PROFILE_PREFIX = "profile:";
+
+    static final String CLIENT_PREFIX = "client:";
+
+    @Autowired(required = false)
+    private RedisClient redisClient;
+
+    @Value("${org.orcid.core.cache.invalidationBus.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.orcid.core.cache.invalidationBus.maxStalenessSeconds:60}")
+    private int maxStalenessSeconds;
+
+    @Value("${org.orcid.core.cache.invalidationBus.maxSize:100000}")
+    private long maxSize;
+
+    @Value("${org.orcid.core.cache.invalidationBus.reconnectSeconds:10}")
+    private int reconnectSeconds;
+
+    private Cache<String, Date> lastModified;
+
+    // Incremented on every invalidation, so a date read from the DB before an
+    // invalidation arrived is not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile boolean subscribed = false;
+
+    private volatile boolean running = false;
+
+    private volatile JedisPubSub subscriber;
+
+    private Thread subscriberThread;
+
+    @PostConstruct
+    public void init() {
+        lastModified = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(maxStalenessSeconds, TimeUnit.SECONDS).build();
+        if (!enabled) {
+            return;
+        }
+        if (redisClient == null) {
+            LOG.warn("Last modified invalidation bus is enabled but there is no Redis client, dates will be read from the DB");
+            return;
+        }
+        running = true;
+        subscriberThread = new Thread(this::listen, "last-modified-invalidation-bus");
+        subscriberThread.setDaemon(true);
+        subscriberThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        JedisPubSub current = subscriber;
+        if (current != null && subscribed) {
+            try {
+                current.unsubscribe();
+            } catch (Exception e) {
+                LOG.debug("Unable to unsubscribe from the last modified invalidation bus", e);
+            }
+        }
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+        }
+    }
+
+    /**
+     * @param orcid
+     *            the record ORCID id
+     * @param db
+     *            reads the last modified date from the DB when there is no
+     *            local copy
+     */
+    public Date getProfileLastModified(String orcid, Supplier<Date> db) {
+        return get(PROFILE_PREFIX + orcid, db);
+    }
+
+    public Date getClientLastModified(String clientId, Supplier<Date> db) {
+        return get(CLIENT_PREFIX + clientId, db);
+    }
+
+    /**
+     * Tells every node the record changed. When called inside a transaction
+     * the message is sent after it commits, so other nodes don't read the old
+     * date again before it is visible.
+     */
+    public void profileUpdated(String orcid) {
+        invalidate(PROFILE_PREFIX + orcid);
+    }
+
+    public void clientUpdated(String clientId) {
+        invalidate(CLIENT_PREFIX + clientId);
+    }
+
+    public boolean isActive() {
+        return enabled && subscribed;
+    }
+
+    private Date get(String key, Supplier<Date> db) {
+        if (!isActive()) {
+            return db.get();
+        }
+        Date cached = lastModified.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation.get();
+        Date date = db.get();
+        if (date != null && before == generation.get() && subscribed) {
+            lastModified.put(key, date);
+        }
+        return date;
+    }
+
+    private void invalidate(String key) {
+        if (!enabled || redisClient == null) {
+            return;
+        }
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(key);
+                }
+            });
+        } else {
+            publish(key);
+        }
+    }
+
+    private void publish(String key) {
+        // Our own message will evict it again, but don't wait for it
+        evict(key);
+        try {
+            if (!redisClient.publish(CHANNEL, key)) {
+                LOG.warn("Unable to publish last modified invalidation for {}, other nodes will see it within {} seconds", key, maxStalenessSeconds);
+            }
+        } catch (Exception e) {
+            LOG.warn("Unable to publish last modified invalidation for " + key + ", other nodes will see it within " + maxStalenessSeconds + " seconds", e);
+        }
+    }
+
+    private void evict(String key) {
+        generation.incrementAndGet();
+        lastModified.invalidate(key);
+    }
+
+    private void listen() {
+        while (running) {
+            subscriber = new JedisPubSub() {
+                @Override
+                public void onSubscribe(String channel, int subscribedChannels) {
+                    // Anything cached before a disconnection might have missed
+                    // its invalidation
+                    generation.incrementAndGet();
+                    lastModified.invalidateAll();
+                    subscribed = true;
+                    LOG.info("Subscribed to the last modified invalidation bus");
+                }
+
+                @Override
+                public void onMessage(String channel, String message) {
+                    evict(message);
+                }
+            };
+            try {
+                redisClient.subscribe(subscriber, CHANNEL);
+            } catch (Exception e) {
+                LOG.warn("Last modified invalidation bus disconnected, dates will be read from the DB", e);
+            } finally {
+                subscribed = false;
+            }
+            if (running) {
+                try {
+                    TimeUnit.SECONDS.sleep(reconnectSeconds);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -4,8 +4,12 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -21,6 +25,10 @@ import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.params.SetParams;
 import redis.clients.jedis.resps.ScanResult;
@@ -150,9 +158,131 @@ public class RedisClient {
         return true;
     }
 
+    public boolean publish(String channel, String message) {
+        if (enabled && pool != null) {
+            try (Jedis jedis = pool.getResource()) {
+                LOG.debug("Publishing to channel: {}", channel);
+                jedis.publish(channel, message);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subscribes to the given channels on a dedicated connection. Blocks until
+     * the subscriber unsubscribes or the connection drops.
+     */
+    public void subscribe(JedisPubSub subscriber, String... channels) {
+        if (!enabled || pool == null) {
+            throw new IllegalStateException("Redis client is not enabled");
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.subscribe(subscriber, channels);
+        }
+    }
+
+    /**
+     * Increments the counter field of a hash and refreshes the hash expiry
+     * in a single pipelined round trip, so concurrent increments from any
+     * node are never lost.
+     * 
+     * @param increment
+     *            the key, counter field and fields to set along with it
+     * @param expiryInSecs
+     *            the expiry to set on the hash
+     * @return the value of the counter after the increment, or -1 if the
+     *         client is disabled
+     */
+    public long incrementHashCounter(HashCounterIncrement increment, int expiryInSecs) {
+        List<HashCounterIncrement> increments = new ArrayList<HashCounterIncrement>(1);
+        increments.add(increment);
+        Long count = incrementHashCounters(increments, expiryInSecs).get(increment.getKey());
+        return count == null ? -1 : count;
+    }
+
+    /**
+     * Applies a batch of hash counter increments in a single pipelined round
+     * trip.
+     * 
+     * @param increments
+     *            the increments to apply, one per key
+     * @param expiryInSecs
+     *            the expiry to set on every hash
+     * @return the value of each counter after the increment, indexed by key
+     */
+    public Map<String, Long> incrementHashCounters(Collection<HashCounterIncrement> increments, int expiryInSecs) {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        if (enabled && pool != null && !increments.isEmpty()) {
+            Map<String, Response<Long>> responses = new LinkedHashMap<String, Response<Long>>();
+            try (Jedis jedis = pool.getResource()) {
+                Pipeline pipeline = jedis.pipelined();
+                for (HashCounterIncrement increment : increments) {
+                    LOG.debug("Incrementing Key: {}", increment.getKey());
+                    responses.put(increment.getKey(), pipeline.hincrBy(increment.getKey(), increment.getCounterField(), increment.getDelta()));
+                    for (Map.Entry<String, String> entry : increment.getFieldsIfAbsent().entrySet()) {
+                        pipeline.hsetnx(increment.getKey(), entry.getKey(), entry.getValue());
+                    }
+                    if (!increment.getFields().isEmpty()) {
+                        pipeline.hset(increment.getKey(), increment.getFields());
+                    }
+                    pipeline.expire(increment.getKey(), expiryInSecs);
+                }
+                pipeline.sync();
+            }
+            for (Map.Entry<String, Response<Long>> entry : responses.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Retrieve all the fields of every hash whose key matches the matchKey
+     * parameter. Keys are scanned in batches of MACH_KEY_BATCH_SIZE and the
+     * hashes of each batch are read in a single pipelined round trip; keys
+     * that are not hashes are skipped.
+     * 
+     * @param matchKey
+     *            the key pattern for which the hashes are returned
+     * @return
+     */
+    public Map<String, Map<String, String>> getAllHashesForKeyPattern(String matchKey) {
+        Map<String, Map<String, String>> hashesForKey = new HashMap<String, Map<String, String>>();
+        if (!enabled || pool == null) {
+            return hashesForKey;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            String cursor = "0";
+            ScanParams scanParams = new ScanParams().match(matchKey).count(MACH_KEY_BATCH_SIZE);
+            do {
+                ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+                cursor = scanResult.getCursor();
+                Map<String, Response<Map<String, String>>> responses = new LinkedHashMap<String, Response<Map<String, String>>>();
+                Pipeline pipeline = jedis.pipelined();
+                for (String key : scanResult.getResult()) {
+                    responses.put(key, pipeline.hgetAll(key));
+                }
+                pipeline.sync();
+                for (Map.Entry<String, Response<Map<String, String>>> entry : responses.entrySet()) {
+                    try {
+                        Map<String, String> hash = entry.getValue().get();
+                        if (hash != null && !hash.isEmpty()) {
+                            hashesForKey.put(entry.getKey(), hash);
+                        }
+                    } catch (JedisDataException e) {
+                        LOG.debug("Key {} is not a hash, skipping it", entry.getKey());
+                    }
+                }
+            } while (!"0".equals(cursor));
+        }
+        return hashesForKey;
+    }
+
     /**
      * Retrieve the mapped key, value for all the keys that match the matchKey
-     * parameter.
+     * parameter. Values of each scanned batch are read in a single pipelined
+     * round trip; keys that are not strings are skipped.
      * 
      * @param machKey
      *            the key pattern for which the mapped values are returned
@@ -161,6 +291,9 @@ public class RedisClient {
      */
     public HashMap<String, JSONObject> getAllValuesForKeyPattern(String matchKey) throws JSONException {
         HashMap<String, JSONObject> mappedValuesForKey = new HashMap<String, JSONObject>();
+        if (!enabled || pool == null) {
+            return mappedValuesForKey;
+        }
         // Connect to Redis
         try (Jedis jedis = pool.getResource()) {
             String cursor = "0";
@@ -171,13 +304,79 @@ public class RedisClient {
                 cursor = scanResult.getCursor();
                 List<String> keys = scanResult.getResult();
 
-                // Print each key and its corresponding value
+                Map<String, Response<String>> responses = new LinkedHashMap<String, Response<String>>();
+                Pipeline pipeline = jedis.pipelined();
                 for (String key : keys) {
-                    mappedValuesForKey.put(key, new JSONObject(jedis.get(key)));
+                    responses.put(key, pipeline.get(key));
+                }
+                pipeline.sync();
+                for (Map.Entry<String, Response<String>> entry : responses.entrySet()) {
+                    try {
+                        String value = entry.getValue().get();
+                        if (value != null) {
+                            mappedValuesForKey.put(entry.getKey(), new JSONObject(value));
+                        }
+                    } catch (JedisDataException e) {
+                        LOG.debug("Key {} is not a string, skipping it", entry.getKey());
+                    }
                 }
             } while (!"0".equals(cursor)); // SCAN ends when cursor returns "0"
         }
 
         return mappedValuesForKey;
     }
+
+    /**
+     * An increment of a hash counter, along with the fields to set on the
+     * same hash in the same round trip
+     */
+    public static class HashCounterIncrement {
+        private final String key;
+        private final String counterField;
+        private final long delta;
+        private final Map<String, String> fieldsIfAbsent = new HashMap<String, String>();
+        private final Map<String, String> fields = new HashMap<String, String>();
+
+        public HashCounterIncrement(String key, String counterField, long delta) {
+            this.key = key;
+            this.counterField = counterField;
+            this.delta = delta;
+        }
+
+        /**
+         * Field to set only if the hash doesn't have it yet
+         */
+        public HashCounterIncrement setIfAbsent(String field, String value) {
+            fieldsIfAbsent.put(field, value);
+            return this;
+        }
+
+        /**
+         * Field to set on every increment
+         */
+        public HashCounterIncrement set(String field, String value) {
+            fields.put(field, value);
+            return this;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getCounterField() {
+            return counterField;
+        }
+
+        public long getDelta() {
+            return delta;
+        }
+
+        public Map<String, String> getFieldsIfAbsent() {
+            return fieldsIfAbsent;
+        }
+
+        public Map<String, String> getFields() {
+            return fields;
+        }
+    }
 }
@@ -11,16 +11,20 @@ import org.orcid.jaxb.model.v3.release.record.GroupableActivity;
 public class ActivitiesGroup {
     private Set<GroupAble> groupKeys;
     private Set<GroupableActivity> activities;
+    // Group ids of the group keys, so large groups don't need to scan every
+    // key to find out if a new one is already there
+    private Set<String> groupIds;
 
     public ActivitiesGroup(GroupableActivity activity) {
         groupKeys = new HashSet<GroupAble>();
         activities = new HashSet<GroupableActivity>();
+        groupIds = new HashSet<String>();
 
         if (activity != null && activity.getExternalIdentifiers() != null) {
             for (GroupAble extId : activity.getExternalIdentifiers().getExternalIdentifier()) {
                 // Dont add grouping keys that dont pass the validation
                 if (extId.isGroupAble()) {
-                    groupKeys.add(extId);
+                    addGroupKey(extId);
                 }
             }
         }
@@ -48,12 +52,8 @@ public class ActivitiesGroup {
                 // Dont add grouping keys that dont pass the grouping
                 // validation
                 if (extId.isGroupAble()) {
-                    boolean hasId = false;
-                    for (GroupAble groupKey : groupKeys)
-                        if (groupKey.getGroupId() != null && groupKey.getGroupId().equals(extId.getGroupId()))
-                            hasId = true;
-                    if (!hasId)
-                        groupKeys.add(extId);
+                    if (extId.getGroupId() == null || !groupIds.contains(extId.getGroupId()))
+                        addGroupKey(extId);
                 }
             }
         }
@@ -132,7 +132,7 @@ public class ActivitiesGroup {
         // Merge group keys
         for (GroupAble otherKey : otherKeys) {
             if (!groupKeys.contains(otherKey))
-                groupKeys.add(otherKey);
+                addGroupKey(otherKey);
         }
 
         // Merge activities
@@ -143,11 +143,13 @@ public class ActivitiesGroup {
     }
 
     private boolean containsKey(GroupAble key) {
-        for (GroupAble existingKey : groupKeys)
-            if (existingKey.getGroupId() != null)
-                if (existingKey.getGroupId().equals(key.getGroupId()))
-                    return true;
-        return false;
+        return key.getGroupId() != null && groupIds.contains(key.getGroupId());
+    }
+
+    private void addGroupKey(GroupAble key) {
+        groupKeys.add(key);
+        if (key.getGroupId() != null)
+            groupIds.add(key.getGroupId());
     }
 
 }
@@ -1,78 +1,208 @@
 package org.orcid.core.utils.v3.activities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.orcid.jaxb.model.v3.release.record.GroupAble;
 import org.orcid.jaxb.model.v3.release.record.GroupableActivity;
 
-public class ActivitiesGroupGenerator {    
-
-    protected List<ActivitiesGroup> groups = new ArrayList<ActivitiesGroup>();
-    
-    private Map<GroupAble, ActivitiesGroup> lookup = new HashMap<GroupAble, ActivitiesGroup>();
-    
-    public void group(GroupableActivity activity) {
-        if(groups.isEmpty()) {
-            //If it is the first activity, create a new group for it
-            createNewGroup(activity);
-        } else {            
-            //If it is not the first activity, check which groups it belongs to
-            List<ActivitiesGroup> belongsTo = generateBelongsToList(activity);
-            
-            //If it doesnt belong to any group, create a new group for it
-            if(belongsTo.isEmpty()) {
-                createNewGroup(activity);
-            } else {
-                //Get the first group it belongs to
-                ActivitiesGroup firstGroup = belongsTo.get(0);
-                firstGroup.add(activity);
-                
-                //If it belongs to other groups, merge them into the first one
-                if(belongsTo.size() > 1) {
-                    for(int i = 1; i < belongsTo.size(); i++){
-                        mergeAndRemoveGroup(firstGroup, belongsTo.get(i));
-                    }                        
-                }
-                updateLookupKeys(firstGroup);
+/**
+ * Groups activities that share at least one groupable external identifier.
+ *
+ * Groups are kept in a disjoint-set (union-find) structure: every group
+ * created gets a slot, group keys point to the slot that first registered
+ * them and merging two groups just links one slot to the other, so neither
+ * merging nor adding an activity to a large group needs to rewrite the key
+ * lookup or shift the list of groups.
+ *
+ * The generator can also be updated incrementally: {@link #group} adds a
+ * single activity and {@link #ungroup} removes one, regrouping only the
+ * activities that were in the same group.
+ */
+public class ActivitiesGroupGenerator {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Every group ever created, indexed by slot; merged or removed groups are
+    // set to null
+    private List<ActivitiesGroup> slots = new ArrayList<ActivitiesGroup>();
+
+    private int[] parent = new int[INITIAL_CAPACITY];
+
+    private int liveGroups = 0;
+
+    // Group keys are interned to the slot that first registered them, the
+    // owning group is always find(slot)
+    private Map<GroupAble, Integer> lookup = new HashMap<GroupAble, Integer>();
+
+    // Keyed by instance, callers might change an activity after grouping it
+    private Map<GroupableActivity, Integer> activitySlots = new IdentityHashMap<GroupableActivity, Integer>();
+
+    private List<ActivitiesGroup> groups = null;
+
+    /**
+     * Adds an activity, creating a new group for it or merging it, and any
+     * groups it connects, into an existing one
+     *
+     * @param activity
+     *            The activity to group
+     * @return the group that now contains the activity
+     */
+    public ActivitiesGroup group(GroupableActivity activity) {
+        Set<GroupAble> keys = new ActivitiesGroup(activity).getGroupKeys();
+
+        // Check which groups it belongs to
+        List<Integer> belongsTo = generateBelongsToList(keys);
+
+        // If it doesnt belong to any group, create a new group for it
+        if (belongsTo.isEmpty()) {
+            return createNewGroup(activity);
+        }
+
+        // Get the first group it belongs to
+        int first = belongsTo.get(0);
+        ActivitiesGroup firstGroup = slots.get(first);
+        firstGroup.add(activity);
+        activitySlots.put(activity, first);
+
+        // If it belongs to other groups, merge them into the first one
+        for (int i = 1; i < belongsTo.size(); i++) {
+            int other = find(belongsTo.get(i));
+            mergeAndRemoveGroup(firstGroup, slots.get(other));
+            if (other != first) {
+                parent[other] = first;
+                slots.set(other, null);
+                liveGroups--;
+            }
+        }
+
+        // Only the keys of the new activity can be missing from the lookup
+        for (GroupAble g : keys) {
+            if (firstGroup.getGroupKeys().contains(g)) {
+                lookup.putIfAbsent(g, first);
             }
         }
+        groups = null;
+        return firstGroup;
     }
-    
+
+    /**
+     * Removes an activity instance previously added with {@link #group}.
+     * Only the activities that shared a group with it are regrouped, since
+     * removing an activity might split its group in several ones.
+     *
+     * @param activity
+     *            The activity to remove
+     * @return true if the activity was found and removed
+     */
+    public boolean ungroup(GroupableActivity activity) {
+        Integer slot = activitySlots.remove(activity);
+        if (slot == null) {
+            return false;
+        }
+        int root = find(slot);
+        ActivitiesGroup group = slots.get(root);
+        slots.set(root, null);
+        liveGroups--;
+        groups = null;
+        for (GroupAble key : group.getGroupKeys()) {
+            Integer keySlot = lookup.get(key);
+            if (keySlot != null && find(keySlot) == root) {
+                lookup.remove(key);
+            }
+        }
+        groupRemoved(group);
+
+        for (GroupableActivity remaining : group.getActivities()) {
+            if (remaining != activity) {
+                activitySlots.remove(remaining);
+                group(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a read only view of the current groups, in the order they were
+     *         created
+     */
     public List<ActivitiesGroup> getGroups() {
+        if (groups == null) {
+            List<ActivitiesGroup> current = new ArrayList<ActivitiesGroup>(liveGroups);
+            for (ActivitiesGroup group : slots) {
+                if (group != null) {
+                    current.add(group);
+                }
+            }
+            groups = Collections.unmodifiableList(current);
+        }
         return groups;
     }
-    
+
     protected ActivitiesGroup createNewGroup(GroupableActivity activity) {
         ActivitiesGroup newGroup = new ActivitiesGroup(activity);
-        groups.add(newGroup);
-        updateLookupKeys(newGroup);
+        int slot = slots.size();
+        if (slot == parent.length) {
+            parent = Arrays.copyOf(parent, slot * 2);
+        }
+        parent[slot] = slot;
+        slots.add(newGroup);
+        liveGroups++;
+        activitySlots.put(activity, slot);
+        for (GroupAble g : newGroup.getGroupKeys()) {
+            lookup.putIfAbsent(g, slot);
+        }
+        groups = null;
         return newGroup;
     }
-    
-    protected List<ActivitiesGroup> generateBelongsToList(GroupableActivity activity) {
-        List<ActivitiesGroup> belongsTo = new ArrayList<ActivitiesGroup>();
-        ActivitiesGroup thisGroup = new ActivitiesGroup(activity);
-        for (GroupAble g :thisGroup.getGroupKeys()){
-            if (lookup.containsKey(g)) {
-                belongsTo.add(lookup.get(g));
+
+    private List<Integer> generateBelongsToList(Set<GroupAble> keys) {
+        List<Integer> belongsTo = new ArrayList<Integer>();
+        for (GroupAble g : keys) {
+            Integer slot = lookup.get(g);
+            if (slot != null) {
+                belongsTo.add(find(slot));
             }
         }
         return belongsTo;
     }
-    
+
+    /**
+     * Merges the discarded group into the one to keep, both might be the same
+     * group when an activity has several keys on it. Subclasses that track
+     * groups elsewhere can override it to follow the merge
+     */
     protected void mergeAndRemoveGroup(ActivitiesGroup keep, ActivitiesGroup discard) {
-        if (keep != discard){
+        if (keep != discard) {
             keep.merge(discard);
-            groups.remove(discard);                            
         }
     }
-    
-    protected void updateLookupKeys(ActivitiesGroup group) {
-        for (GroupAble g : group.getGroupKeys()){
-            lookup.put(g, group);
+
+    /**
+     * Called when a group is dropped by {@link #ungroup}, before its remaining
+     * activities are regrouped
+     */
+    protected void groupRemoved(ActivitiesGroup group) {
+
+    }
+
+    private int find(int slot) {
+        int root = slot;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // Path compression
+        while (parent[slot] != root) {
+            int next = parent[slot];
+            parent[slot] = root;
+            slot = next;
         }
+        return root;
     }
 }
@@ -2,8 +2,10 @@ package org.orcid.core.utils.v3.activities;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.orcid.jaxb.model.v3.release.record.ExternalID;
 import org.orcid.jaxb.model.v3.release.record.GroupableActivity;
@@ -20,7 +22,12 @@ public class WorkGroupAndGroupingSuggestionGenerator extends ActivitiesGroupGene
 
     private Map<String, List<ActivitiesGroup>> potentialGroupingSuggestions = new HashMap<>();
 
-    public void group(GroupableActivity activity) {
+    // Reverse index of potentialGroupingSuggestions, so merging groups only
+    // touches the titles of the discarded group
+    private Map<ActivitiesGroup, Set<String>> titlesByGroup = new HashMap<>();
+
+    @Override
+    public ActivitiesGroup group(GroupableActivity activity) {
         if (!(activity instanceof WorkSummary || activity instanceof WorkSummaryExtended)) {
             throw new IllegalArgumentException("Argument must be of type WorkSummary");
         }
@@ -33,34 +40,27 @@ public class WorkGroupAndGroupingSuggestionGenerator extends ActivitiesGroupGene
             workSummary = (WorkSummary) activity;
         }
 
-        
-        if (groups.isEmpty()) {
-            // If it is the first activity, create a new group for it
-            ActivitiesGroup newGroup = createNewGroup(activity);
-            mapGroupToTitle(newGroup, workSummary);
-        } else {
-            // If it is not the first activity, check which groups it belongs to
-            List<ActivitiesGroup> belongsTo = generateBelongsToList(activity);
-
-            // If it doesnt belong to any group, create a new group for it
-            if (belongsTo.isEmpty()) {
-                ActivitiesGroup newGroup = createNewGroup(activity);
-                mapGroupToTitle(newGroup, workSummary);
-            } else {
-                // Get the first group it belongs to
-                ActivitiesGroup firstGroup = belongsTo.get(0);
-                firstGroup.add(activity);
-                mapGroupToTitle(firstGroup, workSummary);
-
-                // If it belongs to other groups, merge them into the first one
-                if (belongsTo.size() > 1) {
-                    for (int i = 1; i < belongsTo.size(); i++) {
-                        // Merge the group
-                        mergeAndRemoveGroup(firstGroup, belongsTo.get(i));
-                        switchGroup(belongsTo.get(i), firstGroup);
-                    }
+        ActivitiesGroup group = super.group(activity);
+        mapGroupToTitle(group, workSummary);
+        return group;
+    }
+
+    @Override
+    protected void mergeAndRemoveGroup(ActivitiesGroup keep, ActivitiesGroup discard) {
+        super.mergeAndRemoveGroup(keep, discard);
+        switchGroup(discard, keep);
+    }
+
+    @Override
+    protected void groupRemoved(ActivitiesGroup group) {
+        Set<String> titles = titlesByGroup.remove(group);
+        if (titles != null) {
+            for (String title : titles) {
+                List<ActivitiesGroup> mappedGroups = potentialGroupingSuggestions.get(title);
+                mappedGroups.remove(group);
+                if (mappedGroups.isEmpty()) {
+                    potentialGroupingSuggestions.remove(title);
                 }
-                updateLookupKeys(firstGroup);
             }
         }
     }
@@ -101,14 +101,18 @@ public class WorkGroupAndGroupingSuggestionGenerator extends ActivitiesGroupGene
     }
 
     private void switchGroup(ActivitiesGroup oldGroup, ActivitiesGroup newGroup) {
-        for (String title : potentialGroupingSuggestions.keySet()) {
+        Set<String> oldTitles = titlesByGroup.remove(oldGroup);
+        if (oldTitles == null) {
+            return;
+        }
+        Set<String> newTitles = titlesByGroup.computeIfAbsent(newGroup, k -> new HashSet<>());
+        for (String title : oldTitles) {
             List<ActivitiesGroup> mappedGroups = potentialGroupingSuggestions.get(title);
-            if (mappedGroups.contains(oldGroup)) {
-                mappedGroups.remove(oldGroup);
-                if (!mappedGroups.contains(newGroup)) {
-                    mappedGroups.add(newGroup);
-                }
+            mappedGroups.remove(oldGroup);
+            if (!mappedGroups.contains(newGroup)) {
+                mappedGroups.add(newGroup);
             }
+            newTitles.add(title);
         }
     }
 
@@ -123,6 +127,7 @@ public class WorkGroupAndGroupingSuggestionGenerator extends ActivitiesGroupGene
                 groups.add(group);
             }
             potentialGroupingSuggestions.put(title, groups);
+            titlesByGroup.computeIfAbsent(group, k -> new HashSet<>()).add(title);
         }
     }
 
@@ -134,8 +139,4 @@ public class WorkGroupAndGroupingSuggestionGenerator extends ActivitiesGroupGene
         return workTitle == null || workTitle.getTitle() == null || workTitle.getTitle().getContent() == null || workTitle.getTitle().getContent().isEmpty();
     }
 
-    public List<ActivitiesGroup> getGroups() {
-        return groups;
-    }
-
 }
@@ -9,6 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,12 +22,25 @@ import org.orcid.core.manager.IdentifierTypeManager;
 import org.orcid.core.utils.v3.identifiers.normalizers.Normalizer;
 import org.orcid.core.utils.v3.identifiers.normalizers.NormalizerWithURLTransform;
 import org.orcid.pojo.IdentifierType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 @Component("PIDNormalizationService")
 public class PIDNormalizationService {
     
+    /**
+     * Bump whenever a normalizer changes the values it generates, so the
+     * normalized values stored with the works are generated again
+     */
+    private static final int NORMALIZERS_VERSION = 1;
+    
+    @Value("${org.orcid.core.normalization.persist.enabled:false}")
+    private boolean persistNormalizedValues;
+    
+    private String version;
+    
     @Resource
     List<Normalizer> normalizers = new ArrayList<Normalizer>();
 
@@ -54,6 +68,40 @@ public class PIDNormalizationService {
                 }
             }
         }
+        version = generateVersion();
+    }
+
+    /**
+     * Identifies the normalizers and resolution prefixes in use, so stored
+     * normalized values can be told apart from the ones generated by a
+     * different set
+     */
+    private String generateVersion() {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Normalizer n : normalizers) {
+            fingerprint.append(ClassUtils.getUserClass(n).getName()).append('|');
+        }
+        Map<String, IdentifierType> types = new TreeMap<String, IdentifierType>(idman.fetchIdentifierTypesByAPITypeName(Locale.ENGLISH));
+        for (Map.Entry<String, IdentifierType> type : types.entrySet()) {
+            fingerprint.append(type.getKey()).append('=').append(type.getValue().getResolutionPrefix()).append('|');
+        }
+        return NORMALIZERS_VERSION + "-" + Integer.toHexString(fingerprint.toString().hashCode());
+    }
+
+    /**
+     * @return the version of the normalized values this service generates,
+     *         null until it is initialised
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if the normalized values should be stored with the
+     *         identifiers when they are written
+     */
+    public boolean isPersistNormalizedValues() {
+        return persistNormalizedValues && version != null;
     }
 
     /**
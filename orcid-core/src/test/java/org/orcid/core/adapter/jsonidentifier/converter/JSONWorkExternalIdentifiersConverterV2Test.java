@@ -49,6 +49,16 @@ public class JSONWorkExternalIdentifiersConverterV2Test {
         assertEquals(org.orcid.jaxb.model.message.WorkExternalIdentifierType.AGR.value(), externalID.getType());
     }
 
+    @Test
+    public void testConvertFromIgnoresFieldsItDoesNotKnow() {
+        // As written by a newer version, normalized values included
+        String extIds = "{\"workExternalIdentifier\":[{\"relationship\":\"SELF\",\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"10.1/ABC\"},\"normalized\":\"10.1/abc\",\"normalizedUrl\":\"https://doi.org/10.1/abc\",\"addedLater\":\"x\"}],\"normalizerVersion\":\"1-abc\",\"addedLater\":\"x\"}";
+        ExternalIDs entityIDs = converter.convertFrom(extIds, null);
+        assertEquals(1, entityIDs.getExternalIdentifier().size());
+        assertEquals("doi", entityIDs.getExternalIdentifier().get(0).getType());
+        assertEquals("10.1/ABC", entityIDs.getExternalIdentifier().get(0).getValue());
+    }
+
     @Test
     public void testConvertWithIdThatBreaksUrlValidation() {
         String extIds = "{\"workExternalIdentifier\":[{\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"10.00000/test.v%vi%i.0000\"}}]}";
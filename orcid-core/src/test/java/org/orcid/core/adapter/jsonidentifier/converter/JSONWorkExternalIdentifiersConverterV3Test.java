@@ -1,6 +1,7 @@
 package org.orcid.core.adapter.jsonidentifier.converter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -15,6 +16,7 @@ import javax.xml.bind.Unmarshaller;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.orcid.core.adapter.jsonidentifier.JSONWorkExternalIdentifiers;
 import org.orcid.core.locale.LocaleManager;
 import org.orcid.core.utils.v3.identifiers.PIDNormalizationService;
 import org.orcid.core.utils.v3.identifiers.PIDResolverService;
@@ -28,6 +30,7 @@ import org.orcid.persistence.jpa.entities.WorkEntity;
 import org.orcid.test.OrcidJUnit4ClassRunner;
 import org.orcid.core.utils.DateFieldsOnBaseEntityUtils;
 import org.orcid.utils.DateUtils;
+import org.orcid.core.utils.JsonUtils;
 import org.springframework.test.context.ContextConfiguration;
 
 @RunWith(OrcidJUnit4ClassRunner.class)
@@ -146,6 +149,44 @@ public class JSONWorkExternalIdentifiersConverterV3Test {
         assertEquals(expected2, converter.convertTo(ids, null));        
     }
 
+    @Test
+    public void testRefreshNormalizedValues() {
+        String extIds = "{\"workExternalIdentifier\":[{\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"doi:10.1/123\"}}]}";
+        String refreshed = converter.refreshNormalizedValues(extIds);
+        JSONWorkExternalIdentifiers json = JsonUtils.readObjectFromJsonString(refreshed, JSONWorkExternalIdentifiers.class);
+        assertEquals(norm.getVersion(), json.getNormalizerVersion());
+        assertEquals("10.1/123", json.getWorkExternalIdentifier().get(0).getNormalized());
+
+        ExternalID fromStored = converter.convertFrom(refreshed, null).getExternalIdentifier().get(0);
+        ExternalID computed = converter.convertFrom(extIds, null).getExternalIdentifier().get(0);
+        assertEquals(computed.getNormalizedUrl().getValue(), json.getWorkExternalIdentifier().get(0).getNormalizedUrl());
+        assertEquals(computed.getNormalized().getValue(), fromStored.getNormalized().getValue());
+        assertEquals(computed.getNormalizedUrl().getValue(), fromStored.getNormalizedUrl().getValue());
+    }
+
+    @Test
+    public void testStoredNormalizedValuesAreUsedOnlyForTheCurrentVersion() {
+        String stored = "{\"workExternalIdentifier\":[{\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"doi:10.1/123\"},\"normalized\":\"stored\",\"normalizedUrl\":\"https://stored\"}],\"normalizerVersion\":\"VERSION\"}";
+        ExternalID current = converter.convertFrom(stored.replace("VERSION", norm.getVersion()), null).getExternalIdentifier().get(0);
+        assertEquals("stored", current.getNormalized().getValue());
+        assertEquals("https://stored", current.getNormalizedUrl().getValue());
+
+        ExternalID stale = converter.convertFrom(stored.replace("VERSION", "0-stale"), null).getExternalIdentifier().get(0);
+        assertEquals("10.1/123", stale.getNormalized().getValue());
+        assertNotEquals("https://stored", stale.getNormalizedUrl().getValue());
+    }
+
+    @Test
+    public void testRefreshNormalizedValuesKeepsErrors() {
+        String extIds = "{\"workExternalIdentifier\":[{\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"123\"}}]}";
+        String refreshed = converter.refreshNormalizedValues(extIds);
+        ExternalID externalID = converter.convertFrom(refreshed, null).getExternalIdentifier().get(0);
+        assertNull(externalID.getNormalized());
+        assertEquals("8001", externalID.getNormalizedError().getErrorCode());
+        assertNull(externalID.getNormalizedUrl());
+        assertNotNull(externalID.getNormalizedUrlError());
+    }
+
     private Work getWork() throws JAXBException {
         JAXBContext context = JAXBContext.newInstance(new Class[] { Work.class });
         Unmarshaller unmarshaller = context.createUnmarshaller();
@@ -0,0 +1,72 @@
+package org.orcid.core.aop;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.utils.cache.redis.LastModifiedInvalidationBus;
+import org.orcid.persistence.aop.ClientLastModifiedChanged;
+import org.orcid.persistence.aop.ProfileLastModifiedChanged;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class LastModifiedInvalidationAspectTest {
+
+    @Mock
+    private LastModifiedInvalidationBus lastModifiedInvalidationBus;
+
+    @Mock
+    private JoinPoint joinPoint;
+
+    private LastModifiedInvalidationAspect aspect = new LastModifiedInvalidationAspect();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(aspect, "lastModifiedInvalidationBus", lastModifiedInvalidationBus);
+    }
+
+    @Test
+    public void profileUpdatesArePublishedTest() throws NoSuchMethodException {
+        Mockito.when(joinPoint.getArgs()).thenReturn(new Object[] { "0000-0000-0000-0001" });
+        aspect.profileLastModifiedChanged(joinPoint, annotation("updateProfile", ProfileLastModifiedChanged.class, String.class));
+        Mockito.verify(lastModifiedInvalidationBus).profileUpdated("0000-0000-0000-0001");
+    }
+
+    @Test
+    public void everyClientOfABulkUpdateIsPublishedTest() throws NoSuchMethodException {
+        Mockito.when(joinPoint.getArgs()).thenReturn(new Object[] { Arrays.asList("APP-1", "APP-2") });
+        aspect.clientLastModifiedChanged(joinPoint, annotation("updateClients", ClientLastModifiedChanged.class, List.class));
+        Mockito.verify(lastModifiedInvalidationBus).clientUpdated("APP-1");
+        Mockito.verify(lastModifiedInvalidationBus).clientUpdated("APP-2");
+    }
+
+    @Test
+    public void idIsTakenFromTheGivenArgumentTest() throws NoSuchMethodException {
+        Mockito.when(joinPoint.getArgs()).thenReturn(new Object[] { "PUBLIC_CLIENT", "APP-1" });
+        aspect.clientLastModifiedChanged(joinPoint, annotation("updateClientType", ClientLastModifiedChanged.class, String.class, String.class));
+        Mockito.verify(lastModifiedInvalidationBus).clientUpdated("APP-1");
+        Mockito.verify(lastModifiedInvalidationBus, Mockito.never()).clientUpdated("PUBLIC_CLIENT");
+    }
+
+    private <T extends Annotation> T annotation(String method, Class<T> type, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return getClass().getDeclaredMethod(method, parameterTypes).getAnnotation(type);
+    }
+
+    @ProfileLastModifiedChanged
+    void updateProfile(String orcid) {
+    }
+
+    @ClientLastModifiedChanged
+    void updateClients(List<String> clientIds) {
+    }
+
+    @ClientLastModifiedChanged(idArgument = 1)
+    void updateClientType(String clientType, String clientId) {
+    }
+}
@@ -0,0 +1,209 @@
+package org.orcid.core.api.rate_limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.utils.cache.redis.RedisClient;
+import org.orcid.core.utils.cache.redis.RedisClient.HashCounterIncrement;
+import org.orcid.persistence.dao.PublicApiDailyRateLimitDao;
+import org.orcid.persistence.jpa.entities.PublicApiDailyRateLimitEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PapiRateLimitRedisClientTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private static final String CLIENT = "APP-0000000000000001";
+
+    @Mock
+    private RedisClient redisClient;
+
+    @Mock
+    private PublicApiDailyRateLimitDao papiRateLimitingDao;
+
+    private PapiRateLimitRedisClient papiRedisClient;
+
+    private String counterKey;
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        papiRedisClient = Mockito.spy(new PapiRateLimitRedisClient());
+        Mockito.doReturn(TODAY).when(papiRedisClient).today();
+        ReflectionTestUtils.setField(papiRedisClient, "redisClient", redisClient);
+        ReflectionTestUtils.setField(papiRedisClient, "papiRateLimitingDao", papiRateLimitingDao);
+        ReflectionTestUtils.setField(papiRedisClient, "CASH_EXPIRY_IN_SECONDS", 100);
+        ReflectionTestUtils.setField(papiRedisClient, "flushIntervalInMillis", 1000L);
+        ReflectionTestUtils.setField(papiRedisClient, "hotCallerThreshold", 3L);
+        counterKey = papiRedisClient.getRequestDateCounterKeyByClient(CLIENT, TODAY);
+    }
+
+    @Test
+    public void requestsAreCountedInRedisUnderTheThresholdTest() {
+        Mockito.when(redisClient.incrementHashCounter(any(), anyInt())).thenReturn(1L, 2L);
+        assertEquals(1L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        assertEquals(2L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+
+        ArgumentCaptor<HashCounterIncrement> captor = ArgumentCaptor.forClass(HashCounterIncrement.class);
+        Mockito.verify(redisClient, Mockito.times(2)).incrementHashCounter(captor.capture(), eq(100));
+        HashCounterIncrement increment = captor.getValue();
+        assertEquals(counterKey, increment.getKey());
+        assertEquals(PapiRateLimitRedisClient.KEY_REQUEST_COUNT, increment.getCounterField());
+        assertEquals(1L, increment.getDelta());
+        assertEquals(CLIENT, increment.getFieldsIfAbsent().get(PapiRateLimitRedisClient.KEY_REQUEST_CLIENT));
+        assertEquals("false", increment.getFieldsIfAbsent().get(PapiRateLimitRedisClient.KEY_IS_ANONYMOUS));
+        assertEquals(TODAY.toString(), increment.getFieldsIfAbsent().get(PapiRateLimitRedisClient.KEY_REQUEST_DATE));
+    }
+
+    @Test
+    public void hotCallersAreCountedLocallyTest() {
+        Mockito.when(redisClient.incrementHashCounter(any(), anyInt())).thenReturn(3L);
+        assertEquals(3L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        // Over the threshold, counted on this node until the next flush
+        assertEquals(4L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        assertEquals(5L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        Mockito.verify(redisClient, Mockito.times(1)).incrementHashCounter(any(), anyInt());
+    }
+
+    @Test
+    public void flushHotCallersTest() {
+        makeHot();
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+        // Other nodes counted requests meanwhile
+        Mockito.when(redisClient.incrementHashCounters(anyCollection(), anyInt())).thenReturn(Collections.singletonMap(counterKey, 10L));
+
+        papiRedisClient.flushHotCallers();
+
+        List<HashCounterIncrement> increments = flushed(1).get(0);
+        assertEquals(1, increments.size());
+        assertEquals(counterKey, increments.get(0).getKey());
+        assertEquals(2L, increments.get(0).getDelta());
+        // The count read back from Redis is the new base
+        assertEquals(11L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+
+        // Nothing buffered since, so nothing to send
+        Mockito.reset(redisClient);
+        papiRedisClient.flushHotCallers();
+        papiRedisClient.flushHotCallers();
+        Mockito.verify(redisClient, Mockito.never()).incrementHashCounters(anyCollection(), anyInt());
+    }
+
+    @Test
+    public void failedFlushIsRetriedTest() {
+        makeHot();
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+        Mockito.when(redisClient.incrementHashCounters(anyCollection(), anyInt())).thenThrow(new RuntimeException("Redis down"))
+                .thenReturn(Collections.singletonMap(counterKey, 5L));
+
+        papiRedisClient.flushHotCallers();
+        assertEquals(6L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        papiRedisClient.flushHotCallers();
+
+        List<List<HashCounterIncrement>> flushes = flushed(2);
+        assertEquals(2L, flushes.get(0).get(0).getDelta());
+        assertEquals(3L, flushes.get(1).get(0).getDelta());
+    }
+
+    @Test
+    public void requestsOfPreviousDaysAreNotFlushedTest() {
+        makeHot();
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+
+        // Past midnight, yesterday's hash may already be stored and removed
+        // by the daily sync
+        Mockito.doReturn(TODAY.plusDays(1)).when(papiRedisClient).today();
+        papiRedisClient.flushHotCallers();
+        Mockito.verify(redisClient, Mockito.never()).incrementHashCounters(anyCollection(), anyInt());
+
+        // Today's requests go to today's hash
+        Mockito.when(redisClient.incrementHashCounter(any(), anyInt())).thenReturn(1L);
+        assertEquals(1L, papiRedisClient.incrementTodayRequestCount(CLIENT, false));
+        ArgumentCaptor<HashCounterIncrement> captor = ArgumentCaptor.forClass(HashCounterIncrement.class);
+        Mockito.verify(redisClient, Mockito.times(2)).incrementHashCounter(captor.capture(), anyInt());
+        assertEquals(papiRedisClient.getRequestDateCounterKeyByClient(CLIENT, TODAY.plusDays(1)), captor.getValue().getKey());
+    }
+
+    @Test
+    public void saveRedisPapiLimitDateToDBFromHashesTest() throws Exception {
+        String ip = "127.0.0.2";
+        String clientKey = papiRedisClient.getRequestDateCounterKeyByClient(CLIENT, TODAY);
+        String ipKey = papiRedisClient.getRequestDateCounterKeyByClient(ip, TODAY);
+        Map<String, Map<String, String>> hashes = new HashMap<String, Map<String, String>>();
+        hashes.put(clientKey, hash(CLIENT, false, 1200));
+        hashes.put(ipKey, hash(ip, true, 300));
+        Mockito.when(redisClient.getAllHashesForKeyPattern(PapiRateLimitRedisClient.COUNTER_KEY_PREFIX + "*" + PapiRateLimitRedisClient.KEY_DELIMITATOR + TODAY))
+                .thenReturn(hashes);
+        Mockito.when(redisClient.getAllValuesForKeyPattern(anyString())).thenReturn(new HashMap<>());
+        PublicApiDailyRateLimitEntity existing = new PublicApiDailyRateLimitEntity();
+        existing.setClientId(CLIENT);
+        existing.setRequestCount(1000L);
+        Mockito.when(papiRateLimitingDao.findByClientIdAndRequestDate(CLIENT, TODAY)).thenReturn(existing);
+
+        papiRedisClient.saveRedisPapiLimitDateToDB(TODAY);
+
+        // The client already had a row, its count is replaced by Redis'
+        Mockito.verify(papiRateLimitingDao).updatePublicApiDailyRateLimit(existing, true);
+        assertEquals(Long.valueOf(1200L), existing.getRequestCount());
+        // The ip address didn't
+        ArgumentCaptor<PublicApiDailyRateLimitEntity> captor = ArgumentCaptor.forClass(PublicApiDailyRateLimitEntity.class);
+        Mockito.verify(papiRateLimitingDao).persist(captor.capture());
+        PublicApiDailyRateLimitEntity persisted = captor.getValue();
+        assertEquals(ip, persisted.getIpAddress());
+        assertNull(persisted.getClientId());
+        assertEquals(Long.valueOf(300L), persisted.getRequestCount());
+        assertEquals(TODAY, persisted.getRequestDate());
+        assertEquals(1000L, persisted.getDateCreated().getTime());
+        assertEquals(2000L, persisted.getLastModified().getTime());
+
+        Mockito.verify(redisClient).remove(clientKey);
+        Mockito.verify(redisClient).remove(ipKey);
+    }
+
+    private void makeHot() {
+        Mockito.when(redisClient.incrementHashCounter(any(), anyInt())).thenReturn(3L);
+        papiRedisClient.incrementTodayRequestCount(CLIENT, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<HashCounterIncrement>> flushed(int times) {
+        ArgumentCaptor<Collection<HashCounterIncrement>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(redisClient, Mockito.times(times)).incrementHashCounters(captor.capture(), eq(100));
+        List<List<HashCounterIncrement>> flushes = new ArrayList<List<HashCounterIncrement>>();
+        for (Collection<HashCounterIncrement> increments : captor.getAllValues()) {
+            flushes.add(new ArrayList<HashCounterIncrement>(increments));
+        }
+        return flushes;
+    }
+
+    private Map<String, String> hash(String client, boolean isAnonymous, long count) {
+        Map<String, String> hash = new HashMap<String, String>();
+        hash.put(PapiRateLimitRedisClient.KEY_REQUEST_CLIENT, client);
+        hash.put(PapiRateLimitRedisClient.KEY_IS_ANONYMOUS, String.valueOf(isAnonymous));
+        hash.put(PapiRateLimitRedisClient.KEY_REQUEST_COUNT, String.valueOf(count));
+        hash.put(PapiRateLimitRedisClient.KEY_REQUEST_DATE, TODAY.toString());
+        hash.put(PapiRateLimitRedisClient.KEY_DATE_CREATED, "1000");
+        hash.put(PapiRateLimitRedisClient.KEY_LAST_MODIFIED, "2000");
+        return hash;
+    }
+}
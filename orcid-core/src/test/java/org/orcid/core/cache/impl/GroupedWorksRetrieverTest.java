@@ -0,0 +1,137 @@
+package org.orcid.core.cache.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.cache.OrcidString;
+import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
+import org.orcid.core.utils.v3.activities.ActivitiesGroup;
+import org.orcid.core.utils.v3.activities.WorkGroupAndGroupingSuggestionGenerator;
+import org.orcid.jaxb.model.common.Relationship;
+import org.orcid.jaxb.model.v3.release.common.LastModifiedDate;
+import org.orcid.jaxb.model.v3.release.common.Title;
+import org.orcid.jaxb.model.v3.release.record.ExternalID;
+import org.orcid.jaxb.model.v3.release.record.ExternalIDs;
+import org.orcid.jaxb.model.v3.release.record.WorkTitle;
+import org.orcid.jaxb.model.v3.release.record.summary.WorkSummary;
+import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.orcid.utils.DateUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class GroupedWorksRetrieverTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    @Mock
+    private WorkManagerReadOnly workManagerReadOnly;
+
+    private GroupedWorksRetriever retriever = new GroupedWorksRetriever();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(retriever, "workManagerReadOnly", workManagerReadOnly);
+        ReflectionTestUtils.setField(retriever, "maxGroupedRecords", 10);
+        Mockito.when(workManagerReadOnly.getGroupedWorksAndGenerateGroupingSuggestions(any(), anyString())).thenReturn(new Works());
+    }
+
+    @Test
+    public void onlyChangedWorksAreRegroupedTest() {
+        WorkSummary work1 = work(1L, "doi", "10.1/1", 1000);
+        WorkSummary work2 = work(2L, "doi", "10.1/1", 1000);
+        WorkSummary work3 = work(3L, "doi", "10.1/3", 1000);
+        retrieve(work1, work2, work3);
+        WorkGroupAndGroupingSuggestionGenerator generator = lastGenerator(1);
+        assertEquals(2, generator.getGroups().size());
+        ActivitiesGroup untouched = groupOf(generator, 3L);
+
+        // Work 2 is edited to point to another DOI, the same instance of
+        // work 3 is kept since it didn't change
+        retrieve(work(1L, "doi", "10.1/1", 1000), work(2L, "doi", "10.1/2", 2000), work(3L, "doi", "10.1/3", 1000));
+        assertSame(generator, lastGenerator(2));
+        assertEquals(3, generator.getGroups().size());
+        assertSame(untouched, groupOf(generator, 3L));
+        assertSame(work3, groupOf(generator, 3L).getActivities().iterator().next());
+
+        // Work 1 is deleted and work 4 added to the group of work 3
+        retrieve(work(2L, "doi", "10.1/2", 2000), work(3L, "doi", "10.1/3", 1000), work(4L, "doi", "10.1/3", 3000));
+        assertEquals(2, generator.getGroups().size());
+        assertEquals(2, groupOf(generator, 3L).getActivities().size());
+        for (ActivitiesGroup group : generator.getGroups()) {
+            assertTrue(group.getActivities().stream().noneMatch(a -> Long.valueOf(1L).equals(((WorkSummary) a).getPutCode())));
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedRecordsAreDroppedTest() {
+        ReflectionTestUtils.setField(retriever, "maxGroupedRecords", 1);
+        Mockito.when(workManagerReadOnly.getWorksSummaryList(anyString())).thenReturn(new ArrayList<>());
+        retriever.retrieve(new OrcidString(ORCID));
+        retriever.retrieve(new OrcidString("0000-0000-0000-0002"));
+        retriever.retrieve(new OrcidString(ORCID));
+
+        ArgumentCaptor<WorkGroupAndGroupingSuggestionGenerator> captor = ArgumentCaptor.forClass(WorkGroupAndGroupingSuggestionGenerator.class);
+        Mockito.verify(workManagerReadOnly, Mockito.times(3)).getGroupedWorksAndGenerateGroupingSuggestions(captor.capture(), anyString());
+        // The first record was dropped to keep the second one
+        assertTrue(captor.getAllValues().get(0) != captor.getAllValues().get(2));
+    }
+
+    @Test
+    public void disabledRetrieverGroupsTheWholeRecordTest() {
+        ReflectionTestUtils.setField(retriever, "maxGroupedRecords", 0);
+        retriever.retrieve(new OrcidString(ORCID));
+        Mockito.verify(workManagerReadOnly).getWorksAsGroups(ORCID);
+        Mockito.verify(workManagerReadOnly, Mockito.never()).getGroupedWorksAndGenerateGroupingSuggestions(any(), anyString());
+    }
+
+    private void retrieve(WorkSummary... works) {
+        Mockito.when(workManagerReadOnly.getWorksSummaryList(ORCID)).thenReturn(new ArrayList<>(Arrays.asList(works)));
+        retriever.retrieve(new OrcidString(ORCID));
+    }
+
+    private WorkGroupAndGroupingSuggestionGenerator lastGenerator(int calls) {
+        ArgumentCaptor<WorkGroupAndGroupingSuggestionGenerator> captor = ArgumentCaptor.forClass(WorkGroupAndGroupingSuggestionGenerator.class);
+        Mockito.verify(workManagerReadOnly, Mockito.times(calls)).getGroupedWorksAndGenerateGroupingSuggestions(captor.capture(), Mockito.eq(ORCID));
+        List<WorkGroupAndGroupingSuggestionGenerator> generators = captor.getAllValues();
+        return generators.get(generators.size() - 1);
+    }
+
+    private ActivitiesGroup groupOf(WorkGroupAndGroupingSuggestionGenerator generator, Long putCode) {
+        for (ActivitiesGroup group : generator.getGroups()) {
+            if (group.getActivities().stream().anyMatch(a -> putCode.equals(((WorkSummary) a).getPutCode()))) {
+                return group;
+            }
+        }
+        throw new AssertionError("No group for " + putCode);
+    }
+
+    private WorkSummary work(Long putCode, String type, String value, long lastModified) {
+        WorkSummary work = new WorkSummary();
+        work.setPutCode(putCode);
+        WorkTitle workTitle = new WorkTitle();
+        workTitle.setTitle(new Title("title " + putCode));
+        work.setTitle(workTitle);
+        ExternalID externalID = new ExternalID();
+        externalID.setType(type);
+        externalID.setValue(value);
+        externalID.setRelationship(Relationship.SELF);
+        ExternalIDs extIds = new ExternalIDs();
+        extIds.getExternalIdentifier().add(externalID);
+        work.setExternalIdentifiers(extIds);
+        work.setLastModifiedDate(new LastModifiedDate(DateUtils.convertToXMLGregorianCalendar(lastModified)));
+        return work;
+    }
+}
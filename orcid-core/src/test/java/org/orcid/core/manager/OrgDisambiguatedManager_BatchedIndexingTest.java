@@ -0,0 +1,193 @@
+package org.orcid.core.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.manager.impl.OrgDisambiguatedManagerImpl;
+import org.orcid.core.messaging.JmsMessageSender;
+import org.orcid.persistence.dao.OrgDisambiguatedDao;
+import org.orcid.persistence.jpa.entities.IndexingStatus;
+import org.orcid.persistence.jpa.entities.OrgDisambiguatedEntity;
+import org.orcid.persistence.jpa.entities.OrgDisambiguatedExternalIdentifierEntity;
+import org.orcid.utils.solr.entities.OrgDisambiguatedSolrDocument;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The batched indexer, pages walked by id, one message per batch of documents
+ * and one status update per page
+ */
+public class OrgDisambiguatedManager_BatchedIndexingTest {
+
+    private static final String QUEUE = "indexDisambiguatedOrgs";
+
+    @Mock
+    private OrgDisambiguatedDao orgDisambiguatedDao;
+
+    @Mock
+    private OrgDisambiguatedDao orgDisambiguatedDaoReadOnly;
+
+    @Mock
+    private JmsMessageSender messaging;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrgDisambiguatedManagerImpl orgDisambiguatedManager;
+
+    private final TreeMap<Long, OrgDisambiguatedEntity> pending = new TreeMap<Long, OrgDisambiguatedEntity>();
+
+    private final List<List<OrgDisambiguatedSolrDocument>> sent = new ArrayList<List<OrgDisambiguatedSolrDocument>>();
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        for (long id = 1; id <= 5; id++) {
+            pending.put(id, getOrg(id, "WDB"));
+        }
+        Mockito.when(orgDisambiguatedDaoReadOnly.findOrgsPendingIndexing(anyLong(), anyInt())).thenAnswer(invocation -> {
+            Long lastId = invocation.getArgument(0);
+            int max = invocation.getArgument(1);
+            List<OrgDisambiguatedEntity> page = new ArrayList<OrgDisambiguatedEntity>(pending.tailMap(lastId, false).values());
+            return page.subList(0, Math.min(max, page.size()));
+        });
+        Mockito.when(messaging.sendOrgs(anyList(), eq(QUEUE))).thenAnswer(invocation -> {
+            sent.add(new ArrayList<OrgDisambiguatedSolrDocument>((List<OrgDisambiguatedSolrDocument>) invocation.getArgument(0)));
+            return true;
+        });
+        Mockito.when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+
+        orgDisambiguatedManager = new OrgDisambiguatedManagerImpl();
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "orgDisambiguatedDao", orgDisambiguatedDao);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "orgDisambiguatedDaoReadOnly", orgDisambiguatedDaoReadOnly);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "messaging", messaging);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "updateSolrQueueName", QUEUE);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "batchedIndexing", true);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "indexingBatchSize", 3);
+        ReflectionTestUtils.setField(orgDisambiguatedManager, "indexingMessageSize", 2);
+    }
+
+    @Test
+    public void pagesAreWalkedByIdTest() {
+        orgDisambiguatedManager.processOrgsForIndexing();
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsPendingIndexing(0L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsPendingIndexing(3L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsPendingIndexing(5L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.times(3)).findOrgsPendingIndexing(anyLong(), anyInt());
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.never()).find(anyLong());
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.never()).findOrgsPendingIndexing(anyInt());
+    }
+
+    @Test
+    public void oneMessagePerBatchOfDocumentsTest() {
+        orgDisambiguatedManager.processOrgsForIndexing();
+        // Pages of 3 and 2, 2 documents to a message
+        assertEquals(3, sent.size());
+        assertEquals(Arrays.asList("1", "2"), ids(sent.get(0)));
+        assertEquals(Arrays.asList("3"), ids(sent.get(1)));
+        assertEquals(Arrays.asList("4", "5"), ids(sent.get(2)));
+        Mockito.verify(messaging, Mockito.never()).send(any(OrgDisambiguatedSolrDocument.class), anyString());
+
+        Mockito.verify(orgDisambiguatedDao).updateIndexingStatus(Arrays.asList(1L, 2L, 3L), IndexingStatus.DONE);
+        Mockito.verify(orgDisambiguatedDao).updateIndexingStatus(Arrays.asList(4L, 5L), IndexingStatus.DONE);
+        Mockito.verify(orgDisambiguatedDao, Mockito.never()).updateIndexingStatus(anyLong(), any(IndexingStatus.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void failedBatchIsMarkedAndTheRunEndsTest() {
+        Mockito.when(messaging.sendOrgs(anyList(), eq(QUEUE))).thenReturn(false);
+        orgDisambiguatedManager.processOrgsForIndexing();
+        Mockito.verify(orgDisambiguatedDao).updateIndexingStatus(Arrays.asList(1L, 2L, 3L), IndexingStatus.FAILED);
+        Mockito.verify(orgDisambiguatedDao).updateIndexingStatus(Arrays.asList(4L, 5L), IndexingStatus.FAILED);
+        ArgumentCaptor<List<Long>> done = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(orgDisambiguatedDao, Mockito.times(2)).updateIndexingStatus(done.capture(), eq(IndexingStatus.DONE));
+        assertTrue(done.getAllValues().stream().allMatch(List::isEmpty));
+        // Failed orgs are still pending, but each run only goes through them once
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.times(3)).findOrgsPendingIndexing(anyLong(), anyInt());
+    }
+
+    @Test
+    public void rorGroupingWorkedOutFromThePageTest() {
+        pending.clear();
+        OrgDisambiguatedEntity funder = getOrg(1L, "ROR");
+        funder.getExternalIdentifiers().add(getExternalIdentifier(funder, "FUNDREF", "501100000001"));
+        funder.getExternalIdentifiers().add(getExternalIdentifier(funder, "ISNI", "0000 0001 2345 6789"));
+        pending.put(1L, funder);
+        OrgDisambiguatedEntity notFunder = getOrg(2L, "ROR");
+        notFunder.getExternalIdentifiers().add(getExternalIdentifier(notFunder, "GRID", "grid.1.1"));
+        pending.put(2L, notFunder);
+
+        orgDisambiguatedManager.processOrgsForIndexing();
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).get(0).isFundingOrg());
+        assertFalse(sent.get(0).get(1).isFundingOrg());
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.never()).findBySourceIdAndSourceType(anyString(), anyString());
+    }
+
+    @Test
+    public void groupsMarkedWalkingByIdTest() {
+        Mockito.when(orgDisambiguatedDaoReadOnly.findOrgsToGroup(anyLong(), anyInt())).thenAnswer(invocation -> {
+            Long lastId = invocation.getArgument(0);
+            List<OrgDisambiguatedEntity> page = new ArrayList<OrgDisambiguatedEntity>(pending.tailMap(lastId, false).values());
+            return page.subList(0, Math.min(3, page.size()));
+        });
+        orgDisambiguatedManager.markOrgsForIndexingAsGroup();
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsToGroup(0L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsToGroup(3L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly).findOrgsToGroup(5L, 3);
+        Mockito.verify(orgDisambiguatedDaoReadOnly, Mockito.never()).findOrgsToGroup(anyInt(), anyInt());
+    }
+
+    private List<String> ids(List<OrgDisambiguatedSolrDocument> docs) {
+        List<String> ids = new ArrayList<String>();
+        for (OrgDisambiguatedSolrDocument doc : docs) {
+            ids.add(doc.getOrgDisambiguatedId());
+        }
+        return ids;
+    }
+
+    private OrgDisambiguatedEntity getOrg(Long id, String sourceType) {
+        OrgDisambiguatedEntity org = new OrgDisambiguatedEntity();
+        org.setId(id);
+        org.setName("Org " + id);
+        org.setCity("city");
+        org.setCountry("US");
+        org.setSourceId("source-" + id);
+        org.setSourceType(sourceType);
+        org.setIndexingStatus(IndexingStatus.PENDING);
+        org.setExternalIdentifiers(new HashSet<OrgDisambiguatedExternalIdentifierEntity>());
+        return org;
+    }
+
+    private OrgDisambiguatedExternalIdentifierEntity getExternalIdentifier(OrgDisambiguatedEntity org, String type, String value) {
+        OrgDisambiguatedExternalIdentifierEntity extId = new OrgDisambiguatedExternalIdentifierEntity();
+        extId.setIdentifierType(type);
+        extId.setIdentifier(value);
+        extId.setPreferred(Boolean.TRUE);
+        extId.setOrgDisambiguated(org);
+        return extId;
+    }
+}
@@ -3,9 +3,11 @@ package org.orcid.core.manager.v3;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
@@ -22,6 +24,8 @@ import org.orcid.core.manager.ClientDetailsEntityCacheManager;
 import org.orcid.core.manager.ClientDetailsManager;
 import org.orcid.core.manager.SourceNameCacheManager;
 import org.orcid.core.manager.v3.read_only.RecordNameManagerReadOnly;
+import org.orcid.jaxb.model.v3.release.record.Group;
+import org.orcid.jaxb.model.v3.release.record.GroupsContainer;
 import org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary;
 import org.orcid.persistence.dao.RecordNameDao;
 import org.orcid.persistence.jpa.entities.ClientDetailsEntity;
@@ -146,6 +150,43 @@ public class ActivitiesSummaryManagerTest extends DBUnitTest {
         assertEquals(5, summary.getWorks().getWorkGroup().size());
     }
     
+    @Test
+    public void testParallelActivitiesSummaryMatchesSequential() {
+        ActivitiesSummary sequential = activitiesSummaryManager.getActivitiesSummary(ORCID, false);
+        ActivitiesSummary sequentialPublic = activitiesSummaryManager.getPublicActivitiesSummary(ORCID, false);
+        ReflectionTestUtils.setField(activitiesSummaryManager, "isParallelAssemblyEnabled", true);
+        try {
+            ActivitiesSummary parallel = activitiesSummaryManager.getActivitiesSummary(ORCID, false);
+            ActivitiesSummary parallelPublic = activitiesSummaryManager.getPublicActivitiesSummary(ORCID, false);
+            assertEquals(getPutCodes(sequential), getPutCodes(parallel));
+            assertEquals(getPutCodes(sequentialPublic), getPutCodes(parallelPublic));
+
+            // Anything that doesn't finish in time is built sequentially
+            ReflectionTestUtils.setField(activitiesSummaryManager, "parallelTimeoutMillis", 0L);
+            assertEquals(getPutCodes(sequential), getPutCodes(activitiesSummaryManager.getActivitiesSummary(ORCID, false)));
+        } finally {
+            ReflectionTestUtils.setField(activitiesSummaryManager, "isParallelAssemblyEnabled", false);
+            ReflectionTestUtils.setField(activitiesSummaryManager, "parallelTimeoutMillis", 5000L);
+        }
+    }
+
+    private List<List<Long>> getPutCodes(ActivitiesSummary summary) {
+        List<List<Long>> putCodes = new ArrayList<List<Long>>();
+        for (GroupsContainer container : Arrays.asList(summary.getDistinctions(), summary.getEducations(), summary.getEmployments(), summary.getInvitedPositions(),
+                summary.getMemberships(), summary.getQualifications(), summary.getServices())) {
+            for (Group group : container.retrieveGroups()) {
+                putCodes.add(group.getActivities().stream().map(a -> a.getPutCode()).collect(Collectors.toList()));
+            }
+        }
+        summary.getFundings().getFundingGroup().forEach(g -> putCodes.add(g.getFundingSummary().stream().map(f -> f.getPutCode()).collect(Collectors.toList())));
+        summary.getPeerReviews().getPeerReviewGroup().forEach(g -> g.getPeerReviewGroup()
+                .forEach(d -> putCodes.add(d.getPeerReviewSummary().stream().map(p -> p.getPutCode()).collect(Collectors.toList()))));
+        summary.getWorks().getWorkGroup().forEach(g -> putCodes.add(g.getWorkSummary().stream().map(w -> w.getPutCode()).collect(Collectors.toList())));
+        summary.getResearchResources().getResearchResourceGroup()
+                .forEach(g -> putCodes.add(g.getResearchResourceSummary().stream().map(r -> r.getPutCode()).collect(Collectors.toList())));
+        return putCodes;
+    }
+
     @Test
     public void testGetPublicActivitiesSummary() {
         ActivitiesSummary summary = activitiesSummaryManager.getPublicActivitiesSummary(ORCID, false);
@@ -0,0 +1,366 @@
+package org.orcid.core.manager.v3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.adapter.v3.JpaJaxbNotificationAdapter;
+import org.orcid.core.manager.ClientDetailsEntityCacheManager;
+import org.orcid.core.manager.impl.OrcidUrlManager;
+import org.orcid.core.manager.v3.impl.FindMyStuffManagerImpl;
+import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
+import org.orcid.core.oauth.OrcidOauth2TokenDetailService;
+import org.orcid.core.utils.v3.identifiers.finders.Finder;
+import org.orcid.jaxb.model.clientgroup.RedirectUriType;
+import org.orcid.jaxb.model.v3.release.record.ExternalIDs;
+import org.orcid.model.v3.release.notification.internal.NotificationFindMyStuff;
+import org.orcid.persistence.dao.FindMyStuffHistoryDao;
+import org.orcid.persistence.jpa.entities.ClientDetailsEntity;
+import org.orcid.persistence.jpa.entities.ClientRedirectUriEntity;
+import org.orcid.persistence.jpa.entities.FindMyStuffHistoryEntity;
+import org.orcid.persistence.jpa.entities.NotificationFindMyStuffEntity;
+import org.orcid.pojo.FindMyStuffItem;
+import org.orcid.pojo.FindMyStuffResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Sets;
+
+/**
+ * The finders run at the same time, slow ones are left out of the result
+ */
+public class FindMyStuffManager_ParallelTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    @Mock
+    private WorkManagerReadOnly workManagerReadOnly;
+
+    @Mock
+    private NotificationManager notificationManager;
+
+    @Mock
+    private OrcidUrlManager orcidUrlManager;
+
+    @Mock
+    private ClientDetailsEntityCacheManager clientDetailsEntityCacheManager;
+
+    @Mock
+    private OrcidOauth2TokenDetailService orcidOauth2TokenDetailService;
+
+    @Mock
+    private JpaJaxbNotificationAdapter notificationAdapter;
+
+    @Mock
+    private FindMyStuffHistoryDao findMyStuffHistoryDao;
+
+    private FindMyStuffManagerImpl findMyStuffManager;
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(workManagerReadOnly.getAllExternalIDs(anyString())).thenReturn(new ExternalIDs());
+        Mockito.when(findMyStuffHistoryDao.findAll(anyString())).thenReturn(new ArrayList<FindMyStuffHistoryEntity>());
+        Mockito.when(orcidOauth2TokenDetailService.findClientsThatKnowUser(anyCollection(), anyString())).thenReturn(new HashSet<String>());
+        Mockito.when(notificationManager.findByOrcid(anyString(), anyBoolean(), anyInt(), anyInt())).thenReturn(new ArrayList<>());
+        Mockito.when(notificationManager.createFindMyStuffNotification(anyString(), anyString(), anyString())).thenReturn(new NotificationFindMyStuffEntity());
+        Mockito.when(notificationAdapter.toNotification(any(NotificationFindMyStuffEntity.class))).thenReturn(new NotificationFindMyStuff());
+        Mockito.when(orcidUrlManager.getBaseUrl()).thenReturn("https://orcid.org");
+        Mockito.when(clientDetailsEntityCacheManager.retrieve(anyString())).thenAnswer(invocation -> {
+            ClientDetailsEntity clientDetails = new ClientDetailsEntity();
+            clientDetails.setId(invocation.getArgument(0));
+            ClientRedirectUriEntity uri = new ClientRedirectUriEntity();
+            uri.setRedirectUri("https://example.com/");
+            uri.setRedirectUriType(RedirectUriType.FIND_MY_STUFF.value());
+            uri.setPredefinedClientScope("/authenticate");
+            clientDetails.setClientRegisteredRedirectUris(Sets.newTreeSet(Arrays.asList(uri)));
+            return clientDetails;
+        });
+
+        findMyStuffManager = new FindMyStuffManagerImpl();
+        ReflectionTestUtils.setField(findMyStuffManager, "workManagerReadOnly", workManagerReadOnly);
+        ReflectionTestUtils.setField(findMyStuffManager, "notificationManager", notificationManager);
+        ReflectionTestUtils.setField(findMyStuffManager, "orcidUrlManager", orcidUrlManager);
+        ReflectionTestUtils.setField(findMyStuffManager, "clientDetailsEntityCacheManager", clientDetailsEntityCacheManager);
+        ReflectionTestUtils.setField(findMyStuffManager, "orcidOauth2TokenDetailService", orcidOauth2TokenDetailService);
+        ReflectionTestUtils.setField(findMyStuffManager, "notificationAdapter", notificationAdapter);
+        ReflectionTestUtils.setField(findMyStuffManager, "findMyStuffHistoryDao", findMyStuffHistoryDao);
+        ReflectionTestUtils.setField(findMyStuffManager, "parallelEnabled", true);
+        ReflectionTestUtils.setField(findMyStuffManager, "finderThreads", 4);
+        ReflectionTestUtils.setField(findMyStuffManager, "finderTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerFailures", 2);
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerOpenMillis", 60000L);
+        findMyStuffManager.init();
+    }
+
+    @After
+    public void after() {
+        findMyStuffManager.destroy();
+    }
+
+    @Test
+    public void findersRunAtTheSameTimeTest() {
+        setFinders(new FakeFinder("A", 500), new FakeFinder("B", 500), new FakeFinder("C", 500));
+        long start = System.currentTimeMillis();
+        List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+        long took = System.currentTimeMillis() - start;
+        assertEquals(3, results.size());
+        assertEquals("A", results.get(0).getFinderName());
+        assertEquals("B", results.get(1).getFinderName());
+        assertEquals("C", results.get(2).getFinderName());
+        assertTrue("Took " + took + "ms", took < 1000);
+        Mockito.verify(findMyStuffHistoryDao, Mockito.times(3)).persist(any(FindMyStuffHistoryEntity.class));
+    }
+
+    @Test
+    public void slowFinderIsLeftOutTest() {
+        FakeFinder slow = new FakeFinder("Slow", 10000);
+        setFinders(new FakeFinder("Fast", 0), slow);
+        long start = System.currentTimeMillis();
+        List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+        long took = System.currentTimeMillis() - start;
+        assertEquals(1, results.size());
+        assertEquals("Fast", results.get(0).getFinderName());
+        assertTrue("Took " + took + "ms", took < 3000);
+        // No history for the finder that didn't answer
+        Mockito.verify(findMyStuffHistoryDao, Mockito.times(1)).persist(any(FindMyStuffHistoryEntity.class));
+    }
+
+    @Test
+    public void failingFinderIsSkippedOnceTheCircuitOpensTest() throws InterruptedException {
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerOpenMillis", 300L);
+        FakeFinder failing = new FakeFinder("Failing", 0);
+        failing.fail = true;
+        FakeFinder working = new FakeFinder("Working", 0);
+        setFinders(failing, working);
+        for (int i = 0; i < 2; i++) {
+            List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+            assertEquals(1, results.size());
+            assertEquals("Working", results.get(0).getFinderName());
+        }
+        assertEquals(2, failing.calls.get());
+
+        // Open, not called any more
+        assertEquals(1, findMyStuffManager.findIfAppropriate(ORCID).size());
+        assertEquals(2, failing.calls.get());
+        assertEquals(3, working.calls.get());
+
+        // Given one more try after a while, and it recovers
+        Thread.sleep(400);
+        failing.fail = false;
+        assertEquals(2, findMyStuffManager.findIfAppropriate(ORCID).size());
+        assertEquals(3, failing.calls.get());
+    }
+
+    @Test
+    public void eachFinderGetsItsOwnTimeoutTest() {
+        useThreads(1);
+        ReflectionTestUtils.setField(findMyStuffManager, "finderTimeoutMillis", 1000L);
+        // The second one only starts when the first one is done, a deadline
+        // shared by both would leave it 400ms
+        setFinders(new FakeFinder("First", 600), new FakeFinder("Second", 600));
+        List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(2, results.size());
+        assertEquals("First", results.get(0).getFinderName());
+        assertEquals("Second", results.get(1).getFinderName());
+    }
+
+    @Test
+    public void finderLeftWaitingForAThreadIsNotCountedAsFailingTest() throws InterruptedException {
+        useThreads(1);
+        ReflectionTestUtils.setField(findMyStuffManager, "finderTimeoutMillis", 300L);
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerFailures", 1);
+        FakeFinder slow = new FakeFinder("Slow", 800);
+        slow.ignoresInterrupts = true;
+        FakeFinder queued = new FakeFinder("Queued", 0);
+        setFinders(slow, queued);
+
+        // Slow holds the only thread past the timeout of both
+        assertTrue(findMyStuffManager.findIfAppropriate(ORCID).isEmpty());
+        assertEquals(1, slow.calls.get());
+        assertEquals(0, queued.calls.get());
+
+        // Slow timed out while running, so its circuit opened, Queued never
+        // ran, so it is called as usual
+        Thread.sleep(700);
+        List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(1, results.size());
+        assertEquals("Queued", results.get(0).getFinderName());
+        assertEquals(1, slow.calls.get());
+        assertEquals(1, queued.calls.get());
+    }
+
+    @Test
+    public void halfOpenCircuitAllowsASingleTrialCallTest() throws Exception {
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerFailures", 1);
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerOpenMillis", 200L);
+        FakeFinder flaky = new FakeFinder("Flaky", 0);
+        flaky.fail = true;
+        setFinders(flaky);
+        assertTrue(findMyStuffManager.findIfAppropriate(ORCID).isEmpty());
+        assertEquals(1, flaky.calls.get());
+
+        Thread.sleep(300);
+        flaky.fail = false;
+        flaky.delayMillis = 500;
+        ExecutorService requests = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<List<FindMyStuffResult>>> responses = new ArrayList<Future<List<FindMyStuffResult>>>();
+            for (int i = 0; i < 3; i++) {
+                responses.add(requests.submit(() -> findMyStuffManager.findIfAppropriate(ORCID)));
+            }
+            int found = 0;
+            for (Future<List<FindMyStuffResult>> response : responses) {
+                found += response.get(5, TimeUnit.SECONDS).size();
+            }
+            // Only one of the requests made the trial call
+            assertEquals(2, flaky.calls.get());
+            assertEquals(1, found);
+        } finally {
+            requests.shutdownNow();
+        }
+
+        // It succeeded, so the circuit is closed again
+        flaky.delayMillis = 0;
+        assertEquals(1, findMyStuffManager.findIfAppropriate(ORCID).size());
+        assertEquals(3, flaky.calls.get());
+    }
+
+    @Test
+    public void failedTrialCallOpensTheCircuitAgainTest() throws InterruptedException {
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerFailures", 2);
+        ReflectionTestUtils.setField(findMyStuffManager, "circuitBreakerOpenMillis", 200L);
+        FakeFinder failing = new FakeFinder("Failing", 0);
+        failing.fail = true;
+        setFinders(failing);
+        findMyStuffManager.findIfAppropriate(ORCID);
+        findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(2, failing.calls.get());
+
+        Thread.sleep(300);
+        findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(3, failing.calls.get());
+        // One failure is enough once half open
+        findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(3, failing.calls.get());
+    }
+
+    @Test
+    public void clientPermissionsCheckedInOneQueryTest() {
+        FakeFinder known = new FakeFinder("Known", 0);
+        FakeFinder unknown = new FakeFinder("Unknown", 0);
+        setFinders(known, unknown);
+        Mockito.when(orcidOauth2TokenDetailService.findClientsThatKnowUser(anyCollection(), eq(ORCID))).thenReturn(Collections.singleton("client-Known"));
+
+        List<FindMyStuffResult> results = findMyStuffManager.findIfAppropriate(ORCID);
+        assertEquals(1, results.size());
+        assertEquals("Unknown", results.get(0).getFinderName());
+        assertEquals(0, known.calls.get());
+        Mockito.verify(orcidOauth2TokenDetailService, Mockito.times(1)).findClientsThatKnowUser(eq(new HashSet<>(Arrays.asList("client-Known", "client-Unknown"))),
+                eq(ORCID));
+        Mockito.verify(orcidOauth2TokenDetailService, Mockito.never()).doesClientKnowUser(anyString(), anyString());
+    }
+
+    @Test
+    public void optedOutFindersAreNotCheckedTest() {
+        FakeFinder optedOut = new FakeFinder("OptedOut", 0);
+        setFinders(optedOut);
+        FindMyStuffHistoryEntity history = new FindMyStuffHistoryEntity();
+        history.setFinderName("OptedOut");
+        history.setOptOut(true);
+        Mockito.when(findMyStuffHistoryDao.findAll(ORCID)).thenReturn(Arrays.asList(history));
+
+        assertTrue(findMyStuffManager.findIfAppropriate(ORCID).isEmpty());
+        assertEquals(0, optedOut.calls.get());
+        Mockito.verify(orcidOauth2TokenDetailService, Mockito.never()).findClientsThatKnowUser(anyCollection(), anyString());
+        Mockito.verify(workManagerReadOnly, Mockito.never()).getAllExternalIDs(anyString());
+    }
+
+    private void useThreads(int threads) {
+        findMyStuffManager.destroy();
+        ReflectionTestUtils.setField(findMyStuffManager, "finderThreads", threads);
+        findMyStuffManager.init();
+    }
+
+    private void setFinders(Finder... finders) {
+        ReflectionTestUtils.setField(findMyStuffManager, "finders", new ArrayList<Finder>(Arrays.asList(finders)));
+    }
+
+    private static class FakeFinder implements Finder {
+
+        private final String name;
+
+        private volatile long delayMillis;
+
+        private volatile boolean fail;
+
+        // Keeps its thread until the delay is over, even once cancelled
+        private volatile boolean ignoresInterrupts;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private FakeFinder(String name, long delayMillis) {
+            this.name = name;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public FindMyStuffResult find(String orcid, ExternalIDs existingIDs) {
+            calls.incrementAndGet();
+            long until = System.currentTimeMillis() + delayMillis;
+            while (System.currentTimeMillis() < until) {
+                try {
+                    Thread.sleep(until - System.currentTimeMillis());
+                } catch (InterruptedException e) {
+                    if (!ignoresInterrupts) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (fail) {
+                throw new IllegalStateException("Remote service down");
+            }
+            FindMyStuffResult result = new FindMyStuffResult();
+            result.setFinderName(name);
+            result.getResults().add(new FindMyStuffItem("10.1/" + name, "doi", name));
+            return result;
+        }
+
+        @Override
+        public String getFinderName() {
+            return name;
+        }
+
+        @Override
+        public String getRelatedClientId() {
+            return "client-" + name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.orcid.core.manager.v3;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.manager.v3.impl.NotificationManagerImpl;
+import org.orcid.persistence.dao.NotificationDao;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The set based retention path, the SQL it relies on is PostgreSQL only so
+ * the DAO is mocked
+ */
+public class NotificationManager_retentionPurgeTest {
+
+    @Mock
+    private NotificationDao notificationDao;
+
+    private NotificationManagerImpl notificationManager;
+
+    // Records with notifications and how many of them are past the offset
+    private final TreeMap<String, Integer> overflow = new TreeMap<String, Integer>();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        for (int i = 1; i <= 5; i++) {
+            overflow.put("0000-0000-0000-000" + i, i);
+        }
+        Mockito.when(notificationDao.findOrcidsWithNotifications(anyString(), anyBoolean(), anyInt())).thenAnswer(invocation -> {
+            String after = invocation.getArgument(0);
+            int max = invocation.getArgument(2);
+            List<String> orcids = new ArrayList<String>(overflow.tailMap(after, false).keySet());
+            return orcids.subList(0, Math.min(max, orcids.size()));
+        });
+        Mockito.when(notificationDao.findOverflowNotificationIds(anyList(), anyInt(), anyBoolean())).thenAnswer(invocation -> {
+            List<String> orcids = invocation.getArgument(0);
+            List<Long> ids = new ArrayList<Long>();
+            for (String orcid : orcids) {
+                for (int i = 0; i < overflow.get(orcid); i++) {
+                    ids.add((long) ids.size());
+                }
+            }
+            return ids;
+        });
+        Mockito.when(notificationDao.archiveNotifications(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        Mockito.when(notificationDao.deleteNotifications(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        notificationManager = new NotificationManagerImpl();
+        notificationManager.setNotificationDao(notificationDao);
+        ReflectionTestUtils.setField(notificationManager, "setBasedRetention", true);
+        ReflectionTestUtils.setField(notificationManager, "retentionRecordsPerChunk", 2);
+        ReflectionTestUtils.setField(notificationManager, "retentionMaxChunksPerRun", 0);
+        ReflectionTestUtils.setField(notificationManager, "notificationArchiveOffset", 3);
+        ReflectionTestUtils.setField(notificationManager, "notificationDeleteOffset", 5);
+    }
+
+    @Test
+    public void archiveInChunksTest() {
+        assertEquals(Integer.valueOf(15), notificationManager.archiveOffsetNotifications());
+        // 5 records, 2 at a time
+        Mockito.verify(notificationDao, Mockito.times(3)).findOverflowNotificationIds(anyList(), eq(3), eq(true));
+        Mockito.verify(notificationDao).findOverflowNotificationIds(Arrays.asList("0000-0000-0000-0001", "0000-0000-0000-0002"), 3, true);
+        Mockito.verify(notificationDao).findOverflowNotificationIds(Arrays.asList("0000-0000-0000-0005"), 3, true);
+        Mockito.verify(notificationDao, Mockito.times(3)).archiveNotifications(anyList());
+        Mockito.verify(notificationDao, Mockito.never()).deleteNotifications(anyList());
+        Mockito.verify(notificationDao, Mockito.never()).archiveOffsetNotifications(anyInt());
+    }
+
+    @Test
+    public void deleteInChunksTest() {
+        assertEquals(Integer.valueOf(15), notificationManager.deleteOffsetNotifications());
+        Mockito.verify(notificationDao, Mockito.times(3)).findOverflowNotificationIds(anyList(), eq(5), eq(false));
+        Mockito.verify(notificationDao, Mockito.times(3)).deleteNotifications(anyList());
+        Mockito.verify(notificationDao, Mockito.never()).findNotificationsToDeleteByOffset(anyInt(), anyInt());
+        Mockito.verify(notificationDao, Mockito.never()).deleteNotificationById(Mockito.anyLong());
+    }
+
+    @Test
+    public void resumesWhereTheLastRunStoppedTest() {
+        ReflectionTestUtils.setField(notificationManager, "retentionMaxChunksPerRun", 1);
+        // 1 + 2
+        assertEquals(Integer.valueOf(3), notificationManager.archiveOffsetNotifications());
+        // 3 + 4
+        assertEquals(Integer.valueOf(7), notificationManager.archiveOffsetNotifications());
+        Mockito.verify(notificationDao).findOrcidsWithNotifications("0000-0000-0000-0002", true, 2);
+        // 5, then it starts over
+        assertEquals(Integer.valueOf(5), notificationManager.archiveOffsetNotifications());
+        assertEquals(Integer.valueOf(3), notificationManager.archiveOffsetNotifications());
+        Mockito.verify(notificationDao, Mockito.times(2)).findOrcidsWithNotifications("", true, 2);
+
+        // Deletes keep their own position
+        assertEquals(Integer.valueOf(3), notificationManager.deleteOffsetNotifications());
+        Mockito.verify(notificationDao).findOrcidsWithNotifications("", false, 2);
+    }
+
+    @Test
+    public void nothingToPurgeTest() {
+        overflow.clear();
+        assertEquals(Integer.valueOf(0), notificationManager.archiveOffsetNotifications());
+        Mockito.verify(notificationDao, Mockito.never()).findOverflowNotificationIds(anyList(), anyInt(), anyBoolean());
+        Mockito.verify(notificationDao, Mockito.never()).archiveNotifications(anyList());
+    }
+}
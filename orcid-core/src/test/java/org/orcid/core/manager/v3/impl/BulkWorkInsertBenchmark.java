@@ -0,0 +1,143 @@
+package org.orcid.core.manager.v3.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.orcid.persistence.jpa.entities.BaseEntity;
+
+/**
+ * Statements sent to the DB by a bulk POST of 100 works, run it with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.orcid.core.manager.v3.impl.BulkWorkInsertBenchmark
+ *
+ * Replays the statements Hibernate sends on an embedded HSQLDB: one sequence
+ * call and one insert per work with the old settings, against one sequence
+ * call per pooled block and batched inserts. An embedded DB has no network
+ * round trips, so the gap on PostgreSQL is bigger than the one shown here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkWorkInsertBenchmark {
+
+    private static final int WORKS = 100;
+
+    private static final String INSERT = "INSERT INTO work (work_id, orcid, title, external_ids_json, visibility, date_created, last_modified) VALUES (?, ?, ?, ?, ?, now(), now())";
+
+    @Param({ "single", "pooled-batched" })
+    private String mode;
+
+    @Param({ "50" })
+    private int batchSize;
+
+    private Connection connection;
+
+    private int bulk;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:bulk-insert;sql.syntax_pgs=true", "SA", "");
+        connection.setAutoCommit(false);
+        int increment = "single".equals(mode) ? 1 : BaseEntity.POOLED_ALLOCATION_SIZE;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE work IF EXISTS");
+            statement.execute("DROP SEQUENCE work_seq IF EXISTS");
+            statement.execute("CREATE SEQUENCE work_seq START WITH 1000 INCREMENT BY " + increment);
+            statement.execute("CREATE TABLE work (work_id BIGINT PRIMARY KEY, orcid VARCHAR(19), title VARCHAR(1000), external_ids_json VARCHAR(4000), "
+                    + "visibility VARCHAR(20), date_created TIMESTAMP, last_modified TIMESTAMP)");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public int insertBulk() throws SQLException {
+        bulk++;
+        int inserted = "single".equals(mode) ? insertOneByOne() : insertPooledAndBatched();
+        connection.commit();
+        return inserted;
+    }
+
+    private int insertOneByOne() throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < WORKS; i++) {
+                bind(insert, nextval(), i);
+                inserted += insert.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    private int insertPooledAndBatched() throws SQLException {
+        int inserted = 0;
+        long next = 0;
+        long last = -1;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < WORKS; i++) {
+                // pooled-lo: each sequence value is the first of a block
+                if (next > last) {
+                    next = nextval();
+                    last = next + BaseEntity.POOLED_ALLOCATION_SIZE - 1;
+                }
+                bind(insert, next++, i);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    inserted += insert.executeBatch().length;
+                }
+            }
+            inserted += insert.executeBatch().length;
+        }
+        return inserted;
+    }
+
+    private void bind(PreparedStatement insert, long id, int i) throws SQLException {
+        insert.setLong(1, id);
+        insert.setString(2, "0000-0000-0000-0001");
+        insert.setString(3, "Work " + bulk + "-" + i);
+        insert.setString(4, "{\"workExternalIdentifier\":[{\"relationship\":\"SELF\",\"workExternalIdentifierType\":\"DOI\",\"workExternalIdentifierId\":{\"content\":\"10.1/" + bulk + "-" + i + "\"}}]}");
+        insert.setString(5, "PUBLIC");
+    }
+
+    private long nextval() throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery("CALL NEXT VALUE FOR work_seq")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BulkWorkInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,149 @@
+package org.orcid.core.manager.v3.read_only.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.orcid.core.manager.v3.read_only.AffiliationsManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.PeerReviewManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.ProfileFundingManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.ResearchResourceManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
+import org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary;
+import org.orcid.jaxb.model.v3.release.record.summary.Fundings;
+import org.orcid.jaxb.model.v3.release.record.summary.PeerReviews;
+import org.orcid.jaxb.model.v3.release.record.summary.ResearchResources;
+import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Activities summary assembly latency benchmark, run it with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.orcid.core.manager.v3.read_only.impl.ActivitiesSummaryManagerReadOnlyBenchmark
+ *
+ * The managers are replaced by stand-ins that sleep for a fixed time per
+ * read, works being the slowest as they are on records with many activities,
+ * so the numbers show how much of the DB latency the parallel mode hides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ActivitiesSummaryManagerReadOnlyBenchmark {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    @Param({ "2" })
+    private int affiliationLatencyMillis;
+
+    @Param({ "5", "20" })
+    private int worksLatencyMillis;
+
+    @Param({ "false", "true" })
+    private boolean parallel;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private ActivitiesSummaryManagerReadOnlyImpl manager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AffiliationsManagerReadOnly affiliations = stub(AffiliationsManagerReadOnly.class);
+        Mockito.when(affiliations.getDistinctionSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getEducationSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getEmploymentSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getInvitedPositionSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getMembershipSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getQualificationSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.getServiceSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(affiliations.groupAffiliations(anyList(), anyBoolean())).thenAnswer(i -> new ArrayList<>());
+
+        ProfileFundingManagerReadOnly fundings = stub(ProfileFundingManagerReadOnly.class);
+        Mockito.when(fundings.getFundingSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis * 2, ArrayList::new));
+        Mockito.when(fundings.groupFundings(any(), anyBoolean())).thenAnswer(i -> new Fundings());
+
+        PeerReviewManagerReadOnly peerReviews = stub(PeerReviewManagerReadOnly.class);
+        Mockito.when(peerReviews.getPeerReviewSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis * 2, ArrayList::new));
+        Mockito.when(peerReviews.groupPeerReviews(any(), anyBoolean())).thenAnswer(i -> new PeerReviews());
+
+        WorkManagerReadOnly works = stub(WorkManagerReadOnly.class);
+        Mockito.when(works.getWorksSummaryList(anyString())).thenAnswer(delayed(worksLatencyMillis, ArrayList::new));
+        Mockito.when(works.groupWorks(any(), anyBoolean())).thenAnswer(i -> new Works());
+
+        ResearchResourceManagerReadOnly researchResources = stub(ResearchResourceManagerReadOnly.class);
+        Mockito.when(researchResources.getResearchResourceSummaryList(anyString())).thenAnswer(delayed(affiliationLatencyMillis, ArrayList::new));
+        Mockito.when(researchResources.groupResearchResources(any(), anyBoolean())).thenAnswer(i -> new ResearchResources());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setDaemon(true);
+        executor.initialize();
+
+        manager = new ActivitiesSummaryManagerReadOnlyImpl();
+        manager.setAffiliationsManager(affiliations);
+        manager.setFundingManager(fundings);
+        manager.setPeerReviewManager(peerReviews);
+        manager.setWorkManager(works);
+        manager.setResearchResourceManager(researchResources);
+        ReflectionTestUtils.setField(manager, "isParallelAssemblyEnabled", parallel);
+        ReflectionTestUtils.setField(manager, "parallelTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(manager, "activitiesSummaryExecutor", executor);
+        ReflectionTestUtils.setField(manager, "transactionManagerReadOnly", stub(PlatformTransactionManager.class));
+        manager.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public ActivitiesSummary getActivitiesSummary() {
+        return manager.getActivitiesSummary(ORCID, false, true);
+    }
+
+    private static <T> T stub(Class<T> type) {
+        // Stub only, so the mocks don't record every call the benchmark makes
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    private static <T> Answer<T> delayed(int millis, Supplier<T> value) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return value.get();
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ActivitiesSummaryManagerReadOnlyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
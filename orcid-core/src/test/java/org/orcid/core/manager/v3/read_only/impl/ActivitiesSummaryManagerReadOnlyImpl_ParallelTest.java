@@ -0,0 +1,138 @@
+package org.orcid.core.manager.v3.read_only.impl;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.manager.v3.read_only.AffiliationsManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.PeerReviewManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.ProfileFundingManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.ResearchResourceManagerReadOnly;
+import org.orcid.core.manager.v3.read_only.WorkManagerReadOnly;
+import org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary;
+import org.orcid.jaxb.model.v3.release.record.summary.Fundings;
+import org.orcid.jaxb.model.v3.release.record.summary.PeerReviews;
+import org.orcid.jaxb.model.v3.release.record.summary.ResearchResources;
+import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Sections that miss the parallel timeout are built again on the caller
+ * thread, the others are kept
+ */
+public class ActivitiesSummaryManagerReadOnlyImpl_ParallelTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    @Mock
+    private AffiliationsManagerReadOnly affiliationsManager;
+
+    @Mock
+    private ProfileFundingManagerReadOnly fundingManager;
+
+    @Mock
+    private PeerReviewManagerReadOnly peerReviewManager;
+
+    @Mock
+    private WorkManagerReadOnly workManager;
+
+    @Mock
+    private ResearchResourceManagerReadOnly researchResourceManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerReadOnly;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private ActivitiesSummaryManagerReadOnlyImpl manager;
+
+    private final AtomicInteger worksReads = new AtomicInteger();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(affiliationsManager.getDistinctionSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getEducationSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getEmploymentSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getInvitedPositionSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getMembershipSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getQualificationSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.getServiceSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(affiliationsManager.groupAffiliations(anyList(), anyBoolean())).thenAnswer(i -> new ArrayList<>());
+        Mockito.when(fundingManager.getFundingSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(fundingManager.groupFundings(any(), anyBoolean())).thenReturn(new Fundings());
+        Mockito.when(peerReviewManager.getPeerReviewSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(peerReviewManager.groupPeerReviews(any(), anyBoolean())).thenReturn(new PeerReviews());
+        Mockito.when(researchResourceManager.getResearchResourceSummaryList(anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(researchResourceManager.groupResearchResources(any(), anyBoolean())).thenReturn(new ResearchResources());
+        // Slow the first time only, as when the DB is briefly stuck
+        Mockito.when(workManager.getWorksSummaryList(anyString())).thenAnswer(invocation -> {
+            if (worksReads.incrementAndGet() == 1) {
+                Thread.sleep(5000);
+            }
+            return new ArrayList<>();
+        });
+        Mockito.when(workManager.groupWorks(any(), anyBoolean())).thenReturn(new Works());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setDaemon(true);
+        executor.initialize();
+
+        manager = new ActivitiesSummaryManagerReadOnlyImpl();
+        manager.setAffiliationsManager(affiliationsManager);
+        manager.setFundingManager(fundingManager);
+        manager.setPeerReviewManager(peerReviewManager);
+        manager.setWorkManager(workManager);
+        manager.setResearchResourceManager(researchResourceManager);
+        ReflectionTestUtils.setField(manager, "isParallelAssemblyEnabled", true);
+        ReflectionTestUtils.setField(manager, "parallelTimeoutMillis", 500L);
+        ReflectionTestUtils.setField(manager, "activitiesSummaryExecutor", executor);
+        ReflectionTestUtils.setField(manager, "transactionManagerReadOnly", transactionManagerReadOnly);
+        manager.init();
+    }
+
+    @After
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void onlyUnfinishedSectionsAreBuiltAgainTest() {
+        long start = System.currentTimeMillis();
+        ActivitiesSummary activities = manager.getActivitiesSummary(ORCID, false, false);
+        long took = System.currentTimeMillis() - start;
+        assertTrue("Took " + took + "ms", took < 5000);
+
+        assertNotNull(activities.getDistinctions());
+        assertNotNull(activities.getServices());
+        assertNotNull(activities.getFundings());
+        assertNotNull(activities.getPeerReviews());
+        assertNotNull(activities.getWorks());
+        assertNotNull(activities.getResearchResources());
+
+        // Works twice, once cancelled on the executor and once on the caller
+        // thread, everything else once, including the section after works
+        Mockito.verify(workManager, Mockito.times(2)).getWorksSummaryList(ORCID);
+        Mockito.verify(affiliationsManager, Mockito.times(1)).getDistinctionSummaryList(ORCID);
+        Mockito.verify(affiliationsManager, Mockito.times(1)).getServiceSummaryList(ORCID);
+        Mockito.verify(fundingManager, Mockito.times(1)).getFundingSummaryList(ORCID);
+        Mockito.verify(peerReviewManager, Mockito.times(1)).getPeerReviewSummaryList(ORCID);
+        Mockito.verify(researchResourceManager, Mockito.times(1)).getResearchResourceSummaryList(ORCID);
+    }
+}
@@ -1,9 +1,13 @@
 package org.orcid.core.manager.v3.validator;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -904,6 +908,109 @@ public class ActivityValidatorTest {
         activityValidator.checkExternalIdentifiersForDuplicates(w1, w2, source2, source1);
     }
 
+    @Test
+    public void validateWorkDuplicatedExtIds_indexedTest() {
+        Source active = new Source();
+        active.setSourceName(new SourceName("source name"));
+        active.setSourceClientId(new SourceClientId("APP-00000000000000"));
+        Source other = new Source();
+        other.setSourceName(new SourceName("other source name"));
+        other.setSourceClientId(new SourceClientId("APP-00000000000001"));
+
+        List<Work> existingWorks = new ArrayList<Work>();
+        for (long putCode = 1; putCode <= 100; putCode++) {
+            ExternalID id = getExternalID();
+            id.setValue("value" + putCode);
+            existingWorks.add(getExistingWork(putCode, putCode % 2 == 0 ? active : other, id));
+        }
+        // Same identifier, but part of
+        ExternalID partOf = getExternalID();
+        partOf.setValue("value101");
+        partOf.setRelationship(Relationship.PART_OF);
+        existingWorks.add(getExistingWork(101L, active, partOf));
+
+        // From another source
+        assertNoDuplicates(getNewWork("value1"), existingWorks, active, null);
+        // Not self
+        assertNoDuplicates(getNewWork("value101"), existingWorks, active, null);
+        // The work being updated
+        assertNoDuplicates(getNewWork("value50"), existingWorks, active, 50L);
+
+        try {
+            activityValidator.checkWorkExternalIdentifiersForDuplicates(getNewWork("value99", "value50"), existingWorks, active, null);
+            fail();
+        } catch (OrcidDuplicatedActivityException e) {
+            assertEquals("50", e.getParams().get("putCode"));
+            assertEquals("source name", e.getParams().get("clientName"));
+        }
+
+        // Reports the same put code as comparing the works one by one
+        existingWorks.add(0, getExistingWork(102L, active, getExternalID()));
+        Work newWork = getNewWork("value40", "value1");
+        newWork.getExternalIdentifiers().getExternalIdentifier().add(getExternalID());
+        String expectedPutCode = null;
+        try {
+            for (Work existing : existingWorks) {
+                activityValidator.checkExternalIdentifiersForDuplicates(newWork, existing, existing.getSource(), active);
+            }
+        } catch (OrcidDuplicatedActivityException e) {
+            expectedPutCode = e.getParams().get("putCode");
+        }
+        assertEquals("102", expectedPutCode);
+        try {
+            activityValidator.checkWorkExternalIdentifiersForDuplicates(newWork, existingWorks, active, null);
+            fail();
+        } catch (OrcidDuplicatedActivityException e) {
+            assertEquals(expectedPutCode, e.getParams().get("putCode"));
+        }
+    }
+
+    @Test(expected = OrcidDuplicatedActivityException.class)
+    public void validateWorkDuplicatedExtIds_indexedNormalizedTest() {
+        Source source = new Source();
+        source.setSourceClientId(new SourceClientId("APP-00000000000000"));
+        ExternalID existingId = new ExternalID();
+        existingId.setRelationship(Relationship.SELF);
+        existingId.setType("agr");
+        existingId.setValue("upper");
+        existingId.setNormalized(new TransientNonEmptyString("upper"));
+
+        Work newWork = getNewWork("UPPER");
+        newWork.getExternalIdentifiers().getExternalIdentifier().get(0).setType("agr");
+        activityValidator.checkWorkExternalIdentifiersForDuplicates(newWork, Arrays.asList(getExistingWork(1L, source, existingId)), source, null);
+    }
+
+    private void assertNoDuplicates(Work newWork, List<Work> existingWorks, Source active, Long ignoredPutCode) {
+        activityValidator.checkWorkExternalIdentifiersForDuplicates(newWork, existingWorks, active, ignoredPutCode);
+        for (Work existing : existingWorks) {
+            if (!existing.getPutCode().equals(ignoredPutCode)) {
+                activityValidator.checkExternalIdentifiersForDuplicates(newWork, existing, existing.getSource(), active);
+            }
+        }
+    }
+
+    private Work getExistingWork(Long putCode, Source source, ExternalID id) {
+        Work work = new Work();
+        work.setPutCode(putCode);
+        work.setSource(source);
+        ExternalIDs extIds = new ExternalIDs();
+        extIds.getExternalIdentifier().add(id);
+        work.setWorkExternalIdentifiers(extIds);
+        return work;
+    }
+
+    private Work getNewWork(String... values) {
+        ExternalIDs extIds = new ExternalIDs();
+        for (String value : values) {
+            ExternalID id = getExternalID();
+            id.setValue(value);
+            extIds.getExternalIdentifier().add(id);
+        }
+        Work work = new Work();
+        work.setWorkExternalIdentifiers(extIds);
+        return work;
+    }
+
     /**
      * COMMON
      */
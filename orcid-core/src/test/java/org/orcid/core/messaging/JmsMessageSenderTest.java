@@ -0,0 +1,137 @@
+package org.orcid.core.messaging;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.utils.listener.LastModifiedMessage;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.destination.DestinationResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JmsMessageSenderTest {
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private DestinationResolver destinationResolver;
+
+    @Mock
+    private Queue queue;
+
+    @Mock
+    private MessageProducer producer;
+
+    @Mock
+    private MessageConverter converter;
+
+    @Mock
+    private MapMessage message;
+
+    private JmsMessageSender sender = new JmsMessageSender();
+
+    @Before
+    public void before() throws JMSException {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(sender, "jmsTemplate", jmsTemplate);
+        sender.setEnabled(true);
+        Mockito.when(jmsTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        Mockito.when(jmsTemplate.getDestinationResolver()).thenReturn(destinationResolver);
+        Mockito.when(jmsTemplate.getMessageConverter()).thenReturn(converter);
+        Mockito.when(connectionFactory.createConnection()).thenReturn(connection);
+        Mockito.when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+        Mockito.when(destinationResolver.resolveDestinationName(eq(session), eq("updateV3Record"), anyBoolean())).thenReturn(queue);
+        Mockito.when(session.createProducer(any(Destination.class))).thenReturn(producer);
+        Mockito.when(converter.toMessage(any(), eq(session))).thenReturn(message);
+    }
+
+    @Test
+    public void batchIsSentInOneTransactedSessionTest() throws JMSException {
+        assertTrue(sender.send(Arrays.asList(message("0000-0000-0000-0001"), message("0000-0000-0000-0002")), "updateV3Record"));
+
+        Mockito.verify(connectionFactory, Mockito.times(1)).createConnection();
+        Mockito.verify(connection).createSession(true, Session.SESSION_TRANSACTED);
+        Mockito.verify(session, Mockito.times(1)).createProducer(queue);
+        Mockito.verify(converter).toMessage(message("0000-0000-0000-0001").getMap(), session);
+        Mockito.verify(converter).toMessage(message("0000-0000-0000-0002").getMap(), session);
+        InOrder inOrder = Mockito.inOrder(producer, session, connection);
+        inOrder.verify(producer, Mockito.times(2)).send(message);
+        inOrder.verify(session).commit();
+        inOrder.verify(producer).close();
+        inOrder.verify(session).close();
+        inOrder.verify(connection).close();
+        Mockito.verify(session, Mockito.never()).rollback();
+    }
+
+    @Test
+    public void failedBatchIsRolledBackTest() throws JMSException {
+        Mockito.doNothing().doThrow(new JMSException("Broker down")).when(producer).send(message);
+
+        assertFalse(sender.send(Arrays.asList(message("0000-0000-0000-0001"), message("0000-0000-0000-0002")), "updateV3Record"));
+
+        Mockito.verify(session).rollback();
+        Mockito.verify(session, Mockito.never()).commit();
+        Mockito.verify(session).close();
+        Mockito.verify(connection).close();
+    }
+
+    @Test
+    public void emptyBatchIsNotSentTest() throws JMSException {
+        assertTrue(sender.send(Collections.<LastModifiedMessage> emptyList(), "updateV3Record"));
+        Mockito.verify(connectionFactory, Mockito.never()).createConnection();
+    }
+
+    @Test
+    public void disabledSenderDoesNotSendTest() throws JMSException {
+        sender.setEnabled(false);
+        assertFalse(sender.send(Arrays.asList(message("0000-0000-0000-0001")), "updateV3Record"));
+        Mockito.verify(connectionFactory, Mockito.never()).createConnection();
+    }
+
+    @Test
+    public void pausedSenderDoesNotSendTest() throws JMSException {
+        sender.flagConnectionProblem(new RuntimeException("Broker down"));
+        assertFalse(sender.send(Arrays.asList(message("0000-0000-0000-0001")), "updateV3Record"));
+        Mockito.verify(connectionFactory, Mockito.never()).createConnection();
+
+        sender.timer();
+        assertTrue(sender.send(Arrays.asList(message("0000-0000-0000-0001")), "updateV3Record"));
+    }
+
+    private LastModifiedMessage message(String orcid) {
+        return new LastModifiedMessage(orcid, new Date(1000));
+    }
+}
@@ -40,6 +40,7 @@ import org.orcid.persistence.jpa.entities.OrcidOauth2TokenDetail;
 import org.orcid.persistence.jpa.entities.ProfileEntity;
 import org.orcid.test.DBUnitTest;
 import org.orcid.test.OrcidJUnit4ClassRunner;
+import org.orcid.test.TargetProxyHelper;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
@@ -63,6 +64,9 @@ public class OrcidTokenStoreServiceTest extends DBUnitTest {
     @Resource(name = "orcidTokenStore")
     private TokenStore orcidTokenStoreService;    
     
+    @Resource(name = "orcidTokenStore")
+    private OrcidTokenStore orcidTokenStore;
+    
     @Resource
     private ProfileEntityManager profileEntityManager;
     
@@ -143,6 +147,37 @@ public class OrcidTokenStoreServiceTest extends DBUnitTest {
         assertTrue(token.getAdditionalInformation().containsKey(OrcidOauth2Constants.TOKEN_ID));
     }
 
+    @Test
+    @Transactional
+    public void testReadClientIdIsCached() throws Exception {
+        OrcidTokenStoreServiceImpl tokenStore = TargetProxyHelper.getTargetObject(orcidTokenStore, OrcidTokenStoreServiceImpl.class);
+        long hits = tokenStore.getClientIdCacheHits();
+        long misses = tokenStore.getClientIdCacheMisses();
+        
+        assertEquals("4444-4444-4444-4445", tokenStore.readClientId("persistent-token-2"));
+        assertEquals(misses + 1, tokenStore.getClientIdCacheMisses());
+        assertEquals("4444-4444-4444-4445", tokenStore.readClientId("persistent-token-2"));
+        assertEquals(hits + 1, tokenStore.getClientIdCacheHits());
+        
+        // Unknown tokens are cached too
+        assertNull(tokenStore.readClientId("some-long-oauth2-token-value-10"));
+        assertNull(tokenStore.readClientId("some-long-oauth2-token-value-10"));
+        assertEquals(misses + 2, tokenStore.getClientIdCacheMisses());
+        assertEquals(hits + 2, tokenStore.getClientIdCacheHits());
+        
+        // Storing the token invalidates the cached entry
+        String clientId = "4444-4444-4444-4441";
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("some-long-oauth2-token-value-10");
+        token.setScope(new HashSet<String>(Arrays.asList("/read-public")));
+        token.setTokenType("bearer");
+        token.setExpiration(new Date());
+        token.setAdditionalInformation(new HashMap<String, Object>());
+        OAuth2Request request = new OAuth2Request(Collections.<String, String> emptyMap(), clientId, Collections.<GrantedAuthority> emptyList(), true, new HashSet<String>(Arrays.asList("/read-public")), Collections.<String> emptySet(), null, Collections.<String> emptySet(), Collections.<String, Serializable> emptyMap());
+        tokenStore.storeAccessToken(token, new OAuth2Authentication(request, null));
+        assertEquals(clientId, tokenStore.readClientId("some-long-oauth2-token-value-10"));
+        assertEquals(misses + 3, tokenStore.getClientIdCacheMisses());
+    }
+
     @Test
     public void testReadAccessToken() throws Exception {
         OAuth2AccessToken oAuth2AccessToken = orcidTokenStoreService.readAccessToken("some-long-oauth2-token-value-1");
@@ -0,0 +1,106 @@
+package org.orcid.core.security.visibility.filter.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.orcid.jaxb.model.message.OrcidMessage;
+import org.orcid.jaxb.model.message.OrcidWork;
+import org.orcid.jaxb.model.message.Visibility;
+
+/**
+ * Public visibility filtering of a message with 6000 works, a third of them
+ * public, run it with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.orcid.core.security.visibility.filter.impl.VisibilityFilterImplBenchmark
+ *
+ * Most of the time goes to the TreeCleaner walking the message, run it before
+ * and after a TreeCleaner change to compare them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisibilityFilterImplBenchmark {
+
+    private static final int COPIES = 2000;
+
+    private static final Visibility[] VISIBILITIES = { Visibility.PUBLIC, Visibility.LIMITED, Visibility.PRIVATE };
+
+    private VisibilityFilterImpl visibilityFilter = new VisibilityFilterImpl();
+
+    private JAXBContext context;
+
+    private byte[] messageXml;
+
+    private OrcidMessage message;
+
+    @Setup(Level.Trial)
+    public void setup() throws JAXBException {
+        context = JAXBContext.newInstance(OrcidMessage.class);
+        OrcidMessage sample = readSample();
+        List<OrcidWork> works = works(sample);
+        // One set of the sample works per visibility, repeated
+        OrcidWork[][] variants = new OrcidWork[VISIBILITIES.length][];
+        for (int i = 0; i < VISIBILITIES.length; i++) {
+            List<OrcidWork> variant = works(readSample());
+            for (OrcidWork work : variant) {
+                work.setVisibility(VISIBILITIES[i]);
+            }
+            variants[i] = variant.toArray(new OrcidWork[variant.size()]);
+        }
+        works.clear();
+        for (int i = 0; i < COPIES; i++) {
+            for (OrcidWork work : variants[i % variants.length]) {
+                works.add(work);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        context.createMarshaller().marshal(sample, out);
+        messageXml = out.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void readMessage() throws JAXBException {
+        // Filtering changes the message, so every invocation gets its own copy
+        message = (OrcidMessage) context.createUnmarshaller().unmarshal(new ByteArrayInputStream(messageXml));
+    }
+
+    @Benchmark
+    public OrcidMessage filter() {
+        return visibilityFilter.filter(message, Visibility.PUBLIC);
+    }
+
+    private OrcidMessage readSample() throws JAXBException {
+        return (OrcidMessage) context.createUnmarshaller().unmarshal(getClass().getResourceAsStream("/orcid-public-full-message-latest.xml"));
+    }
+
+    private List<OrcidWork> works(OrcidMessage message) {
+        return message.getOrcidProfile().getOrcidActivities().getOrcidWorks().getOrcidWork();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VisibilityFilterImplBenchmark.class.getSimpleName()).build()).run();
+    }
+}
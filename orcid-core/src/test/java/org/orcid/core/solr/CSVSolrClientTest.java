@@ -0,0 +1,110 @@
+package org.orcid.core.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the CSV client against a local HTTP stub standing in for Solr
+ */
+public class CSVSolrClientTest {
+
+    private static final int ROWS = 20000;
+
+    private HttpServer solr;
+
+    private CSVSolrClient client;
+
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final List<String> clientPorts = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void before() throws IOException {
+        solr = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        solr.createContext("/solr/profile/select", exchange -> {
+            requests.incrementAndGet();
+            lastQuery.set(exchange.getRequestURI().getRawQuery());
+            clientPorts.add(String.valueOf(exchange.getRemoteAddress().getPort()));
+            exchange.getResponseHeaders().add("Content-Type", "text/csv;charset=utf-8");
+            // Chunked, like Solr does for large responses
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(csv().getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        solr.start();
+        client = new CSVSolrClient("http://localhost:" + solr.getAddress().getPort() + "/solr/profile", 2, 2, 1000, 1000, 5000);
+    }
+
+    @After
+    public void after() throws IOException {
+        client.close();
+        solr.stop(0);
+    }
+
+    @Test
+    public void findCSVByDocumentCriteriaTest() throws Exception {
+        assertEquals(csv(), client.findCSVByDocumentCriteria(query()));
+        String query = lastQuery.get();
+        assertTrue(query, query.contains("wt=csv"));
+        assertTrue(query, query.contains("q=family-name%3Asmith"));
+        assertTrue(query, query.contains("rows=1000"));
+        assertTrue(query, query.contains("fl=orcid"));
+    }
+
+    @Test
+    public void writeCSVByDocumentCriteriaTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        client.writeCSVByDocumentCriteria(query(), out);
+        assertEquals(csv(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void connectionsAreReusedTest() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            client.writeCSVByDocumentCriteria(query(), new ByteArrayOutputStream());
+            client.findCSVByDocumentCriteria(query());
+        }
+        assertEquals(20, requests.get());
+        // The pool has a single route of 2 connections
+        assertTrue(clientPorts.toString(), clientPorts.stream().distinct().count() <= 2);
+    }
+
+    private Map<String, List<String>> query() {
+        Map<String, List<String>> query = new HashMap<>();
+        query.put("q", Arrays.asList("family-name:smith"));
+        query.put("fl", Arrays.asList("orcid,not-allowed"));
+        query.put("rows", Arrays.asList("1000"));
+        return query;
+    }
+
+    private static String csv() {
+        StringBuilder csv = new StringBuilder("orcid\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(String.format("0000-0000-%04d-%04d\n", i / 10000, i % 10000));
+        }
+        return csv.toString();
+    }
+}
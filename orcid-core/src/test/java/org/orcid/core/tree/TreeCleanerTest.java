@@ -0,0 +1,111 @@
+package org.orcid.core.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.junit.Test;
+import org.orcid.jaxb.model.message.OrcidMessage;
+import org.orcid.jaxb.model.v3.release.record.Record;
+import org.orcid.jaxb.model.v3.release.record.ResearchResource;
+
+/**
+ * Checks the cached clean plans give exactly the same trees the reflective
+ * cleaner gave, over the sample records.
+ */
+public class TreeCleanerTest {
+
+    private static final String[][] SAMPLES = {
+            { "/orcid-public-full-message-latest.xml", OrcidMessage.class.getName() },
+            { "/orcid-full-message-no-visibility-latest.xml", OrcidMessage.class.getName() },
+            { "/orcid-protected-search-results-message-latest.xml", OrcidMessage.class.getName() },
+            { "/orcid-search-result-message.xml", OrcidMessage.class.getName() },
+            { "/record_2.0/samples/read_samples/work-full-2.0.xml", org.orcid.jaxb.model.record_v2.Work.class.getName() },
+            { "/record_2.0/samples/read_samples/education-full-2.0.xml", org.orcid.jaxb.model.record_v2.Education.class.getName() },
+            { "/record_2.0/samples/read_samples/employment-full-2.0.xml", org.orcid.jaxb.model.record_v2.Employment.class.getName() },
+            { "/record_2.0/samples/read_samples/funding-2.0.xml", org.orcid.jaxb.model.record_v2.Funding.class.getName() },
+            { "/record_3.0/samples/read_samples/record-3.0.xml", Record.class.getName() },
+            { "/record_3.0/samples/read_samples/research-resource-3.0.xml", ResearchResource.class.getName() } };
+
+    @Test
+    public void sameTreesAsTheReflectiveCleanerTest() throws Exception {
+        for (String[] sample : SAMPLES) {
+            Class<?> type = Class.forName(sample[1]);
+            for (boolean removeEmptyObjects : new boolean[] { true, false }) {
+                for (TreeCleaningStrategy strategy : new TreeCleaningStrategy[] { obj -> TreeCleaningDecision.DEFAULT, publicOnly() }) {
+                    Object expected = unmarshal(sample[0], type);
+                    ReflectiveTreeCleaner reflective = new ReflectiveTreeCleaner();
+                    reflective.setRemoveEmptyObjects(removeEmptyObjects);
+                    reflective.clean(expected, strategy);
+
+                    Object actual = unmarshal(sample[0], type);
+                    TreeCleaner cleaner = new TreeCleaner();
+                    cleaner.setRemoveEmptyObjects(removeEmptyObjects);
+                    cleaner.clean(actual, strategy);
+
+                    assertEquals(sample[0] + " removeEmptyObjects=" + removeEmptyObjects, marshal(expected, type), marshal(actual, type));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cleanPlansAreCachedTest() {
+        TreeCleaner.CleanPlan plan = TreeCleaner.getCleanPlan(Record.class);
+        assertSame(plan, TreeCleaner.getCleanPlan(Record.class));
+        assertFalse(plan.isLeaf());
+        assertTrue(plan.size() > 0);
+        assertTrue(TreeCleaner.getCleanPlan(String.class).isLeaf());
+        assertTrue(TreeCleaner.getCleanPlan(Long.class).isLeaf());
+    }
+
+    /**
+     * Strips anything with a visibility other than public, whatever version
+     * of the model it comes from
+     */
+    private static TreeCleaningStrategy publicOnly() {
+        return obj -> {
+            if (obj == null) {
+                return TreeCleaningDecision.DEFAULT;
+            }
+            try {
+                Method getVisibility = obj.getClass().getMethod("getVisibility");
+                Object visibility = getVisibility.invoke(obj);
+                if (visibility instanceof Enum && !"PUBLIC".equals(((Enum<?>) visibility).name())) {
+                    return TreeCleaningDecision.CLEANING_REQUIRED;
+                }
+            } catch (NoSuchMethodException e) {
+                // Nothing to check
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+            return TreeCleaningDecision.DEFAULT;
+        };
+    }
+
+    private static Object unmarshal(String path, Class<?> type) throws JAXBException {
+        try (InputStream is = TreeCleanerTest.class.getResourceAsStream(path)) {
+            return JAXBContext.newInstance(type).createUnmarshaller().unmarshal(is);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String marshal(Object obj, Class<?> type) throws JAXBException {
+        Marshaller marshaller = JAXBContext.newInstance(type).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        StringWriter writer = new StringWriter();
+        marshaller.marshal(obj, writer);
+        return writer.toString();
+    }
+}
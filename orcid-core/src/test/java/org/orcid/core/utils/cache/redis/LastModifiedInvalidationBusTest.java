@@ -0,0 +1,123 @@
+package org.orcid.core.utils.cache.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import redis.clients.jedis.JedisPubSub;
+
+public class LastModifiedInvalidationBusTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    @Mock
+    private RedisClient redisClient;
+
+    private LastModifiedInvalidationBus bus;
+
+    private final AtomicReference<JedisPubSub> subscriber = new AtomicReference<JedisPubSub>();
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Before
+    public void before() throws InterruptedException {
+        MockitoAnnotations.initMocks(this);
+        CountDownLatch subscribed = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            JedisPubSub s = invocation.getArgument(0);
+            subscriber.set(s);
+            s.onSubscribe(LastModifiedInvalidationBus.CHANNEL, 1);
+            subscribed.countDown();
+            // Stay subscribed until the test ends
+            released.await();
+            return null;
+        }).when(redisClient).subscribe(any(JedisPubSub.class), eq(LastModifiedInvalidationBus.CHANNEL));
+        Mockito.when(redisClient.publish(any(String.class), any(String.class))).thenReturn(true);
+
+        bus = newBus(true);
+        bus.init();
+        assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void after() {
+        bus.shutdown();
+        released.countDown();
+    }
+
+    @Test
+    public void readsFromTheDBOnceWhileSubscribedTest() {
+        AtomicInteger dbReads = new AtomicInteger();
+        Date date = new Date();
+        assertTrue(bus.isActive());
+        assertEquals(date, bus.getProfileLastModified(ORCID, () -> read(dbReads, date)));
+        assertEquals(date, bus.getProfileLastModified(ORCID, () -> read(dbReads, date)));
+        assertEquals(1, dbReads.get());
+    }
+
+    @Test
+    public void invalidationMessageEvictsTest() {
+        AtomicInteger dbReads = new AtomicInteger();
+        Date date = new Date();
+        bus.getClientLastModified("APP-1", () -> read(dbReads, date));
+        subscriber.get().onMessage(LastModifiedInvalidationBus.CHANNEL, LastModifiedInvalidationBus.CLIENT_PREFIX + "APP-1");
+        bus.getClientLastModified("APP-1", () -> read(dbReads, date));
+        assertEquals(2, dbReads.get());
+    }
+
+    @Test
+    public void updatePublishesAndEvictsTest() {
+        AtomicInteger dbReads = new AtomicInteger();
+        Date date = new Date();
+        bus.getProfileLastModified(ORCID, () -> read(dbReads, date));
+        bus.profileUpdated(ORCID);
+        Mockito.verify(redisClient).publish(LastModifiedInvalidationBus.CHANNEL, LastModifiedInvalidationBus.PROFILE_PREFIX + ORCID);
+        bus.getProfileLastModified(ORCID, () -> read(dbReads, date));
+        assertEquals(2, dbReads.get());
+    }
+
+    @Test
+    public void disabledAlwaysReadsFromTheDBTest() {
+        LastModifiedInvalidationBus disabled = newBus(false);
+        disabled.init();
+        AtomicInteger dbReads = new AtomicInteger();
+        Date date = new Date();
+        assertFalse(disabled.isActive());
+        disabled.getProfileLastModified(ORCID, () -> read(dbReads, date));
+        disabled.getProfileLastModified(ORCID, () -> read(dbReads, date));
+        disabled.profileUpdated(ORCID);
+        assertEquals(2, dbReads.get());
+        Mockito.verify(redisClient, Mockito.never()).publish(any(String.class), any(String.class));
+    }
+
+    private LastModifiedInvalidationBus newBus(boolean enabled) {
+        LastModifiedInvalidationBus b = new LastModifiedInvalidationBus();
+        ReflectionTestUtils.setField(b, "redisClient", redisClient);
+        ReflectionTestUtils.setField(b, "enabled", enabled);
+        ReflectionTestUtils.setField(b, "maxStalenessSeconds", 60);
+        ReflectionTestUtils.setField(b, "maxSize", 1000L);
+        ReflectionTestUtils.setField(b, "reconnectSeconds", 1);
+        return b;
+    }
+
+    private Date read(AtomicInteger dbReads, Date date) {
+        dbReads.incrementAndGet();
+        return date;
+    }
+}
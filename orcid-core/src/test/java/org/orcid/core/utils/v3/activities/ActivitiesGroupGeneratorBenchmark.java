@@ -0,0 +1,120 @@
+package org.orcid.core.utils.v3.activities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.orcid.jaxb.model.v3.release.common.Title;
+import org.orcid.jaxb.model.v3.release.record.ExternalID;
+import org.orcid.jaxb.model.v3.release.record.ExternalIDs;
+import org.orcid.jaxb.model.v3.release.record.WorkTitle;
+import org.orcid.jaxb.model.v3.release.record.summary.WorkSummary;
+
+/**
+ * Grouping benchmark over synthetic records, run it with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.orcid.core.utils.v3.activities.ActivitiesGroupGeneratorBenchmark
+ *
+ * Roughly a third of the works share a DOI with another work and some of
+ * them carry a second id that chains groups together, so the records
+ * exercise both lookups and merges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ActivitiesGroupGeneratorBenchmark {
+
+    @Param({ "1000", "5000", "10000" })
+    private int numberOfWorks;
+
+    private List<WorkSummary> works;
+
+    private ActivitiesGroupGenerator groupedRecord;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(numberOfWorks);
+        works = new ArrayList<>(numberOfWorks);
+        for (int i = 0; i < numberOfWorks; i++) {
+            WorkSummary work = new WorkSummary();
+            work.setPutCode(Long.valueOf(i));
+            WorkTitle workTitle = new WorkTitle();
+            workTitle.setTitle(new Title("title " + random.nextInt(numberOfWorks / 2)));
+            work.setTitle(workTitle);
+            ExternalIDs extIds = new ExternalIDs();
+            extIds.getExternalIdentifier().add(getExternalID("doi", "10.1/" + random.nextInt(numberOfWorks * 2 / 3)));
+            if (i % 5 == 0) {
+                extIds.getExternalIdentifier().add(getExternalID("eid", "2-s2.0-" + random.nextInt(numberOfWorks)));
+            }
+            work.setExternalIdentifiers(extIds);
+            works.add(work);
+        }
+        groupedRecord = new ActivitiesGroupGenerator();
+        for (WorkSummary work : works) {
+            groupedRecord.group(work);
+        }
+    }
+
+    @Benchmark
+    public List<ActivitiesGroup> groupWorks() {
+        ActivitiesGroupGenerator generator = new ActivitiesGroupGenerator();
+        for (WorkSummary work : works) {
+            generator.group(work);
+        }
+        return generator.getGroups();
+    }
+
+    @Benchmark
+    public List<ActivitiesGroup> groupWorksAndGenerateSuggestions() {
+        WorkGroupAndGroupingSuggestionGenerator generator = new WorkGroupAndGroupingSuggestionGenerator();
+        for (WorkSummary work : works) {
+            generator.group(work);
+        }
+        generator.getGroupingSuggestions("0000-0000-0000-0000");
+        return generator.getGroups();
+    }
+
+    /**
+     * Incremental update of an already grouped record, removing and adding
+     * back a work leaves the generator with the same groups so it can be
+     * reused across invocations
+     */
+    @Benchmark
+    public List<ActivitiesGroup> ungroupAndRegroupOneWork() {
+        WorkSummary edited = works.get(works.size() / 2);
+        groupedRecord.ungroup(edited);
+        groupedRecord.group(edited);
+        return groupedRecord.getGroups();
+    }
+
+    private ExternalID getExternalID(String type, String value) {
+        ExternalID externalID = new ExternalID();
+        externalID.setType(type);
+        externalID.setValue(value);
+        externalID.setRelationship(org.orcid.jaxb.model.common.Relationship.SELF);
+        return externalID;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ActivitiesGroupGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,6 +1,7 @@
 package org.orcid.core.utils.v3.activities;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -256,6 +257,66 @@ public class ActivitiesGroupGenerator_GroupingWorksTest extends ActivitiesGroupG
         checkActivitiesBelongsToTheSameGroup(groups, work1, work2, work3, work4);
     }
     
+    /**
+     * work-1, work-2, work-3 and work-4 are grouped together, then removing
+     * work-4 should split them again in the two groups they had before it
+     * was added
+     * */
+    @Test
+    public void groupWorks_UngroupSplitsMergedGroup_Test() {
+        ActivitiesGroupGenerator generator = new ActivitiesGroupGenerator();
+        Map<String, WorkSummary> works = generateWorks();
+        
+        WorkSummary work1 = works.get("work-1");
+        WorkSummary work2 = works.get("work-2");
+        WorkSummary work3 = works.get("work-3");
+        WorkSummary work4 = works.get("work-4");
+        WorkSummary work5 = works.get("work-5");
+        
+        generator.group(work1);
+        generator.group(work2);
+        generator.group(work3);
+        generator.group(work4);
+        generator.group(work5);
+        assertEquals(2, generator.getGroups().size());
+        
+        assertTrue(generator.ungroup(work4));
+        List<ActivitiesGroup> groups = generator.getGroups();
+        assertEquals(3, groups.size());
+        checkActivitiesBelongsToTheSameGroup(groups, work1, work2);
+        checkActivitiesDontBelongsToTheSameGroup(groups, work1, work3, work5);
+        checkActivityIsOnGroups(work1, groups);
+        checkActivityIsOnGroups(work2, groups);
+        checkActivityIsOnGroups(work3, groups);
+        checkActivityIsOnGroups(work5, groups);
+        for (ActivitiesGroup group : groups) {
+            assertFalse(group.getActivities().contains(work4));
+        }
+        
+        // Removing it twice does nothing
+        assertFalse(generator.ungroup(work4));
+        assertEquals(3, generator.getGroups().size());
+        
+        // Adding it back merges the groups again
+        generator.group(work4);
+        groups = generator.getGroups();
+        assertEquals(2, groups.size());
+        checkActivitiesBelongsToTheSameGroup(groups, work1, work2, work3, work4);
+        
+        // Removing a work that is alone in its group drops the group
+        assertTrue(generator.ungroup(work5));
+        groups = generator.getGroups();
+        assertEquals(1, groups.size());
+        assertEquals(4, groups.get(0).getActivities().size());
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void groupWorks_GroupsCannotBeModified_Test() {
+        ActivitiesGroupGenerator generator = new ActivitiesGroupGenerator();
+        generator.group(generateWorks().get("work-1"));
+        generator.getGroups().clear();
+    }
+    
     @Test
     public void testNormalizedGrouping(){
         ActivitiesGroupGenerator generator = new ActivitiesGroupGenerator();
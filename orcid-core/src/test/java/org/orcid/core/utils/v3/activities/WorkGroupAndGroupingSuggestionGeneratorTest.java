@@ -46,6 +46,33 @@ public class WorkGroupAndGroupingSuggestionGeneratorTest {
         assertEquals("orcid", suggestions.get(1).getOrcid());
     }
     
+    @Test
+    public void testUngroupUpdatesSuggestions() {
+        WorkGroupAndGroupingSuggestionGenerator generator = new WorkGroupAndGroupingSuggestionGenerator();
+        List<WorkSummary> summaries = getWorkSummariesFourGroupsOneSuggestion();
+        for (WorkSummary summary : summaries) {
+            generator.group(summary);
+        }
+        assertEquals(1, generator.getGroupingSuggestions("orcid").size());
+        
+        // Put code 7 is the only other work titled "something totally different"
+        WorkSummary seventh = summaries.get(6);
+        generator.ungroup(seventh);
+        assertEquals(3, generator.getGroups().size());
+        assertEquals(0, generator.getGroupingSuggestions("orcid").size());
+        
+        generator.group(seventh);
+        assertEquals(4, generator.getGroups().size());
+        List<WorkGroupingSuggestion> suggestions = generator.getGroupingSuggestions("orcid");
+        assertEquals(1, suggestions.size());
+        assertEquals("4,7", suggestions.get(0).getPutCodesAsString());
+        
+        // Removing a work from a group with several titles keeps the rest of the group mapped
+        generator.ungroup(summaries.get(0));
+        assertEquals(4, generator.getGroups().size());
+        assertEquals(1, generator.getGroupingSuggestions("orcid").size());
+    }
+    
     @Test
     public void testNoGroupableIDs() {
         WorkGroupAndGroupingSuggestionGenerator generator = new WorkGroupAndGroupingSuggestionGenerator();
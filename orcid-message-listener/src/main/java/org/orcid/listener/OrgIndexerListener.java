@@ -1,5 +1,9 @@
 package org.orcid.listener;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
@@ -20,9 +24,25 @@ public class OrgIndexerListener implements MessageListener {
         this.processor = processor;
     }
     
-    protected OrgDisambiguatedSolrDocument getObjectFromMessage(Message message) throws JMSException {
+    /**
+     * A message carries either one org or, when sent by the batched indexer, a
+     * list of them
+     */
+    protected List<OrgDisambiguatedSolrDocument> getObjectsFromMessage(Message message) throws JMSException {
         ActiveMQObjectMessage objectMessage = (ActiveMQObjectMessage) message;
         Object obj = objectMessage.getObject();
+        List<OrgDisambiguatedSolrDocument> docs = new ArrayList<OrgDisambiguatedSolrDocument>();
+        if (obj instanceof Collection) {
+            for (Object element : (Collection<?>) obj) {
+                docs.add(toDocument(element));
+            }
+        } else {
+            docs.add(toDocument(obj));
+        }
+        return docs;
+    }
+
+    private OrgDisambiguatedSolrDocument toDocument(Object obj) {
         if (!OrgDisambiguatedSolrDocument.class.isAssignableFrom(obj.getClass())) {
             throw new IllegalArgumentException("Unable to transofrm " + obj.getClass().getName() + " into a OrgDisambiguatedSolrDocument");
         }
@@ -32,9 +52,14 @@ public class OrgIndexerListener implements MessageListener {
     @Override
     public void onMessage(Message message) {
         try {
-            OrgDisambiguatedSolrDocument obj = getObjectFromMessage(message);
-            LOG.info("Recieved " + message.getJMSDestination() + " message for org disambiguated " + obj.getOrgDisambiguatedId());
-            processor.accept(obj);
+            List<OrgDisambiguatedSolrDocument> docs = getObjectsFromMessage(message);
+            if (docs.size() == 1) {
+                LOG.info("Recieved " + message.getJMSDestination() + " message for org disambiguated " + docs.get(0).getOrgDisambiguatedId());
+                processor.accept(docs.get(0));
+            } else {
+                LOG.info("Recieved " + message.getJMSDestination() + " message for " + docs.size() + " orgs disambiguated");
+                processor.acceptAll(docs);
+            }
         } catch (JMSException e) {
             throw new RuntimeException(e);
         }
@@ -1,8 +1,12 @@
 package org.orcid.listener.orcid;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
+import javax.xml.bind.JAXBException;
+
 import org.orcid.jaxb.model.v3.release.record.Record;
 import org.orcid.jaxb.model.v3.release.record.ResearchResource;
 import org.orcid.jaxb.model.v3.release.record.summary.ResearchResources;
@@ -27,4 +31,23 @@ public interface Orcid30Manager {
     ResearchResources fetchResearchResources(String orcid);
 
     public byte[] fetchActivity(String orcid, Long putCode, String endpoint) throws IOException, InterruptedException;
+
+    /**
+     * Fetches the given works with a single call to the bulk works endpoint,
+     * so, no more than org.orcid.core.works.bulk.read.max put codes should be
+     * requested at once
+     * 
+     * The XML of each work is marshalled again from the bulk response, so it
+     * is the same work but not byte for byte the XML fetchActivity would
+     * return for it, namespace declarations and formatting can differ. This
+     * is intended, the S3 copies are only ever read back as XML.
+     * 
+     * @param orcid
+     * @param putCodes
+     * 
+     * @return the XML of each work, keyed by put code. Works the API returned
+     *         an error for are not included
+     * @throws JAXBException
+     */
+    Map<Long, byte[]> fetchWorks(String orcid, List<Long> putCodes) throws JAXBException;
 }
\ No newline at end of file
@@ -3,21 +3,29 @@ package org.orcid.listener.orcid;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
+import javax.xml.bind.JAXBException;
 
+import org.orcid.jaxb.model.record.bulk.BulkElement;
 import org.orcid.jaxb.model.v3.release.error.OrcidError;
 import org.orcid.jaxb.model.v3.release.record.Record;
 import org.orcid.jaxb.model.v3.release.record.ResearchResource;
+import org.orcid.jaxb.model.v3.release.record.Work;
+import org.orcid.jaxb.model.v3.release.record.WorkBulk;
 import org.orcid.jaxb.model.v3.release.record.summary.ResearchResources;
 import org.orcid.listener.exception.DeprecatedRecordException;
 import org.orcid.listener.exception.LockedRecordException;
 import org.orcid.listener.http.OrcidAPIClient;
 import org.orcid.utils.jersey.JerseyClientHelper;
 import org.orcid.utils.jersey.JerseyClientResponse;
+import org.orcid.utils.jersey.marshaller.ORCIDMarshaller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +50,9 @@ public class Orcid30ManagerImpl implements Orcid30Manager {
     @Resource
     private OrcidAPIClient orcidAPIClient;
 
+    @Resource
+    private ORCIDMarshaller marshaller;
+
     // loads on read.
     private final LoadingCache<String, RecordContainer> v3ThreadSharedCache;
 
@@ -140,6 +151,27 @@ public class Orcid30ManagerImpl implements Orcid30Manager {
         }
     }
     
+    @Override
+    public Map<Long, byte[]> fetchWorks(String orcid, List<Long> putCodes) throws JAXBException {
+        String url = baseUri + orcid + "/works/" + putCodes.stream().map(String::valueOf).collect(Collectors.joining(","));
+        JerseyClientResponse<WorkBulk, OrcidError> response = jerseyClientHelper.executeGetRequestWithCustomHeaders(url, MediaType.APPLICATION_XML_TYPE,
+                accessToken, Map.of("User-Agent", "orcid/message-listener"), WorkBulk.class, OrcidError.class);
+        if (response.getStatus() != 200) {
+            LOG.error("Unable to fetch works " + putCodes + " from record " + orcid + " on API 3.0 HTTP error code: " + response.getStatus());
+            throw new RuntimeException("Failed : HTTP error code : " + response.getStatus());
+        }
+        Map<Long, byte[]> works = new HashMap<Long, byte[]>();
+        if (response.getEntity().getBulk() != null) {
+            for (BulkElement element : response.getEntity().getBulk()) {
+                if (element instanceof Work) {
+                    Work work = (Work) element;
+                    works.put(work.getPutCode(), marshaller.toXML(work));
+                }
+            }
+        }
+        return works;
+    }
+
     private final class RecordContainer {
         public Record record;
         public int status;
@@ -28,6 +28,7 @@ import org.orcid.listener.persistence.util.APIVersion;
 import org.orcid.listener.persistence.util.ActivityType;
 import org.orcid.utils.DateUtils;
 import org.orcid.utils.jersey.marshaller.ORCIDMarshaller;
+import org.orcid.utils.jersey.marshaller.ReusableByteArrayOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -53,6 +54,11 @@ public class S3Manager {
     
     @Resource
     private ORCIDMarshaller marshaller; 
+
+    // Record summaries are marshalled into a per thread buffer that is
+    // uploaded without copying it and reused for the next summary
+    private final ThreadLocal<ReusableByteArrayOutputStream> summaryBuffer = ThreadLocal
+            .withInitial(() -> new ReusableByteArrayOutputStream(64 * 1024, 8 * 1024 * 1024));
    
     public void setS3MessagingService(S3MessagingService s3MessagingService) {
         this.s3MessagingService = s3MessagingService;
@@ -66,16 +72,26 @@ public class S3Manager {
         Date lastModified = DateUtils.convertToDate(record.getHistory().getLastModifiedDate().getValue());
         // Upload XML
         String xmlElementName = getElementName(orcid);
-        byte[] xmlElement = marshaller.toXML(record);
-        s3MessagingService.sendV2Item(xmlElementName, xmlElement, MediaType.APPLICATION_XML, lastModified, false);
+        ReusableByteArrayOutputStream buffer = summaryBuffer.get();
+        try {
+            marshaller.marshal(record, buffer);
+            s3MessagingService.sendV2Item(xmlElementName, buffer.toInputStream(), buffer.size(), MediaType.APPLICATION_XML, lastModified, false);
+        } finally {
+            buffer.reset();
+        }
     }
 
     public void uploadV3RecordSummary(String orcid, org.orcid.jaxb.model.v3.release.record.Record record) throws JAXBException, JsonProcessingException,AmazonClientException, AmazonServiceException {
         Date lastModified = DateUtils.convertToDate(record.getHistory().getLastModifiedDate().getValue());
         // Upload XML
         String xmlElementName = getElementName(orcid);
-        byte[] xmlElement = marshaller.toXML(record);
-        s3MessagingService.sendV3Item(orcid, xmlElementName, xmlElement, MediaType.APPLICATION_XML, lastModified, false);
+        ReusableByteArrayOutputStream buffer = summaryBuffer.get();
+        try {
+            marshaller.marshal(record, buffer);
+            s3MessagingService.sendV3Item(orcid, xmlElementName, buffer.toInputStream(), buffer.size(), MediaType.APPLICATION_XML, lastModified, false);
+        } finally {
+            buffer.reset();
+        }
     }
 
     public void uploadV2Activity(String orcid, String putCode, ActivityType activityType, Date lastModified, byte [] activity) throws JAXBException, JsonProcessingException,AmazonClientException, AmazonServiceException {
@@ -1,11 +1,22 @@
 package org.orcid.listener.s3;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.xml.bind.JAXBException;
 
@@ -80,6 +91,38 @@ public class S3MessageProcessorAPIV3 {
     @Resource
     private Api30RecordStatusManager api30RecordStatusManager;
 
+    @Value("${org.orcid.message-listener.v3.activities.pipelined:false}")
+    private boolean isPipelined;
+
+    @Value("${org.orcid.message-listener.v3.activities.maxConcurrencyPerRecord:8}")
+    private int maxConcurrencyPerRecord;
+
+    @Value("${org.orcid.message-listener.v3.activities.maxConcurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${org.orcid.message-listener.v3.works.bulkFetch:false}")
+    private boolean isBulkFetchEnabled;
+
+    @Value("${org.orcid.core.works.bulk.read.max:100}")
+    private int bulkReadMax;
+
+    private ExecutorService activitiesExecutor;
+
+    private Semaphore globalPermits;
+
+    @PostConstruct
+    public void init() {
+        globalPermits = new Semaphore(maxConcurrency);
+        activitiesExecutor = newActivitiesExecutor(maxConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (activitiesExecutor != null) {
+            activitiesExecutor.shutdown();
+        }
+    }
+
     public void update(String orcid) {
         Boolean isSummaryOk = false;
         List<ActivityType> failedElements = new ArrayList<ActivityType>();
@@ -508,8 +551,18 @@ public class S3MessageProcessorAPIV3 {
 
     private boolean processActivities(String orcid, List<? extends Activity> activities, Map<String, S3ObjectSummary> existingElements, ActivityType type) {
         try {
-            for (Activity x : activities) {
-                processActivity(orcid, x, existingElements, type);
+            if (isBulkFetchEnabled && ActivityType.WORKS.equals(type)) {
+                if (!runActivityTasks(orcid, type, getBulkWorkTasks(orcid, getChangedActivities(activities, existingElements)))) {
+                    return false;
+                }
+            } else if (isPipelined) {
+                if (!runActivityTasks(orcid, type, getActivityTasks(orcid, type, getChangedActivities(activities, existingElements)))) {
+                    return false;
+                }
+            } else {
+                for (Activity x : activities) {
+                    processActivity(orcid, x, existingElements, type);
+                }
             }
             
             // Remove from S3 all element that still exists on the
@@ -558,6 +611,149 @@ public class S3MessageProcessorAPIV3 {
         }
     }
 
+    /**
+     * Returns the activities that are new or were modified after their copy
+     * in S3 was uploaded, and removes every activity in the list from
+     * existingElements, so what is left there must be deleted from S3.
+     */
+    private List<Activity> getChangedActivities(List<? extends Activity> activities, Map<String, S3ObjectSummary> existingElements) {
+        List<Activity> changed = new ArrayList<Activity>();
+        for (Activity x : activities) {
+            Date summaryLastModified = DateUtils.convertToDate(x.getLastModifiedDate().getValue());
+            S3ObjectSummary existingObject = existingElements.remove(String.valueOf(x.getPutCode()));
+            if (existingObject == null || summaryLastModified.after(existingObject.getLastModified())) {
+                changed.add(x);
+            }
+        }
+        return changed;
+    }
+
+    private List<Callable<Void>> getActivityTasks(String orcid, ActivityType type, List<Activity> changed) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (Activity x : changed) {
+            tasks.add(() -> {
+                byte[] activity = fetchActivity(orcid, x.getPutCode(), type);
+                if (activity != null) {
+                    uploadActivity(orcid, x, type, activity);
+                }
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * One task per bulk request of at most bulkReadMax works. Works the bulk
+     * response doesn't contain are fetched one by one, so they fail the same
+     * way they would without the bulk endpoint. Works from the bulk response
+     * are uploaded as re-marshalled XML, see Orcid30Manager.fetchWorks.
+     */
+    private List<Callable<Void>> getBulkWorkTasks(String orcid, List<Activity> changed) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < changed.size(); i += bulkReadMax) {
+            List<Activity> chunk = changed.subList(i, Math.min(i + bulkReadMax, changed.size()));
+            tasks.add(() -> {
+                List<Long> putCodes = new ArrayList<Long>();
+                chunk.forEach(x -> putCodes.add(x.getPutCode()));
+                Map<Long, byte[]> works = orcid30ApiClient.fetchWorks(orcid, putCodes);
+                for (Activity x : chunk) {
+                    byte[] activity = works.get(x.getPutCode());
+                    if (activity == null) {
+                        activity = fetchActivity(orcid, x.getPutCode(), ActivityType.WORKS);
+                    }
+                    if (activity != null) {
+                        uploadActivity(orcid, x, ActivityType.WORKS, activity);
+                    }
+                }
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    private void uploadActivity(String orcid, Activity activityFromSummary, ActivityType type, byte[] activity)
+            throws AmazonClientException, AmazonServiceException, JAXBException, IOException {
+        Date summaryLastModified = DateUtils.convertToDate(activityFromSummary.getLastModifiedDate().getValue());
+        s3Manager.uploadV3Activity(orcid, String.valueOf(activityFromSummary.getPutCode()), type, summaryLastModified, activity);
+    }
+
+    /**
+     * Runs the given fetch and upload tasks, on the calling thread or, in
+     * pipelined mode, on the shared executor.
+     * 
+     * On the calling thread the first failure is thrown. On the executor at
+     * most maxConcurrencyPerRecord tasks of this record are in flight at any
+     * time and at most maxConcurrency across all records, the calling thread
+     * blocks until a permit is available, and every task runs even if some
+     * of them fail.
+     * 
+     * @return true if every task succeeded
+     */
+    private boolean runActivityTasks(String orcid, ActivityType type, List<Callable<Void>> tasks) throws Exception {
+        if (!isPipelined) {
+            for (Callable<Void> task : tasks) {
+                task.call();
+            }
+            return true;
+        }
+
+        Semaphore recordPermits = new Semaphore(maxConcurrencyPerRecord);
+        List<Future<?>> uploads = new ArrayList<Future<?>>();
+        for (Callable<Void> task : tasks) {
+            recordPermits.acquire();
+            try {
+                globalPermits.acquire();
+            } catch (InterruptedException e) {
+                recordPermits.release();
+                throw e;
+            }
+            try {
+                uploads.add(activitiesExecutor.submit(() -> {
+                    try {
+                        return task.call();
+                    } finally {
+                        globalPermits.release();
+                        recordPermits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                globalPermits.release();
+                recordPermits.release();
+                throw e;
+            }
+        }
+
+        boolean allOk = true;
+        for (Future<?> upload : uploads) {
+            try {
+                upload.get();
+            } catch (ExecutionException e) {
+                LOG.error("Unable to process " + type.getValue() + " for orcid " + orcid, e.getCause());
+                allOk = false;
+            }
+        }
+        return allOk;
+    }
+
+    /**
+     * Runs activity tasks on virtual threads when the JVM supports them,
+     * otherwise on a fixed pool of maxThreads daemon threads.
+     */
+    private static ExecutorService newActivitiesExecutor(int maxThreads) {
+        try {
+            Method virtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutor.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread t = new Thread(r, "v3-activities-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newFixedThreadPool(maxThreads, threadFactory);
+        }
+    }
+
     private byte[] fetchActivity(String orcid, Long putCode, ActivityType type) throws IOException, InterruptedException {
         switch (type) {
         case DISTINCTIONS:
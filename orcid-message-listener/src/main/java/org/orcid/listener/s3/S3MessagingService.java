@@ -100,10 +100,17 @@ public class S3MessagingService {
     }
     
     public boolean sendV2Item(String elementName, byte[] elementContent, String contentType, Date lastModified, boolean isActivity) throws AmazonClientException, AmazonServiceException {
-        InputStream is = new ByteArrayInputStream(elementContent);
+        return sendV2Item(elementName, new ByteArrayInputStream(elementContent), elementContent.length, contentType, lastModified, isActivity);
+    }
+
+    /**
+     * Uploads contentLength bytes read from the given stream, so the caller
+     * can upload straight from a reusable buffer
+     */
+    public boolean sendV2Item(String elementName, InputStream is, long contentLength, String contentType, Date lastModified, boolean isActivity) throws AmazonClientException, AmazonServiceException {
         ObjectMetadata metadata = new ObjectMetadata();
         metadata.setContentType(contentType);
-        metadata.setContentLength(elementContent.length);
+        metadata.setContentLength(contentLength);
         metadata.setLastModified(lastModified);
         if(isActivity) {
             s3.putObject(this.v2ActivitiesBucketName, elementName, is, metadata);            
@@ -114,10 +121,17 @@ public class S3MessagingService {
     }
 
     public boolean sendV3Item(String orcid, String elementName, byte[] elementContent, String contentType, Date lastModified, boolean isActivity) throws AmazonClientException, AmazonServiceException {
-        InputStream is = new ByteArrayInputStream(elementContent);
+        return sendV3Item(orcid, elementName, new ByteArrayInputStream(elementContent), elementContent.length, contentType, lastModified, isActivity);
+    }
+
+    /**
+     * Uploads contentLength bytes read from the given stream, so the caller
+     * can upload straight from a reusable buffer
+     */
+    public boolean sendV3Item(String orcid, String elementName, InputStream is, long contentLength, String contentType, Date lastModified, boolean isActivity) throws AmazonClientException, AmazonServiceException {
         ObjectMetadata metadata = new ObjectMetadata();
         metadata.setContentType(contentType);
-        metadata.setContentLength(elementContent.length);
+        metadata.setContentLength(contentLength);
         metadata.setLastModified(lastModified);
         if(isActivity) {
             s3.putObject(this.getV3ActivitiesBucketName(orcid), elementName, is, metadata);            
@@ -0,0 +1,231 @@
+package org.orcid.listener.solr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrException;
+import org.orcid.listener.persistence.managers.SearchEngineRecordStatusManager;
+import org.orcid.utils.solr.entities.OrcidSolrDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects the record documents built by the listeners and sends them to SOLR
+ * in a single add, once there are batchSize of them or the oldest one has
+ * waited maxWaitMillis, leaving the commit to SOLR through commitWithin.
+ *
+ * A record is marked as failed when it is queued and only marked as indexed
+ * once the add that carried it has been acknowledged and no newer document of
+ * it is queued, so a record lost with the queue, because the process stopped
+ * before the flush, is picked up again by the resend task. When SOLR rejects
+ * a batch with a 4xx it is split in halves until the documents SOLR refuses
+ * are found, the rest are indexed as usual. Any other error, SOLR down or timing out, fails the whole batch at
+ * once.
+ */
+@Component
+public class SolrBatchIndexer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SolrBatchIndexer.class);
+
+    @Resource(name = "solrClient")
+    private SolrClient solrClient;
+
+    @Resource
+    private SearchEngineRecordStatusManager manager;
+
+    @Value("${org.orcid.messaging.solr_indexing.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.orcid.messaging.solr_indexing.batch.size:100}")
+    private int batchSize;
+
+    @Value("${org.orcid.messaging.solr_indexing.batch.maxWaitMillis:1000}")
+    private long maxWaitMillis;
+
+    @Value("${org.orcid.messaging.solr_indexing.batch.commitWithinMillis:10000}")
+    private int commitWithinMillis;
+
+    // Keyed by ORCID id so a record updated twice before the flush is only
+    // sent once, with its latest content
+    private Map<String, OrcidSolrDocument> pending = new LinkedHashMap<String, OrcidSolrDocument>();
+
+    private long oldestPending;
+
+    // Records of batches drained but not yet acknowledged, with the number of
+    // those batches carrying each of them
+    private final Map<String, Integer> inFlight = new HashMap<String, Integer>();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "solr-batch-indexer");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, maxWaitMillis / 2);
+        flusher.scheduleWithFixedDelay(this::flushIfExpired, period, period, TimeUnit.MILLISECONDS);
+        LOG.info("SOLR batch indexing enabled, batch size {}, max wait {}ms", batchSize, maxWaitMillis);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the document, sending the batch right away if it is full
+     */
+    public void add(OrcidSolrDocument doc) {
+        List<OrcidSolrDocument> batch = null;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                oldestPending = System.currentTimeMillis();
+            }
+            pending.remove(doc.getOrcid());
+            pending.put(doc.getOrcid(), doc);
+            if (pending.size() >= batchSize) {
+                batch = drain();
+            }
+        }
+        // Failed until SOLR acknowledges it, the JMS message is acknowledged
+        // as soon as this returns. Marked once queued, so an add still
+        // carrying an older document of the record can't mark it indexed
+        // afterwards, at worst it stays failed and is sent again
+        manager.setSolrFail(doc.getOrcid());
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Drops any queued document for the record and waits for a batch already
+     * carrying it to be acknowledged, so a record removed from the index
+     * afterwards is not added back by that batch
+     */
+    public synchronized void discard(String orcid) {
+        pending.remove(orcid);
+        while (inFlight.containsKey(orcid)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public void flush() {
+        List<OrcidSolrDocument> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        send(batch);
+    }
+
+    void flushIfExpired() {
+        List<OrcidSolrDocument> batch = null;
+        synchronized (this) {
+            if (!pending.isEmpty() && System.currentTimeMillis() - oldestPending >= maxWaitMillis) {
+                batch = drain();
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private List<OrcidSolrDocument> drain() {
+        List<OrcidSolrDocument> batch = new ArrayList<OrcidSolrDocument>(pending.values());
+        pending = new LinkedHashMap<String, OrcidSolrDocument>();
+        for (OrcidSolrDocument doc : batch) {
+            inFlight.merge(doc.getOrcid(), 1, Integer::sum);
+        }
+        return batch;
+    }
+
+    private void send(List<OrcidSolrDocument> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sendOrSplit(batch);
+        } finally {
+            synchronized (this) {
+                for (OrcidSolrDocument doc : batch) {
+                    inFlight.computeIfPresent(doc.getOrcid(), (orcid, count) -> count > 1 ? count - 1 : null);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    // The records stay failed, as marked when queued, unless the add that
+    // carries them is acknowledged
+    private void sendOrSplit(List<OrcidSolrDocument> batch) {
+        try {
+            solrClient.addBeans(batch, commitWithinMillis);
+        } catch (SolrException e) {
+            if (batch.size() > 1 && isRejected(e)) {
+                LOG.warn("SOLR rejected a batch of {} records, splitting it: {}", batch.size(), e.getMessage());
+                int half = batch.size() / 2;
+                sendOrSplit(batch.subList(0, half));
+                sendOrSplit(batch.subList(half, batch.size()));
+            } else {
+                logFailure(batch, e);
+            }
+            return;
+        } catch (Exception e) {
+            logFailure(batch, e);
+            return;
+        }
+        synchronized (this) {
+            for (OrcidSolrDocument doc : batch) {
+                // A newer document of the record was queued meanwhile, it
+                // stays failed until that one is acknowledged
+                if (!pending.containsKey(doc.getOrcid())) {
+                    manager.setSolrOk(doc.getOrcid());
+                }
+            }
+        }
+    }
+
+    // A 4xx means SOLR refused something in the batch, anything else is SOLR
+    // itself failing and would fail the halves just the same
+    private boolean isRejected(SolrException e) {
+        return e.code() >= 400 && e.code() < 500;
+    }
+
+    private void logFailure(List<OrcidSolrDocument> batch, Exception e) {
+        if (batch.size() == 1) {
+            LOG.error("Unable to index record " + batch.get(0).getOrcid() + " in SOLR", e);
+        } else {
+            LOG.error("Unable to index a batch of " + batch.size() + " records in SOLR, from " + batch.get(0).getOrcid() + " to "
+                    + batch.get(batch.size() - 1).getOrcid(), e);
+        }
+    }
+}
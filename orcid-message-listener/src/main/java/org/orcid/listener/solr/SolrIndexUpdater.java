@@ -56,6 +56,26 @@ public class SolrIndexUpdater {
         }
     } 
     
+    public void deleteOrgs(List<String> orgDisambiguatedIds) {
+        try {
+            solrOrgsClient.deleteById(orgDisambiguatedIds);
+        } catch (SolrServerException se) {
+            throw new NonTransientDataAccessResourceException("Error deleting " + orgDisambiguatedIds.size() + " orgs from SOLR Server", se);
+        } catch (IOException ioe) {
+            throw new NonTransientDataAccessResourceException("IOException when deleting " + orgDisambiguatedIds.size() + " orgs from SOLR", ioe);
+        }
+    }
+    
+    public void persistOrgs(List<OrgDisambiguatedSolrDocument> orgDisambiguatedSolrDocuments) {
+        try {
+            solrOrgsClient.addBeans(orgDisambiguatedSolrDocuments);
+        } catch (SolrServerException se) {
+            throw new NonTransientDataAccessResourceException("Error persisting " + orgDisambiguatedSolrDocuments.size() + " orgs to SOLR Server", se);
+        } catch (IOException ioe) {
+            throw new NonTransientDataAccessResourceException("IOException when persisting " + orgDisambiguatedSolrDocuments.size() + " orgs to SOLR", ioe);
+        }
+    }
+    
     public void persist(OrcidSolrDocument orcidSolrDocument) {
         try {
             solrClient.addBean(orcidSolrDocument);
@@ -17,6 +17,7 @@ import org.orcid.listener.exception.LockedRecordException;
 import org.orcid.listener.orcid.Orcid30Manager;
 import org.orcid.listener.persistence.managers.SearchEngineRecordStatusManager;
 import org.orcid.utils.listener.LastModifiedMessage;
+import org.orcid.utils.solr.entities.OrcidSolrDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,9 @@ public class SolrMessageProcessor implements Consumer<LastModifiedMessage> {
     @Resource
     private SolrIndexUpdater solrUpdater;
     
+    @Resource
+    private SolrBatchIndexer solrBatchIndexer;
+    
     @Resource
     private SearchEngineRecordStatusManager manager;
 
@@ -70,8 +74,7 @@ public class SolrMessageProcessor implements Consumer<LastModifiedMessage> {
             
             // Remove deactivated records from SOLR index
             if (record.getHistory() != null && record.getHistory().getDeactivationDate() != null && record.getHistory().getDeactivationDate().getValue() != null) {
-                solrUpdater.processInvalidRecord(orcid);
-                manager.setSolrOk(orcid);
+                processInvalidRecord(orcid);
                 return;
             }        
             
@@ -88,20 +91,30 @@ public class SolrMessageProcessor implements Consumer<LastModifiedMessage> {
                 }
             }            
             
-            solrUpdater.persist(recordConv.convert(record, researchResourcesList));
-            manager.setSolrOk(orcid);
+            OrcidSolrDocument doc = recordConv.convert(record, researchResourcesList);
+            if(solrBatchIndexer.isEnabled()) {
+                // The batch indexer marks the record as failed until SOLR acknowledges it
+                solrBatchIndexer.add(doc);
+            } else {
+                solrUpdater.persist(doc);
+                manager.setSolrOk(orcid);
+            }
         } catch(LockedRecordException lre) {
             LOG.error("Record " + orcid + " is locked");
-            solrUpdater.processInvalidRecord(orcid);
-            manager.setSolrOk(orcid);
+            processInvalidRecord(orcid);
         } catch(DeprecatedRecordException dre) {
             LOG.error("Record " + orcid + " is deprecated");
-            solrUpdater.processInvalidRecord(orcid);
-            manager.setSolrOk(orcid);
+            processInvalidRecord(orcid);
         } catch (Exception e){
             LOG.error("Unable to fetch record " + orcid + " for SOLR");
             LOG.error(e.getMessage(), e);
             manager.setSolrFail(orcid);
         }
     }
+    
+    private void processInvalidRecord(String orcid) {
+        solrBatchIndexer.discard(orcid);
+        solrUpdater.processInvalidRecord(orcid);
+        manager.setSolrOk(orcid);
+    }
 }
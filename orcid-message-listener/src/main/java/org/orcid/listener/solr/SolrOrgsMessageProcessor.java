@@ -1,7 +1,10 @@
 package org.orcid.listener.solr;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -55,9 +58,45 @@ public class SolrOrgsMessageProcessor implements Consumer<OrgDisambiguatedSolrDo
         }
     }
 
+    /**
+     * Indexes a batch of orgs with one delete and one add, falling back to one
+     * org at a time, with retries, if SOLR rejects the batch
+     */
+    public void acceptAll(Collection<OrgDisambiguatedSolrDocument> docs) {
+        if (!isSolrOrgsIndexingEnabled || docs.isEmpty()) {
+            return;
+        }
+        List<String> toDelete = new ArrayList<String>();
+        List<OrgDisambiguatedSolrDocument> toPersist = new ArrayList<OrgDisambiguatedSolrDocument>();
+        for (OrgDisambiguatedSolrDocument t : docs) {
+            if (isRemovedFromIndex(t)) {
+                toDelete.add(String.valueOf(t.getOrgDisambiguatedId()));
+            } else {
+                toPersist.add(t);
+            }
+        }
+        try {
+            if (!toDelete.isEmpty()) {
+                solrUpdater.deleteOrgs(toDelete);
+            }
+            if (!toPersist.isEmpty()) {
+                solrUpdater.persistOrgs(toPersist);
+            }
+        } catch (Exception e) {
+            LOG.error("Unable to index a batch of " + docs.size() + " orgs in SOLR, indexing them one by one", e);
+            for (OrgDisambiguatedSolrDocument t : docs) {
+                process(t, 0);
+            }
+        }
+    }
+
+    private boolean isRemovedFromIndex(OrgDisambiguatedSolrDocument t) {
+        return "DEPRECATED".equals(t.getOrgDisambiguatedStatus()) || "OBSOLETE".equals(t.getOrgDisambiguatedStatus()) || "PART_OF_GROUP".equals(t.getOrgDisambiguatedStatus()) || "REMOVED".equals(t.getOrgDisambiguatedStatus());
+    }
+
     private void process(OrgDisambiguatedSolrDocument t, Integer retryCount) {
         try {
-            if("DEPRECATED".equals(t.getOrgDisambiguatedStatus()) || "OBSOLETE".equals(t.getOrgDisambiguatedStatus()) || "PART_OF_GROUP".equals(t.getOrgDisambiguatedStatus()) || "REMOVED".equals(t.getOrgDisambiguatedStatus())) {
+            if(isRemovedFromIndex(t)) {
                 solrUpdater.delete(String.valueOf(t.getOrgDisambiguatedId()));
             } else {
                 solrUpdater.persist(t);                
@@ -1,13 +1,19 @@
 package org.orcid.listener.clients;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.gt;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import javax.ws.rs.core.MediaType;
@@ -68,8 +74,8 @@ public class S3ManagerTest {
         record.setHistory(h);
                 
         s3.uploadV2RecordSummary(orcid, record);
-        verify(s3MessagingService, times(1)).sendV2Item(eq("00X/0000-0000-0000-000X.xml"), any(byte[].class), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
-        verify(s3MessagingService, times(0)).sendV3Item(eq("0000-0000-0000-0000"), eq("00X/0000-0000-0000-000X.xml"), any(byte[].class), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
+        verify(s3MessagingService, times(1)).sendV2Item(eq("00X/0000-0000-0000-000X.xml"), any(InputStream.class), gt(0L), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
+        verify(s3MessagingService, times(0)).sendV3Item(eq("0000-0000-0000-0000"), eq("00X/0000-0000-0000-000X.xml"), any(InputStream.class), anyLong(), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
     }
 
     @Test
@@ -85,10 +91,22 @@ public class S3ManagerTest {
         record.setHistory(h);
         
         s3.uploadV3RecordSummary(orcid, record);
-        verify(s3MessagingService, times(0)).sendV2Item(eq("00X/0000-0000-0000-000X.xml"), any(byte[].class), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
-        verify(s3MessagingService, times(1)).sendV3Item(eq("0000-0000-0000-000X"), eq("00X/0000-0000-0000-000X.xml"), any(byte[].class), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
+        verify(s3MessagingService, times(0)).sendV2Item(eq("00X/0000-0000-0000-000X.xml"), any(InputStream.class), anyLong(), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
+        verify(s3MessagingService, times(1)).sendV3Item(eq("0000-0000-0000-000X"), eq("00X/0000-0000-0000-000X.xml"), any(InputStream.class), gt(0L), eq(MediaType.APPLICATION_XML), eq(now), eq(false));
     }
     
+    @Test
+    public void compactOutputTest() throws JAXBException {
+        org.orcid.jaxb.model.v3.release.record.Record record = new org.orcid.jaxb.model.v3.release.record.Record();
+        record.setOrcidIdentifier(new org.orcid.jaxb.model.v3.release.common.OrcidIdentifier("0000-0000-0000-000X"));
+
+        String formatted = new String(new ORCIDMarshaller().toXML(record), StandardCharsets.UTF_8);
+        String compact = new String(new ORCIDMarshaller(false).toXML(record), StandardCharsets.UTF_8);
+        assertTrue(formatted.contains("\n    <"));
+        assertFalse(compact.contains("\n"));
+        assertTrue(compact.contains("0000-0000-0000-000X"));
+    }
+
     @Test
     public void uploadV2ActivityTest() throws JAXBException, JsonProcessingException {
         String orcid = "0000-0000-0000-0000";
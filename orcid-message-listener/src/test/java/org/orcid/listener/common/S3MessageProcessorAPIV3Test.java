@@ -119,6 +119,8 @@ public class S3MessageProcessorAPIV3Test {
     public void before() throws LockedRecordException, DeprecatedRecordException, ExecutionException, IOException, InterruptedException {
         MockitoAnnotations.initMocks(this);
         TargetProxyHelper.injectIntoProxy(processor, "isV3IndexingEnabled", true);
+        TargetProxyHelper.injectIntoProxy(processor, "isPipelined", false);
+        TargetProxyHelper.injectIntoProxy(processor, "isBulkFetchEnabled", false);
         TargetProxyHelper.injectIntoProxy(processor, "orcid30ApiClient", mock_orcid30ApiClient);
         TargetProxyHelper.injectIntoProxy(processor, "api30RecordStatusManager", mock_api30RecordStatusManager);
         TargetProxyHelper.injectIntoProxy(processor, "s3Manager", mock_s3Manager);
@@ -443,6 +445,115 @@ public class S3MessageProcessorAPIV3Test {
     }
     
 
+    @Test
+    public void pipelined_recordStatusMarkAllOkTest() throws Exception {
+        TargetProxyHelper.injectIntoProxy(processor, "isPipelined", true);
+        try {
+            process(orcid);
+        } catch (Exception e) {
+            fail();
+        }
+
+        verifyUploadIsCalledForSummaryAndActivities();
+        verifyErrorAndClearWasntCalled();
+        final ArgumentCaptor<ArrayList<ActivityType>> captor = ArgumentCaptor.forClass(ArrayList.class);
+        verify(mock_api30RecordStatusManager, times(1)).save(eq(orcid), eq(true), captor.capture());
+        final ArrayList<ActivityType> argument = captor.getValue();
+        assertNotNull(argument);
+        assertTrue(argument.isEmpty());
+    }
+
+    @Test
+    public void pipelined_activities_WorksFailTest() throws Exception {
+        TargetProxyHelper.injectIntoProxy(processor, "isPipelined", true);
+        Record r = getRecord();
+        WorkGroup g = r.getActivitiesSummary().getWorks().getWorkGroup().get(0);
+        for (long putCode = 1; putCode < 50; putCode++) {
+            WorkSummary w = new WorkSummary();
+            w.setPutCode(putCode);
+            w.setLastModifiedDate(new LastModifiedDate(now));
+            g.getWorkSummary().add(w);
+            when(mock_orcid30ApiClient.fetchActivity(eq(orcid), eq(putCode), eq("work"))).thenReturn(getWork());
+        }
+        when(mock_orcid30ApiClient.fetchPublicRecord(any())).thenReturn(r);
+        doThrow(new AmazonClientException("error")).when(mock_s3Manager).uploadV3Activity(eq(orcid), eq("25"), eq(ActivityType.WORKS), any(Date.class), any());
+
+        try {
+            process(orcid);
+        } catch (Exception e) {
+            fail();
+        }
+
+        // Every work is still uploaded even if one of them fails
+        verify(mock_s3Manager, times(50)).uploadV3Activity(eq(orcid), any(), eq(ActivityType.WORKS), any(Date.class), any());
+        verify(mock_s3Manager, times(0)).removeV3Activity(any(), any(), any());
+        verifyErrorAndClearWasntCalled();
+        final ArgumentCaptor<ArrayList<ActivityType>> captor = ArgumentCaptor.forClass(ArrayList.class);
+        verify(mock_api30RecordStatusManager, times(1)).save(eq(orcid), eq(true), captor.capture());
+        final ArrayList<ActivityType> argument = captor.getValue();
+        assertNotNull(argument);
+        assertEquals(1, argument.size());
+        assertTrue(argument.contains(ActivityType.WORKS));
+    }
+
+    @Test
+    public void bulkFetch_WorksTest() throws Exception {
+        TargetProxyHelper.injectIntoProxy(processor, "isBulkFetchEnabled", true);
+        TargetProxyHelper.injectIntoProxy(processor, "bulkReadMax", 2);
+        Record r = getRecord();
+        WorkGroup g = r.getActivitiesSummary().getWorks().getWorkGroup().get(0);
+        for (long putCode = 1; putCode < 5; putCode++) {
+            WorkSummary w = new WorkSummary();
+            w.setPutCode(putCode);
+            w.setLastModifiedDate(new LastModifiedDate(now));
+            g.getWorkSummary().add(w);
+        }
+        when(mock_orcid30ApiClient.fetchPublicRecord(any())).thenReturn(r);
+        when(mock_orcid30ApiClient.fetchWorks(eq(orcid), eq(Arrays.asList(0L, 1L)))).thenReturn(Map.of(0L, getWork(), 1L, getWork()));
+        when(mock_orcid30ApiClient.fetchWorks(eq(orcid), eq(Arrays.asList(2L, 3L)))).thenReturn(Map.of(2L, getWork()));
+        when(mock_orcid30ApiClient.fetchWorks(eq(orcid), eq(Arrays.asList(4L)))).thenReturn(Map.of(4L, getWork()));
+        when(mock_orcid30ApiClient.fetchActivity(eq(orcid), eq(3L), eq("work"))).thenReturn(getWork());
+
+        try {
+            process(orcid);
+        } catch (Exception e) {
+            fail();
+        }
+
+        verify(mock_orcid30ApiClient, times(3)).fetchWorks(eq(orcid), any());
+        // Only the work missing from the bulk response is fetched on its own
+        verify(mock_orcid30ApiClient, times(1)).fetchActivity(eq(orcid), any(), eq("work"));
+        verify(mock_orcid30ApiClient, times(1)).fetchActivity(eq(orcid), eq(3L), eq("work"));
+        verify(mock_s3Manager, times(5)).uploadV3Activity(eq(orcid), any(), eq(ActivityType.WORKS), any(Date.class), any());
+        verifyErrorAndClearWasntCalled();
+        final ArgumentCaptor<ArrayList<ActivityType>> captor = ArgumentCaptor.forClass(ArrayList.class);
+        verify(mock_api30RecordStatusManager, times(1)).save(eq(orcid), eq(true), captor.capture());
+        final ArrayList<ActivityType> argument = captor.getValue();
+        assertNotNull(argument);
+        assertTrue(argument.isEmpty());
+    }
+
+    @Test
+    public void bulkFetch_WorksFailTest() throws Exception {
+        TargetProxyHelper.injectIntoProxy(processor, "isBulkFetchEnabled", true);
+        when(mock_orcid30ApiClient.fetchWorks(eq(orcid), any())).thenThrow(new RuntimeException("Failed : HTTP error code : 500"));
+
+        try {
+            process(orcid);
+        } catch (Exception e) {
+            fail();
+        }
+
+        verify(mock_s3Manager, times(0)).uploadV3Activity(eq(orcid), any(), eq(ActivityType.WORKS), any(Date.class), any());
+        verifyErrorAndClearWasntCalled();
+        final ArgumentCaptor<ArrayList<ActivityType>> captor = ArgumentCaptor.forClass(ArrayList.class);
+        verify(mock_api30RecordStatusManager, times(1)).save(eq(orcid), eq(true), captor.capture());
+        final ArrayList<ActivityType> argument = captor.getValue();
+        assertNotNull(argument);
+        assertEquals(1, argument.size());
+        assertTrue(argument.contains(ActivityType.WORKS));
+    }
+
     @Test
     public void uploadNothingTest() throws Exception {
         when(mock_orcid30ApiClient.fetchPublicRecord(any())).thenReturn(getRecord());
@@ -0,0 +1,93 @@
+package org.orcid.listener.orcid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.jaxb.model.v3.release.error.OrcidError;
+import org.orcid.jaxb.model.v3.release.record.Work;
+import org.orcid.jaxb.model.v3.release.record.WorkBulk;
+import org.orcid.utils.jersey.JerseyClientHelper;
+import org.orcid.utils.jersey.JerseyClientResponse;
+import org.orcid.utils.jersey.marshaller.ORCIDMarshaller;
+import org.orcid.utils.jersey.unmarshaller.V3WorkBodyReader;
+import org.orcid.utils.jersey.unmarshaller.V3WorkBulkBodyReader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The bulk works fetch, with the response read by the same body reader the
+ * Jersey client registers
+ */
+public class Orcid30ManagerImplTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    private static final String WORK = "<work:work xmlns:work=\"http://www.orcid.org/ns/work\" xmlns:common=\"http://www.orcid.org/ns/common\" put-code=\"%d\">"
+            + "<work:title><common:title>Title %d</common:title></work:title><work:type>journal-article</work:type></work:work>";
+
+    private static final String ERROR = "<error:error xmlns:error=\"http://www.orcid.org/ns/error\"><error:response-code>404</error:response-code>"
+            + "<error:developer-message>Not found</error:developer-message></error:error>";
+
+    @Mock
+    private JerseyClientHelper jerseyClientHelper;
+
+    private Orcid30ManagerImpl orcid30Manager;
+
+    @Before
+    public void before() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        orcid30Manager = new Orcid30ManagerImpl("https://pub.orcid.org/v3.0/", "token", 300);
+        ReflectionTestUtils.setField(orcid30Manager, "jerseyClientHelper", jerseyClientHelper);
+        ReflectionTestUtils.setField(orcid30Manager, "marshaller", new ORCIDMarshaller());
+    }
+
+    @Test
+    public void fetchWorksTest() throws Exception {
+        String bulk = "<bulk:bulk xmlns:bulk=\"http://www.orcid.org/ns/bulk\">" + String.format(WORK, 1L, 1L) + ERROR + String.format(WORK, 3L, 3L) + "</bulk:bulk>";
+        WorkBulk workBulk = new V3WorkBulkBodyReader().readFrom(WorkBulk.class, WorkBulk.class, null, MediaType.APPLICATION_XML_TYPE, null,
+                new ByteArrayInputStream(bulk.getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(jerseyClientHelper.executeGetRequestWithCustomHeaders(eq("https://pub.orcid.org/v3.0/" + ORCID + "/works/1,2,3"), eq(MediaType.APPLICATION_XML_TYPE),
+                anyString(), anyMap(), eq(WorkBulk.class), eq(OrcidError.class))).thenReturn(new JerseyClientResponse<WorkBulk, OrcidError>(200, workBulk, null));
+
+        Map<Long, byte[]> works = orcid30Manager.fetchWorks(ORCID, Arrays.asList(1L, 2L, 3L));
+        // The work the API returned an error for is left out
+        assertEquals(2, works.size());
+        assertFalse(works.containsKey(2L));
+
+        // The uploaded bytes are re-marshalled, they are not the bytes of the
+        // single work response, but they read back as the same work
+        for (Long putCode : Arrays.asList(1L, 3L)) {
+            Work fromBulk = readWork(works.get(putCode));
+            Work single = readWork(String.format(WORK, putCode, putCode).getBytes(StandardCharsets.UTF_8));
+            assertEquals(single.getPutCode(), fromBulk.getPutCode());
+            assertEquals(single.getWorkTitle().getTitle().getContent(), fromBulk.getWorkTitle().getTitle().getContent());
+            assertEquals(single.getWorkType(), fromBulk.getWorkType());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void fetchWorksErrorTest() throws Exception {
+        Mockito.when(jerseyClientHelper.executeGetRequestWithCustomHeaders(anyString(), any(MediaType.class), anyString(), anyMap(), eq(WorkBulk.class),
+                eq(OrcidError.class))).thenReturn(new JerseyClientResponse<WorkBulk, OrcidError>(500, null, new OrcidError()));
+        orcid30Manager.fetchWorks(ORCID, Arrays.asList(1L));
+    }
+
+    private Work readWork(byte[] xml) throws Exception {
+        return new V3WorkBodyReader().readFrom(Work.class, Work.class, null, MediaType.APPLICATION_XML_TYPE, null, new ByteArrayInputStream(xml));
+    }
+}
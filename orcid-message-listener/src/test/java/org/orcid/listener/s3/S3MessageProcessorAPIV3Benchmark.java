@@ -0,0 +1,247 @@
+package org.orcid.listener.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.orcid.jaxb.model.v3.release.common.LastModifiedDate;
+import org.orcid.jaxb.model.v3.release.common.OrcidIdentifier;
+import org.orcid.jaxb.model.v3.release.record.History;
+import org.orcid.jaxb.model.v3.release.record.Record;
+import org.orcid.jaxb.model.v3.release.record.ResearchResource;
+import org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary;
+import org.orcid.jaxb.model.v3.release.record.summary.ResearchResources;
+import org.orcid.jaxb.model.v3.release.record.summary.WorkGroup;
+import org.orcid.jaxb.model.v3.release.record.summary.WorkSummary;
+import org.orcid.listener.orcid.Orcid30Manager;
+import org.orcid.listener.persistence.managers.Api30RecordStatusManager;
+import org.orcid.listener.persistence.util.APIVersion;
+import org.orcid.listener.persistence.util.ActivityType;
+import org.orcid.utils.DateUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Activities indexing throughput benchmark, run it with
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.orcid.listener.s3.S3MessageProcessorAPIV3Benchmark
+ *
+ * Both the ORCID API and S3 are replaced by a local HTTP server that answers
+ * every request after a fixed delay, so the numbers reflect how many round
+ * trips are in flight rather than marshalling or network costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class S3MessageProcessorAPIV3Benchmark {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    private static final byte[] ACTIVITY = "<work:work xmlns:work=\"http://www.orcid.org/ns/work\"/>".getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "100", "1000" })
+    private int numberOfWorks;
+
+    @Param({ "5" })
+    private int latencyMillis;
+
+    @Param({ "false", "true" })
+    private boolean pipelined;
+
+    private HttpServer server;
+
+    private S3MessageProcessorAPIV3 processor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::respond);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        String baseUri = "http://localhost:" + server.getAddress().getPort();
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+
+        Record record = new Record();
+        record.setOrcidIdentifier(new OrcidIdentifier(ORCID));
+        History history = new History();
+        history.setClaimed(true);
+        history.setLastModifiedDate(new LastModifiedDate(DateUtils.convertToXMLGregorianCalendar(new Date())));
+        record.setHistory(history);
+        ActivitiesSummary as = new ActivitiesSummary();
+        for (long putCode = 0; putCode < numberOfWorks; putCode++) {
+            WorkSummary w = new WorkSummary();
+            w.setPutCode(putCode);
+            w.setLastModifiedDate(new LastModifiedDate(DateUtils.convertToXMLGregorianCalendar(new Date())));
+            WorkGroup g = new WorkGroup();
+            g.getWorkSummary().add(w);
+            as.getWorks().getWorkGroup().add(g);
+        }
+        record.setActivitiesSummary(as);
+
+        processor = new S3MessageProcessorAPIV3();
+        ReflectionTestUtils.setField(processor, "isV3IndexingEnabled", true);
+        ReflectionTestUtils.setField(processor, "isPipelined", pipelined);
+        ReflectionTestUtils.setField(processor, "maxConcurrencyPerRecord", 16);
+        ReflectionTestUtils.setField(processor, "maxConcurrency", 64);
+        ReflectionTestUtils.setField(processor, "orcid30ApiClient", new StandInOrcid30Manager(client, baseUri, record));
+        ReflectionTestUtils.setField(processor, "s3Manager", new StandInS3Manager(client, baseUri));
+        ReflectionTestUtils.setField(processor, "api30RecordStatusManager", Mockito.mock(Api30RecordStatusManager.class));
+        processor.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public void update() {
+        processor.update(ORCID);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean isGet = "GET".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(200, isGet ? ACTIVITY.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (isGet) {
+                out.write(ACTIVITY);
+            }
+        }
+    }
+
+    private static final class StandInOrcid30Manager implements Orcid30Manager {
+
+        private final HttpClient client;
+        private final String baseUri;
+        private final Record record;
+
+        StandInOrcid30Manager(HttpClient client, String baseUri, Record record) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.record = record;
+        }
+
+        @Override
+        public Record fetchPublicRecord(String orcid) throws ExecutionException {
+            return record;
+        }
+
+        @Override
+        public ResearchResource fetchResearchResource(String orcid, Long putCode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResearchResources fetchResearchResources(String orcid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Long, byte[]> fetchWorks(String orcid, List<Long> putCodes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] fetchActivity(String orcid, Long putCode, String endpoint) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/api/" + orcid + "/" + endpoint + "/" + putCode)).build();
+            return client.send(request, BodyHandlers.ofByteArray()).body();
+        }
+    }
+
+    private static final class StandInS3Manager extends S3Manager {
+
+        private final HttpClient client;
+        private final String baseUri;
+
+        StandInS3Manager(HttpClient client, String baseUri) {
+            this.client = client;
+            this.baseUri = baseUri;
+        }
+
+        @Override
+        public void uploadV3RecordSummary(String orcid, Record record) {
+        }
+
+        @Override
+        public void uploadV3Activity(String orcid, String putCode, ActivityType activityType, Date lastModified, byte[] activity) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/s3/" + orcid + "/" + activityType.getValue() + "/" + putCode))
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(activity)).build();
+            try {
+                HttpResponse<Void> response = client.send(request, BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Upload failed with " + response.statusCode());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Map<ActivityType, Map<String, S3ObjectSummary>> searchActivities(String orcid, APIVersion version) {
+            Map<ActivityType, Map<String, S3ObjectSummary>> activities = new HashMap<ActivityType, Map<String, S3ObjectSummary>>();
+            for (ActivityType type : ActivityType.values()) {
+                activities.put(type, new HashMap<String, S3ObjectSummary>());
+            }
+            return activities;
+        }
+
+        @Override
+        public boolean clearV3ActivitiesByType(String orcid, ActivityType type) {
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(S3MessageProcessorAPIV3Benchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,277 @@
+package org.orcid.listener.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.listener.persistence.managers.SearchEngineRecordStatusManager;
+import org.orcid.utils.solr.entities.OrcidSolrDocument;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SolrBatchIndexerTest {
+
+    @Mock
+    private SolrClient solrClient;
+
+    @Mock
+    private SearchEngineRecordStatusManager manager;
+
+    private SolrBatchIndexer indexer;
+
+    private final List<List<String>> sent = new ArrayList<List<String>>();
+
+    private final List<String> rejected = new ArrayList<String>();
+
+    @Before
+    public void before() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        // Plays the part of SOLR: refuses any add carrying a rejected record
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            List<String> ids = new ArrayList<String>();
+            for (Object doc : (Collection<?>) invocation.getArgument(0)) {
+                ids.add(((OrcidSolrDocument) doc).getOrcid());
+            }
+            sent.add(ids);
+            for (String id : ids) {
+                if (rejected.contains(id)) {
+                    throw new SolrException(ErrorCode.BAD_REQUEST, "Bad document " + id);
+                }
+            }
+            return new UpdateResponse();
+        });
+        indexer = new SolrBatchIndexer();
+        ReflectionTestUtils.setField(indexer, "solrClient", solrClient);
+        ReflectionTestUtils.setField(indexer, "manager", manager);
+        ReflectionTestUtils.setField(indexer, "enabled", true);
+        ReflectionTestUtils.setField(indexer, "batchSize", 4);
+        ReflectionTestUtils.setField(indexer, "maxWaitMillis", 60000L);
+        ReflectionTestUtils.setField(indexer, "commitWithinMillis", 5000);
+    }
+
+    @Test
+    public void sendsFullBatchesWithCommitWithinTest() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            indexer.add(doc("0000-0000-0000-000" + i));
+        }
+        Mockito.verify(solrClient, Mockito.never()).addBeans(anyCollection(), anyInt());
+        Mockito.verify(manager, Mockito.never()).setSolrOk(anyString());
+
+        indexer.add(doc("0000-0000-0000-0004"));
+        Mockito.verify(solrClient, Mockito.times(1)).addBeans(anyCollection(), eq(5000));
+        Mockito.verify(solrClient, Mockito.never()).commit();
+        assertEquals(Arrays.asList("0000-0000-0000-0001", "0000-0000-0000-0002", "0000-0000-0000-0003", "0000-0000-0000-0004"), sent.get(0));
+        for (int i = 1; i <= 4; i++) {
+            Mockito.verify(manager).setSolrOk("0000-0000-0000-000" + i);
+        }
+    }
+
+    @Test
+    public void queuedRecordIsFailedUntilSentTest() throws Exception {
+        indexer.add(doc("0000-0000-0000-0001"));
+        // Lost if the listener stopped now, so the resend task has to see it
+        Mockito.verify(manager).setSolrFail("0000-0000-0000-0001");
+        Mockito.verify(manager, Mockito.never()).setSolrOk(anyString());
+
+        indexer.flush();
+        InOrder inOrder = Mockito.inOrder(manager);
+        inOrder.verify(manager).setSolrFail("0000-0000-0000-0001");
+        inOrder.verify(manager).setSolrOk("0000-0000-0000-0001");
+    }
+
+    @Test
+    public void sameRecordIsSentOnceTest() throws Exception {
+        OrcidSolrDocument first = doc("0000-0000-0000-0001");
+        OrcidSolrDocument second = doc("0000-0000-0000-0001");
+        indexer.add(first);
+        indexer.add(second);
+        indexer.flush();
+        assertEquals(1, sent.size());
+        assertEquals(Arrays.asList("0000-0000-0000-0001"), sent.get(0));
+        Mockito.verify(solrClient).addBeans(Mockito.argThat((Collection<?> c) -> c.size() == 1 && c.iterator().next() == second), eq(5000));
+    }
+
+    @Test
+    public void flushesExpiredBatchesTest() throws Exception {
+        ReflectionTestUtils.setField(indexer, "maxWaitMillis", 0L);
+        indexer.add(doc("0000-0000-0000-0001"));
+        indexer.flushIfExpired();
+        assertEquals(1, sent.size());
+        Mockito.verify(manager).setSolrOk("0000-0000-0000-0001");
+
+        // Nothing left to send
+        indexer.flushIfExpired();
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void discardedRecordsAreNotSentTest() throws Exception {
+        indexer.add(doc("0000-0000-0000-0001"));
+        indexer.add(doc("0000-0000-0000-0002"));
+        indexer.discard("0000-0000-0000-0001");
+        indexer.flush();
+        assertEquals(Arrays.asList("0000-0000-0000-0002"), sent.get(0));
+        Mockito.verify(manager, Mockito.never()).setSolrOk("0000-0000-0000-0001");
+    }
+
+    @Test(timeout = 30000)
+    public void discardWaitsForTheBatchCarryingTheRecordTest() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        Mockito.reset(solrClient);
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            sending.countDown();
+            acknowledge.await(10, TimeUnit.SECONDS);
+            return new UpdateResponse();
+        });
+        indexer.add(doc("0000-0000-0000-0001"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> indexer.flush());
+            assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+            // The batch is drained and on its way to SOLR, the record is
+            // deleted meanwhile
+            Future<?> discard = executor.submit(() -> indexer.discard("0000-0000-0000-0001"));
+            Thread.sleep(200);
+            assertFalse(discard.isDone());
+
+            acknowledge.countDown();
+            discard.get(10, TimeUnit.SECONDS);
+            // The delete from SOLR follows the discard, so it lands after
+            // the add
+            Mockito.verify(manager).setSolrOk("0000-0000-0000-0001");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void discardDoesNotWaitForOtherRecordsTest() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        Mockito.reset(solrClient);
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            sending.countDown();
+            acknowledge.await(10, TimeUnit.SECONDS);
+            return new UpdateResponse();
+        });
+        indexer.add(doc("0000-0000-0000-0001"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> indexer.flush());
+            assertTrue(sending.await(10, TimeUnit.SECONDS));
+            indexer.discard("0000-0000-0000-0002");
+        } finally {
+            acknowledge.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void ackOfAnOlderDocumentDoesNotMarkTheRecordIndexedTest() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        Mockito.reset(solrClient);
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            sending.countDown();
+            acknowledge.await(10, TimeUnit.SECONDS);
+            return new UpdateResponse();
+        });
+        indexer.add(doc("0000-0000-0000-0001"));
+        indexer.add(doc("0000-0000-0000-0002"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> flush = executor.submit(() -> indexer.flush());
+            assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+            // The record is updated while the add carrying its previous
+            // version is on its way to SOLR
+            indexer.add(doc("0000-0000-0000-0001"));
+            acknowledge.countDown();
+            flush.get(10, TimeUnit.SECONDS);
+            Mockito.verify(manager, Mockito.never()).setSolrOk("0000-0000-0000-0001");
+            Mockito.verify(manager).setSolrOk("0000-0000-0000-0002");
+
+            indexer.flush();
+            Mockito.verify(manager).setSolrOk("0000-0000-0000-0001");
+        } finally {
+            acknowledge.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedBatchIsSplitToIsolateBadDocumentsTest() throws Exception {
+        rejected.add("0000-0000-0000-0003");
+        for (int i = 1; i <= 4; i++) {
+            indexer.add(doc("0000-0000-0000-000" + i));
+        }
+        // [1,2,3,4] fails, [1,2] goes through, [3,4] fails, then [3] fails and [4] goes through
+        assertEquals(5, sent.size());
+        Mockito.verify(manager).setSolrOk("0000-0000-0000-0001");
+        Mockito.verify(manager).setSolrOk("0000-0000-0000-0002");
+        Mockito.verify(manager).setSolrOk("0000-0000-0000-0004");
+        // Failed once, when queued
+        Mockito.verify(manager).setSolrFail("0000-0000-0000-0003");
+        Mockito.verify(manager, Mockito.never()).setSolrOk("0000-0000-0000-0003");
+    }
+
+    @Test
+    public void solrErrorFailsTheWholeBatchOnceTest() throws Exception {
+        Mockito.reset(solrClient);
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenThrow(new SolrException(ErrorCode.SERVER_ERROR, "Out of memory"));
+        for (int i = 1; i <= 4; i++) {
+            indexer.add(doc("0000-0000-0000-000" + i));
+        }
+        // Not split, the halves would fail just the same
+        Mockito.verify(solrClient, Mockito.times(1)).addBeans(anyCollection(), anyInt());
+        for (int i = 1; i <= 4; i++) {
+            Mockito.verify(manager).setSolrFail("0000-0000-0000-000" + i);
+        }
+        Mockito.verify(manager, Mockito.never()).setSolrOk(anyString());
+    }
+
+    @Test
+    public void unreachableSolrFailsEveryRecordTest() throws Exception {
+        Mockito.reset(solrClient);
+        Mockito.when(solrClient.addBeans(anyCollection(), anyInt())).thenThrow(new SolrServerException("Down"));
+        indexer.add(doc("0000-0000-0000-0001"));
+        indexer.add(doc("0000-0000-0000-0002"));
+        indexer.flush();
+        Mockito.verify(solrClient, Mockito.times(1)).addBeans(anyCollection(), anyInt());
+        Mockito.verify(manager).setSolrFail("0000-0000-0000-0001");
+        Mockito.verify(manager).setSolrFail("0000-0000-0000-0002");
+        Mockito.verify(manager, Mockito.never()).setSolrOk(anyString());
+    }
+
+    private OrcidSolrDocument doc(String orcid) {
+        OrcidSolrDocument doc = new OrcidSolrDocument();
+        doc.setOrcid(orcid);
+        return doc;
+    }
+}
@@ -0,0 +1,19 @@
+package org.orcid.persistence.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks DAO methods whose own update sets the last modified date of a
+ * client, so the change can be told to the other nodes. The argument at
+ * idArgument holds the client id, or a collection of them.
+ */
+@Target( { java.lang.annotation.ElementType.METHOD })
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClientLastModifiedChanged {
+
+    int idArgument() default 0;
+
+}
@@ -12,6 +12,8 @@ import org.orcid.persistence.jpa.entities.EmailEntity;
 public interface EmailDao extends GenericDao<EmailEntity, String> {
 
     boolean emailExists(String emailHash);
+
+    List<String> findExistingEmailHashes(List<String> emailHashes);
     
     EmailEntity findByEmail(String email);
 
@@ -12,6 +12,8 @@ import org.orcid.persistence.jpa.entities.EmailFrequencyEntity;
  */
 public interface EmailFrequencyDao extends GenericDao<EmailFrequencyEntity, String> {
     EmailFrequencyEntity findByOrcid(String orcid);
+
+    List<EmailFrequencyEntity> findByOrcids(List<String> orcids);
     
     boolean updateSendChangeNotifications(String orcid, SendEmailFrequency frequency);
     
@@ -8,6 +8,12 @@ public interface EmailScheduleDao extends GenericDao<EmailScheduleEntity, Long>
 
     Long getValidScheduleId();
 
+    /**
+     * @return the schedule in force right now, whether or not its interval
+     *         has passed since the latest send, or null if there is none
+     */
+    EmailScheduleEntity findActiveSchedule();
+
     void updateLatestSent(Long scheduleId, Date latestSentDate);
 
 }
@@ -37,6 +37,12 @@ public interface GenericDao<E extends OrcidEntity<I>, I extends Serializable> {
     void flushWithoutTransactional();
 
     void persist(E e);
+
+    /**
+     * Sets the JDBC batch size used when flushing the current session, null
+     * goes back to the global setting
+     */
+    void setJdbcBatchSize(Integer batchSize);
     
     Long countAll();
 
@@ -59,6 +59,26 @@ public interface NotificationDao extends GenericDao<NotificationEntity, Long> {
     Integer archiveOffsetNotifications(Integer offset);
     
     List<Object[]> findNotificationsToDeleteByOffset(Integer offset, Integer recordsPerBatch);
+
+    /**
+     * @return the next records, in order, that have notifications, or
+     *         unarchived notifications if unarchivedOnly is true
+     */
+    List<String> findOrcidsWithNotifications(String afterOrcid, boolean unarchivedOnly, int maxResults);
+
+    /**
+     * @return the ids of the notifications of the given records past the most
+     *         recent keep ones, only counting the unarchived ones if
+     *         unarchivedOnly is true
+     */
+    List<Long> findOverflowNotificationIds(List<String> orcids, int keep, boolean unarchivedOnly);
+
+    int archiveNotifications(List<Long> ids);
+
+    /**
+     * Deletes the notifications along with their items and works
+     */
+    int deleteNotifications(List<Long> ids);
     
     List<NotificationEntity> findNotificationsCreatedBefore(Date createdBefore, int batchSize);
     
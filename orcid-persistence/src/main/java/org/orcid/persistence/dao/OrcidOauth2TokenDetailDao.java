@@ -1,5 +1,6 @@
 package org.orcid.persistence.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.orcid.persistence.jpa.entities.OrcidOauth2TokenDetail;
@@ -27,6 +28,8 @@ public interface OrcidOauth2TokenDetailDao extends GenericDao<OrcidOauth2TokenDe
     
     List<OrcidOauth2TokenDetail> findByClientIdAndUserName(String clientId, String userName);
 
+    List<OrcidOauth2TokenDetail> findByClientIdsAndUserName(Collection<String> clientIds, String userName);
+
     void disableAccessToken(String accessToken);
 
     void disableAccessTokenById(Long tokenId, String userOrcid);
@@ -21,16 +21,37 @@ public interface OrgDisambiguatedDao extends GenericDao<OrgDisambiguatedEntity,
 
     OrgDisambiguatedEntity findBySourceIdAndSourceType(String sourceId, String sourceType);
 
+    /**
+     * @return id, sourceId, name, country, city, region, url, orgType, status
+     *         and sourceParentId of every org of the given source type
+     */
+    List<Object[]> findIndexedFieldsBySourceType(String sourceType);
+
     OrgDisambiguatedEntity findByNameCityRegionCountryAndSourceType(String name, String city, String region, String country, String sourceType);
 
     List<OrgDisambiguatedEntity> findByName(String name);
 
     List<OrgDisambiguatedEntity> findOrgsToGroup(int firstResult, int maxResult);
+
+    /**
+     * Keyset version of findOrgsToGroup, the orgs to group with an id greater
+     * than lastId, in id order
+     */
+    List<OrgDisambiguatedEntity> findOrgsToGroup(Long lastId, int maxResult);
     
     List<Long> findOrgsPendingIndexing(int maxResult);
 
+    /**
+     * @return the orgs pending indexing with an id greater than lastId, in id
+     *         order, with their external identifiers and member chosen flag
+     *         fetched in the same query
+     */
+    List<OrgDisambiguatedEntity> findOrgsPendingIndexing(Long lastId, int maxResult);
+
     void updateIndexingStatus(Long orgDisambiguatedId, IndexingStatus indexingStatus);
 
+    int updateIndexingStatus(List<Long> orgDisambiguatedIds, IndexingStatus indexingStatus);
+
     List<Pair<Long, Integer>> findDisambuguatedOrgsWithIncorrectPopularity(int maxResults);
 
     void updatePopularity(Long orgDisambiguatedId, Integer popularity);
@@ -13,4 +13,10 @@ public interface OrgDisambiguatedExternalIdentifierDao extends GenericDao<OrgDis
     List<OrgDisambiguatedExternalIdentifierEntity> findISNIsOfIncorrectLength(int batchSize);
 
     List<OrgDisambiguatedExternalIdentifierEntity> findByIdentifierIdAndType(String identifier, String identifierType);    
+
+    /**
+     * @return org id, identifierType, identifier and preferred of every
+     *         external identifier of the orgs of the given source type
+     */
+    List<Object[]> findIdentifiersBySourceType(String sourceType);
 }
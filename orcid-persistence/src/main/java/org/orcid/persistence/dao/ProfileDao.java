@@ -53,6 +53,22 @@ public interface ProfileDao extends GenericDao<ProfileEntity, String> {
      */
     List<String> findOrcidsByIndexingStatus(IndexingStatus indexingStatus, int maxResults, Collection<String> orcidsToExclude, Integer delay);
 
+    /**
+     * Get the ORCID ids with the given indexing status along with their last
+     * modified date
+     * 
+     * @param indexingStatus
+     *            The desired indexing status
+     * @param maxResults
+     *            Max number of results
+     * @param delay
+     *            A delay that will allow us to obtain records after no one is
+     *            modifying it anymore
+     * @return a list of object arrays where the object[0] contains the orcid id
+     *         and object[1] contains the last modified date
+     */
+    List<Object[]> findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus indexingStatus, int maxResults, Integer delay);
+
     List<String> findUnclaimedNotIndexedAfterWaitPeriod(int waitPeriodDays, int maxDaysBack, int maxResults, Collection<String> orcidsToExclude);
 
     List<String> findUnclaimedNeedingReminder(int reminderAfterDays, int maxResults, Collection<String> orcidsToExclude);
@@ -141,6 +157,14 @@ public interface ProfileDao extends GenericDao<ProfileEntity, String> {
 
     List<ProfileEventEntity> getProfileEvents(String orcid, List<ProfileEventType> eventTypeNames);
 
+    List<ProfileEventEntity> getProfileEvents(List<String> orcids, List<ProfileEventType> eventTypeNames);
+
+    /**
+     * @return the given ORCID ids whose records are not deactivated,
+     *         deprecated or locked
+     */
+    List<String> findActiveOrcids(List<String> orcids);
+
     ProfileEntity getLockedReason(String orcid);
 
     int deleteProfilesOfType(String orcidType);
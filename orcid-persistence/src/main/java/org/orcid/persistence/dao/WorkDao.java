@@ -140,5 +140,18 @@ public interface WorkDao extends GenericDao<WorkEntity, Long> {
 
     List<Object[]> getWorksStartingFromWorkId(Long WorkId, int numberOfWorks);
 
+    /**
+     * Returns the id and external identifiers JSON of the works after the
+     * given work id whose stored normalized identifiers were not generated
+     * by the given normalizer version
+     */
+    List<Object[]> getWorksWithStaleNormalizedExternalIds(Long afterWorkId, String normalizerVersion, int numberOfWorks);
+
+    /**
+     * Replaces the external identifiers JSON of a work, as long as it didn't
+     * change since it was read. The last modified date is left untouched.
+     */
+    boolean updateExternalIdentifiersJson(Long workId, String currentJson, String updatedJson);
+
 
 }
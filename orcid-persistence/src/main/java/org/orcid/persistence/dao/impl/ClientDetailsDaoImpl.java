@@ -8,6 +8,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 
+import org.orcid.persistence.aop.ClientLastModifiedChanged;
 import org.orcid.persistence.dao.ClientDetailsDao;
 import org.orcid.persistence.jpa.entities.ClientDetailsEntity;
 import org.orcid.persistence.jpa.entities.ClientSecretEntity;
@@ -59,6 +60,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
     
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public void updateLastModified(String clientId) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set lastModified = now() where id = :clientId");
         updateQuery.setParameter("clientId", clientId);
@@ -75,6 +77,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
     
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public int updateLastModifiedBulk(List<String> clientIds) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set lastModified = now() where id in :clientIds");
         updateQuery.setParameter("clientIds", clientIds);
@@ -131,6 +134,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
 
     @Override
     @Transactional
+    @ClientLastModifiedChanged(idArgument = 1)
     public void updateClientType(String clientType, String clientId) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set clientType = :clientType, lastModified = now() where id = :clientId");
         updateQuery.setParameter("clientType", clientType);
@@ -220,6 +224,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
     
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public void changePersistenceTokensProperty(String clientId, boolean isPersistenTokensEnabled) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set lastModified = now(), persistentTokensEnabled = :isPersistenTokensEnabled where id = :clientId");
         updateQuery.setParameter("clientId", clientId);
@@ -229,6 +234,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
 
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public void activateClient(String clientDetailsId) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set lastModified = now(), deactivatedDate = null, deactivatedBy = null where id = :clientId");
         updateQuery.setParameter("clientId", clientDetailsId);
@@ -237,6 +243,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
     
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public void deactivateClient(String clientDetailsId, String deactivatedBy) {
         Query updateQuery = entityManager.createQuery("update ClientDetailsEntity set lastModified = now(), deactivatedDate = now(), deactivatedBy = :deactivatedBy where id = :clientId");
         updateQuery.setParameter("clientId", clientDetailsId);
@@ -246,6 +253,7 @@ public class ClientDetailsDaoImpl extends GenericDaoImpl<ClientDetailsEntity, St
 
     @Override
     @Transactional
+    @ClientLastModifiedChanged
     public boolean convertPublicClientToMember(String clientId, String groupId, String clientType) {
         Query updateQuery = entityManager.createNativeQuery("UPDATE client_details SET last_modified = now(), group_orcid = :groupId, client_type = :clientType WHERE client_details_id = :clientId");
         updateQuery.setParameter("clientId", clientId);
@@ -36,6 +36,13 @@ public class EmailDaoImpl extends GenericDaoImpl<EmailEntity, String> implements
         Long result = query.getSingleResult();
         return (result != null && result > 0);
     }
+
+    @Override
+    public List<String> findExistingEmailHashes(List<String> emailHashes) {
+        TypedQuery<String> query = entityManager.createQuery("select id from EmailEntity where id IN :emailHashes", String.class);
+        query.setParameter("emailHashes", emailHashes);
+        return query.getResultList();
+    }
     
     @Override
     public String findOrcidIdByEmailHash(String emailHash) {
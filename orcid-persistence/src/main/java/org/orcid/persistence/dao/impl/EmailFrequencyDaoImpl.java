@@ -1,6 +1,9 @@
 package org.orcid.persistence.dao.impl;
 
+import java.util.List;
+
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.orcid.persistence.aop.UpdateProfileLastModified;
 import org.orcid.persistence.constants.SendEmailFrequency;
@@ -28,6 +31,13 @@ public class EmailFrequencyDaoImpl extends GenericDaoImpl<EmailFrequencyEntity,
         return (EmailFrequencyEntity) query.getSingleResult();
     }
 
+    @Override
+    public List<EmailFrequencyEntity> findByOrcids(List<String> orcids) {
+        TypedQuery<EmailFrequencyEntity> query = entityManager.createQuery("FROM EmailFrequencyEntity WHERE orcid IN :orcids", EmailFrequencyEntity.class);
+        query.setParameter("orcids", orcids);
+        return query.getResultList();
+    }
+
     @Override
     @Transactional
     @UpdateProfileLastModified
@@ -5,6 +5,7 @@ import java.util.Date;
 import java.util.List;
 
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import javax.transaction.Transactional;
 
 import org.orcid.persistence.dao.EmailScheduleDao;
@@ -24,6 +25,15 @@ public class EmailScheduleDaoImpl extends GenericDaoImpl<EmailScheduleEntity, Lo
         return results.isEmpty() ? -1L : results.get(0).longValue();
     }
 
+    @Override
+    public EmailScheduleEntity findActiveSchedule() {
+        TypedQuery<EmailScheduleEntity> query = entityManager.createQuery(
+                "FROM EmailScheduleEntity WHERE scheduleStart <= now() AND (scheduleEnd IS NULL OR scheduleEnd > now()) AND paused = false ORDER BY id", EmailScheduleEntity.class);
+        query.setMaxResults(1);
+        List<EmailScheduleEntity> results = query.getResultList();
+        return results.isEmpty() ? null : results.get(0);
+    }
+
     @Override
     @Transactional
     public void updateLatestSent(Long scheduleId, Date latestSentDate) {
@@ -1,6 +1,10 @@
 package org.orcid.persistence.dao.impl;
 
 import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -10,6 +14,7 @@ import java.util.Properties;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 
+import org.hibernate.Session;
 import org.orcid.persistence.aop.UpdateProfileLastModified;
 import org.orcid.persistence.dao.NotificationDao;
 import org.orcid.persistence.jpa.entities.NotificationEntity;
@@ -338,6 +343,66 @@ public class NotificationDaoImpl extends GenericDaoImpl<NotificationEntity, Long
         return results;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<String> findOrcidsWithNotifications(String afterOrcid, boolean unarchivedOnly, int maxResults) {
+        Query query = entityManager.createNativeQuery("SELECT DISTINCT orcid FROM notification WHERE orcid > :orcid" + (unarchivedOnly ? " AND archived_date IS NULL" : "")
+                + " ORDER BY orcid LIMIT :limit");
+        query.setParameter("orcid", afterOrcid);
+        query.setParameter("limit", maxResults);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public List<Long> findOverflowNotificationIds(List<String> orcids, int keep, boolean unarchivedOnly) {
+        String sql = "SELECT id FROM (SELECT id, row_number() OVER (PARTITION BY orcid ORDER BY date_created DESC) AS rn FROM notification WHERE orcid = ANY(?)"
+                + (unarchivedOnly ? " AND archived_date IS NULL" : "") + ") n WHERE n.rn > ? ORDER BY id";
+        List<Long> ids = new ArrayList<Long>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setArray(1, connection.createArrayOf("varchar", orcids.toArray()));
+                statement.setInt(2, keep);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                    }
+                }
+            }
+        });
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public int archiveNotifications(List<Long> ids) {
+        int[] archived = new int[1];
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            archived[0] = executeForIds(connection, "UPDATE notification SET archived_date = now() WHERE id = ANY(?) AND archived_date IS NULL", ids);
+        });
+        return archived[0];
+    }
+
+    @Override
+    @Transactional
+    public int deleteNotifications(List<Long> ids) {
+        int[] deleted = new int[1];
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            executeForIds(connection, "DELETE FROM notification_item WHERE notification_id = ANY(?)", ids);
+            executeForIds(connection, "DELETE FROM notification_work WHERE notification_id = ANY(?)", ids);
+            deleted[0] = executeForIds(connection, "DELETE FROM notification WHERE id = ANY(?)", ids);
+        });
+        return deleted[0];
+    }
+
+    // A single array parameter keeps one statement whatever the number of ids
+    private int executeForIds(Connection connection, String sql, List<Long> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement.executeUpdate();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<BigInteger> getIdsForClientSourceCorrection(int limit, List<String> nonPublicClients) {
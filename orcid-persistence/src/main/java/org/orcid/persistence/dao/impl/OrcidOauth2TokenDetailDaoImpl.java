@@ -1,5 +1,6 @@
 package org.orcid.persistence.dao.impl;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -95,6 +96,15 @@ public class OrcidOauth2TokenDetailDaoImpl extends GenericDaoImpl<OrcidOauth2Tok
         return query.getResultList();
     }
 
+    @Override
+    public List<OrcidOauth2TokenDetail> findByClientIdsAndUserName(Collection<String> clientIds, String userName) {
+        TypedQuery<OrcidOauth2TokenDetail> query = entityManager.createQuery("from OrcidOauth2TokenDetail where clientDetailsId in :clientIds and orcid = :userName",
+                OrcidOauth2TokenDetail.class);
+        query.setParameter("clientIds", clientIds);
+        query.setParameter("userName", userName);
+        return query.getResultList();
+    }
+
     @Override
     @Transactional
     public void disableAccessToken(String accessTokenValue) {
@@ -40,6 +40,15 @@ public class OrgDisambiguatedDaoImpl extends GenericDaoImpl<OrgDisambiguatedEnti
         return results.isEmpty() ? null : results.get(0);
     }
     
+    @Override
+    public List<Object[]> findIndexedFieldsBySourceType(String sourceType) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "select id, sourceId, name, country, city, region, url, orgType, status, sourceParentId from OrgDisambiguatedEntity where sourceType = :sourceType",
+                Object[].class);
+        query.setParameter("sourceType", sourceType);
+        return query.getResultList();
+    }
+    
     @Override
     public List<OrgDisambiguatedEntity> findBySourceType(String sourceType, int firstResult, int maxResults){
         TypedQuery<OrgDisambiguatedEntity> query = entityManager.createQuery("from OrgDisambiguatedEntity where sourceType = :sourceType",
@@ -107,6 +116,16 @@ public class OrgDisambiguatedDaoImpl extends GenericDaoImpl<OrgDisambiguatedEnti
         return query.getResultList();
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<OrgDisambiguatedEntity> findOrgsToGroup(Long lastId, int maxResult) {
+        Query query = entityManager.createNativeQuery("select * from (" + GROUPING_ORGS_QUERY + ") to_group where to_group.id > :lastId order by to_group.id",
+                OrgDisambiguatedEntity.class);
+        query.setParameter("lastId", lastId);
+        query.setMaxResults(maxResult);
+        return query.getResultList();
+    }
+
     @Override
     public List<Long> findOrgsPendingIndexing(int maxResult) {
         TypedQuery<Long> query = entityManager.createQuery("select o.id from OrgDisambiguatedEntity o where indexingStatus not in ('DONE', 'IGNORE') order by dateCreated",
@@ -115,6 +134,42 @@ public class OrgDisambiguatedDaoImpl extends GenericDaoImpl<OrgDisambiguatedEnti
         return query.getResultList();
     }
 
+    @Override
+    public List<OrgDisambiguatedEntity> findOrgsPendingIndexing(Long lastId, int maxResult) {
+        TypedQuery<Long> idsQuery = entityManager.createQuery(
+                "select o.id from OrgDisambiguatedEntity o where o.id > :lastId and o.indexingStatus not in ('DONE', 'IGNORE') order by o.id", Long.class);
+        idsQuery.setParameter("lastId", lastId);
+        idsQuery.setMaxResults(maxResult);
+        List<Long> ids = idsQuery.getResultList();
+        if (ids.isEmpty()) {
+            return new ArrayList<OrgDisambiguatedEntity>();
+        }
+        // Limiting a fetch join would be done in memory, so the page of ids is
+        // taken first and the orgs fetched by id
+        TypedQuery<OrgDisambiguatedEntity> query = entityManager.createQuery("select distinct o from OrgDisambiguatedEntity o left join fetch o.externalIdentifiers"
+                + " left join fetch o.memberChosenOrgDisambiguatedEntity where o.id in :ids order by o.id", OrgDisambiguatedEntity.class);
+        query.setParameter("ids", ids);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int updateIndexingStatus(List<Long> orgDisambiguatedIds, IndexingStatus indexingStatus) {
+        if (orgDisambiguatedIds.isEmpty()) {
+            return 0;
+        }
+        String queryString = null;
+        if (IndexingStatus.DONE.equals(indexingStatus)) {
+            queryString = "update OrgDisambiguatedEntity set indexingStatus = :indexingStatus, lastIndexedDate = now() where id in :ids";
+        } else {
+            queryString = "update OrgDisambiguatedEntity set indexingStatus = :indexingStatus where id in :ids";
+        }
+        Query query = entityManager.createQuery(queryString);
+        query.setParameter("ids", orgDisambiguatedIds);
+        query.setParameter("indexingStatus", indexingStatus);
+        return query.executeUpdate();
+    }
+
     @Override
     @Transactional
     public void updateIndexingStatus(Long orgDisambiguatedId, IndexingStatus indexingStatus) {
@@ -79,4 +79,13 @@ public class OrgDisambiguatedExternalIdentifierDaoImpl extends GenericDaoImpl<Or
         return query.getResultList();
     }
 
+    @Override
+    public List<Object[]> findIdentifiersBySourceType(String sourceType) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "select e.orgDisambiguated.id, e.identifierType, e.identifier, e.preferred FROM OrgDisambiguatedExternalIdentifierEntity e WHERE e.orgDisambiguated.sourceType = :sourceType",
+                Object[].class);
+        query.setParameter("sourceType", sourceType);
+        return query.getResultList();
+    }
+
 }
@@ -12,6 +12,7 @@ import javax.persistence.TypedQuery;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.orcid.persistence.aop.ProfileLastModifiedChanged;
 import org.orcid.persistence.aop.UpdateProfileLastModifiedAndIndexingStatus;
 import org.orcid.persistence.dao.ProfileDao;
 import org.orcid.persistence.jpa.entities.EmailEventType;
@@ -94,7 +95,32 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
     @SuppressWarnings("unchecked")
     @Override
     public List<String> findOrcidsByIndexingStatus(IndexingStatus indexingStatus, int maxResults, Collection<String> orcidsToExclude, Integer delay) {
-        StringBuilder builder = new StringBuilder("SELECT p.orcid FROM profile p WHERE p.indexing_status = :indexingStatus ");
+        return createFindByIndexingStatusQuery("SELECT p.orcid", indexingStatus, maxResults, orcidsToExclude, delay).getResultList();
+    }
+
+    /**
+     * Get the ORCID ids with the given indexing status along with their last
+     * modified date, so the indexer doesn't need to look it up per record
+     * 
+     * @param indexingStatus
+     *            The desired indexing status
+     * @param maxResults
+     *            Max number of results
+     * @param delay
+     *            A delay that will allow us to obtain records after no one is
+     *            modifying it anymore
+     * @return a list of object arrays where the object[0] contains the orcid id
+     *         and object[1] contains the last modified date
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<Object[]> findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus indexingStatus, int maxResults, Integer delay) {
+        return createFindByIndexingStatusQuery("SELECT p.orcid, p.last_modified", indexingStatus, maxResults, Collections.emptyList(), delay).getResultList();
+    }
+
+    private Query createFindByIndexingStatusQuery(String select, IndexingStatus indexingStatus, int maxResults, Collection<String> orcidsToExclude, Integer delay) {
+        StringBuilder builder = new StringBuilder(select);
+        builder.append(" FROM profile p WHERE p.indexing_status = :indexingStatus ");
         if (delay != null && delay > 0) {
             builder.append(" AND (p.last_indexed_date is null OR p.last_indexed_date < now() - INTERVAL '" + delay + " min') ");
         }
@@ -111,7 +137,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
         query.setMaxResults(maxResults);
         // Sets a timeout for this query
         query.setHint("javax.persistence.query.timeout", queryTimeout);
-        return query.getResultList();
+        return query;
     }
 
     @SuppressWarnings("unchecked")
@@ -358,6 +384,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void updateLastModifiedDateAndIndexingStatusWithoutResult(String orcid, Date lastModified, IndexingStatus indexingStatus) {
         Query query = entityManager.createNativeQuery("update profile set last_modified = :lastModified, indexing_status = :indexingStatus where orcid = :orcid ");
         query.setParameter("orcid", orcid);
@@ -373,6 +400,13 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
         query.executeUpdate();
     }
 
+    private void updateWebhookProfileLastUpdate(List<String> ids) {
+        Query query = entityManager.createNativeQuery(
+                "update webhook w set profile_last_modified = (select p.last_modified from profile p where p.orcid = w.orcid) where w.orcid IN :ids");
+        query.setParameter("ids", ids);
+        query.executeUpdate();
+    }
+
     @Override
     public String retrieveOrcidType(String orcid) {
         TypedQuery<String> query = entityManager.createQuery("select orcidType from ProfileEntity where orcid = :orcid", String.class);
@@ -398,6 +432,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void updateLocale(String orcid, String locale) {
         Query updateQuery = entityManager
                 .createQuery("update ProfileEntity set lastModified = now(), locale = :locale, indexingStatus = :indexing_status where orcid = :orcid");
@@ -409,6 +444,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean deprecateProfile(String toDeprecate, String primaryOrcid, String deprecatedMethod, String adminUser) {
         StringBuilder queryString = new StringBuilder(
                 "update ProfileEntity set lastModified = now(), deprecatedDate = now(), deactivationDate = now(), indexingStatus = :indexing_status, primaryRecord = :primary_record, activitiesVisibilityDefault = :defaultVisibility, deprecatedMethod = :deprecatedMethod");
@@ -462,6 +498,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
      */
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean updateDeveloperTools(String orcid, boolean enabled) {
         Query query = entityManager.createQuery("update ProfileEntity set enableDeveloperTools=:enabled, lastModified=now() where orcid=:orcid");
         if (enabled)
@@ -536,6 +573,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
      */
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean lockProfile(String orcid, String reason, String description, String adminUser) {
         Query query = entityManager.createNativeQuery(
                 "update profile set record_locked=true, last_modified=now(), record_locked_date=now(), record_locked_admin_id=:adminUser, indexing_status=:indexingStatus, reason_locked=:lockReason, reason_locked_description=:description where orcid=:orcid");
@@ -556,6 +594,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
      */
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean unlockProfile(String orcid) {
         Query query = entityManager.createNativeQuery(
                 "update profile set record_locked=false, last_modified=now(), record_locked_date=null, record_locked_admin_id=null, indexing_status=:indexingStatus, reason_locked=null, reason_locked_description=null where orcid=:orcid");
@@ -596,12 +635,14 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean reviewProfile(String orcid) {
         return changeReviewedStatus(orcid, true);
     }
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean unreviewProfile(String orcid) {
         return changeReviewedStatus(orcid, false);
     }
@@ -623,6 +664,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean updateDefaultVisibility(String orcid, String visibility) {
         Query updateQuery = entityManager
                 .createQuery("update ProfileEntity set lastModified = now(), activitiesVisibilityDefault = :activitiesVisibilityDefault where orcid = :orcid");
@@ -658,6 +700,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void disable2FA(String orcid) {
         Query query = entityManager.createQuery("update ProfileEntity set lastModified = now(), using2FA = false, secretFor2FA = null where orcid = :orcid");
         query.setParameter("orcid", orcid);
@@ -666,6 +709,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void enable2FA(String orcid) {
         Query query = entityManager.createQuery("update ProfileEntity set lastModified = now(), using2FA = true where orcid = :orcid");
         query.setParameter("orcid", orcid);
@@ -674,6 +718,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void update2FASecret(String orcid, String secret) {
         Query query = entityManager.createQuery("update ProfileEntity set lastModified = now(), secretFor2FA = :secret where orcid = :orcid");
         query.setParameter("orcid", orcid);
@@ -683,6 +728,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public boolean deactivate(String orcid) {
         Query query = entityManager.createQuery("update ProfileEntity set lastModified = now(), profile_deactivation_date = now() where orcid = :orcid");
         query.setParameter("orcid", orcid);
@@ -706,6 +752,22 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
         return query.getResultList();
     }
 
+    @Override
+    public List<ProfileEventEntity> getProfileEvents(List<String> orcids, List<ProfileEventType> eventTypes) {
+        TypedQuery<ProfileEventEntity> query = entityManager.createQuery("from ProfileEventEntity where orcid IN :orcids and type IN :types", ProfileEventEntity.class);
+        query.setParameter("orcids", orcids);
+        query.setParameter("types", eventTypes);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<String> findActiveOrcids(List<String> orcids) {
+        TypedQuery<String> query = entityManager.createQuery(
+                "select id from ProfileEntity where id IN :orcids and deactivationDate is null and deprecatedDate is null and recordLocked = false", String.class);
+        query.setParameter("orcids", orcids);
+        return query.getResultList();
+    }
+
     @Override
     public ProfileEntity getLockedReason(String orcid) {
         TypedQuery<ProfileEntity> query = entityManager.createQuery("FROM ProfileEntity where orcid = :orcid", ProfileEntity.class);
@@ -742,7 +804,7 @@ public class ProfileDaoImpl extends GenericDaoImpl<ProfileEntity, String> implem
         String queryString = null;
         if (IndexingStatus.DONE.equals(indexingStatus)) {
             queryString = "UPDATE profile SET indexing_status = :indexingStatus, last_indexed_date = now() WHERE orcid IN :ids";
-            ids.forEach(orcid -> updateWebhookProfileLastUpdate(orcid));
+            updateWebhookProfileLastUpdate(ids);
         } else {
             queryString = "UPDATE profile SET indexing_status = :indexingStatus WHERE orcid IN :ids";
         }
@@ -7,6 +7,7 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
+import org.orcid.persistence.aop.ProfileLastModifiedChanged;
 import org.orcid.persistence.dao.ProfileLastModifiedDao;
 import org.orcid.persistence.jpa.entities.IndexingStatus;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,6 +29,7 @@ public class ProfileLastModifiedDaoImpl implements ProfileLastModifiedDao {
      */
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void updateLastModifiedDateAndIndexingStatus(String orcid, IndexingStatus indexingStatus) {
         Query updateQuery = entityManager.createQuery("update ProfileEntity set lastModified = now(), indexingStatus = :indexingStatus where orcid = :orcid");
         updateQuery.setParameter("orcid", orcid);
@@ -39,6 +41,7 @@ public class ProfileLastModifiedDaoImpl implements ProfileLastModifiedDao {
 
     @Override
     @Transactional
+    @ProfileLastModifiedChanged
     public void updateLastModifiedDateWithoutResult(String orcid) {
         Query query = entityManager.createNativeQuery("update profile set last_modified = now() where orcid = :orcid ");
         query.setParameter("orcid", orcid);
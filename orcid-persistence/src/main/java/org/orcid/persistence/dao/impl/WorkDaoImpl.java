@@ -409,5 +409,30 @@ public class WorkDaoImpl extends GenericDaoImpl<WorkEntity, Long> implements Wor
                 .addScalar("contributors_json", StringType.INSTANCE);
         return query.getResultList();
     }
-}
 
+    @Override
+    public List<Object[]> getWorksWithStaleNormalizedExternalIds(Long afterWorkId, String normalizerVersion, int numberOfWorks) {
+        Query query = entityManager.createNativeQuery(
+                "SELECT work_id, CAST(external_ids_json AS text) AS external_ids_json FROM work " +
+                        "WHERE work_id > :workId AND external_ids_json IS NOT NULL " +
+                        "AND (json_extract_path_text(external_ids_json, 'normalizerVersion') IS NULL OR json_extract_path_text(external_ids_json, 'normalizerVersion') <> :normalizerVersion) " +
+                        "ORDER BY work_id ASC LIMIT :numberOfWorks");
+        query.setParameter("workId", afterWorkId);
+        query.setParameter("normalizerVersion", normalizerVersion);
+        query.setParameter("numberOfWorks", numberOfWorks)
+                .unwrap(org.hibernate.query.NativeQuery.class)
+                .addScalar("work_id", BigIntegerType.INSTANCE)
+                .addScalar("external_ids_json", StringType.INSTANCE);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public boolean updateExternalIdentifiersJson(Long workId, String currentJson, String updatedJson) {
+        Query query = entityManager.createNativeQuery("UPDATE work SET external_ids_json = CAST(:updatedJson AS json) WHERE work_id = :workId AND CAST(external_ids_json AS text) = :currentJson");
+        query.setParameter("workId", workId);
+        query.setParameter("currentJson", currentJson);
+        query.setParameter("updatedJson", updatedJson);
+        return query.executeUpdate() > 0;
+    }
+}
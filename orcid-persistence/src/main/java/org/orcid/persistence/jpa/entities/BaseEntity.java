@@ -25,6 +25,14 @@ import java.util.Map;
 public abstract class BaseEntity<T extends Serializable> implements OrcidEntity<T> {
 
     private static final long serialVersionUID = 2949008720309076230L;
+
+    /**
+     * Ids reserved per sequence call by the entities written in bulk. Must be
+     * the same as the increment of their DB sequences, see
+     * pooled_activity_sequences.xml
+     */
+    public static final int POOLED_ALLOCATION_SIZE = 50;
+
     private Date dateCreated;
     private Date lastModified;
 
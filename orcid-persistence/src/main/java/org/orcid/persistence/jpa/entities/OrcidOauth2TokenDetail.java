@@ -56,7 +56,7 @@ public class OrcidOauth2TokenDetail extends BaseEntity<Long> implements OrcidAwa
      */
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "access_token_seq")
-    @SequenceGenerator(name = "access_token_seq", sequenceName = "access_token_seq", allocationSize = 1)
+    @SequenceGenerator(name = "access_token_seq", sequenceName = "access_token_seq", allocationSize = POOLED_ALLOCATION_SIZE)
     @Column(name = "id")
     public Long getId() {
         return id;
@@ -52,7 +52,7 @@ public class ProfileFundingEntity extends SourceAwareEntity<Long> implements Com
     @Override
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "profile_funding_seq")
-    @SequenceGenerator(name = "profile_funding_seq", sequenceName = "profile_funding_seq", allocationSize = 1)
+    @SequenceGenerator(name = "profile_funding_seq", sequenceName = "profile_funding_seq", allocationSize = POOLED_ALLOCATION_SIZE)
     public Long getId() {
         return id;
     }
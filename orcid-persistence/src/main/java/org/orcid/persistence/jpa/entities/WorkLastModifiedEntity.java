@@ -26,7 +26,7 @@ public class WorkLastModifiedEntity extends BaseEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "work_seq")
-    @SequenceGenerator(name = "work_seq", sequenceName = "work_seq", allocationSize = 1)
+    @SequenceGenerator(name = "work_seq", sequenceName = "work_seq", allocationSize = POOLED_ALLOCATION_SIZE)
     @Column(name = "work_id")
     public Long getId() {
         return id;
@@ -7,6 +7,9 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
@@ -59,6 +62,18 @@ public class EmailFrequencyDaoTest extends DBUnitTest {
         assertTrue(e.getSendQuarterlyTips());
     }
 
+    @Test
+    public void findByOrcidsTest() {
+        List<EmailFrequencyEntity> list = dao.findByOrcids(Arrays.asList("0000-0000-0000-0003", "0000-0000-0000-0004", "0000-0000-0000-9999"));
+        assertEquals(2, list.size());
+        Set<String> orcids = new HashSet<String>();
+        for (EmailFrequencyEntity e : list) {
+            orcids.add(e.getOrcid());
+        }
+        assertTrue(orcids.contains("0000-0000-0000-0003"));
+        assertTrue(orcids.contains("0000-0000-0000-0004"));
+    }
+
     @Test
     public void updateSendChangeNotificationsTest() {
         EmailFrequencyEntity e = dao.findByOrcid("0000-0000-0000-0004");
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.annotation.Resource;
@@ -17,7 +18,9 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.orcid.persistence.jpa.entities.IndexingStatus;
 import org.orcid.persistence.jpa.entities.OrgDisambiguatedEntity;
+import org.orcid.persistence.jpa.entities.OrgDisambiguatedExternalIdentifierEntity;
 import org.orcid.test.DBUnitTest;
 import org.orcid.test.OrcidJUnit4ClassRunner;
 import org.springframework.test.context.ContextConfiguration;
@@ -73,6 +76,18 @@ public class OrgDisambiguatedDaoTest extends DBUnitTest {
         assertEquals("GB",e.getCountry());
     }
     
+    @Test
+    public void testFindIndexedFieldsBySourceType() {
+        List<Object[]> rows = orgDisambiguatedDao.findIndexedFieldsBySourceType("WDB");
+        assertEquals(2, rows.size());
+        Object[] row = rows.stream().filter(r -> "abc456".equals(r[1])).findFirst().get();
+        assertEquals(1L, ((Number) row[0]).longValue());
+        assertEquals("An Institution", row[2]);
+        assertEquals("GB", row[3]);
+        assertEquals("London", row[4]);
+        assertTrue(orgDisambiguatedDao.findIndexedFieldsBySourceType("ROR").isEmpty());
+    }
+    
     @Test
     public void mergeTest() {
         OrgDisambiguatedEntity e = orgDisambiguatedDao.find(2L);
@@ -108,4 +123,54 @@ public class OrgDisambiguatedDaoTest extends DBUnitTest {
         assertEquals(e.getDateCreated(), e2.getDateCreated());
         assertEquals(e2.getDateCreated(), e2.getLastModified());
     }
+    
+    @Test
+    public void findOrgsPendingIndexingAfterIdTest() {
+        OrgDisambiguatedEntity first = persistPendingOrg("keyset-1", "FUNDREF", "100000001");
+        OrgDisambiguatedEntity second = persistPendingOrg("keyset-2", null, null);
+        try {
+            List<OrgDisambiguatedEntity> page = orgDisambiguatedDao.findOrgsPendingIndexing(first.getId() - 1, 2);
+            assertEquals(2, page.size());
+            assertEquals(first.getId(), page.get(0).getId());
+            assertEquals(second.getId(), page.get(1).getId());
+            assertEquals(1, page.get(0).getExternalIdentifiers().size());
+            OrgDisambiguatedExternalIdentifierEntity extId = page.get(0).getExternalIdentifiers().iterator().next();
+            assertEquals("FUNDREF", extId.getIdentifierType());
+            assertEquals("100000001", extId.getIdentifier());
+            assertTrue(page.get(1).getExternalIdentifiers().isEmpty());
+
+            page = orgDisambiguatedDao.findOrgsPendingIndexing(first.getId(), 2);
+            assertEquals(second.getId(), page.get(0).getId());
+
+            assertEquals(2, orgDisambiguatedDao.updateIndexingStatus(Arrays.asList(first.getId(), second.getId()), IndexingStatus.DONE));
+            assertEquals(IndexingStatus.DONE, orgDisambiguatedDao.find(first.getId()).getIndexingStatus());
+            assertNotNull(orgDisambiguatedDao.find(second.getId()).getLastIndexedDate());
+            assertTrue(orgDisambiguatedDao.findOrgsPendingIndexing(first.getId() - 1, 2).stream().noneMatch(o -> o.getId().equals(first.getId()) || o.getId().equals(second.getId())));
+        } finally {
+            // Committed, so removed for the tests asserting on the ROR orgs
+            orgDisambiguatedDao.remove(first.getId());
+            orgDisambiguatedDao.remove(second.getId());
+        }
+    }
+
+    private OrgDisambiguatedEntity persistPendingOrg(String sourceId, String extIdType, String extId) {
+        OrgDisambiguatedEntity e = new OrgDisambiguatedEntity();
+        e.setSourceType("ROR");
+        e.setSourceId(sourceId);
+        e.setName("ORG_" + sourceId);
+        e.setCountry("US");
+        e.setCity("NY");
+        e.setIndexingStatus(IndexingStatus.PENDING);
+        e.setExternalIdentifiers(new HashSet<OrgDisambiguatedExternalIdentifierEntity>());
+        if (extIdType != null) {
+            OrgDisambiguatedExternalIdentifierEntity identifier = new OrgDisambiguatedExternalIdentifierEntity();
+            identifier.setIdentifierType(extIdType);
+            identifier.setIdentifier(extId);
+            identifier.setPreferred(Boolean.TRUE);
+            identifier.setOrgDisambiguated(e);
+            e.getExternalIdentifiers().add(identifier);
+        }
+        orgDisambiguatedDao.persist(e);
+        return e;
+    }
 }
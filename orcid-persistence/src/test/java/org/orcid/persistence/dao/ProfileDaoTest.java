@@ -10,7 +10,9 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 import javax.persistence.EntityManager;
@@ -213,6 +215,28 @@ public class ProfileDaoTest extends DBUnitTest {
         assertTrue(results.contains(o3));       
     }
 
+    @Test
+    public void testFindOrcidsAndLastModifiedByIndexingStatus() {
+        String o1 = "0000-0000-0000-0001";
+        String o2 = "4444-4444-4444-4445";
+        
+        Calendar c = Calendar.getInstance();
+        Date d1 = new Date(c.getTimeInMillis());
+        Date d2 = new Date(c.getTimeInMillis() + 1000);
+               
+        profileDao.updateLastModifiedDateAndIndexingStatusWithoutResult(o1, d1, IndexingStatus.PENDING);
+        profileDao.updateLastModifiedDateAndIndexingStatusWithoutResult(o2, d2, IndexingStatus.PENDING);
+        
+        List<Object[]> results = profileDao.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.PENDING, 10, 0);
+        assertNotNull(results);
+        Map<String, Date> lastModified = new HashMap<>();
+        for (Object[] result : results) {
+            lastModified.put((String) result[0], (Date) result[1]);
+        }
+        assertEquals(d1.getTime(), lastModified.get(o1).getTime());
+        assertEquals(d2.getTime(), lastModified.get(o2).getTime());
+    }
+
     @Test
     public void testFindUnclaimedNotIndexedAfterWaitPeriod() {
         List<String> resultsList = profileDao.findUnclaimedNotIndexedAfterWaitPeriod(1, 100000, 10, Collections.<String> emptyList());
@@ -20,6 +20,7 @@ import org.orcid.persistence.jpa.entities.WorkEntity;
 import org.orcid.test.DBUnitTest;
 import org.orcid.test.OrcidJUnit4ClassRunner;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Transactional;
 
 @RunWith(OrcidJUnit4ClassRunner.class)
 @ContextConfiguration(locations = { "classpath:test-orcid-persistence-context.xml" })
@@ -111,4 +112,31 @@ public class WorkDaoTest extends DBUnitTest {
         assertEquals(e.getDateCreated(), e2.getDateCreated());
         assertEquals(e2.getDateCreated(), e2.getLastModified());
     }
+
+    @Test
+    @Transactional
+    public void batchedPersistTest() {
+        dao.setJdbcBatchSize(2);
+        List<WorkEntity> works = new ArrayList<WorkEntity>();
+        for (int i = 0; i < 5; i++) {
+            WorkEntity e = new WorkEntity();
+            e.setOrcid("0000-0000-0000-0002");
+            e.setVisibility("PRIVATE");
+            e.setTitle("Batched work " + i);
+            dao.persist(e);
+            works.add(e);
+        }
+        dao.flush();
+        dao.setJdbcBatchSize(null);
+
+        for (int i = 0; i < works.size(); i++) {
+            WorkEntity e = works.get(i);
+            if (i > 0) {
+                // Ids come from the pooled block, not one sequence call each
+                assertEquals(works.get(i - 1).getId() + 1, e.getId().longValue());
+            }
+            dao.detatch(e);
+            assertEquals("Batched work " + i, dao.find(e.getId()).getTitle());
+        }
+    }
 }
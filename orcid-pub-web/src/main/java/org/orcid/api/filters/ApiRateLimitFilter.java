@@ -88,6 +88,11 @@ public class ApiRateLimitFilter extends OncePerRequestFilter {
     @Value("${org.orcid.papi.rate.limit.enabled:false}")
     private boolean enableRateLimiting;
 
+    // Count requests with atomic Redis counters instead of read-modify-write
+    // of a JSON document
+    @Value("${org.orcid.papi.rate.limit.counterMode:false}")
+    private boolean counterMode;
+
     @Value("${org.orcid.persistence.panoply.papiExceededRate.production:false}")
     private boolean enablePanoplyPapiExceededRateInProduction;
 
@@ -172,20 +177,12 @@ public class ApiRateLimitFilter extends OncePerRequestFilter {
     }
 
     private void rateLimitAnonymousRequest(String ipAddress, LocalDate today, HttpServletResponse httpServletResponse) throws IOException, JSONException {
-        JSONObject dailyLimitsObj = papiRedisClient.getTodayDailyLimitsForClient(ipAddress);
         long limitValue = 0l;
-        if (dailyLimitsObj != null) {
-            limitValue = dailyLimitsObj.getLong(PapiRateLimitRedisClient.KEY_REQUEST_COUNT);
+        if (counterMode) {
+            limitValue = Math.max(papiRedisClient.incrementTodayRequestCount(ipAddress, true) - 1, 0);
         } else {
-            dailyLimitsObj = new JSONObject();
-            dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_DATE_CREATED, System.currentTimeMillis());
-            dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_IS_ANONYMOUS, true);
-            dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_DATE, today.toString());
+            limitValue = updateDailyLimitsObject(ipAddress, true, today);
         }
-        dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_CLIENT, ipAddress);
-        dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_COUNT, limitValue + 1);
-        dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_LAST_MODIFIED, System.currentTimeMillis());
-        papiRedisClient.setTodayLimitsForClient(ipAddress, dailyLimitsObj);
         if (Features.ENABLE_PAPI_RATE_LIMITING.isActive() && (limitValue + 1) >= anonymousRequestLimit) {
             httpServletResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             if (!httpServletResponse.isCommitted()) {
@@ -199,25 +196,39 @@ public class ApiRateLimitFilter extends OncePerRequestFilter {
     }
 
     private void rateLimitClientRequest(String clientId, LocalDate today) throws JSONException {
-        JSONObject dailyLimitsObj = papiRedisClient.getTodayDailyLimitsForClient(clientId);
+        long limitValue = 0l;
+        if (counterMode) {
+            limitValue = Math.max(papiRedisClient.incrementTodayRequestCount(clientId, false) - 1, 0);
+        } else {
+            limitValue = updateDailyLimitsObject(clientId, false, today);
+        }
+        if (Features.ENABLE_PAPI_RATE_LIMITING.isActive() && (limitValue == knownRequestLimit)) {
+            sendEmail(clientId, LocalDate.now());
+        }
+    }
+
+    /**
+     * Reads, increments and stores back the JSON document holding today's
+     * requests of the client
+     * 
+     * @return the number of requests before this one
+     */
+    private long updateDailyLimitsObject(String client, boolean isAnonymous, LocalDate today) throws JSONException {
+        JSONObject dailyLimitsObj = papiRedisClient.getTodayDailyLimitsForClient(client);
         long limitValue = 0l;
         if (dailyLimitsObj != null) {
             limitValue = dailyLimitsObj.getLong(PapiRateLimitRedisClient.KEY_REQUEST_COUNT);
         } else {
             dailyLimitsObj = new JSONObject();
             dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_DATE_CREATED, System.currentTimeMillis());
-            dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_IS_ANONYMOUS, false);
+            dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_IS_ANONYMOUS, isAnonymous);
             dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_DATE, today.toString());
         }
-        dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_CLIENT, clientId);
+        dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_CLIENT, client);
         dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_REQUEST_COUNT, limitValue + 1);
         dailyLimitsObj.put(PapiRateLimitRedisClient.KEY_LAST_MODIFIED, System.currentTimeMillis());
-
-        papiRedisClient.setTodayLimitsForClient(clientId, dailyLimitsObj);
-        if (Features.ENABLE_PAPI_RATE_LIMITING.isActive() && (limitValue == knownRequestLimit)) {
-            sendEmail(clientId, LocalDate.now());
-        }
-
+        papiRedisClient.setTodayLimitsForClient(client, dailyLimitsObj);
+        return limitValue;
     }
 
     private Map<String, Object> createTemplateParams(String clientId, String clientName, String emailName, String orcidId, Locale locale) {
@@ -58,6 +58,7 @@ import static org.orcid.core.api.OrcidApiConstants.WORK;
 import static org.orcid.core.api.OrcidApiConstants.WORKS;
 import static org.orcid.core.api.OrcidApiConstants.WORK_SUMMARY;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -72,11 +73,14 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
 
 import org.orcid.api.common.swagger.SwaggerUIBuilder;
 import org.orcid.api.publicV3.server.delegator.PublicV3ApiServiceDelegator;
+import org.orcid.api.publicV3.server.snapshot.PublicApiSnapshotCache;
 import org.orcid.core.api.OrcidApiConstants;
 import org.orcid.jaxb.model.v3.release.groupid.GroupIdRecord;
 import org.orcid.jaxb.model.v3.release.record.Distinction;
@@ -111,9 +115,24 @@ public class PublicV3ApiServiceImplV3_0 {
   protected SwaggerUIBuilder swaggerUIBuilder;
   
   
+  @Resource
+  protected PublicApiSnapshotCache publicApiSnapshotCache;
+  
   @Context
   private HttpServletRequest httpRequest;  
   
+  @Context
+  private Request request;
+  
+  @Context
+  private Providers providers;
+  
+  private static final List<MediaType> ACTIVITY_MEDIA_TYPES = Arrays.asList(MediaType.valueOf(VND_ORCID_XML), MediaType.valueOf(ORCID_XML), MediaType.APPLICATION_XML_TYPE,
+          MediaType.valueOf(VND_ORCID_JSON), MediaType.valueOf(ORCID_JSON), MediaType.APPLICATION_JSON_TYPE);
+  
+  private static final List<MediaType> RECORD_MEDIA_TYPES = Arrays.asList(MediaType.valueOf(VND_ORCID_XML), MediaType.valueOf(ORCID_XML), MediaType.APPLICATION_XML_TYPE,
+          MediaType.valueOf(VND_ORCID_JSON), MediaType.valueOf(ORCID_JSON), MediaType.APPLICATION_JSON_TYPE, MediaType.valueOf(JSON_LD));
+  
   /**
    * Serves the Swagger UI HTML page
    * 
@@ -176,7 +195,7 @@ public class PublicV3ApiServiceImplV3_0 {
   @Path(WORKS)
   public Response viewWorks(@PathParam("orcid") String orcid) {
       serviceDelegator.trackEvents(httpRequest);
-      return serviceDelegator.viewWorks(orcid);
+      return publicApiSnapshotCache.get(orcid, "works", ACTIVITY_MEDIA_TYPES, request, providers, () -> serviceDelegator.viewWorks(orcid));
   }
   
   @GET
@@ -401,7 +420,7 @@ public class PublicV3ApiServiceImplV3_0 {
   @Path(OrcidApiConstants.RECORD_SIMPLE)
   public Response viewRecord(@PathParam("orcid") String orcid) {
       serviceDelegator.trackEvents(httpRequest);
-      return serviceDelegator.viewRecord(orcid);
+      return publicApiSnapshotCache.get(orcid, "record", RECORD_MEDIA_TYPES, request, providers, () -> serviceDelegator.viewRecord(orcid));
   }
   
   //Record 
@@ -410,7 +429,7 @@ public class PublicV3ApiServiceImplV3_0 {
   @Path(OrcidApiConstants.RECORD_RECORD)
   public Response viewRecordRecord(@PathParam("orcid") String orcid) {
       serviceDelegator.trackEvents(httpRequest);
-      return serviceDelegator.viewRecord(orcid);
+      return publicApiSnapshotCache.get(orcid, "record", ACTIVITY_MEDIA_TYPES, request, providers, () -> serviceDelegator.viewRecord(orcid));
   }
   
   @GET
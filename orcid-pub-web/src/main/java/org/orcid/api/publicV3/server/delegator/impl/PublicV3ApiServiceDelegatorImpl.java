@@ -10,6 +10,7 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.orcid.api.common.util.v3.ActivityUtils;
 import org.orcid.api.common.util.v3.ElementUtils;
@@ -202,6 +203,9 @@ public class PublicV3ApiServiceDelegatorImpl implements
     @Value("${org.orcid.core.baseUri}")
     private String baseUrl;
 
+    @Value("${org.orcid.api.search.csv.streaming:false}")
+    private boolean streamCSVSearch;
+
     private Boolean filterVersionOfIdentifiers = false;
 
     public Boolean getFilterVersionOfIdentifiers() {
@@ -648,6 +652,10 @@ public class PublicV3ApiServiceDelegatorImpl implements
     @Override
     public Response searchByQueryCSV(Map<String, List<String>> solrParams) {
         validateSearchParams(solrParams);
+        if (streamCSVSearch) {
+            StreamingOutput search = out -> orcidSearchManager.writeOrcidIdsAsCSV(solrParams, out);
+            return Response.ok(search).build();
+        }
         String search = orcidSearchManager.findOrcidIdsAsCSV(solrParams);
         return Response.ok(search).build();
     }
@@ -0,0 +1,196 @@
+package org.orcid.api.publicV3.server.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.orcid.core.aop.ProfileLastModifiedAspect;
+import org.orcid.core.manager.v3.OrcidSecurityManager;
+import org.orcid.core.utils.OrcidEhCacheFactoryBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Keeps the serialized bytes of the public API responses that are expensive
+ * to build, one entry per (orcid, endpoint, media type, API version), tagged
+ * with the last modified date of the record they were built from.
+ *
+ * An entry is only served while the record last modified date is the same as
+ * when it was built, so record updates are picked up on the next request.
+ * Every response carries an ETag derived from the same date, so clients
+ * sending If-None-Match get a 304 without the record being read at all.
+ *
+ * The profile status checks still run on every request, as their outcome
+ * depends on the caller too.
+ */
+public class PublicApiSnapshotCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PublicApiSnapshotCache.class);
+
+    public static final String API_VERSION = "3.0";
+
+    private static final String CACHE_NAME = "public-api-v3-snapshot";
+
+    @Resource(name = "coreCacheManager")
+    private CacheManager cacheManager;
+
+    @Resource(name = "orcidSecurityManagerV3")
+    private OrcidSecurityManager orcidSecurityManager;
+
+    @Resource(name = "profileLastModifiedAspectReadOnly")
+    private ProfileLastModifiedAspect profileLastModifiedAspect;
+
+    @Value("${org.orcid.api.v3.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.orcid.api.v3.snapshot.timeToLiveSeconds:3600}")
+    private int timeToLiveSeconds;
+
+    @Value("${org.orcid.api.v3.snapshot.maxElementsInMemory:100}")
+    private int maxElementsInMemory;
+
+    @Value("${org.orcid.api.v3.snapshot.maxMegaBytesOffHeap:256}")
+    private long maxMegaBytesOffHeap;
+
+    @Value("${org.orcid.api.v3.snapshot.maxEntryKiloBytes:4096}")
+    private int maxEntryKiloBytes;
+
+    private Cache<Serializable, Serializable> cache;
+
+    @SuppressWarnings("unchecked")
+    @PostConstruct
+    public void init() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        // The off heap tier is allocated up front, so the cache is only
+        // created when the snapshots are enabled
+        OrcidEhCacheFactoryBean factory = new OrcidEhCacheFactoryBean();
+        factory.setCacheManager(cacheManager);
+        factory.setCacheName(CACHE_NAME);
+        factory.setTimeToIdleSeconds(timeToLiveSeconds);
+        factory.setMaxElementsInMemory(maxElementsInMemory);
+        factory.setMaxMegaBytesOffHeap(maxMegaBytesOffHeap);
+        factory.setCopyValues(false);
+        factory.afterPropertiesSet();
+        cache = (Cache<Serializable, Serializable>) factory.getObject();
+        LOGGER.info("Public API snapshot cache enabled with {}MB off heap", maxMegaBytesOffHeap);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @param orcid
+     *            the record ORCID id
+     * @param endpoint
+     *            name of the endpoint, part of the cache key and the ETag
+     * @param mediaTypes
+     *            the media types the endpoint produces
+     * @param request
+     *            the JAX-RS request, used to pick the media type and evaluate
+     *            If-None-Match
+     * @param providers
+     *            used to find the writer Jersey would use for the entity
+     * @param delegate
+     *            builds the response when there is no usable snapshot
+     */
+    public Response get(String orcid, String endpoint, List<MediaType> mediaTypes, Request request, Providers providers, Supplier<Response> delegate) {
+        if (!isEnabled()) {
+            return delegate.get();
+        }
+        orcidSecurityManager.checkProfile(orcid);
+        Variant variant = request.selectVariant(Variant.mediaTypes(mediaTypes.toArray(new MediaType[mediaTypes.size()])).build());
+        Date lastModified = profileLastModifiedAspect.retrieveLastModifiedDate(orcid);
+        if (variant == null || lastModified == null) {
+            return delegate.get();
+        }
+        MediaType mediaType = variant.getMediaType();
+        EntityTag eTag = buildETag(endpoint, mediaType, lastModified.getTime());
+        ResponseBuilder notModified = request.evaluatePreconditions(eTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
+        String key = String.join(":", orcid, endpoint, mediaType.toString(), API_VERSION);
+        Snapshot snapshot = (Snapshot) cache.get(key);
+        if (snapshot == null || snapshot.getLastModified() != lastModified.getTime()) {
+            Response response = delegate.get();
+            if (response.getStatus() != Response.Status.OK.getStatusCode() || !response.hasEntity()) {
+                return response;
+            }
+            byte[] bytes = serialize(response.getEntity(), mediaType, providers);
+            if (bytes == null) {
+                return response;
+            }
+            snapshot = new Snapshot(lastModified.getTime(), bytes);
+            if (bytes.length <= maxEntryKiloBytes * 1024) {
+                cache.put(key, snapshot);
+            }
+        }
+        return Response.ok(snapshot.getContent(), mediaType).tag(eTag).build();
+    }
+
+    static EntityTag buildETag(String endpoint, MediaType mediaType, long lastModified) {
+        String mediaTypeHash = Integer.toHexString(mediaType.toString().hashCode());
+        return new EntityTag(String.join("-", API_VERSION, endpoint, mediaTypeHash, Long.toString(lastModified)));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private byte[] serialize(Object entity, MediaType mediaType, Providers providers) {
+        Class type = entity.getClass();
+        MessageBodyWriter writer = providers.getMessageBodyWriter(type, type, new Annotation[0], mediaType);
+        if (writer == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            writer.writeTo(entity, type, type, new Annotation[0], mediaType, new MultivaluedHashMap<String, Object>(), out);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to serialize " + type.getName() + " as " + mediaType + ", skipping the snapshot", e);
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    static class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long lastModified;
+
+        private final byte[] content;
+
+        Snapshot(long lastModified, byte[] content) {
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+    }
+}
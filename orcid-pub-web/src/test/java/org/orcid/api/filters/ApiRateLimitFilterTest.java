@@ -219,4 +219,58 @@ public class ApiRateLimitFilterTest {
                 "Too Many Requests. You have exceeded the daily quota for anonymous usage of this API. \nYou can increase your daily quota by registering for and using Public API client credentials (https://info.orcid.org/documentation/integration-guide/registering-a-public-api-client/)",
                 content);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void doFilterInternal_counterMode_annonymousRequestTest() throws ServletException, IOException {
+        MockitoAnnotations.initMocks(this);
+        String ip = "127.0.0.2";
+
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "enableRateLimiting", true);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "counterMode", true);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "orcidTokenStore", orcidTokenStoreMock);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "papiRedisClient", papiRateLimitRedisMock);
+
+        try {
+            when(papiRateLimitRedisMock.incrementTodayRequestCount(eq(ip), eq(true))).thenReturn(1L);
+            httpServletRequestMock.addHeader("X-REAL-IP", ip);
+
+            apiRateLimitFilter.doFilterInternal(httpServletRequestMock, httpServletResponseMock, filterChainMock);
+
+            verify(orcidTokenStoreMock, never()).readClientId(anyString());
+            verify(papiRateLimitRedisMock, times(1)).incrementTodayRequestCount(eq(ip), eq(true));
+            verify(papiRateLimitRedisMock, never()).getTodayDailyLimitsForClient(anyString());
+            verify(papiRateLimitRedisMock, never()).setTodayLimitsForClient(anyString(), any());
+            verify(filterChainMock, times(1)).doFilter(eq(httpServletRequestMock), eq(httpServletResponseMock));
+            assertEquals(200, httpServletResponseMock.getStatus());
+        } finally {
+            TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "counterMode", false);
+        }
+    }
+
+    @Test
+    public void doFilterInternal_counterMode_clientRequestTest() throws ServletException, IOException {
+        MockitoAnnotations.initMocks(this);
+        String ip = "127.0.0.2";
+        String clientId = "clientId1";
+
+        httpServletRequestMock.addHeader("Authorization", "TEST_TOKEN");
+        when(orcidTokenStoreMock.readClientId(eq("TEST_TOKEN"))).thenReturn(clientId);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "enableRateLimiting", true);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "counterMode", true);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "orcidTokenStore", orcidTokenStoreMock);
+        TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "papiRedisClient", papiRateLimitRedisMock);
+
+        try {
+            when(papiRateLimitRedisMock.incrementTodayRequestCount(eq(clientId), eq(false))).thenReturn(101L);
+            httpServletRequestMock.addHeader("X-REAL-IP", ip);
+
+            apiRateLimitFilter.doFilterInternal(httpServletRequestMock, httpServletResponseMock, filterChainMock);
+
+            verify(papiRateLimitRedisMock, times(1)).incrementTodayRequestCount(eq(clientId), eq(false));
+            verify(papiRateLimitRedisMock, never()).incrementTodayRequestCount(eq(ip), anyBoolean());
+            verify(papiRateLimitRedisMock, never()).setTodayLimitsForClient(anyString(), any());
+        } finally {
+            TargetProxyHelper.injectIntoProxy(apiRateLimitFilter, "counterMode", false);
+        }
+    }
+}
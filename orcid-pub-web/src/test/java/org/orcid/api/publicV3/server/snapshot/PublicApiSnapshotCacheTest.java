@@ -0,0 +1,148 @@
+package org.orcid.api.publicV3.server.snapshot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.aop.ProfileLastModifiedAspect;
+import org.orcid.core.manager.v3.OrcidSecurityManager;
+import org.orcid.jaxb.model.v3.release.record.summary.Works;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PublicApiSnapshotCacheTest {
+
+    private static final String ORCID = "0000-0000-0000-0001";
+
+    private static final List<MediaType> MEDIA_TYPES = Arrays.asList(MediaType.APPLICATION_XML_TYPE, MediaType.APPLICATION_JSON_TYPE);
+
+    @Mock
+    private OrcidSecurityManager orcidSecurityManager;
+
+    @Mock
+    private ProfileLastModifiedAspect profileLastModifiedAspect;
+
+    @Mock
+    private Request request;
+
+    @Mock
+    private Providers providers;
+
+    @Mock
+    private MessageBodyWriter<Object> writer;
+
+    private CacheManager cacheManager;
+
+    private PublicApiSnapshotCache snapshotCache;
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    private final Date lastModified = new Date(1000L);
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void before() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        Mockito.when(request.selectVariant(anyList())).thenReturn(new Variant(MediaType.APPLICATION_XML_TYPE, (String) null, null));
+        Mockito.when(profileLastModifiedAspect.retrieveLastModifiedDate(ORCID)).thenAnswer(i -> lastModified);
+        Mockito.when(providers.getMessageBodyWriter(any(Class.class), any(), any(), eq(MediaType.APPLICATION_XML_TYPE))).thenReturn(writer);
+        Mockito.doAnswer(invocation -> {
+            writes.incrementAndGet();
+            OutputStream out = invocation.getArgument(6);
+            out.write("<works/>".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(writer).writeTo(any(), any(), any(), any(), any(), any(), any());
+        snapshotCache = newSnapshotCache(true);
+    }
+
+    @After
+    public void after() {
+        cacheManager.close();
+    }
+
+    @Test
+    public void serializesOncePerLastModifiedTest() {
+        Response first = snapshotCache.get(ORCID, "works", MEDIA_TYPES, request, providers, this::build);
+        Response second = snapshotCache.get(ORCID, "works", MEDIA_TYPES, request, providers, this::build);
+        assertEquals(200, second.getStatus());
+        assertArrayEquals("<works/>".getBytes(StandardCharsets.UTF_8), (byte[]) second.getEntity());
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+        assertEquals(1, builds.get());
+        assertEquals(1, writes.get());
+        // Status checks are never skipped
+        Mockito.verify(orcidSecurityManager, Mockito.times(2)).checkProfile(ORCID);
+
+        lastModified.setTime(2000L);
+        Response third = snapshotCache.get(ORCID, "works", MEDIA_TYPES, request, providers, this::build);
+        assertEquals(2, builds.get());
+        assertEquals(2, writes.get());
+        assertEquals(PublicApiSnapshotCache.buildETag("works", MediaType.APPLICATION_XML_TYPE, 2000L), third.getEntityTag());
+    }
+
+    @Test
+    public void ifNoneMatchReturnsNotModifiedTest() {
+        EntityTag eTag = PublicApiSnapshotCache.buildETag("works", MediaType.APPLICATION_XML_TYPE, 1000L);
+        Mockito.when(request.evaluatePreconditions(eTag)).thenReturn(Response.notModified(eTag));
+        Response response = snapshotCache.get(ORCID, "works", MEDIA_TYPES, request, providers, this::build);
+        assertEquals(304, response.getStatus());
+        assertEquals(eTag, response.getEntityTag());
+        assertEquals(0, builds.get());
+    }
+
+    @Test
+    public void disabledDelegatesTest() throws Exception {
+        PublicApiSnapshotCache disabled = newSnapshotCache(false);
+        Response built = build();
+        Response response = disabled.get(ORCID, "works", MEDIA_TYPES, request, providers, () -> built);
+        assertSame(built, response);
+        Mockito.verify(orcidSecurityManager, Mockito.never()).checkProfile(ORCID);
+        Mockito.verify(request, Mockito.never()).evaluatePreconditions(any(EntityTag.class));
+    }
+
+    private Response build() {
+        builds.incrementAndGet();
+        return Response.ok(new Works()).build();
+    }
+
+    private PublicApiSnapshotCache newSnapshotCache(boolean enabled) throws Exception {
+        PublicApiSnapshotCache c = new PublicApiSnapshotCache();
+        ReflectionTestUtils.setField(c, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(c, "orcidSecurityManager", orcidSecurityManager);
+        ReflectionTestUtils.setField(c, "profileLastModifiedAspect", profileLastModifiedAspect);
+        ReflectionTestUtils.setField(c, "enabled", enabled);
+        ReflectionTestUtils.setField(c, "timeToLiveSeconds", 60);
+        ReflectionTestUtils.setField(c, "maxElementsInMemory", 10);
+        ReflectionTestUtils.setField(c, "maxMegaBytesOffHeap", 1L);
+        ReflectionTestUtils.setField(c, "maxEntryKiloBytes", 64);
+        c.init();
+        return c;
+    }
+}
@@ -0,0 +1,151 @@
+package org.orcid.scheduler.email.trickle.manager.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.orcid.core.email.trickle.producer.EmailTrickleItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gathers the items the sending threads are about to send and checks them
+ * together, so the checks cost one query per table for the whole batch rather
+ * than one per table for every email.
+ *
+ * Each sending thread waits for the result of its own item, a batch is checked
+ * as soon as it has batchSize items or the first item in it has waited
+ * batchWaitMillis.
+ */
+class TrickleEligibilityBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrickleEligibilityBatcher.class);
+
+    enum Eligibility {
+        ALREADY_ATTEMPTED, NOT_ELIGIBLE, ELIGIBLE
+    }
+
+    private final Function<List<EmailTrickleItem>, List<Eligibility>> checker;
+
+    private final int batchSize;
+
+    private final long batchWaitMillis;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+
+    private volatile boolean running;
+
+    private Thread dispatcher;
+
+    TrickleEligibilityBatcher(Function<List<EmailTrickleItem>, List<Eligibility>> checker, int batchSize, long batchWaitMillis) {
+        this.checker = checker;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWaitMillis = batchWaitMillis;
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatch, "email-trickle-eligibility");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+    }
+
+    Eligibility check(EmailTrickleItem item) throws InterruptedException {
+        Pending pending = new Pending(item);
+        queue.add(pending);
+        if (!running) {
+            // Stopped while we were queueing, nobody is left to check the item
+            pending.result.completeExceptionally(new IllegalStateException("Email trickle eligibility checks are stopped"));
+        }
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            List<Pending> batch = new ArrayList<Pending>(batchSize);
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + batchWaitMillis;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || left <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(left, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                resolve(batch);
+            }
+        }
+        List<Pending> left = new ArrayList<Pending>();
+        queue.drainTo(left);
+        for (Pending pending : left) {
+            pending.result.completeExceptionally(new IllegalStateException("Email trickle eligibility checks are stopped"));
+        }
+    }
+
+    private void resolve(List<Pending> batch) {
+        List<EmailTrickleItem> items = new ArrayList<EmailTrickleItem>(batch.size());
+        for (Pending pending : batch) {
+            items.add(pending.item);
+        }
+        try {
+            List<Eligibility> results = checker.apply(items);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Unable to check a batch of {} email trickle items", batch.size(), e);
+            for (Pending pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Pending {
+        private final EmailTrickleItem item;
+
+        private final CompletableFuture<Eligibility> result = new CompletableFuture<Eligibility>();
+
+        private Pending(EmailTrickleItem item) {
+            this.item = item;
+        }
+    }
+}
@@ -1,27 +1,39 @@
 package org.orcid.scheduler.email.trickle.manager.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import org.orcid.core.email.trickle.producer.EmailTrickleItem;
+import org.orcid.core.manager.v3.EmailManager;
 import org.orcid.core.manager.v3.EmailMessage;
 import org.orcid.core.manager.v3.read_only.EmailManagerReadOnly;
+import org.orcid.persistence.dao.EmailDao;
 import org.orcid.persistence.dao.EmailFrequencyDao;
 import org.orcid.persistence.dao.EmailScheduleDao;
 import org.orcid.persistence.dao.GenericDao;
 import org.orcid.persistence.dao.ProfileDao;
 import org.orcid.persistence.dao.ProfileEventDao;
+import org.orcid.persistence.jpa.entities.EmailFrequencyEntity;
 import org.orcid.persistence.jpa.entities.ProfileEntity;
 import org.orcid.persistence.jpa.entities.ProfileEventEntity;
 import org.orcid.persistence.jpa.entities.ProfileEventType;
 import org.orcid.scheduler.email.trickle.TrickleTooHeavyException;
 import org.orcid.scheduler.email.trickle.manager.TrickleManager;
+import org.orcid.scheduler.email.trickle.manager.impl.TrickleEligibilityBatcher.Eligibility;
 import org.orcid.utils.email.MailGunManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -47,11 +59,66 @@ public class TrickleManagerImpl implements TrickleManager {
     @Resource(name = "emailManagerReadOnlyV3")
     private EmailManagerReadOnly emailManagerReadOnly;
 
+    @Resource(name = "emailDaoReadOnly")
+    private EmailDao emailDaoReadOnly;
+
     @Resource
     private MailGunManager mailGunManager;
 
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.enabled:false}")
+    private boolean concurrentEnabled;
+
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.batchSize:50}")
+    private int eligibilityBatchSize;
+
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.batchWaitMillis:50}")
+    private long eligibilityBatchWaitMillis;
+
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.burst:1}")
+    private int burst;
+
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.maxWaitMillis:30000}")
+    private long maxWaitMillis;
+
+    @Value("${org.orcid.scheduler.email.trickle.concurrent.scheduleRefreshMillis:10000}")
+    private long scheduleRefreshMillis;
+
+    private TrickleTokenBucket tokenBucket;
+
+    private TrickleEligibilityBatcher eligibilityBatcher;
+
+    // Recipients being handled right now, a second message for one of them
+    // has to wait for the first to record its outcome
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        if (!concurrentEnabled) {
+            return;
+        }
+        tokenBucket = new TrickleTokenBucket(emailScheduleDaoReadOnly, burst, scheduleRefreshMillis);
+        eligibilityBatcher = new TrickleEligibilityBatcher(this::checkEligibility, eligibilityBatchSize, eligibilityBatchWaitMillis);
+        eligibilityBatcher.start();
+        LOG.info("Concurrent email trickle enabled, eligibility batch size {}, burst {}", eligibilityBatchSize, burst);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (eligibilityBatcher != null) {
+            eligibilityBatcher.stop();
+        }
+    }
+
     @Override
-    public synchronized void attemptSend(EmailTrickleItem item) {
+    public void attemptSend(EmailTrickleItem item) {
+        if (concurrentEnabled) {
+            attemptSendConcurrently(item);
+        } else {
+            attemptSendSerially(item);
+        }
+    }
+
+    private synchronized void attemptSendSerially(EmailTrickleItem item) {
         Long scheduleId = emailScheduleDaoReadOnly.getValidScheduleId();
         if (scheduleId == -1L) {
             throw new TrickleTooHeavyException();
@@ -78,6 +145,115 @@ public class TrickleManagerImpl implements TrickleManager {
         }
     }
 
+    /**
+     * Lets any number of listener threads send at once, the schedule is
+     * enforced by the token bucket and the checks for the items arriving
+     * together are made in one go. As in the serial path every attempt ends
+     * with a success, failure or skipped event, and an item that already has
+     * one of them is never sent again.
+     */
+    private void attemptSendConcurrently(EmailTrickleItem item) {
+        if (!tokenBucket.isOpen()) {
+            throw new TrickleTooHeavyException();
+        }
+        String key = item.getOrcid() + ':' + item.getSuccessType();
+        if (!inFlight.add(key)) {
+            // Redelivered later, by then the other attempt has left its event
+            throw new TrickleTooHeavyException();
+        }
+        try {
+            Eligibility eligibility = eligibilityBatcher.check(item);
+            if (Eligibility.ALREADY_ATTEMPTED.equals(eligibility)) {
+                LOG.info("Attempt already made to send email to {}", item.getEmailMessage().getTo());
+                return;
+            }
+            if (Eligibility.NOT_ELIGIBLE.equals(eligibility)) {
+                profileEventDao.merge(getProfileEventEntity(item.getSkippedType(), item.getOrcid()));
+                return;
+            }
+            Long scheduleId = tokenBucket.acquire(maxWaitMillis);
+            if (scheduleId == null) {
+                throw new TrickleTooHeavyException();
+            }
+            EmailMessage emailMessage = item.getEmailMessage();
+            LOG.info("Sending email from {} to {} with subject {}", new Object[] { emailMessage.getFrom(), emailMessage.getTo(), emailMessage.getSubject() });
+            if (send(emailMessage, item.isMarketingMail())) {
+                LOG.info("Email sent to {}", emailMessage.getTo());
+                profileEventDao.merge(getProfileEventEntity(item.getSuccessType(), item.getOrcid()));
+                emailScheduleDao.updateLatestSent(scheduleId, new Date());
+            } else {
+                profileEventDao.merge(getProfileEventEntity(item.getFailureType(), item.getOrcid()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrickleTooHeavyException();
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * The checks made by the serial path, for a batch of items with one query
+     * per table
+     */
+    List<Eligibility> checkEligibility(List<EmailTrickleItem> items) {
+        Set<String> orcids = new LinkedHashSet<String>();
+        Set<ProfileEventType> types = new HashSet<ProfileEventType>();
+        for (EmailTrickleItem item : items) {
+            orcids.add(item.getOrcid());
+            types.addAll(Arrays.asList(item.getSuccessType(), item.getFailureType(), item.getSkippedType()));
+        }
+        Set<String> attempted = new HashSet<String>();
+        for (ProfileEventEntity event : profileDaoReadOnly.getProfileEvents(new ArrayList<String>(orcids), new ArrayList<ProfileEventType>(types))) {
+            attempted.add(event.getOrcid() + ':' + event.getType());
+        }
+
+        List<String> toCheck = new ArrayList<String>();
+        List<String> emailHashes = new ArrayList<String>();
+        List<String> itemHashes = new ArrayList<String>(items.size());
+        for (EmailTrickleItem item : items) {
+            if (alreadyAttempted(item, attempted)) {
+                itemHashes.add(null);
+                continue;
+            }
+            String hash = emailManagerReadOnly.getEmailKeys(item.getEmailMessage().getTo()).get(EmailManager.HASH);
+            itemHashes.add(hash);
+            emailHashes.add(hash);
+            toCheck.add(item.getOrcid());
+        }
+
+        Set<String> existingEmails = new HashSet<String>();
+        Set<String> tipsEnabled = new HashSet<String>();
+        Set<String> active = new HashSet<String>();
+        if (!toCheck.isEmpty()) {
+            existingEmails.addAll(emailDaoReadOnly.findExistingEmailHashes(emailHashes));
+            for (EmailFrequencyEntity frequency : emailFrequencyDaoReadOnly.findByOrcids(toCheck)) {
+                if (Boolean.TRUE.equals(frequency.getSendQuarterlyTips())) {
+                    tipsEnabled.add(frequency.getOrcid());
+                }
+            }
+            active.addAll(profileDaoReadOnly.findActiveOrcids(toCheck));
+        }
+
+        List<Eligibility> results = new ArrayList<Eligibility>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            EmailTrickleItem item = items.get(i);
+            if (itemHashes.get(i) == null) {
+                results.add(Eligibility.ALREADY_ATTEMPTED);
+            } else if (existingEmails.contains(itemHashes.get(i)) && tipsEnabled.contains(item.getOrcid()) && active.contains(item.getOrcid())) {
+                results.add(Eligibility.ELIGIBLE);
+            } else {
+                results.add(Eligibility.NOT_ELIGIBLE);
+            }
+        }
+        return results;
+    }
+
+    private boolean alreadyAttempted(EmailTrickleItem item, Set<String> attempted) {
+        return attempted.contains(item.getOrcid() + ':' + item.getSuccessType()) || attempted.contains(item.getOrcid() + ':' + item.getFailureType())
+                || attempted.contains(item.getOrcid() + ':' + item.getSkippedType());
+    }
+
     private boolean send(EmailMessage emailMessage, boolean marketing) {
         if (marketing) {
             return mailGunManager.sendMarketingEmail(emailMessage.getFrom(), emailMessage.getTo(), emailMessage.getSubject(), emailMessage.getBodyText(),
@@ -0,0 +1,93 @@
+package org.orcid.scheduler.email.trickle.manager.impl;
+
+import org.orcid.persistence.dao.EmailScheduleDao;
+import org.orcid.persistence.jpa.entities.EmailScheduleEntity;
+
+/**
+ * Hands out one send per schedule interval to however many threads are
+ * sending, instead of letting a single thread check the schedule in the
+ * database before every email.
+ *
+ * The schedule in force is read again every refreshMillis, so a schedule that
+ * ends, is paused or gets a new interval is picked up without restarting. Up
+ * to burst sends can go out back to back after a quiet period, the long run
+ * rate is still one per interval.
+ */
+class TrickleTokenBucket {
+
+    private final EmailScheduleDao emailScheduleDaoReadOnly;
+
+    private final int burst;
+
+    private final long refreshMillis;
+
+    private Long scheduleId;
+
+    private long interval;
+
+    // Earliest time the next send can go out
+    private long nextFree;
+
+    private long refreshedAt;
+
+    TrickleTokenBucket(EmailScheduleDao emailScheduleDaoReadOnly, int burst, long refreshMillis) {
+        this.emailScheduleDaoReadOnly = emailScheduleDaoReadOnly;
+        this.burst = Math.max(1, burst);
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * @return false if no schedule allows sending at the moment
+     */
+    synchronized boolean isOpen() {
+        refresh(System.currentTimeMillis());
+        return scheduleId != null;
+    }
+
+    /**
+     * Takes a send, waiting for it up to maxWaitMillis
+     *
+     * @return the id of the schedule the send counts against, or null if
+     *         there is no schedule or no send available in time
+     */
+    Long acquire(long maxWaitMillis) throws InterruptedException {
+        long wait;
+        Long id;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            refresh(now);
+            if (scheduleId == null) {
+                return null;
+            }
+            long slot = Math.max(nextFree, now - (burst - 1) * interval);
+            if (slot - now > maxWaitMillis) {
+                return null;
+            }
+            nextFree = slot + interval;
+            wait = slot - now;
+            id = scheduleId;
+        }
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+        return id;
+    }
+
+    private void refresh(long now) {
+        if (refreshedAt != 0 && now - refreshedAt < refreshMillis) {
+            return;
+        }
+        refreshedAt = now;
+        EmailScheduleEntity schedule = emailScheduleDaoReadOnly.findActiveSchedule();
+        if (schedule == null) {
+            scheduleId = null;
+            return;
+        }
+        scheduleId = schedule.getId();
+        interval = schedule.getScheduleInterval() == null ? 0 : schedule.getScheduleInterval();
+        if (schedule.getLatestSent() != null) {
+            // Sends made by other nodes count too
+            nextFree = Math.max(nextFree, schedule.getLatestSent().getTime() + interval);
+        }
+    }
+}
@@ -24,6 +24,9 @@ public class OrcidRecordIndexerImpl implements OrcidRecordIndexer {
     @Value("${org.orcid.persistence.messaging.indexing.batch.size:100}")
     private int INDEXING_BATCH_SIZE;
 
+    @Value("${org.orcid.scheduler.indexer.batch.enabled:false}")
+    private boolean isBatchEnabled;
+
     @Value("${org.orcid.persistence.indexing.delay:5}")
     private Integer indexingDelay;
     
@@ -89,6 +92,10 @@ public class OrcidRecordIndexerImpl implements OrcidRecordIndexer {
     }    
     
     private void processProfilesWithFlagAndAddToMessageQueue(IndexingStatus status) {
+        if (isBatchEnabled) {
+            processProfilesWithFlagAndAddToMessageQueueInBatches(status);
+            return;
+        }
         LOG.info("processing profiles with " + status.name() + " flag.");
         List<String> orcidsForIndexing = new ArrayList<>();
         boolean connectionIssue = false;
@@ -150,6 +157,87 @@ public class OrcidRecordIndexerImpl implements OrcidRecordIndexer {
         } while (!connectionIssue && !orcidsForIndexing.isEmpty());
     }
     
+    /**
+     * Same as processProfilesWithFlagAndAddToMessageQueue, but the last
+     * modified dates come with the ORCID ids, each queue gets the whole batch
+     * in one transaction and the indexing status is updated with one query
+     * per batch
+     */
+    private void processProfilesWithFlagAndAddToMessageQueueInBatches(IndexingStatus status) {
+        LOG.info("processing profiles with " + status.name() + " flag in batches.");
+        List<Object[]> recordsForIndexing = new ArrayList<>();
+        boolean connectionIssue = false;
+        List<String> queues = new ArrayList<>();
+        if (IndexingStatus.SOLR_UPDATE.equals(status)) {
+            queues.add(updateSolrQueueName);
+        } else if (IndexingStatus.S3_UPDATE.equals(status)) {
+            queues.add(updateV3RecordQueueName);
+            queues.add(updateV2RecordQueueName);
+        } else if (IndexingStatus.REINDEX.equals(status)) {
+            queues.add(reindexSolrQueueName);
+            queues.add(reindexV3RecordQueueName);
+            queues.add(reindexV2RecordQueueName);
+        } else {
+            queues.add(updateSolrQueueName);
+            queues.add(updateV3RecordQueueName);
+            queues.add(updateV2RecordQueueName);
+        }
+        Integer delay = (IndexingStatus.REINDEX.equals(status) || IndexingStatus.S3_UPDATE.equals(status)) ? 0 : indexingDelay;
+        do {
+            try {
+                recordsForIndexing = profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(status, INDEXING_BATCH_SIZE, delay);
+                lastSlackNotification = null;
+            } catch(Exception e) {
+                LOG.error("Exception fetching records to index", e);
+                // Send a slack notification every 'slackIntervalMinutes' minutes
+                if(lastSlackNotification == null || System.currentTimeMillis() > (lastSlackNotification.getTime() + (slackIntervalMinutes * 60 * 1000))) {
+                    String message = String.format("Unable to fetch records with indexing status: %s, this causes that SOLR and S3 might be falling behind. For troubleshooting please refere to https://github.com/ORCID/ORCID-Internal/wiki/Problems-with-record-indexing-in-the-scheduler", status);                
+                    slackManager.sendSystemAlert(message);
+                    lastSlackNotification = new Date();
+                }
+                // Stop here, otherwise the previous batch would be processed again
+                return;
+            }
+            LOG.info(status.name() + " - processing batch of " + recordsForIndexing.size());
+            if (recordsForIndexing.isEmpty()) {
+                break;
+            }
+
+            List<String> orcids = new ArrayList<>(recordsForIndexing.size());
+            List<LastModifiedMessage> messages = new ArrayList<>(recordsForIndexing.size());
+            for (Object[] record : recordsForIndexing) {
+                String orcid = (String) record[0];
+                Date last = record[1] == null ? null : new Date(((Date) record[1]).getTime());
+                orcids.add(orcid);
+                messages.add(new LastModifiedMessage(orcid, last));
+            }
+
+            for (String queue : queues) {
+                if (!messaging.send(messages, queue)) {
+                    LOG.warn("ABORTED - couldnt send messages to queue ' " + queue + "'");
+                    connectionIssue = true;
+                    break;
+                }
+            }
+
+            if (!connectionIssue) {
+                try {
+                    profileDao.updateIndexingStatus(orcids, IndexingStatus.DONE);
+                } catch(Exception e) {
+                    LOG.error("Exception updating indexing status for a batch of " + orcids.size() + " records", e);
+                    // Send a slack notification every 'slackIntervalMinutes' minutes
+                    if(lastSlackNotification == null || System.currentTimeMillis() > (lastSlackNotification.getTime() + (slackIntervalMinutes * 60 * 1000))) {
+                        String message = "Unable to update indexing status for a batch of " + orcids.size() + " records, error: " + e.getMessage() + "\nThis causes that SOLR and S3 might be falling behind. For troubleshooting please refere to https://github.com/ORCID/orcid-devops/wiki/Troubleshooting#indexing-status";
+                        slackManager.sendSystemAlert(message);
+                        lastSlackNotification = new Date();
+                    }
+                    // Stop here, otherwise the same batch would be fetched and sent again
+                    return;
+                }
+            }
+        } while (!connectionIssue);
+    }
+    
     private boolean index(LastModifiedMessage mess, String queue) {
         if (!messaging.send(mess, queue)) {
             LOG.warn("ABORTED - couldnt send messages to queue ' " + queue + "'");                    
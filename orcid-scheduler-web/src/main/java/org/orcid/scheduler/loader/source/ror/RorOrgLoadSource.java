@@ -4,13 +4,13 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import java.util.Map.Entry;
 import java.util.StringJoiner;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -21,7 +21,6 @@ import org.apache.commons.lang.StringUtils;
 import org.orcid.core.manager.OrgDisambiguatedManager;
 import org.orcid.core.orgs.OrgDisambiguatedSourceType;
 import org.orcid.core.orgs.grouping.OrgGrouping;
-import org.orcid.core.utils.JsonUtils;
 import org.orcid.jaxb.model.message.Iso3166Country;
 import org.orcid.persistence.constants.OrganizationStatus;
 import org.orcid.persistence.dao.OrgDisambiguatedDao;
@@ -39,8 +38,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 @Component
@@ -50,6 +55,8 @@ public class RorOrgLoadSource implements OrgLoadSource {
 
     private static final String WIKIPEDIA_URL = "wikipedia_url";
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Value("${org.orcid.core.orgs.ror.enabled:true}")
     private boolean enabled;
 
@@ -83,8 +90,26 @@ public class RorOrgLoadSource implements OrgLoadSource {
     @Resource
     private FileRotator fileRotator;
 
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${org.orcid.core.orgs.ror.readFromZip:false}")
+    private boolean readFromZip;
+
+    @Value("${org.orcid.core.orgs.ror.bulkLoad.enabled:false}")
+    private boolean bulkLoadEnabled;
+
+    @Value("${org.orcid.core.orgs.ror.bulkLoad.batchSize:500}")
+    private int bulkLoadBatchSize;
+
     private Set<Long> UPDATED_RORS;
 
+    private RorSourceIdIndex sourceIdIndex;
+
+    private List<Runnable> pendingWrites;
+
+    private LoadCounts lastLoadCounts;
+
     @Override
     public String getSourceName() {
         return "ROR";
@@ -117,6 +142,10 @@ public class RorOrgLoadSource implements OrgLoadSource {
             LOGGER.info("Retrieving ROR data from: " + zenodoUrl);
             success = orgDataClient.downloadFile(zenodoUrl, userAgent, zipFilePath);
 
+            if (readFromZip) {
+                // The dump is read straight from the zip when it is loaded
+                return success;
+            }
             try {
                 LOGGER.info("Unzipping  ROR ....");
                 unzipData();
@@ -132,7 +161,7 @@ public class RorOrgLoadSource implements OrgLoadSource {
     }
 
     private void unzipData() throws IOException {
-        byte[] buffer = new byte[1024];
+        byte[] buffer = new byte[64 * 1024];
         ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFilePath));
         ZipEntry zipEntry = zis.getNextEntry();
         while (zipEntry != null) {
@@ -157,108 +186,256 @@ public class RorOrgLoadSource implements OrgLoadSource {
         try {
             LOGGER.info("Loading ROR data...");
             Instant start = Instant.now();
-            File fileToLoad = new File(localDataPath);
-            if (!fileToLoad.exists()) {
-                LOGGER.error("File {} doesn't exist", localDataPath);
+            InputStream data = openData();
+            if (data == null) {
                 return false;
             }
 
-            // ror returns the JSON as Array of institutes
-            JsonNode rootNode = JsonUtils.read(fileToLoad);
-            UPDATED_RORS = new HashSet<Long>();
-
-            rootNode.forEach(institute -> {
-                String sourceId = institute.get("id").isNull() ? null : institute.get("id").asText();
-                String status = institute.get("status").isNull() ? null : institute.get("status").asText();
-                if ("active".equalsIgnoreCase(status) || "inactive".equalsIgnoreCase(status)) {
-                    ArrayNode namesNode = institute.get("names").isNull() ? null : (ArrayNode) institute.get("names");
-                    String name = null;
-                    String namesJson = null;
-
-                    if (namesNode != null) {
-                        for (JsonNode nameJson : namesNode) {
-                            ArrayNode nameTypes = nameJson.get("types").isNull() ? null : (ArrayNode) nameJson.get("types");
-                            for (JsonNode nameType : nameTypes) {
-                                if (StringUtils.equalsIgnoreCase(nameType.asText(), "ror_display")) {
-                                    name = nameJson.get("value").asText();
-                                    break;
-                                }
-                            }
-                        }
-                        namesJson = namesNode.toString();
-                    }
+            // ror returns the JSON as Array of institutes, they are read one
+            // at a time instead of loading the whole file in memory
+            try (JsonParser parser = MAPPER.getFactory().createParser(data)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    LOGGER.error("ROR data doesn't start with an array of institutes");
+                    return false;
+                }
+                UPDATED_RORS = new HashSet<Long>();
+                lastLoadCounts = new LoadCounts();
+                if (bulkLoadEnabled) {
+                    sourceIdIndex = RorSourceIdIndex.load(orgDisambiguatedDao, orgDisambiguatedExternalIdentifierDao);
+                    pendingWrites = new ArrayList<Runnable>();
+                    LOGGER.info("Loaded {} existing ROR ids in {}", sourceIdIndex.size(), Duration.between(start, Instant.now()).toString());
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode institute = parser.readValueAsTree();
+                    processInstitute(institute);
+                }
+            }
+            flushPendingWrites();
+
+            // Check if any RORs with external identifiers updated and group
+            // them
+            groupRORsWithUpdatedExternalModifiers();
+
+            LOGGER.info("ROR orgs: {}", lastLoadCounts);
+            LOGGER.info("Time taken to process the data: {}", Duration.between(start, Instant.now()).toString());
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Error loading ROR data", e);
+            return false;
+        } finally {
+            sourceIdIndex = null;
+            pendingWrites = null;
+        }
+    }
 
-                    StringJoiner sj = new StringJoiner(",");
-                    String orgType = null;
-                    if (!institute.get("types").isNull()) {
-                        ((ArrayNode) institute.get("types")).forEach(x -> sj.add(x.textValue()));
-                        orgType = sj.toString();
+    /**
+     * Opens the ROR dump, either the unzipped file or the json entry of the
+     * downloaded zip
+     */
+    private InputStream openData() throws IOException {
+        if (readFromZip) {
+            File zipFile = new File(zipFilePath);
+            if (!zipFile.exists()) {
+                LOGGER.error("File {} doesn't exist", zipFilePath);
+                return null;
+            }
+            ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile));
+            ZipEntry zipEntry = zis.getNextEntry();
+            while (zipEntry != null) {
+                if (zipEntry.getName().endsWith("v2.json")) {
+                    return zis;
+                }
+                zipEntry = zis.getNextEntry();
+            }
+            zis.close();
+            LOGGER.error("No v2.json entry in {}", zipFilePath);
+            return null;
+        }
+        File fileToLoad = new File(localDataPath);
+        if (!fileToLoad.exists()) {
+            LOGGER.error("File {} doesn't exist", localDataPath);
+            return null;
+        }
+        return new FileInputStream(fileToLoad);
+    }
+
+    private void processInstitute(JsonNode institute) {
+        String sourceId = institute.get("id").isNull() ? null : institute.get("id").asText();
+        String status = institute.get("status").isNull() ? null : institute.get("status").asText();
+        if ("active".equalsIgnoreCase(status) || "inactive".equalsIgnoreCase(status)) {
+            ArrayNode namesNode = institute.get("names").isNull() ? null : (ArrayNode) institute.get("names");
+            String name = null;
+            String namesJson = null;
+
+            if (namesNode != null) {
+                for (JsonNode nameJson : namesNode) {
+                    ArrayNode nameTypes = nameJson.get("types").isNull() ? null : (ArrayNode) nameJson.get("types");
+                    for (JsonNode nameType : nameTypes) {
+                        if (StringUtils.equalsIgnoreCase(nameType.asText(), "ror_display")) {
+                            name = nameJson.get("value").asText();
+                            break;
+                        }
                     }
+                }
+                namesJson = namesNode.toString();
+            }
 
-                    // location node
-
-                    ArrayNode locationsNode = institute.get("locations").isNull() ? null : (ArrayNode) institute.get("locations");
-                    Iso3166Country country = null;
-                    String region = null;
-                    String city = null;
-
-                    String locationsJson = null;
-                    if (locationsNode != null) {
-                        for (JsonNode locationJson : locationsNode) {
-                            JsonNode geoDetailsNode = locationJson.get("geonames_details").isNull() ? null : (JsonNode) locationJson.get("geonames_details");
-
-                            if (geoDetailsNode != null) {
-                                String countryCode = geoDetailsNode.get("country_code").isNull() ? null : geoDetailsNode.get("country_code").asText();
-                                country = StringUtils.isBlank(countryCode) ? null : Iso3166Country.fromValue(countryCode);
-                                // for now storing just the first location
-                                city = geoDetailsNode.get("name").isNull() ? null : geoDetailsNode.get("name").asText();
-                                if (country != null) {
-                                    break;
-                                }
-                                region = geoDetailsNode.get("country_subdivision_name").isNull() ? null : geoDetailsNode.get("country_subdivision_name").asText();
-                            }
+            StringJoiner sj = new StringJoiner(",");
+            String orgType = null;
+            if (!institute.get("types").isNull()) {
+                ((ArrayNode) institute.get("types")).forEach(x -> sj.add(x.textValue()));
+                orgType = sj.toString();
+            }
 
+            // location node
+
+            ArrayNode locationsNode = institute.get("locations").isNull() ? null : (ArrayNode) institute.get("locations");
+            Iso3166Country country = null;
+            String region = null;
+            String city = null;
+
+            String locationsJson = null;
+            if (locationsNode != null) {
+                for (JsonNode locationJson : locationsNode) {
+                    JsonNode geoDetailsNode = locationJson.get("geonames_details").isNull() ? null : (JsonNode) locationJson.get("geonames_details");
+
+                    if (geoDetailsNode != null) {
+                        String countryCode = geoDetailsNode.get("country_code").isNull() ? null : geoDetailsNode.get("country_code").asText();
+                        country = StringUtils.isBlank(countryCode) ? null : Iso3166Country.fromValue(countryCode);
+                        // for now storing just the first location
+                        city = geoDetailsNode.get("name").isNull() ? null : geoDetailsNode.get("name").asText();
+                        if (country != null) {
+                            break;
                         }
-                        locationsJson = locationsNode.toString();
+                        region = geoDetailsNode.get("country_subdivision_name").isNull() ? null : geoDetailsNode.get("country_subdivision_name").asText();
                     }
 
-                    ArrayNode urls = institute.get("links").isNull() ? null : (ArrayNode) institute.get("links");
-                    // Use the first URL
-                    String url = (urls != null && urls.size() > 0) ? urls.get(0).asText() : null;
+                }
+                locationsJson = locationsNode.toString();
+            }
 
-                    // Creates or updates an institute
-                    OrgDisambiguatedEntity entity = processInstitute(sourceId, name, country, city, region, url, orgType, locationsJson, namesJson);
+            ArrayNode urls = institute.get("links").isNull() ? null : (ArrayNode) institute.get("links");
+            // Use the first URL
+            String url = (urls != null && urls.size() > 0) ? urls.get(0).asText() : null;
+
+            if (sourceIdIndex == null) {
+                OrgDisambiguatedEntity existing = orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name());
+                // Creates or updates an institute
+                OrgDisambiguatedEntity entity = processInstitute(existing, sourceId, name, country, city, region, url, orgType, locationsJson, namesJson);
+                // Creates external identifiers
+                processExternalIdentifiers(entity, institute);
+                return;
+            }
 
-                    // Creates external identifiers
-                    processExternalIdentifiers(entity, institute);
-                } else if ("redirected".equals(status)) {
-                    String primaryId = institute.get("redirect").isNull() ? null : institute.get("redirect").asText();
-                    deprecateOrg(sourceId, primaryId);
-                } else if ("withdrawn".equals(status) || "obsolete".equals(status)) {
-                    obsoleteOrg(sourceId);
+            RorSourceIdIndex.Entry indexed = sourceIdIndex.get(sourceId);
+            if (indexed != null && !indexAllEnabled
+                    && indexed.getFieldsHash() == RorSourceIdIndex.fieldsHash(name, country == null ? null : country.value(), city, region, url, orgType)
+                    && hasExternalIdentifiers(indexed.getId(), institute)) {
+                lastLoadCounts.unchanged++;
+                return;
+            }
+            final String orgName = name, orgCity = city, orgRegion = region, orgTypes = orgType, orgLocationsJson = locationsJson, orgNamesJson = namesJson;
+            final Iso3166Country orgCountry = country;
+            queueWrite(() -> {
+                OrgDisambiguatedEntity existing = indexed == null ? null : orgDisambiguatedDao.find(indexed.getId());
+                OrgDisambiguatedEntity entity = processInstitute(existing, sourceId, orgName, orgCountry, orgCity, orgRegion, url, orgTypes, orgLocationsJson, orgNamesJson);
+                processExternalIdentifiers(entity, institute);
+            });
+        } else if ("redirected".equals(status)) {
+            String primaryId = institute.get("redirect").isNull() ? null : institute.get("redirect").asText();
+            if (sourceIdIndex == null) {
+                deprecateOrg(orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name()), sourceId, primaryId);
+                return;
+            }
+            RorSourceIdIndex.Entry indexed = sourceIdIndex.get(sourceId);
+            if (indexed != null && OrganizationStatus.DEPRECATED.name().equals(indexed.getStatus()) && StringUtils.equals(indexed.getSourceParentId(), primaryId)) {
+                lastLoadCounts.unchanged++;
+                return;
+            }
+            queueWrite(() -> deprecateOrg(indexed == null ? null : orgDisambiguatedDao.find(indexed.getId()), sourceId, primaryId));
+        } else if ("withdrawn".equals(status) || "obsolete".equals(status)) {
+            if (sourceIdIndex == null) {
+                obsoleteOrg(orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name()), sourceId);
+                return;
+            }
+            RorSourceIdIndex.Entry indexed = sourceIdIndex.get(sourceId);
+            if (indexed != null && OrganizationStatus.OBSOLETE.name().equals(indexed.getStatus())) {
+                lastLoadCounts.unchanged++;
+                return;
+            }
+            queueWrite(() -> obsoleteOrg(indexed == null ? null : orgDisambiguatedDao.find(indexed.getId()), sourceId));
+        } else {
+            LOGGER.error("Illegal status '" + status + "' for institute " + sourceId);
+        }
+    }
+
+    /**
+     * Checks against the index if the org already has all the external
+     * identifiers of the institute, with the same preferred flags
+     */
+    private boolean hasExternalIdentifiers(long orgId, JsonNode institute) {
+        ArrayNode nodes = institute.get("external_ids") == null ? null : (ArrayNode) institute.get("external_ids");
+        if (nodes != null) {
+            for (JsonNode entry : nodes) {
+                String identifierTypeName = entry.get("type").asText().toUpperCase();
+                String preferredId = entry.get("preferred").isNull() ? null : entry.get("preferred").asText();
+                if (StringUtils.equalsIgnoreCase(OrgDisambiguatedSourceType.GRID.name(), identifierTypeName)) {
+                    String extId = entry.get("all").asText();
+                    if (!sourceIdIndex.hasExternalIdentifier(orgId, identifierTypeName, extId, extId.equals(preferredId))) {
+                        return false;
+                    }
                 } else {
-                    LOGGER.error("Illegal status '" + status + "' for institute " + sourceId);
+                    for (JsonNode extId : (ArrayNode) entry.get("all")) {
+                        if (!sourceIdIndex.hasExternalIdentifier(orgId, identifierTypeName, extId.asText(), extId.asText().equals(preferredId))) {
+                            return false;
+                        }
+                    }
                 }
-            });
+            }
+        }
+        return true;
+    }
 
-            // Check if any RORs with external identifiers updated and group
-            // them
-            groupRORsWithUpdatedExternalModifiers();
+    /**
+     * Queues the write of a new or changed org, the queued writes are sent in
+     * a single transaction with JDBC batching once there are enough of them
+     */
+    private void queueWrite(Runnable write) {
+        pendingWrites.add(write);
+        if (pendingWrites.size() >= bulkLoadBatchSize) {
+            flushPendingWrites();
+        }
+    }
 
-            LOGGER.info("Time taken to process the data: {}", Duration.between(start, Instant.now()).toString());
-            return true;
-        } catch (Exception e) {
-            LOGGER.error("Error loading ROR data", e);
-            return false;
+    private void flushPendingWrites() {
+        if (pendingWrites == null || pendingWrites.isEmpty()) {
+            return;
         }
+        List<Runnable> writes = pendingWrites;
+        pendingWrites = new ArrayList<Runnable>();
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                orgDisambiguatedDao.setJdbcBatchSize(bulkLoadBatchSize);
+                try {
+                    writes.forEach(Runnable::run);
+                    orgDisambiguatedDao.flush();
+                } finally {
+                    orgDisambiguatedDao.setJdbcBatchSize(null);
+                }
+            }
+        });
     }
 
-    private OrgDisambiguatedEntity processInstitute(String sourceId, String name, Iso3166Country country, String city,
+    public LoadCounts getLastLoadCounts() {
+        return lastLoadCounts;
+    }
 
+    private OrgDisambiguatedEntity processInstitute(OrgDisambiguatedEntity existingBySourceId, String sourceId, String name, Iso3166Country country, String city,
             String region, String url, String orgType, String locationsJson, String namesJson) {
-        OrgDisambiguatedEntity existingBySourceId = orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name());
         if (existingBySourceId != null) {
             if (entityChanged(existingBySourceId, name, country.value(), city, region, url, orgType) || indexAllEnabled) {
+                lastLoadCounts.updated++;
                 existingBySourceId.setCity(city);
                 existingBySourceId.setCountry(country.name());
                 existingBySourceId.setName(name);
@@ -277,11 +454,14 @@ public class RorOrgLoadSource implements OrgLoadSource {
                     LOGGER.error("Error when grouping by ROR and marking group orgs for reindexing, eating the exception", ex);
                 }
                 orgDisambiguatedManager.updateOrgDisambiguated(existingBySourceId);
+            } else {
+                lastLoadCounts.unchanged++;
             }
             return existingBySourceId;
         }
 
         // Create a new disambiguated org
+        lastLoadCounts.created++;
         OrgDisambiguatedEntity newOrg = createDisambiguatedOrg(sourceId, name, orgType, country, city, region, url, locationsJson, namesJson);
         try {
             // mark group for indexing
@@ -430,18 +610,21 @@ public class RorOrgLoadSource implements OrgLoadSource {
     /**
      * Mark an existing org as DEPRECATED
      */
-    private void deprecateOrg(String sourceId, String primarySourceId) {
+    private void deprecateOrg(OrgDisambiguatedEntity existingEntity, String sourceId, String primarySourceId) {
         LOGGER.info("Deprecating org {} for {}", sourceId, primarySourceId);
-        OrgDisambiguatedEntity existingEntity = orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name());
         if (existingEntity != null) {
             if (existingEntity.getStatus() == null || !existingEntity.getStatus().equals(OrganizationStatus.DEPRECATED.name())
                     || !existingEntity.getSourceParentId().equals(primarySourceId)) {
+                lastLoadCounts.deprecated++;
                 existingEntity.setStatus(OrganizationStatus.DEPRECATED.name());
                 existingEntity.setSourceParentId(primarySourceId);
                 existingEntity.setIndexingStatus(IndexingStatus.PENDING);
                 orgDisambiguatedManager.updateOrgDisambiguated(existingEntity);
+            } else {
+                lastLoadCounts.unchanged++;
             }
         } else {
+            lastLoadCounts.deprecated++;
             OrgDisambiguatedEntity deprecatedEntity = new OrgDisambiguatedEntity();
             deprecatedEntity.setSourceType(OrgDisambiguatedSourceType.ROR.name());
             deprecatedEntity.setStatus(OrganizationStatus.DEPRECATED.name());
@@ -456,17 +639,20 @@ public class RorOrgLoadSource implements OrgLoadSource {
     /**
      * Mark an existing org as OBSOLETE
      */
-    private void obsoleteOrg(String sourceId) {
+    private void obsoleteOrg(OrgDisambiguatedEntity existingEntity, String sourceId) {
         LOGGER.info("Marking or as obsolete {}", sourceId);
-        OrgDisambiguatedEntity existingEntity = orgDisambiguatedDao.findBySourceIdAndSourceType(sourceId, OrgDisambiguatedSourceType.ROR.name());
         if (existingEntity != null) {
             if (existingEntity.getStatus() == null || !existingEntity.getStatus().equals(OrganizationStatus.OBSOLETE.name())) {
+                lastLoadCounts.obsolete++;
                 existingEntity.setStatus(OrganizationStatus.OBSOLETE.name());
                 existingEntity.setIndexingStatus(IndexingStatus.PENDING);
                 orgDisambiguatedManager.updateOrgDisambiguated(existingEntity);
                 new OrgGrouping(existingEntity, orgDisambiguatedManager).ungroupObsoleteRorForIndexing(orgDisambiguatedDao);
+            } else {
+                lastLoadCounts.unchanged++;
             }
         } else {
+            lastLoadCounts.obsolete++;
             OrgDisambiguatedEntity obsoletedEntity = new OrgDisambiguatedEntity();
             obsoletedEntity.setSourceType(OrgDisambiguatedSourceType.ROR.name());
             obsoletedEntity.setStatus(OrganizationStatus.OBSOLETE.name());
@@ -501,4 +687,44 @@ public class RorOrgLoadSource implements OrgLoadSource {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * What the last import did to the ROR orgs
+     */
+    public static class LoadCounts {
+        private int created;
+
+        private int updated;
+
+        private int unchanged;
+
+        private int deprecated;
+
+        private int obsolete;
+
+        public int getCreated() {
+            return created;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getDeprecated() {
+            return deprecated;
+        }
+
+        public int getObsolete() {
+            return obsolete;
+        }
+
+        @Override
+        public String toString() {
+            return created + " new, " + updated + " updated, " + unchanged + " unchanged, " + deprecated + " deprecated, " + obsolete + " obsolete";
+        }
+    }
+
+}
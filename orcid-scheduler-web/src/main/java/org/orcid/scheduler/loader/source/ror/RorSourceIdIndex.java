@@ -0,0 +1,157 @@
+package org.orcid.scheduler.loader.source.ror;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.orcid.core.orgs.OrgDisambiguatedSourceType;
+import org.orcid.persistence.dao.OrgDisambiguatedDao;
+import org.orcid.persistence.dao.OrgDisambiguatedExternalIdentifierDao;
+
+/**
+ * What the ROR loader needs to know about the ROR orgs already in the
+ * database to tell which orgs in the dump changed, loaded once per import
+ * instead of looking every org up.
+ *
+ * Each ROR id maps to the org id, a hash of the fields compared by the loader,
+ * and the status and parent of the org; the external identifiers are kept as
+ * a sorted array of hashes.
+ */
+class RorSourceIdIndex {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final String NULL_MARKER = "\u0001";
+
+    private final Map<String, Entry> entries;
+
+    private final long[] externalIdentifiers;
+
+    private RorSourceIdIndex(Map<String, Entry> entries, long[] externalIdentifiers) {
+        this.entries = entries;
+        this.externalIdentifiers = externalIdentifiers;
+    }
+
+    static RorSourceIdIndex load(OrgDisambiguatedDao orgDisambiguatedDao, OrgDisambiguatedExternalIdentifierDao orgDisambiguatedExternalIdentifierDao) {
+        List<Object[]> orgs = orgDisambiguatedDao.findIndexedFieldsBySourceType(OrgDisambiguatedSourceType.ROR.name());
+        Map<String, Entry> entries = new HashMap<String, Entry>(orgs.size() * 4 / 3 + 1);
+        for (Object[] row : orgs) {
+            long id = ((Number) row[0]).longValue();
+            String sourceId = (String) row[1];
+            long fieldsHash = fieldsHash((String) row[2], (String) row[3], (String) row[4], (String) row[5], (String) row[6], (String) row[7]);
+            String status = row[8] == null ? null : ((String) row[8]).intern();
+            // Keep the first one, as findBySourceIdAndSourceType would
+            entries.putIfAbsent(sourceId, new Entry(id, fieldsHash, status, (String) row[9]));
+        }
+        orgs = null;
+
+        List<Object[]> ids = orgDisambiguatedExternalIdentifierDao.findIdentifiersBySourceType(OrgDisambiguatedSourceType.ROR.name());
+        long[] externalIdentifiers = new long[ids.size()];
+        for (int i = 0; i < externalIdentifiers.length; i++) {
+            Object[] row = ids.get(i);
+            externalIdentifiers[i] = externalIdentifierHash(((Number) row[0]).longValue(), (String) row[1], (String) row[2], (Boolean) row[3]);
+        }
+        Arrays.sort(externalIdentifiers);
+        return new RorSourceIdIndex(entries, externalIdentifiers);
+    }
+
+    Entry get(String sourceId) {
+        return entries.get(sourceId);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return true if the org already has the external identifier, with the
+     *         same preferred flag
+     */
+    boolean hasExternalIdentifier(long orgId, String identifierType, String identifier, Boolean preferred) {
+        return Arrays.binarySearch(externalIdentifiers, externalIdentifierHash(orgId, identifierType, identifier, preferred)) >= 0;
+    }
+
+    /**
+     * Hash of the fields the loader compares to decide if an org changed,
+     * normalized so two sets of values get the same hash exactly when the
+     * loader would consider them unchanged: names are compared ignoring case,
+     * blank values are the same as no value except for the country.
+     */
+    static long fieldsHash(String name, String country, String city, String region, String url, String orgType) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, StringUtils.isBlank(name) ? "" : foldCase(name));
+        hash = hash(hash, StringUtils.isNotBlank(country) ? country : (country == null ? NULL_MARKER : ""));
+        hash = hash(hash, StringUtils.isBlank(city) ? "" : city);
+        hash = hash(hash, StringUtils.isBlank(region) ? "" : region);
+        hash = hash(hash, StringUtils.isBlank(url) ? "" : url);
+        hash = hash(hash, StringUtils.isBlank(orgType) ? "" : orgType);
+        return hash;
+    }
+
+    static long externalIdentifierHash(long orgId, String identifierType, String identifier, Boolean preferred) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, Long.toString(orgId));
+        hash = hash(hash, identifierType == null ? NULL_MARKER : identifierType);
+        hash = hash(hash, identifier == null ? NULL_MARKER : identifier);
+        hash = hash(hash, String.valueOf(preferred));
+        return hash;
+    }
+
+    // The same folding String.equalsIgnoreCase does
+    private static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static long hash(long hash, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        // Field separator
+        hash ^= 0xff;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    static final class Entry {
+        private final long id;
+
+        private final long fieldsHash;
+
+        private final String status;
+
+        private final String sourceParentId;
+
+        private Entry(long id, long fieldsHash, String status, String sourceParentId) {
+            this.id = id;
+            this.fieldsHash = fieldsHash;
+            this.status = status;
+            this.sourceParentId = sourceParentId;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        long getFieldsHash() {
+            return fieldsHash;
+        }
+
+        String getStatus() {
+            return status;
+        }
+
+        String getSourceParentId() {
+            return sourceParentId;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package org.orcid.scheduler.tasks;
+
+public interface NormalizedExternalIdsBackfill {
+    void backfillNormalizedExternalIds();
+}
@@ -0,0 +1,115 @@
+package org.orcid.scheduler.tasks.impl;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import javax.annotation.Resource;
+
+import org.orcid.core.adapter.jsonidentifier.converter.JSONWorkExternalIdentifiersConverterV3;
+import org.orcid.core.utils.v3.identifiers.PIDNormalizationService;
+import org.orcid.persistence.dao.WorkDao;
+import org.orcid.scheduler.tasks.NormalizedExternalIdsBackfill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Stores the normalized values of the work external identifiers written
+ * before they were persisted, or generated by a previous set of normalizers,
+ * so reading them doesn't need to normalize them again.
+ * 
+ * Works are visited in work id order, a few batches per run, starting where
+ * the previous run stopped. Once the end is reached another pass starts from
+ * the beginning, to pick up the works written meanwhile by nodes still running
+ * an older version, until a pass finds nothing to update. From then on runs do
+ * nothing until the normalizer version changes.
+ */
+public class NormalizedExternalIdsBackfillImpl implements NormalizedExternalIdsBackfill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NormalizedExternalIdsBackfillImpl.class);
+
+    @Value("${org.orcid.scheduler.normalizedExternalIds.backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.orcid.scheduler.normalizedExternalIds.backfill.batchSize:500}")
+    private int batchSize;
+
+    @Value("${org.orcid.scheduler.normalizedExternalIds.backfill.batchesPerRun:20}")
+    private int batchesPerRun;
+
+    @Resource(name = "workDao")
+    private WorkDao workDao;
+
+    @Resource(name = "PIDNormalizationService")
+    private PIDNormalizationService norm;
+
+    @Resource(name = "jsonWorkExternalIdentifiersConverterV3")
+    private JSONWorkExternalIdentifiersConverterV3 converter;
+
+    private long lastWorkId = 0;
+
+    // Works updated since the current pass started from the beginning
+    private int updatedInPass = 0;
+
+    // Normalizer version of the last pass that found nothing to update
+    private String completedVersion;
+
+    @Override
+    public synchronized void backfillNormalizedExternalIds() {
+        if (!enabled) {
+            return;
+        }
+        String version = norm.getVersion();
+        if (version == null) {
+            LOGGER.warn("Normalizers are not initialised, skipping the normalized external ids backfill");
+            return;
+        }
+        if (version.equals(completedVersion)) {
+            return;
+        }
+        if (completedVersion != null) {
+            LOGGER.info("Normalizer version changed to {}, restarting the normalized external ids backfill", version);
+            completedVersion = null;
+            lastWorkId = 0;
+            updatedInPass = 0;
+        }
+        int updated = 0;
+        boolean reachedEnd = false;
+        for (int i = 0; i < batchesPerRun; i++) {
+            List<Object[]> works = workDao.getWorksWithStaleNormalizedExternalIds(lastWorkId, version, batchSize);
+            for (Object[] work : works) {
+                Long workId = ((BigInteger) work[0]).longValue();
+                String json = (String) work[1];
+                try {
+                    if (workDao.updateExternalIdentifiersJson(workId, json, converter.refreshNormalizedValues(json))) {
+                        updated++;
+                    } else {
+                        // Changed since it was read, the next pass checks it
+                        // again
+                        updatedInPass++;
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to store the normalized external ids of work " + workId, e);
+                }
+                lastWorkId = workId;
+            }
+            if (works.size() < batchSize) {
+                reachedEnd = true;
+                break;
+            }
+        }
+        updatedInPass += updated;
+        LOGGER.info("Stored the normalized external ids of {} works with normalizer version {}, last work id {}", updated, version, lastWorkId);
+        if (reachedEnd) {
+            if (updatedInPass == 0) {
+                LOGGER.info("Normalized external ids backfill found nothing to update, stopping until the normalizer version changes");
+                completedVersion = version;
+            } else {
+                LOGGER.info("Normalized external ids backfill reached the last work, next run starts from the beginning");
+            }
+            lastWorkId = 0;
+            updatedInPass = 0;
+        }
+    }
+
+}
@@ -0,0 +1,348 @@
+package org.orcid.scheduler.email.trickle.manager.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.email.trickle.producer.EmailTrickleItem;
+import org.orcid.core.manager.v3.EmailManager;
+import org.orcid.core.manager.v3.EmailMessage;
+import org.orcid.core.manager.v3.read_only.EmailManagerReadOnly;
+import org.orcid.persistence.dao.EmailDao;
+import org.orcid.persistence.dao.EmailFrequencyDao;
+import org.orcid.persistence.dao.EmailScheduleDao;
+import org.orcid.persistence.dao.ProfileDao;
+import org.orcid.persistence.dao.ProfileEventDao;
+import org.orcid.persistence.jpa.entities.EmailFrequencyEntity;
+import org.orcid.persistence.jpa.entities.EmailScheduleEntity;
+import org.orcid.persistence.jpa.entities.ProfileEventEntity;
+import org.orcid.persistence.jpa.entities.ProfileEventType;
+import org.orcid.scheduler.email.trickle.TrickleTooHeavyException;
+import org.orcid.utils.email.MailGunManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TrickleManager_ConcurrentSendTest {
+
+    @Mock
+    private EmailScheduleDao emailScheduleDaoReadOnly;
+
+    @Mock
+    private EmailScheduleDao emailScheduleDao;
+
+    @Mock
+    private EmailFrequencyDao emailFrequencyDaoReadOnly;
+
+    @Mock
+    private ProfileDao profileDaoReadOnly;
+
+    @Mock
+    private EmailManagerReadOnly emailManagerReadOnly;
+
+    @Mock
+    private EmailDao emailDaoReadOnly;
+
+    @Mock
+    private ProfileEventDao profileEventDao;
+
+    @InjectMocks
+    private TrickleManagerImpl trickleManager;
+
+    private StubMailGunManager mailGunManager = new StubMailGunManager();
+
+    // The profile events written so far, as orcid:type
+    private final Set<String> events = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> inactive = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> goneEmails = ConcurrentHashMap.newKeySet();
+
+    private EmailScheduleEntity schedule;
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        schedule = new EmailScheduleEntity();
+        schedule.setId(2L);
+        schedule.setScheduleInterval(0L);
+        Mockito.when(emailScheduleDaoReadOnly.findActiveSchedule()).thenAnswer(invocation -> schedule);
+        Mockito.when(profileEventDao.merge(Mockito.any(ProfileEventEntity.class))).thenAnswer(invocation -> {
+            ProfileEventEntity event = invocation.getArgument(0);
+            events.add(event.getOrcid() + ':' + event.getType());
+            return event;
+        });
+        Mockito.when(profileDaoReadOnly.getProfileEvents(Mockito.anyList(), Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> orcids = invocation.getArgument(0);
+            List<ProfileEventType> types = invocation.getArgument(1);
+            List<ProfileEventEntity> found = new ArrayList<>();
+            for (String orcid : orcids) {
+                for (ProfileEventType type : types) {
+                    if (events.contains(orcid + ':' + type)) {
+                        ProfileEventEntity event = new ProfileEventEntity();
+                        event.setOrcid(orcid);
+                        event.setType(type);
+                        found.add(event);
+                    }
+                }
+            }
+            return found;
+        });
+        Mockito.when(emailManagerReadOnly.getEmailKeys(Mockito.anyString())).thenAnswer(invocation -> {
+            Map<String, String> keys = new HashMap<>();
+            keys.put(EmailManager.HASH, "hash-" + invocation.getArgument(0));
+            return keys;
+        });
+        Mockito.when(emailDaoReadOnly.findExistingEmailHashes(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> existing = new ArrayList<>(invocation.<List<String>> getArgument(0));
+            for (String email : goneEmails) {
+                existing.remove("hash-" + email);
+            }
+            return existing;
+        });
+        Mockito.when(emailFrequencyDaoReadOnly.findByOrcids(Mockito.anyList())).thenAnswer(invocation -> {
+            List<EmailFrequencyEntity> frequencies = new ArrayList<>();
+            for (String orcid : invocation.<List<String>> getArgument(0)) {
+                EmailFrequencyEntity frequency = new EmailFrequencyEntity();
+                frequency.setOrcid(orcid);
+                frequency.setSendQuarterlyTips(!orcid.endsWith("-notips"));
+                frequencies.add(frequency);
+            }
+            return frequencies;
+        });
+        Mockito.when(profileDaoReadOnly.findActiveOrcids(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> active = new ArrayList<>(invocation.<List<String>> getArgument(0));
+            active.removeAll(inactive);
+            return active;
+        });
+
+        ReflectionTestUtils.setField(trickleManager, "mailGunManager", mailGunManager);
+        ReflectionTestUtils.setField(trickleManager, "concurrentEnabled", true);
+        ReflectionTestUtils.setField(trickleManager, "eligibilityBatchSize", 10);
+        ReflectionTestUtils.setField(trickleManager, "eligibilityBatchWaitMillis", 200L);
+        ReflectionTestUtils.setField(trickleManager, "burst", 1);
+        ReflectionTestUtils.setField(trickleManager, "maxWaitMillis", 10000L);
+        ReflectionTestUtils.setField(trickleManager, "scheduleRefreshMillis", 0L);
+        trickleManager.init();
+    }
+
+    @After
+    public void after() {
+        trickleManager.destroy();
+    }
+
+    @Test
+    public void sendsConcurrentlyWithBatchedChecksTest() throws Exception {
+        int items = 20;
+        mailGunManager.hold = new CountDownLatch(1);
+        List<Future<?>> results = sendConcurrently(items);
+        // Several senders are waiting on the mail service at the same time
+        assertTrue(mailGunManager.waitForInProgress(2));
+        mailGunManager.hold.countDown();
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(items, mailGunManager.sent.size());
+        for (int i = 0; i < items; i++) {
+            assertTrue(events.contains("orcid-" + i + ':' + ProfileEventType.MARCH_2019_SENT));
+        }
+        Mockito.verify(profileEventDao, Mockito.times(items)).merge(Mockito.any(ProfileEventEntity.class));
+        Mockito.verify(emailScheduleDao, Mockito.times(items)).updateLatestSent(Mockito.eq(2L), Mockito.any(Date.class));
+        Mockito.verify(emailScheduleDaoReadOnly, Mockito.never()).getValidScheduleId();
+
+        // One query per table per batch, not per email
+        int batches = Mockito.mockingDetails(profileDaoReadOnly).getInvocations().stream().filter(i -> i.getMethod().getName().equals("findActiveOrcids"))
+                .mapToInt(i -> 1).sum();
+        assertTrue("Expected batched checks, got " + batches + " batches", batches < items);
+        Mockito.verify(emailDaoReadOnly, Mockito.times(batches)).findExistingEmailHashes(Mockito.anyList());
+        Mockito.verify(emailFrequencyDaoReadOnly, Mockito.times(batches)).findByOrcids(Mockito.anyList());
+        Mockito.verify(profileDaoReadOnly, Mockito.times(batches)).getProfileEvents(Mockito.anyList(), Mockito.anyList());
+        Mockito.verify(profileDaoReadOnly, Mockito.never()).find(Mockito.anyString());
+        Mockito.verify(emailManagerReadOnly, Mockito.never()).emailExists(Mockito.anyString());
+    }
+
+    @Test
+    public void recordsSkippedAndFailedAttemptsTest() throws Exception {
+        inactive.add("orcid-locked");
+        goneEmails.add("orcid-gone@test.orcid.org");
+        mailGunManager.failing.add("orcid-failing@test.orcid.org");
+
+        trickleManager.attemptSend(getItem("orcid-locked"));
+        trickleManager.attemptSend(getItem("orcid-gone"));
+        trickleManager.attemptSend(getItem("orcid-notips"));
+        trickleManager.attemptSend(getItem("orcid-failing"));
+
+        assertTrue(events.contains("orcid-locked:" + ProfileEventType.MARCH_2019_SKIPPED));
+        assertTrue(events.contains("orcid-gone:" + ProfileEventType.MARCH_2019_SKIPPED));
+        assertTrue(events.contains("orcid-notips:" + ProfileEventType.MARCH_2019_SKIPPED));
+        assertTrue(events.contains("orcid-failing:" + ProfileEventType.MARCH_2019_FAILED));
+        assertEquals(4, events.size());
+        assertEquals(Collections.singletonList("orcid-failing@test.orcid.org"), mailGunManager.sent);
+        Mockito.verify(emailScheduleDao, Mockito.never()).updateLatestSent(Mockito.anyLong(), Mockito.any(Date.class));
+    }
+
+    @Test
+    public void neverSendsTwiceToTheSameRecordTest() throws Exception {
+        trickleManager.attemptSend(getItem("orcid-1"));
+        // Redelivered
+        trickleManager.attemptSend(getItem("orcid-1"));
+        assertEquals(1, mailGunManager.sent.size());
+
+        // The same message handled by two senders at once
+        mailGunManager.hold = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> trickleManager.attemptSend(getItem("orcid-2")));
+            assertTrue(mailGunManager.waitForInProgress(1));
+            Future<?> second = pool.submit(() -> trickleManager.attemptSend(getItem("orcid-2")));
+            try {
+                second.get(10, TimeUnit.SECONDS);
+                fail("The second attempt should be put back on the queue");
+            } catch (java.util.concurrent.ExecutionException e) {
+                assertTrue(e.getCause() instanceof TrickleTooHeavyException);
+            }
+            mailGunManager.hold.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        trickleManager.attemptSend(getItem("orcid-2"));
+        assertEquals(2, mailGunManager.sent.size());
+        Mockito.verify(profileEventDao, Mockito.times(2)).merge(Mockito.any(ProfileEventEntity.class));
+    }
+
+    @Test
+    public void noScheduleTest() {
+        schedule = null;
+        try {
+            trickleManager.attemptSend(getItem("orcid-1"));
+            fail();
+        } catch (TrickleTooHeavyException e) {
+
+        }
+        assertTrue(mailGunManager.sent.isEmpty());
+        assertTrue(events.isEmpty());
+        Mockito.verify(profileDaoReadOnly, Mockito.never()).getProfileEvents(Mockito.anyList(), Mockito.anyList());
+    }
+
+    @Test
+    public void sendsAtTheScheduleIntervalTest() throws Exception {
+        schedule.setScheduleInterval(100L);
+        long start = System.currentTimeMillis();
+        for (Future<?> result : sendConcurrently(4)) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        // The first one goes out straight away, then one every 100ms
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertEquals(4, mailGunManager.sent.size());
+    }
+
+    @Test
+    public void tooLongAWaitIsPutBackOnTheQueueTest() throws Exception {
+        schedule.setScheduleInterval(60000L);
+        ReflectionTestUtils.setField(trickleManager, "maxWaitMillis", 0L);
+        trickleManager.attemptSend(getItem("orcid-1"));
+        try {
+            trickleManager.attemptSend(getItem("orcid-2"));
+            fail();
+        } catch (TrickleTooHeavyException e) {
+
+        }
+        assertEquals(1, mailGunManager.sent.size());
+        // Nothing recorded, so it is tried again when redelivered
+        assertEquals(1, events.size());
+    }
+
+    private List<Future<?>> sendConcurrently(int items) {
+        ExecutorService pool = Executors.newFixedThreadPool(items);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            EmailTrickleItem item = getItem("orcid-" + i);
+            results.add(pool.submit(() -> trickleManager.attemptSend(item)));
+        }
+        pool.shutdown();
+        return results;
+    }
+
+    private EmailTrickleItem getItem(String orcid) {
+        EmailMessage message = new EmailMessage();
+        message.setFrom("me");
+        message.setTo(orcid + "@test.orcid.org");
+        message.setSubject("hello");
+        message.setBodyText("hello");
+        message.setBodyHtml("<p>hello</p>");
+        EmailTrickleItem item = new EmailTrickleItem();
+        item.setOrcid(orcid);
+        item.setSuccessType(ProfileEventType.MARCH_2019_SENT);
+        item.setFailureType(ProfileEventType.MARCH_2019_FAILED);
+        item.setSkippedType(ProfileEventType.MARCH_2019_SKIPPED);
+        item.setMarketingMail(true);
+        item.setEmailMessage(message);
+        return item;
+    }
+
+    private static class StubMailGunManager extends MailGunManager {
+
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger inProgress = new AtomicInteger();
+
+        private volatile CountDownLatch hold;
+
+        @Override
+        public boolean sendMarketingEmail(String from, String to, String subject, String text, String html) {
+            return sendEmail(from, to, subject, text, html);
+        }
+
+        @Override
+        public boolean sendEmail(String from, String to, String subject, String text, String html) {
+            inProgress.incrementAndGet();
+            try {
+                if (hold != null) {
+                    hold.await(10, TimeUnit.SECONDS);
+                }
+                sent.add(to);
+                return !failing.contains(to);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                inProgress.decrementAndGet();
+            }
+        }
+
+        private boolean waitForInProgress(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (inProgress.get() < count) {
+                if (System.currentTimeMillis() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.orcid.scheduler.indexer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.messaging.JmsMessageSender;
+import org.orcid.core.utils.listener.LastModifiedMessage;
+import org.orcid.persistence.dao.ProfileDao;
+import org.orcid.persistence.jpa.entities.IndexingStatus;
+import org.orcid.utils.alerting.SlackManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class OrcidRecordIndexerImplTest {
+
+    private static final Date LAST_MODIFIED = new Date(1000);
+
+    @Mock
+    private ProfileDao profileDao;
+
+    @Mock
+    private ProfileDao profileDaoReadOnly;
+
+    @Mock
+    private JmsMessageSender messaging;
+
+    @Mock
+    private SlackManager slackManager;
+
+    private OrcidRecordIndexerImpl indexer = new OrcidRecordIndexerImpl();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(indexer, "profileDao", profileDao);
+        ReflectionTestUtils.setField(indexer, "profileDaoReadOnly", profileDaoReadOnly);
+        ReflectionTestUtils.setField(indexer, "messaging", messaging);
+        ReflectionTestUtils.setField(indexer, "slackManager", slackManager);
+        ReflectionTestUtils.setField(indexer, "isBatchEnabled", true);
+        ReflectionTestUtils.setField(indexer, "INDEXING_BATCH_SIZE", 2);
+        ReflectionTestUtils.setField(indexer, "indexingDelay", 5);
+        ReflectionTestUtils.setField(indexer, "slackIntervalMinutes", 10);
+        ReflectionTestUtils.setField(indexer, "updateSolrQueueName", "updateSOLR");
+        ReflectionTestUtils.setField(indexer, "reindexSolrQueueName", "reindexSOLR");
+        ReflectionTestUtils.setField(indexer, "updateV2RecordQueueName", "updateV2Record");
+        ReflectionTestUtils.setField(indexer, "reindexV2RecordQueueName", "reindexV2Record");
+        ReflectionTestUtils.setField(indexer, "updateV3RecordQueueName", "updateV3Record");
+        ReflectionTestUtils.setField(indexer, "reindexV3RecordQueueName", "reindexV3Record");
+        Mockito.when(messaging.send(anyList(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    public void pendingGoesToTheUpdateQueuesTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.PENDING, 2, 5)).thenReturn(records("0000-0000-0000-0001"))
+                .thenReturn(Collections.emptyList());
+        indexer.processProfilesWithPendingFlagAndAddToMessageQueue();
+        assertEquals(Arrays.asList("updateSOLR", "updateV3Record", "updateV2Record"), sentTo());
+        Mockito.verify(profileDao).updateIndexingStatus(Arrays.asList("0000-0000-0000-0001"), IndexingStatus.DONE);
+    }
+
+    @Test
+    public void reindexGoesToTheReindexQueuesTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.REINDEX, 2, 0)).thenReturn(records("0000-0000-0000-0001"))
+                .thenReturn(Collections.emptyList());
+        indexer.processProfilesWithReindexFlagAndAddToMessageQueue();
+        assertEquals(Arrays.asList("reindexSOLR", "reindexV3Record", "reindexV2Record"), sentTo());
+        Mockito.verify(profileDao).updateIndexingStatus(Arrays.asList("0000-0000-0000-0001"), IndexingStatus.DONE);
+    }
+
+    @Test
+    public void s3UpdateGoesToTheV3AndV2UpdateQueuesTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.S3_UPDATE, 2, 0)).thenReturn(records("0000-0000-0000-0001"))
+                .thenReturn(Collections.emptyList());
+        indexer.reindexRecordsOnS3();
+        assertEquals(Arrays.asList("updateV3Record", "updateV2Record"), sentTo());
+        Mockito.verify(profileDao).updateIndexingStatus(Arrays.asList("0000-0000-0000-0001"), IndexingStatus.DONE);
+    }
+
+    @Test
+    public void solrUpdateGoesToTheSolrUpdateQueueTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.SOLR_UPDATE, 2, 5)).thenReturn(records("0000-0000-0000-0001"))
+                .thenReturn(Collections.emptyList());
+        indexer.reindexRecordsOnSolr();
+        assertEquals(Arrays.asList("updateSOLR"), sentTo());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void eachQueueGetsTheWholeBatchTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.S3_UPDATE, 2, 0))
+                .thenReturn(records("0000-0000-0000-0001", "0000-0000-0000-0002")).thenReturn(records("0000-0000-0000-0003"))
+                .thenReturn(Collections.emptyList());
+        indexer.reindexRecordsOnS3();
+
+        ArgumentCaptor<List<LastModifiedMessage>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(messaging, Mockito.times(4)).send(captor.capture(), anyString());
+        List<LastModifiedMessage> first = captor.getAllValues().get(0);
+        assertEquals(2, first.size());
+        assertEquals("0000-0000-0000-0001", first.get(0).getOrcid());
+        assertEquals("0000-0000-0000-0002", first.get(1).getOrcid());
+        assertEquals(LAST_MODIFIED, first.get(0).getLastUpdated());
+        assertEquals(1, captor.getAllValues().get(2).size());
+
+        InOrder inOrder = Mockito.inOrder(profileDao);
+        inOrder.verify(profileDao).updateIndexingStatus(Arrays.asList("0000-0000-0000-0001", "0000-0000-0000-0002"), IndexingStatus.DONE);
+        inOrder.verify(profileDao).updateIndexingStatus(Arrays.asList("0000-0000-0000-0003"), IndexingStatus.DONE);
+    }
+
+    @Test
+    public void sendFailureStopsWithoutUpdatingTheStatusTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.PENDING, 2, 5)).thenReturn(records("0000-0000-0000-0001"));
+        Mockito.when(messaging.send(anyList(), eq("updateV3Record"))).thenReturn(false);
+        indexer.processProfilesWithPendingFlagAndAddToMessageQueue();
+
+        // The v2 queue is not tried and the batch stays pending
+        assertEquals(Arrays.asList("updateSOLR", "updateV3Record"), sentTo());
+        Mockito.verify(profileDao, Mockito.never()).updateIndexingStatus(anyList(), any());
+        Mockito.verify(profileDaoReadOnly, Mockito.times(1)).findOrcidsAndLastModifiedByIndexingStatus(any(), anyInt(), any());
+    }
+
+    @Test
+    public void statusUpdateFailureStopsWithoutSendingAgainTest() {
+        // The status is not updated, so the same batch would come back
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.REINDEX, 2, 0)).thenReturn(records("0000-0000-0000-0001"));
+        Mockito.doThrow(new RuntimeException("DB down")).when(profileDao).updateIndexingStatus(anyList(), any());
+        indexer.processProfilesWithReindexFlagAndAddToMessageQueue();
+
+        assertEquals(Arrays.asList("reindexSOLR", "reindexV3Record", "reindexV2Record"), sentTo());
+        Mockito.verify(profileDaoReadOnly, Mockito.times(1)).findOrcidsAndLastModifiedByIndexingStatus(any(), anyInt(), any());
+        Mockito.verify(slackManager).sendSystemAlert(anyString());
+    }
+
+    @Test
+    public void fetchFailureStopsTest() {
+        Mockito.when(profileDaoReadOnly.findOrcidsAndLastModifiedByIndexingStatus(IndexingStatus.PENDING, 2, 5)).thenThrow(new RuntimeException("DB down"));
+        indexer.processProfilesWithPendingFlagAndAddToMessageQueue();
+        Mockito.verify(messaging, Mockito.never()).send(anyList(), anyString());
+        Mockito.verify(slackManager).sendSystemAlert(anyString());
+    }
+
+    private List<String> sentTo() {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(messaging, Mockito.atLeast(0)).send(anyList(), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private List<Object[]> records(String... orcids) {
+        List<Object[]> records = new ArrayList<Object[]>();
+        for (String orcid : orcids) {
+            records.add(new Object[] { orcid, LAST_MODIFIED });
+        }
+        return records;
+    }
+}
@@ -16,6 +16,7 @@ import java.io.File;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -46,9 +47,12 @@ import org.orcid.scheduler.loader.source.fighshare.api.FigshareCollectionArticle
 import org.orcid.scheduler.loader.source.fighshare.api.FigshareCollectionArticleSummary;
 import org.orcid.scheduler.loader.source.fighshare.api.FigshareCollectionTimeline;
 import org.orcid.scheduler.loader.source.ror.RorOrgLoadSource;
+import org.orcid.scheduler.loader.source.ror.RorOrgLoadSource.LoadCounts;
 import org.orcid.test.OrcidJUnit4ClassRunner;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RunWith(OrcidJUnit4ClassRunner.class)
 @ContextConfiguration(locations = { "classpath:test-orcid-scheduler-context.xml" })
@@ -68,6 +72,9 @@ public class RorOrgLoadSourceTest {
 
     @Mock
     private OrgDataClient orgDataClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
     
     @InjectMocks
     private RorOrgLoadSource rorOrgLoadSource;
@@ -499,6 +506,130 @@ public class RorOrgLoadSourceTest {
     }
     
 
+    @Test
+    public void execute_BulkLoadFromZip_Test() throws URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("ror/ror_trimmed.zip").toURI());
+        ReflectionTestUtils.setField(rorOrgLoadSource, "zipFilePath", path.toFile().getAbsolutePath());
+        ReflectionTestUtils.setField(rorOrgLoadSource, "readFromZip", true);
+        ReflectionTestUtils.setField(rorOrgLoadSource, "bulkLoadEnabled", true);
+        ReflectionTestUtils.setField(rorOrgLoadSource, "bulkLoadBatchSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+
+        // ror.1 is already there, with the name in another case
+        List<Object[]> orgs = new ArrayList<Object[]>();
+        orgs.add(new Object[] { 1L, "ror.1", "ORG_1", "AU", "Adelaide", null, "http://link1.com", "type_1", null, null });
+        // grid.2 moved
+        orgs.add(new Object[] { 2L, "grid.2", "org_2", "AU", "Old City", null, "http://link1.com", "type_1,type_2", null, null });
+        orgs.add(new Object[] { 3L, "ror.r.2", null, null, null, null, null, null, OrganizationStatus.DEPRECATED.name(), "ror.2" });
+        orgs.add(new Object[] { 4L, "ror.o.1", "org_o_1", "AU", "Adelaide", null, null, null, null, null });
+        orgs.add(new Object[] { 5L, "ror.o.2", null, null, null, null, null, null, OrganizationStatus.OBSOLETE.name(), null });
+        when(orgDisambiguatedDao.findIndexedFieldsBySourceType(OrgDisambiguatedSourceType.ROR.name())).thenReturn(orgs);
+        List<Object[]> extIds = new ArrayList<Object[]>();
+        extIds.add(new Object[] { 1L, "ISNI", "ISNI1", Boolean.FALSE });
+        extIds.add(new Object[] { 1L, "FUNDREF", "FUNDREF1", Boolean.TRUE });
+        extIds.add(new Object[] { 1L, "ORGREF", "ORGREF1", Boolean.FALSE });
+        extIds.add(new Object[] { 1L, "WIKIDATA", "WIKIDATA1", Boolean.FALSE });
+        when(orgDisambiguatedExternalIdentifierDao.findIdentifiersBySourceType(OrgDisambiguatedSourceType.ROR.name())).thenReturn(extIds);
+
+        OrgDisambiguatedEntity grid2 = new OrgDisambiguatedEntity();
+        grid2.setId(2L);
+        grid2.setSourceId("grid.2");
+        grid2.setSourceType(OrgDisambiguatedSourceType.ROR.name());
+        grid2.setName("org_2");
+        grid2.setCountry(Iso3166Country.AU.name());
+        grid2.setCity("Old City");
+        when(orgDisambiguatedDao.find(2L)).thenReturn(grid2);
+        OrgDisambiguatedEntity obsolete = new OrgDisambiguatedEntity();
+        obsolete.setId(4L);
+        obsolete.setSourceId("ror.o.1");
+        obsolete.setSourceType(OrgDisambiguatedSourceType.ROR.name());
+        when(orgDisambiguatedDao.find(4L)).thenReturn(obsolete);
+
+        assertEquals(true, rorOrgLoadSource.loadOrgData());
+
+        LoadCounts counts = rorOrgLoadSource.getLastLoadCounts();
+        assertEquals(1, counts.getCreated());
+        assertEquals(1, counts.getUpdated());
+        assertEquals(3, counts.getUnchanged());
+        assertEquals(1, counts.getDeprecated());
+        assertEquals(1, counts.getObsolete());
+
+        // Nothing is looked up one by one, unchanged orgs are not even read
+        verify(orgDisambiguatedDao, never()).findBySourceIdAndSourceType(Mockito.anyString(), Mockito.anyString());
+        verify(orgDisambiguatedDao, never()).find(1L);
+        verify(orgDisambiguatedDao, never()).find(3L);
+        verify(orgDisambiguatedDao, never()).find(5L);
+        verify(orgDisambiguatedExternalIdentifierDao, never()).findByDetails(Mockito.eq(1L), Mockito.anyString(), Mockito.anyString());
+
+        // The four writes go in two batches
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(orgDisambiguatedDao, times(2)).setJdbcBatchSize(2);
+        verify(orgDisambiguatedDao, times(2)).setJdbcBatchSize(null);
+
+        ArgumentCaptor<OrgDisambiguatedEntity> created = ArgumentCaptor.forClass(OrgDisambiguatedEntity.class);
+        verify(orgDisambiguatedManager, times(2)).createOrgDisambiguated(created.capture());
+        assertEquals("grid.3", created.getAllValues().get(0).getSourceId());
+        assertEquals("ror.r.1", created.getAllValues().get(1).getSourceId());
+        assertEquals(OrganizationStatus.DEPRECATED.name(), created.getAllValues().get(1).getStatus());
+
+        // grid.2 is updated again when its group is marked for indexing
+        ArgumentCaptor<OrgDisambiguatedEntity> updated = ArgumentCaptor.forClass(OrgDisambiguatedEntity.class);
+        verify(orgDisambiguatedManager, times(3)).updateOrgDisambiguated(updated.capture());
+        assertEquals(Long.valueOf(2), updated.getAllValues().get(0).getId());
+        assertEquals("Adelaide", updated.getAllValues().get(0).getCity());
+        assertEquals(IndexingStatus.PENDING, updated.getAllValues().get(0).getIndexingStatus());
+        assertEquals(Long.valueOf(4), updated.getAllValues().get(1).getId());
+        assertEquals(OrganizationStatus.OBSOLETE.name(), updated.getAllValues().get(1).getStatus());
+    }
+
+    @Test
+    public void execute_BulkLoadNothingChanged_Test() throws URISyntaxException {
+        Path path = Paths.get(getClass().getClassLoader().getResource("ror/ror_1_org_5_external_identifiers.json").toURI());
+        ReflectionTestUtils.setField(rorOrgLoadSource, "localDataPath", path.toFile().getAbsolutePath());
+        ReflectionTestUtils.setField(rorOrgLoadSource, "bulkLoadEnabled", true);
+        List<Object[]> orgs = new ArrayList<Object[]>();
+        orgs.add(new Object[] { 1L, "ror.1", "org_1", "AU", "Adelaide", "", "http://link1.com", "type_1", "active", null });
+        when(orgDisambiguatedDao.findIndexedFieldsBySourceType(OrgDisambiguatedSourceType.ROR.name())).thenReturn(orgs);
+        List<Object[]> extIds = new ArrayList<Object[]>();
+        extIds.add(new Object[] { 1L, "ISNI", "ISNI1", Boolean.FALSE });
+        extIds.add(new Object[] { 1L, "FUNDREF", "FUNDREF1", Boolean.TRUE });
+        extIds.add(new Object[] { 1L, "ORGREF", "ORGREF1", Boolean.FALSE });
+        // Not preferred any more, so the org has to be looked at
+        extIds.add(new Object[] { 1L, "WIKIDATA", "WIKIDATA1", Boolean.TRUE });
+        when(orgDisambiguatedExternalIdentifierDao.findIdentifiersBySourceType(OrgDisambiguatedSourceType.ROR.name())).thenReturn(extIds);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        OrgDisambiguatedEntity org = new OrgDisambiguatedEntity();
+        org.setId(1L);
+        org.setName("org_1");
+        org.setCountry(Iso3166Country.AU.name());
+        org.setCity("Adelaide");
+        org.setOrgType("type_1");
+        org.setUrl("http://link1.com");
+        org.setSourceType(OrgDisambiguatedSourceType.ROR.name());
+        when(orgDisambiguatedDao.find(1L)).thenReturn(org);
+        OrgDisambiguatedExternalIdentifierEntity wikidata = new OrgDisambiguatedExternalIdentifierEntity();
+        wikidata.setPreferred(Boolean.TRUE);
+        when(orgDisambiguatedExternalIdentifierDao.findByDetails(1L, "WIKIDATA1", "WIKIDATA")).thenReturn(wikidata);
+
+        assertEquals(true, rorOrgLoadSource.loadOrgData());
+
+        // The org itself didn't change, only the external identifier is updated
+        LoadCounts counts = rorOrgLoadSource.getLastLoadCounts();
+        assertEquals(0, counts.getCreated());
+        assertEquals(0, counts.getUpdated());
+        assertEquals(1, counts.getUnchanged());
+        verify(orgDisambiguatedManager, never()).createOrgDisambiguated(any(OrgDisambiguatedEntity.class));
+        verify(orgDisambiguatedManager, times(1)).updateOrgDisambiguatedExternalIdentifier(wikidata);
+        assertEquals(Boolean.FALSE, wikidata.getPreferred());
+
+        // Once it is in the index nothing is written at all
+        extIds.set(3, new Object[] { 1L, "WIKIDATA", "WIKIDATA1", Boolean.FALSE });
+        Mockito.reset(transactionTemplate);
+        assertEquals(true, rorOrgLoadSource.loadOrgData());
+        assertEquals(1, rorOrgLoadSource.getLastLoadCounts().getUnchanged());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
     private FigshareCollectionArticleSummary getFigsharerorCollectionArticleSummary(int id, String date) {
         FigshareCollectionArticleSummary summary = new FigshareCollectionArticleSummary();
         summary.setId(id);
@@ -0,0 +1,147 @@
+package org.orcid.scheduler.tasks.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.orcid.core.adapter.jsonidentifier.converter.JSONWorkExternalIdentifiersConverterV3;
+import org.orcid.core.utils.v3.identifiers.PIDNormalizationService;
+import org.orcid.persistence.dao.WorkDao;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class NormalizedExternalIdsBackfillImplTest {
+
+    private static final String VERSION = "1-abc";
+
+    @Mock
+    private WorkDao workDao;
+
+    @Mock
+    private PIDNormalizationService norm;
+
+    @Mock
+    private JSONWorkExternalIdentifiersConverterV3 converter;
+
+    private NormalizedExternalIdsBackfillImpl backfill = new NormalizedExternalIdsBackfillImpl();
+
+    @Before
+    public void before() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(backfill, "workDao", workDao);
+        ReflectionTestUtils.setField(backfill, "norm", norm);
+        ReflectionTestUtils.setField(backfill, "converter", converter);
+        ReflectionTestUtils.setField(backfill, "enabled", true);
+        ReflectionTestUtils.setField(backfill, "batchSize", 2);
+        ReflectionTestUtils.setField(backfill, "batchesPerRun", 10);
+        Mockito.when(norm.getVersion()).thenReturn(VERSION);
+        Mockito.when(converter.refreshNormalizedValues(anyString())).thenAnswer(i -> i.getArgument(0) + "-refreshed");
+        Mockito.when(workDao.updateExternalIdentifiersJson(anyLong(), anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    public void backfillWalksAllTheWorksInBatchesTest() {
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1, 2));
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(2L, VERSION, 2)).thenReturn(rows(3));
+        backfill.backfillNormalizedExternalIds();
+
+        Mockito.verify(workDao).updateExternalIdentifiersJson(1L, "json-1", "json-1-refreshed");
+        Mockito.verify(workDao).updateExternalIdentifiersJson(2L, "json-2", "json-2-refreshed");
+        Mockito.verify(workDao).updateExternalIdentifiersJson(3L, "json-3", "json-3-refreshed");
+        // The end was reached, so the next run starts again
+        assertEquals(0L, ReflectionTestUtils.getField(backfill, "lastWorkId"));
+    }
+
+    @Test
+    public void backfillResumesWhereThePreviousRunStoppedTest() {
+        ReflectionTestUtils.setField(backfill, "batchesPerRun", 1);
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1, 2));
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(2L, VERSION, 2)).thenReturn(Collections.emptyList());
+        backfill.backfillNormalizedExternalIds();
+        assertEquals(2L, ReflectionTestUtils.getField(backfill, "lastWorkId"));
+
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao).getWorksWithStaleNormalizedExternalIds(2L, VERSION, 2);
+        assertEquals(0L, ReflectionTestUtils.getField(backfill, "lastWorkId"));
+    }
+
+    @Test
+    public void backfillStopsAfterACleanPassTest() {
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1)).thenReturn(Collections.emptyList());
+        // Updates work 1, so another pass is needed to see nothing is left
+        backfill.backfillNormalizedExternalIds();
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.times(2)).getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2);
+
+        // Nothing left, no more scans of the work table
+        backfill.backfillNormalizedExternalIds();
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.times(2)).getWorksWithStaleNormalizedExternalIds(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    public void backfillRestartsWhenTheNormalizerVersionChangesTest() {
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(Collections.emptyList());
+        backfill.backfillNormalizedExternalIds();
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.times(1)).getWorksWithStaleNormalizedExternalIds(anyLong(), anyString(), anyInt());
+
+        Mockito.when(norm.getVersion()).thenReturn("2-def");
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, "2-def", 2)).thenReturn(rows(1));
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao).updateExternalIdentifiersJson(1L, "json-1", "json-1-refreshed");
+    }
+
+    @Test
+    public void worksChangedMeanwhileNeedAnotherPassTest() {
+        Mockito.when(workDao.updateExternalIdentifiersJson(anyLong(), anyString(), anyString())).thenReturn(false);
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1));
+        backfill.backfillNormalizedExternalIds();
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.times(2)).getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2);
+    }
+
+    @Test
+    public void worksThatCannotBeNormalizedDoNotKeepTheBackfillRunningTest() {
+        Mockito.when(converter.refreshNormalizedValues("json-1")).thenThrow(new RuntimeException("Invalid JSON"));
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1));
+        backfill.backfillNormalizedExternalIds();
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.times(1)).getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2);
+    }
+
+    @Test
+    public void failuresDoNotStopTheBackfillTest() {
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(0L, VERSION, 2)).thenReturn(rows(1, 2));
+        Mockito.when(converter.refreshNormalizedValues("json-1")).thenThrow(new RuntimeException("Invalid JSON"));
+        Mockito.when(workDao.getWorksWithStaleNormalizedExternalIds(2L, VERSION, 2)).thenReturn(Collections.emptyList());
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.never()).updateExternalIdentifiersJson(eq(1L), anyString(), anyString());
+        Mockito.verify(workDao).updateExternalIdentifiersJson(2L, "json-2", "json-2-refreshed");
+    }
+
+    @Test
+    public void disabledTest() {
+        ReflectionTestUtils.setField(backfill, "enabled", false);
+        backfill.backfillNormalizedExternalIds();
+        Mockito.verify(workDao, Mockito.never()).getWorksWithStaleNormalizedExternalIds(anyLong(), anyString(), anyInt());
+    }
+
+    private List<Object[]> rows(long... workIds) {
+        List<Object[]> rows = new ArrayList<>();
+        Arrays.stream(workIds).forEach(id -> rows.add(new Object[] { BigInteger.valueOf(id), "json-" + id }));
+        return rows;
+    }
+}
@@ -72,6 +72,7 @@ public class OrcidJerseyClientHandler {
         .register(V3ResearchResourcesBodyReader.class)
         .register(V3ServiceBodyReader.class)
         .register(V3WorkBodyReader.class)
+        .register(V3WorkBulkBodyReader.class)
         .register(W3CDocumentBodyReader.class);
         
         if (isDevelopmentMode) {
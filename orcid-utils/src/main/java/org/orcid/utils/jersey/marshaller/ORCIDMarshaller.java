@@ -1,6 +1,7 @@
 package org.orcid.utils.jersey.marshaller;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -16,6 +17,14 @@ import org.orcid.jaxb.model.record_v2.Record;
 import org.orcid.jaxb.model.record_v2.Work;
 import org.springframework.stereotype.Component;
 
+/**
+ * Marshals ORCID model objects to XML.
+ * 
+ * Creating a Marshaller is expensive compared to marshalling a small
+ * object, so each thread keeps one Marshaller per JAXBContext and reuses it.
+ * Marshallers are not thread safe, so they must never leave the thread that
+ * created them.
+ */
 @Component
 public class ORCIDMarshaller {
     private final JAXBContext jaxbContext_2_0_api;
@@ -24,7 +33,24 @@ public class ORCIDMarshaller {
     private final JAXBContext jaxbContext_3_0_api;
     private final JAXBContext jaxbContext_3_0_activities_api;
 
+    private final ThreadLocal<Marshaller> marshaller_2_0_api;
+    private final ThreadLocal<Marshaller> marshaller_2_0_activities_api;
+
+    private final ThreadLocal<Marshaller> marshaller_3_0_api;
+    private final ThreadLocal<Marshaller> marshaller_3_0_activities_api;
+
+    private final boolean formattedOutput;
+
     public ORCIDMarshaller() throws JAXBException {
+        this(true);
+    }
+
+    /**
+     * @param formattedOutput
+     *            false to write compact, non indented, XML
+     */
+    public ORCIDMarshaller(boolean formattedOutput) throws JAXBException {
+        this.formattedOutput = formattedOutput;
         // Initialize JAXBContext
         this.jaxbContext_2_0_api = JAXBContext.newInstance(Record.class, ActivitiesSummary.class, OrcidError.class);
         this.jaxbContext_2_0_activities_api = JAXBContext.newInstance(Education.class, Employment.class, Funding.class, Work.class, PeerReview.class);
@@ -36,23 +62,38 @@ public class ORCIDMarshaller {
                 org.orcid.jaxb.model.v3.release.record.Membership.class, org.orcid.jaxb.model.v3.release.record.PeerReview.class,
                 org.orcid.jaxb.model.v3.release.record.Qualification.class, org.orcid.jaxb.model.v3.release.record.ResearchResource.class,
                 org.orcid.jaxb.model.v3.release.record.Service.class, org.orcid.jaxb.model.v3.release.record.Work.class);
+        this.marshaller_2_0_api = newThreadLocalMarshaller(jaxbContext_2_0_api);
+        this.marshaller_2_0_activities_api = newThreadLocalMarshaller(jaxbContext_2_0_activities_api);
+        this.marshaller_3_0_api = newThreadLocalMarshaller(jaxbContext_3_0_api);
+        this.marshaller_3_0_activities_api = newThreadLocalMarshaller(jaxbContext_3_0_activities_api);
     }
     
     public byte[] toXML(Object object) throws JAXBException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        Marshaller marshaller = null;
-        Class<?> c = object.getClass();
+        marshal(object, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the XML of the given object into the given stream, without
+     * building an intermediate byte array. The stream is not closed.
+     */
+    public void marshal(Object object, OutputStream out) throws JAXBException {
+        getMarshaller(object.getClass()).marshal(object, out);
+    }
+
+    private Marshaller getMarshaller(Class<?> c) {
         if (org.orcid.jaxb.model.record_v2.Record.class.isAssignableFrom(c) || org.orcid.jaxb.model.record.summary_v2.ActivitiesSummary.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.error_v2.OrcidError.class.isAssignableFrom(c)) {
-            marshaller = jaxbContext_2_0_api.createMarshaller();
+            return marshaller_2_0_api.get();
         } else if (org.orcid.jaxb.model.record_v2.Education.class.isAssignableFrom(c) || org.orcid.jaxb.model.record_v2.Employment.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.record_v2.Funding.class.isAssignableFrom(c) || org.orcid.jaxb.model.record_v2.Work.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.record_v2.PeerReview.class.isAssignableFrom(c)) {
-            marshaller = jaxbContext_2_0_activities_api.createMarshaller();
+            return marshaller_2_0_activities_api.get();
         } else if (org.orcid.jaxb.model.v3.release.record.Record.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.error.OrcidError.class.isAssignableFrom(c)) {
-            marshaller = jaxbContext_3_0_api.createMarshaller();
+            return marshaller_3_0_api.get();
         } else if (org.orcid.jaxb.model.v3.release.record.Distinction.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.record.Education.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.record.Employment.class.isAssignableFrom(c) || org.orcid.jaxb.model.v3.release.record.Funding.class.isAssignableFrom(c)
@@ -62,12 +103,21 @@ public class ORCIDMarshaller {
                 || org.orcid.jaxb.model.v3.release.record.Qualification.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.record.ResearchResource.class.isAssignableFrom(c)
                 || org.orcid.jaxb.model.v3.release.record.Service.class.isAssignableFrom(c) || org.orcid.jaxb.model.v3.release.record.Work.class.isAssignableFrom(c)) {
-            marshaller = jaxbContext_3_0_activities_api.createMarshaller();
+            return marshaller_3_0_activities_api.get();
         } else {
             throw new IllegalArgumentException("Unable to unmarshall class " + c);
         }
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-        marshaller.marshal(object, baos);
-        return baos.toByteArray();
+    }
+
+    private ThreadLocal<Marshaller> newThreadLocalMarshaller(JAXBContext context) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Marshaller marshaller = context.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
+                return marshaller;
+            } catch (JAXBException e) {
+                throw new IllegalStateException("Unable to create marshaller", e);
+            }
+        });
     }
 }
@@ -0,0 +1,41 @@
+package org.orcid.utils.jersey.marshaller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+/**
+ * ByteArrayOutputStream meant to be reset and written again, which can hand
+ * its content out as an InputStream without copying it.
+ *
+ * The stream returned by toInputStream reads the internal buffer, so it is
+ * only valid until the next reset or write.
+ */
+public class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private final int maxRetainedSize;
+
+    /**
+     * @param initialSize
+     *            initial buffer size
+     * @param maxRetainedSize
+     *            buffers that grew beyond this size are released on reset, so
+     *            one huge document doesn't keep its buffer alive forever
+     */
+    public ReusableByteArrayOutputStream(int initialSize, int maxRetainedSize) {
+        super(initialSize);
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    public InputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (buf.length > maxRetainedSize) {
+            buf = new byte[Math.min(32, maxRetainedSize)];
+        }
+        super.reset();
+    }
+}
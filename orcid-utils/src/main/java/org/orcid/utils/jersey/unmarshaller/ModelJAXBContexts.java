@@ -0,0 +1,67 @@
+package org.orcid.utils.jersey.unmarshaller;
+
+import javax.ws.rs.ProcessingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+/**
+ * One JAXBContext per API model version, shared by every body reader of that
+ * version. JAXBContext is thread safe and expensive to build, so it is
+ * created once, the first time a reader of that version is created.
+ * 
+ * The 2.0 and 3.0 models share element names and namespaces, so they can't
+ * live in the same context.
+ */
+final class ModelJAXBContexts {
+
+    private static volatile JAXBContext v2;
+
+    private static volatile JAXBContext v3;
+
+    private ModelJAXBContexts() {
+    }
+
+    static JAXBContext v2() {
+        JAXBContext context = v2;
+        if (context == null) {
+            synchronized (ModelJAXBContexts.class) {
+                if (v2 == null) {
+                    v2 = newContext(org.orcid.jaxb.model.record.summary_v2.ActivitiesSummary.class, org.orcid.jaxb.model.record_v2.Education.class,
+                            org.orcid.jaxb.model.record_v2.Employment.class, org.orcid.jaxb.model.record_v2.Funding.class,
+                            org.orcid.jaxb.model.error_v2.OrcidError.class, org.orcid.jaxb.model.record_v2.PeerReview.class,
+                            org.orcid.jaxb.model.record_v2.Record.class, org.orcid.jaxb.model.record_v2.Work.class);
+                }
+                context = v2;
+            }
+        }
+        return context;
+    }
+
+    static JAXBContext v3() {
+        JAXBContext context = v3;
+        if (context == null) {
+            synchronized (ModelJAXBContexts.class) {
+                if (v3 == null) {
+                    v3 = newContext(org.orcid.jaxb.model.v3.release.record.summary.ActivitiesSummary.class, org.orcid.jaxb.model.v3.release.record.Distinction.class,
+                            org.orcid.jaxb.model.v3.release.record.Education.class, org.orcid.jaxb.model.v3.release.record.Employment.class,
+                            org.orcid.jaxb.model.v3.release.record.Funding.class, org.orcid.jaxb.model.v3.release.record.InvitedPosition.class,
+                            org.orcid.jaxb.model.v3.release.record.Membership.class, org.orcid.jaxb.model.v3.release.error.OrcidError.class,
+                            org.orcid.jaxb.model.v3.release.record.PeerReview.class, org.orcid.jaxb.model.v3.release.record.Qualification.class,
+                            org.orcid.jaxb.model.v3.release.record.Record.class, org.orcid.jaxb.model.v3.release.record.ResearchResource.class,
+                            org.orcid.jaxb.model.v3.release.record.summary.ResearchResources.class, org.orcid.jaxb.model.v3.release.record.Service.class,
+                            org.orcid.jaxb.model.v3.release.record.Work.class, org.orcid.jaxb.model.v3.release.record.WorkBulk.class);
+                }
+                context = v3;
+            }
+        }
+        return context;
+    }
+
+    private static JAXBContext newContext(Class<?>... classes) {
+        try {
+            return JAXBContext.newInstance(classes);
+        } catch (JAXBException jaxbException) {
+            throw new ProcessingException("Error creating the JAXB context", jaxbException);
+        }
+    }
+}
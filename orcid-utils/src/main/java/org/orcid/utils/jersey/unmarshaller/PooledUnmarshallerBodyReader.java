@@ -0,0 +1,82 @@
+package org.orcid.utils.jersey.unmarshaller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Body reader for a single JAXB model class.
+ * 
+ * Unmarshallers are not thread safe, so instead of sharing one across all
+ * concurrent readFrom calls, every thread gets its own Unmarshaller, created
+ * from the JAXBContext shared by all the readers of the same model version.
+ * 
+ * Setting the system property org.orcid.jersey.unmarshaller.stax to true
+ * unmarshals from a StAX XMLStreamReader instead of letting JAXB set up a
+ * SAX parser for every document.
+ */
+public abstract class PooledUnmarshallerBodyReader<T> implements MessageBodyReader<T> {
+
+    private static final boolean USE_STAX = Boolean.getBoolean("org.orcid.jersey.unmarshaller.stax");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+
+    private final Class<T> type;
+
+    private final ThreadLocal<Unmarshaller> unmarshaller;
+
+    protected PooledUnmarshallerBodyReader(Class<T> type, JAXBContext jaxbContext) {
+        this.type = type;
+        this.unmarshaller = ThreadLocal.withInitial(() -> {
+            try {
+                return jaxbContext.createUnmarshaller();
+            } catch (JAXBException jaxbException) {
+                throw new ProcessingException("Error deserializing a " + type, jaxbException);
+            }
+        });
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == this.type;
+    }
+
+    @Override
+    public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
+            InputStream entityStream) throws IOException, WebApplicationException {
+        try {
+            if (USE_STAX) {
+                XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(entityStream);
+                try {
+                    return unmarshaller.get().unmarshal(reader, this.type).getValue();
+                } finally {
+                    reader.close();
+                }
+            }
+            return unmarshaller.get().unmarshal(new StreamSource(entityStream), this.type).getValue();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new ProcessingException("Error deserializing a " + this.type, e);
+        }
+    }
+
+    private static XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,16 @@
+package org.orcid.utils.jersey.unmarshaller;
+
+import org.orcid.jaxb.model.v3.release.record.WorkBulk;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.ext.Provider;
+
+@Provider
+@Consumes({ "application/xml", "application/json" })
+public class V3WorkBulkBodyReader extends PooledUnmarshallerBodyReader<WorkBulk> {
+
+    public V3WorkBulkBodyReader() {
+        super(WorkBulk.class, ModelJAXBContexts.v3());
+    }
+
+}
@@ -24,16 +24,19 @@ import javax.ws.rs.ext.Provider;
 @Consumes({ "application/xml", "application/json", "application/samlmetadata+xml" })
 public class W3CDocumentBodyReader implements MessageBodyReader<Document> {
 
-    DocumentBuilder dBuilder;
+    // DocumentBuilder is not thread safe, so each thread gets its own
+    private final ThreadLocal<DocumentBuilder> dBuilder;
 
     public W3CDocumentBodyReader() {
-        try {
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            dbFactory.setNamespaceAware(true);
-            dBuilder = dbFactory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new ProcessingException("Error deserializing a " + Document.class, e);
-        }
+        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+        dbFactory.setNamespaceAware(true);
+        dBuilder = ThreadLocal.withInitial(() -> {
+            try {
+                return dbFactory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new ProcessingException("Error deserializing a " + Document.class, e);
+            }
+        });
     }
 
     @Override
@@ -45,7 +48,7 @@ public class W3CDocumentBodyReader implements MessageBodyReader<Document> {
     public Document readFrom(Class<Document> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
             InputStream entityStream) throws IOException, WebApplicationException {
         try {
-            return dBuilder.parse(entityStream);
+            return dBuilder.get().parse(entityStream);
         } catch (SAXException e) {
             throw new ProcessingException("Error deserializing a " + Document.class, e);
         } finally {
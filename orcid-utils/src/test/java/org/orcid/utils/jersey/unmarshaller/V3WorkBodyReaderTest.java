@@ -0,0 +1,52 @@
+package org.orcid.utils.jersey.unmarshaller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.orcid.jaxb.model.v3.release.record.Work;
+
+public class V3WorkBodyReaderTest {
+
+    private static final String WORK = "<work:work xmlns:work=\"http://www.orcid.org/ns/work\" xmlns:common=\"http://www.orcid.org/ns/common\" put-code=\"%d\">"
+            + "<work:title><common:title>Title %d</common:title></work:title><work:type>journal-article</work:type></work:work>";
+
+    @Test
+    public void readFromTest() throws Exception {
+        Work work = read(new V3WorkBodyReader(), 1L);
+        assertEquals(Long.valueOf(1L), work.getPutCode());
+        assertEquals("Title 1", work.getWorkTitle().getTitle().getContent());
+    }
+
+    @Test
+    public void concurrentReadFromTest() throws Exception {
+        V3WorkBodyReader reader = new V3WorkBodyReader();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Work>> works = new ArrayList<>();
+            for (long putCode = 0; putCode < 500; putCode++) {
+                long p = putCode;
+                works.add(pool.submit(() -> read(reader, p)));
+            }
+            for (int i = 0; i < works.size(); i++) {
+                Work work = works.get(i).get();
+                assertEquals(Long.valueOf(i), work.getPutCode());
+                assertEquals("Title " + i, work.getWorkTitle().getTitle().getContent());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Work read(V3WorkBodyReader reader, long putCode) throws Exception {
+        byte[] xml = String.format(WORK, putCode, putCode).getBytes(StandardCharsets.UTF_8);
+        return reader.readFrom(Work.class, Work.class, null, null, null, new ByteArrayInputStream(xml));
+    }
+}
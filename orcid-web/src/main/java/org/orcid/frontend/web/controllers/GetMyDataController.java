@@ -16,7 +16,6 @@
  */
 package org.orcid.frontend.web.controllers;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -30,6 +29,7 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.orcid.core.manager.WorkEntityCacheManager;
 import org.orcid.core.manager.v3.read_only.AffiliationsManagerReadOnly;
 import org.orcid.core.manager.v3.read_only.PeerReviewManagerReadOnly;
@@ -72,13 +72,13 @@ public class GetMyDataController extends BaseController {
     private static final String WORKS_DIR_NAME = "works";
     private static final String RESEARCH_RESOURCES_DIR_NAME = "research_resources";
 
-    private final Marshaller marshaller;
+    // The context is thread safe, marshallers are not, so each download
+    // creates its own
+    private final JAXBContext context;
 
     public GetMyDataController() throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(Person.class, Distinction.class, Education.class, Employment.class, InvitedPosition.class, Membership.class,
+        context = JAXBContext.newInstance(Person.class, Distinction.class, Education.class, Employment.class, InvitedPosition.class, Membership.class,
                 Qualification.class, Service.class, Funding.class, PeerReview.class, Work.class, ResearchResource.class);
-        marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
     }
 
     @Value("${org.orcid.download.activities.batch_size:50}")
@@ -110,30 +110,32 @@ public class GetMyDataController extends BaseController {
         String currentUserOrcid = getCurrentUserOrcid();
         String fileName = currentUserOrcid + ".zip";
         
-        ByteArrayOutputStream result = new ByteArrayOutputStream();
-        ZipOutputStream zip = new ZipOutputStream(result);
-
-        generatePersonData(currentUserOrcid, zip);
-        generateAffiliationsData(currentUserOrcid, zip);
-        generateFundingData(currentUserOrcid, zip);
-        generatePeerReviewData(currentUserOrcid, zip);
-        generateWorksData(currentUserOrcid, zip);
-        generateResearchResourcesData(currentUserOrcid, zip);
-        zip.close();
-                   
         response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
         response.setHeader("Content-Type", "application/zip");
         response.setHeader("filename", fileName);
-        response.getOutputStream().write(result.toByteArray());
+
+        // Entries are written straight to the response as they are generated,
+        // so only one batch of works is held in memory at a time
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        ZipOutputStream zip = new ZipOutputStream(response.getOutputStream());
+
+        generatePersonData(currentUserOrcid, zip, marshaller);
+        generateAffiliationsData(currentUserOrcid, zip, marshaller);
+        generateFundingData(currentUserOrcid, zip, marshaller);
+        generatePeerReviewData(currentUserOrcid, zip, marshaller);
+        generateWorksData(currentUserOrcid, zip, marshaller);
+        generateResearchResourcesData(currentUserOrcid, zip, marshaller);
+        zip.finish();
         response.flushBuffer();
     }
 
-    private void generatePersonData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generatePersonData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         Person person = personDetailsManager.getPersonDetails(orcid, true);
-        writeElement(toByteArray(person), "person.xml", zip);
+        writeElement(person, "person.xml", zip, marshaller);
     }
 
-    private void generateAffiliationsData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generateAffiliationsData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         List<Affiliation> affiliations = affiliationManagerReadOnly.getAffiliations(orcid);
 
         for (Affiliation affiliation : affiliations) {
@@ -155,51 +157,46 @@ public class GetMyDataController extends BaseController {
             } else {
                 throw new IllegalArgumentException("Invalid affiliation type: " + affiliation.getClass().getName());
             }
-            writeElement(toByteArray(affiliation), elementName, zip);
+            writeElement(affiliation, elementName, zip, marshaller);
         }
     }
 
-    private void generateFundingData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generateFundingData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         List<Funding> fundings = profileFundingManagerReadOnly.getFundingList(orcid);
         for (Funding funding : fundings) {
-            writeElement(toByteArray(funding), (FUNDINGS_DIR_NAME + '/' + funding.getPutCode() + ".xml"), zip);
+            writeElement(funding, (FUNDINGS_DIR_NAME + '/' + funding.getPutCode() + ".xml"), zip, marshaller);
         }
     }
 
-    private void generatePeerReviewData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generatePeerReviewData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         List<PeerReview> peerReviews = peerReviewManagerReadOnly.findPeerReviews(orcid);
         for (PeerReview peerReview : peerReviews) {
-            writeElement(toByteArray(peerReview), (PEER_REVIEWS_DIR_NAME + '/' + peerReview.getPutCode() + ".xml"), zip);
+            writeElement(peerReview, (PEER_REVIEWS_DIR_NAME + '/' + peerReview.getPutCode() + ".xml"), zip, marshaller);
         }
     }
 
-    private void generateWorksData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generateWorksData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         List<WorkLastModifiedEntity> elements = workEntityCacheManager.retrieveWorkLastModifiedList(orcid, workManagerReadOnly.getLastModified(orcid));
         for (List<WorkLastModifiedEntity> list : ListUtils.partition(elements, this.batchSize)) {
             List<Work> works = workManagerReadOnly.findWorks(orcid, list);
             for (Work work : works) {
-                writeElement(toByteArray(work), (WORKS_DIR_NAME + '/' + work.getPutCode() + ".xml"), zip);
+                writeElement(work, (WORKS_DIR_NAME + '/' + work.getPutCode() + ".xml"), zip, marshaller);
             }
         }
     }
 
-    private void generateResearchResourcesData(String orcid, ZipOutputStream zip) throws JAXBException, IOException {
+    private void generateResearchResourcesData(String orcid, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         List<ResearchResource> researchResources = researchResourceManagerReadOnly.findResearchResources(orcid);
         for (ResearchResource researchResource : researchResources) {
-            writeElement(toByteArray(researchResource), (RESEARCH_RESOURCES_DIR_NAME + '/' + researchResource.getPutCode() + ".xml"), zip);
+            writeElement(researchResource, (RESEARCH_RESOURCES_DIR_NAME + '/' + researchResource.getPutCode() + ".xml"), zip, marshaller);
         }
     }
 
-    private byte[] toByteArray(Object o) throws JAXBException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        marshaller.marshal(o, baos);
-        return baos.toByteArray();
-    }
-
-    private void writeElement(byte[] data, String name, ZipOutputStream zip) throws IOException {
+    private void writeElement(Object element, String name, ZipOutputStream zip, Marshaller marshaller) throws JAXBException, IOException {
         ZipEntry zipEntry = new ZipEntry(name);
         zip.putNextEntry(zipEntry);
-        zip.write(data);
+        marshaller.marshal(element, new CloseShieldOutputStream(zip));
+        zip.closeEntry();
     }
 
 }
@@ -36,6 +36,9 @@ import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
@@ -454,6 +457,80 @@ public class GetMyDataControllerTest {
         zip.close();
     }
 
+    @Test
+    public void testDownloadLargeRecordIsStreamed() throws JAXBException, IOException {
+        int numberOfWorks = 20000;
+        List<WorkLastModifiedEntity> elements = new ArrayList<WorkLastModifiedEntity>();
+        for (long i = 1; i <= numberOfWorks; i++) {
+            WorkLastModifiedEntity w = new WorkLastModifiedEntity();
+            w.setId(i);
+            w.setOrcid(ORCID);
+            elements.add(w);
+        }
+        when(mockWorkEntityCacheManager.retrieveWorkLastModifiedList(anyString(), anyLong())).thenReturn(elements);
+
+        CountingServletOutputStream out = new CountingServletOutputStream();
+        List<Long> writtenBeforeEachBatch = new ArrayList<Long>();
+        when(mockWorkManagerReadOnly.findWorks(anyString(), any())).thenAnswer(new Answer<List<Work>>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public List<Work> answer(InvocationOnMock invocation) throws Throwable {
+                writtenBeforeEachBatch.add(out.count);
+                List<Work> works = new ArrayList<Work>();
+                for (WorkLastModifiedEntity e : (List<WorkLastModifiedEntity>) invocation.getArgument(1)) {
+                    Work w = new Work();
+                    WorkTitle t = new WorkTitle();
+                    t.setTitle(new Title("A title long enough to make every work take some space " + e.getId()));
+                    w.setWorkTitle(t);
+                    w.setPutCode(e.getId());
+                    works.add(w);
+                }
+                return works;
+            }
+        });
+
+        SecurityContextHolder.getContext().setAuthentication(getAuthentication());
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(out);
+        getMyDataController.getMyData(response);
+
+        // Works are fetched in batches and every batch is already on its way
+        // to the client before the next one is fetched
+        assertEquals(numberOfWorks / 50, writtenBeforeEachBatch.size());
+        for (int i = 1; i < writtenBeforeEachBatch.size(); i++) {
+            assertTrue(writtenBeforeEachBatch.get(i) > writtenBeforeEachBatch.get(i - 1));
+        }
+        // Nothing was buffered before being written to the response
+        assertTrue(out.largestWrite < 64 * 1024);
+        assertTrue(out.count > numberOfWorks * 100);
+    }
+
+    private static class CountingServletOutputStream extends ServletOutputStream {
+        private long count = 0;
+        private int largestWrite = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            count++;
+            largestWrite = Math.max(largestWrite, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+            largestWrite = Math.max(largestWrite, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+
     private void setOrg(OrganizationHolder oh) {
         OrganizationAddress address = new OrganizationAddress();
         address.setCity("city");